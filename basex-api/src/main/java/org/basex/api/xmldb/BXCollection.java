@@ -151,9 +151,12 @@ public final class BXCollection implements Collection {
       data.startUpdate(mopts);
       data.delete(getResource(del.getId()).pre);
       data.finishUpdate(mopts);
+      data.sync();
     } catch(final BaseXException ex) {
       Util.debug(ex);
       throw new XMLDBException(ErrorCodes.VENDOR_ERROR, ERR_LOCK);
+    } catch(final IOException ex) {
+      throw new XMLDBException(ErrorCodes.VENDOR_ERROR, ex.getMessage());
     }
   }
 
@@ -193,9 +196,12 @@ public final class BXCollection implements Collection {
       data.startUpdate(mopts);
       data.insert(data.meta.size, -1, new DataClip(md));
       data.finishUpdate(mopts);
+      data.sync();
     } catch(final BaseXException ex) {
       Util.debug(ex);
       throw new XMLDBException(ErrorCodes.VENDOR_ERROR, ERR_LOCK);
+    } catch(final IOException ex) {
+      throw new XMLDBException(ErrorCodes.VENDOR_ERROR, ex.getMessage());
     }
   }
 
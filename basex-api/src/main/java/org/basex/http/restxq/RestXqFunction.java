@@ -17,6 +17,7 @@ import org.basex.build.csv.*;
 import org.basex.build.html.*;
 import org.basex.build.json.*;
 import org.basex.core.*;
+import org.basex.core.jobs.*;
 import org.basex.http.*;
 import org.basex.http.web.*;
 import org.basex.query.*;
@@ -68,6 +69,8 @@ public final class RestXqFunction extends WebFunction {
   public RestXqPath path;
   /** Singleton id (can be {@code null}). */
   String singleton;
+  /** Priority class (can be {@code null}). */
+  JobPriority priority;
 
   /** Post/Put variable (can be {@code null}). */
   private QNm requestBody;
@@ -136,6 +139,10 @@ public final class RestXqFunction extends WebFunction {
       } else if(def == _REST_SINGLE) {
         singleton = '\u0001' + (!value.isEmpty() ? toString(value.itemAt(0)) :
           function.info.path() + ':' + function.info.line());
+      } else if(def == _BASEX_PRIORITY) {
+        final String prio = toString(value.itemAt(0));
+        priority = JobPriority.get(prio);
+        if(priority == null) throw error(ann.info, INV_PRIORITY_X, prio);
       } else if(eq(def.uri, QueryText.REST_URI)) {
         final Item body = value.isEmpty() ? null : value.itemAt(0);
         addMethod(string(def.local()), body, declared, ann.info);
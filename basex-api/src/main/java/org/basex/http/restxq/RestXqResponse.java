@@ -57,6 +57,7 @@ final class RestXqResponse extends WebResponse {
 
     func = new RestXqFunction(function.function, function.module, qc);
     func.parseAnnotations(ctx);
+    if(func.priority != null) qc.priority = func.priority;
     return func.bind(data, conn, qc);
   }
 
@@ -85,6 +85,8 @@ public interface WebText {
   String ERROR_QS_X = "Invalid quality factor: qs=%";
   /** Error message. */
   String NO_VALUE_X = "'%' element has no string value.";
+  /** Error message. */
+  String INV_PRIORITY_X = "Invalid priority class: %.";
 
   /** QName. */
   QNm Q_STATUS = new QNm("status");
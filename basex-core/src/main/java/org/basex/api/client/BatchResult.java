@@ -0,0 +1,33 @@
+package org.basex.api.client;
+
+/**
+ * Result of a command that has been executed as part of a batch.
+ *
+ * @author BaseX Team 2005-23, BSD License
+ * @author Christian Gruen
+ */
+public final class BatchResult {
+  /** Result ({@code null} if the result was written to the output stream of the session). */
+  public final String result;
+  /** Command info. */
+  public final String info;
+  /** Success flag. */
+  public final boolean ok;
+
+  /**
+   * Constructor.
+   * @param result result (can be {@code null})
+   * @param info command info
+   * @param ok success flag
+   */
+  BatchResult(final String result, final String info, final boolean ok) {
+    this.result = result;
+    this.info = info;
+    this.ok = ok;
+  }
+
+  @Override
+  public String toString() {
+    return (ok ? "OK: " : "ERROR: ") + info;
+  }
+}
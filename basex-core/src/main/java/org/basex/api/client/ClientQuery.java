@@ -110,8 +110,14 @@ public class ClientQuery extends Query {
 
   @Override
   public void cache(final boolean full) throws IOException {
-    cs.sout.write((full ? ServerCmd.FULL : ServerCmd.RESULTS).code);
-    cs.send(id);
+    if(fetchSize > 0) {
+      cs.sout.write((full ? ServerCmd.FETCHFULL : ServerCmd.FETCH).code);
+      cs.send(id);
+      cs.send(Integer.toString(fetchSize));
+    } else {
+      cs.sout.write((full ? ServerCmd.FULL : ServerCmd.RESULTS).code);
+      cs.send(id);
+    }
     cs.sout.flush();
 
     final BufferInput bi = BufferInput.get(cs.sin);
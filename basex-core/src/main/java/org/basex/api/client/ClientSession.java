@@ -165,6 +165,17 @@ public class ClientSession extends Session {
     execute(command.toString(), output);
   }
 
+  @Override
+  protected BatchResult[] execute(final boolean atomic, final String[] commands,
+      final OutputStream output) throws IOException {
+    sout.write(ServerCmd.BATCH.code);
+    send(Boolean.toString(atomic));
+    for(final String command : commands) send(command);
+    send("");
+    sout.flush();
+    return receive(BufferInput.get(sin), commands.length, output);
+  }
+
   /**
    * Sends the specified stream to the server.
    * @param input input stream
@@ -190,6 +201,26 @@ public class ClientSession extends Session {
     if(!ok(bi)) throw new BaseXException(info);
   }
 
+  /**
+   * Receives the results of a batch.
+   * @param input buffered server input
+   * @param size number of results
+   * @param output output stream (if {@code null}, results will be returned as strings)
+   * @return results
+   * @throws IOException I/O exception
+   */
+  static BatchResult[] receive(final BufferInput input, final int size, final OutputStream output)
+      throws IOException {
+    final BatchResult[] results = new BatchResult[size];
+    for(int r = 0; r < size; r++) {
+      final ArrayOutput ao = output == null ? new ArrayOutput() : null;
+      receive(input, ao != null ? ao : output);
+      final String info = input.readString();
+      results[r] = new BatchResult(ao != null ? ao.toString() : null, info, ok(input));
+    }
+    return results;
+  }
+
   /**
    * Checks the next success flag.
    * @param input buffer input
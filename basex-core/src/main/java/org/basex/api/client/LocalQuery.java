@@ -45,7 +45,8 @@ public class LocalQuery extends Query {
   @Override
   public void cache(final boolean full) throws IOException {
     final ArrayOutput ao = new ArrayOutput();
-    ql.execute(ao, true, true, full);
+    if(fetchSize > 0) ql.fetch(ao, fetchSize, full);
+    else ql.execute(ao, true, true, full);
     cache(new ArrayInput(ao.finish()), full);
   }
 
@@ -73,5 +74,6 @@ public class LocalQuery extends Query {
 
   @Override
   public void close() {
+    ql.close();
   }
 }
@@ -6,6 +6,8 @@ import org.basex.core.*;
 import org.basex.core.cmd.*;
 import org.basex.core.parse.*;
 import org.basex.core.users.*;
+import org.basex.io.in.*;
+import org.basex.io.out.*;
 import org.basex.query.*;
 import org.basex.server.*;
 
@@ -132,6 +134,14 @@ public class LocalSession extends Session {
     info = command.info();
   }
 
+  @Override
+  protected BatchResult[] execute(final boolean atomic, final String[] commands,
+      final OutputStream output) throws IOException {
+    final ArrayOutput ao = new ArrayOutput();
+    new ServerBatch(commands, ctx).execute(atomic, ao);
+    return ClientSession.receive(new ArrayInput(ao.finish()), commands.length, output);
+  }
+
   /**
    * Returns the associated database context.
    * Called from the XQJ driver.
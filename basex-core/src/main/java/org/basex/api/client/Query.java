@@ -24,11 +24,15 @@ public abstract class Query implements Closeable {
   protected OutputStream out;
   /** Cached results. */
   protected TokenList cache;
+  /** Number of items to be fetched per request ({@code 0}: all items). */
+  int fetchSize;
 
   /** Cached result types. */
   private ByteList types;
   /** Cache pointer. */
   private int pos;
+  /** Indicates if more results can be fetched from the open cursor. */
+  private boolean fetch;
 
   /**
    * Binds a value to an external variable.
@@ -72,7 +76,7 @@ public abstract class Query implements Closeable {
    * @throws IOException I/O exception
    */
   public boolean more() throws IOException {
-    if(cache == null) cache(false);
+    if(cache == null || pos == cache.size() && fetch) cache(false);
     if(pos < cache.size()) return true;
     cache = null;
     types = null;
@@ -80,7 +84,20 @@ public abstract class Query implements Closeable {
   }
 
   /**
-   * Caches the query result.
+   * Sets the number of items that will be fetched per request if the results are retrieved via
+   * {@link #more()} and {@link #next()}. If a positive number is assigned, the query will be
+   * evaluated in batches: the iterator of the query will be kept open until all results have
+   * been fetched, or until the query is closed or executed again. Only the current batch of
+   * results will be kept in memory. The locks of the query are released between two batches;
+   * if the accessed databases are updated in the meantime, an error is raised.
+   * @param size number of items ({@code 0}: fetch all results at once)
+   */
+  public void fetchSize(final int size) {
+    fetchSize = Math.max(0, size);
+  }
+
+  /**
+   * Caches the query result, or the next batch of results if a fetch size has been assigned.
    * @param full retrieve full type information
    * @throws IOException I/O exception
    */
@@ -134,6 +151,7 @@ public abstract class Query implements Closeable {
       types.add(index);
     }
     pos = 0;
+    fetch = fetchSize > 0 && cache.size() == fetchSize;
   }
 
   /**
@@ -50,6 +50,28 @@ public abstract class Session implements Closeable {
     return ao != null ? ao.toString() : null;
   }
 
+  /**
+   * Executes multiple commands in a single request and returns their results.
+   * If an output stream has been specified, results are serialized to that stream.
+   * If the atomic flag is set, all commands are run in a single transaction with global locks,
+   * and execution stops after the first error. Errors are returned as part of the results.
+   * @param atomic run all commands in a single transaction
+   * @param commands commands to be parsed
+   * @return results (one per command)
+   * @throws IOException I/O exception (also raised, before any data is sent, if a command is empty)
+   */
+  public final BatchResult[] execute(final boolean atomic, final String... commands)
+      throws IOException {
+    // empty strings terminate the command list of the client/server protocol
+    for(final String command : commands) {
+      if(command.isEmpty()) throw new BaseXException("Empty command.");
+    }
+    final BatchResult[] results = execute(atomic, commands, out);
+    final int rl = results.length;
+    if(rl > 0) info = results[rl - 1].info;
+    return results;
+  }
+
   /**
    * Returns a query object for the specified query string.
    * @param query query string
@@ -142,4 +164,15 @@ public abstract class Session implements Closeable {
    * @throws IOException I/O exception
    */
   protected abstract void execute(Command command, OutputStream output) throws IOException;
+
+  /**
+   * Executes multiple commands and prints the results to the specified output stream.
+   * @param atomic run all commands in a single transaction
+   * @param commands commands to be parsed
+   * @param output output stream (if {@code null}, results will be returned as strings)
+   * @return results
+   * @throws IOException I/O exception
+   */
+  protected abstract BatchResult[] execute(boolean atomic, String[] commands, OutputStream output)
+      throws IOException;
 }
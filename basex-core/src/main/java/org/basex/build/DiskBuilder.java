@@ -3,6 +3,7 @@ package org.basex.build;
 import static org.basex.data.DataText.*;
 
 import java.io.*;
+import java.util.*;
 
 import org.basex.core.*;
 import org.basex.core.cmd.*;
@@ -84,9 +85,11 @@ public final class DiskBuilder extends Builder {
       // copy temporary values into database table
       final IOFile tmpFile = meta.dbFile(DATATMP);
       try(DataInput in = new DataInput(tmpFile)) {
-        final TableAccess ta = new TableDiskAccess(meta, true);
+        final TableDiskAccess ta = new TableDiskAccess(meta, true);
         try {
           for(; spos < ssize; ++spos) ta.write4(in.readNum(), 8, in.readNum());
+          if(meta.textdict) dictionary(ta);
+          if(meta.compresstable) ta.compress();
         } finally {
           ta.close();
         }
@@ -165,11 +168,75 @@ public final class DiskBuilder extends Builder {
     final long inlined = Inline.pack(value);
     if(inlined != 0) return inlined;
 
-    // store text to heap file
-    final byte[] packed = Compress.pack(value);
+    // store text to heap file (texts will be compressed later if a dictionary is trained)
+    final byte[] packed = meta.textdict ? value : Compress.pack(value);
     final DataOutput store = text ? xout : vout;
     final long offset = store.size();
     store.writeToken(packed);
     return packed == value ? offset : Compress.COMPRESS | offset;
   }
+
+  /**
+   * Trains a dictionary from a sample of the stored texts and attribute values,
+   * and compresses the heap files. Texts are stored uncompressed during parsing.
+   * @param ta table access
+   * @throws IOException I/O exception
+   */
+  private void dictionary(final TableAccess ta) throws IOException {
+    final IOFile txt = meta.dbFile(DATATXT), atv = meta.dbFile(DATAATV);
+    final ArrayList<byte[]> sample = new ArrayList<>();
+    sample(txt, sample);
+    sample(atv, sample);
+    if(sample.isEmpty()) return;
+
+    final TextCodec codec = TextCodec.train(sample);
+    try(DataOutput out = new DataOutput(meta.dbFile(DATADICT))) {
+      codec.write(out);
+    }
+
+    // rewrite heap files: texts are stored in the order of the table entries
+    final IOFile ntxt = meta.dbFile(DATATXT + DATATMP), natv = meta.dbFile(DATAATV + DATATMP);
+    try(DataAccess xin = new DataAccess(txt); DataAccess vin = new DataAccess(atv);
+        DataOutput xo = new DataOutput(ntxt); DataOutput vo = new DataOutput(natv)) {
+      final int size = meta.size;
+      for(int pre = 0; pre < size; pre++) {
+        final int kind = ta.read1(pre, 0) & 0x07;
+        if(kind == Data.ELEM) continue;
+        final long ref = ta.read5(pre, 3);
+        if(Inline.inlined(ref)) continue;
+
+        final boolean text = kind != Data.ATTR;
+        final byte[] value = (text ? xin : vin).readToken(ref);
+        final byte[] packed = codec.pack(value);
+        final DataOutput out = text ? xo : vo;
+        final long offset = out.size();
+        out.writeToken(packed);
+        ta.write5(pre, 3, packed == value ? offset : Compress.COMPRESS | offset);
+      }
+    }
+    if(!txt.delete() || !ntxt.rename(txt)) throw new IOException("Could not rename " + ntxt);
+    if(!atv.delete() || !natv.rename(atv)) throw new IOException("Could not rename " + natv);
+  }
+
+  /**
+   * Adds texts from evenly distributed ranges of a heap file to the sample.
+   * @param file heap file
+   * @param sample sample texts
+   * @throws IOException I/O exception
+   */
+  private static void sample(final IOFile file, final ArrayList<byte[]> sample)
+      throws IOException {
+    // half of the sample is taken from each file
+    final long length = file.length(), part = TextCodec.SAMPLE / 2;
+    final long range = Math.max(length / 64, 1), take = part / 64;
+    try(DataAccess da = new DataAccess(file)) {
+      for(long pos = 0; pos < length;) {
+        final int len = da.readNum(pos), off = Num.length(len);
+        if(length <= part || pos % range < take) {
+          sample.add(da.readBytes(pos + off, Math.min(len, TextCodec.CHUNK)));
+        }
+        pos += off + len;
+      }
+    }
+  }
 }
@@ -0,0 +1,242 @@
+package org.basex.core;
+
+import java.io.*;
+import java.security.*;
+import java.util.*;
+import java.util.zip.*;
+
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.*;
+import org.basex.io.out.DataOutput;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * Manifest of a backup. Stores the lengths, timestamps and SHA-256 digests of the chunks of all
+ * backed up files. The manifest of the latest backup is consulted when an incremental backup is created:
+ * only chunks that have changed since then will be written to the new archive.
+ *
+ * @author BaseX Team 2005-23, BSD License
+ * @author Christian Gruen
+ */
+public final class BackupManifest {
+  /** Size of checksummed chunks (16 table pages). */
+  public static final int CHUNK = IO.BLOCKSIZE << 4;
+  /** Length of a chunk digest. */
+  public static final int DIGEST = 32;
+  /** Name of the manifest entry. */
+  public static final String FILE = DataText.DATABKP + IO.BASEXSUFFIX;
+  /** Maximum timestamp resolution of file systems. */
+  private static final long RESOLUTION = 2000;
+
+  /** Files, indexed by their relative paths. */
+  public final HashMap<String, BackupFile> files = new HashMap<>();
+  /** Date of the backup this backup is based on (empty string for full backups). */
+  public final String base;
+  /** Creation time. */
+  public final long created;
+  /** Indicates if chunks have been compressed individually. */
+  public final boolean blocks;
+
+  /**
+   * Constructor.
+   * @param base date of the backup this backup is based on (empty string for full backups)
+   * @param blocks indicates if chunks are compressed individually
+   */
+  public BackupManifest(final String base, final boolean blocks) {
+    this.base = base;
+    this.blocks = blocks;
+    created = System.currentTimeMillis();
+  }
+
+  /**
+   * Constructor, reading a manifest from the specified input.
+   * @param in input stream
+   * @throws IOException I/O exception
+   */
+  private BackupManifest(final DataInput in) throws IOException {
+    base = Token.string(in.readToken());
+    created = in.readLong();
+    for(int f = in.readNum(); f > 0; f--) {
+      final String path = Token.string(in.readToken());
+      final long length = in.readLong(), time = in.readLong();
+      files.put(path, new BackupFile(length, time, in.readToken()));
+    }
+    blocks = in.readBool();
+  }
+
+  /**
+   * Reads the manifest of the specified backup.
+   * @param backup name of backup
+   * @param sopts static options
+   * @return manifest, or {@code null} if the backup was created without manifest
+   * @throws IOException I/O exception
+   */
+  public static BackupManifest read(final String backup, final StaticOptions sopts)
+      throws IOException {
+    try(ZipFile zip = new ZipFile(sopts.dbPath(backup + IO.ZIPSUFFIX).file())) {
+      final ZipEntry entry = entry(zip);
+      if(entry == null) return null;
+      try(InputStream is = zip.getInputStream(entry);
+          DataInput in = new DataInput(new IOContent(is.readAllBytes()))) {
+        return new BackupManifest(in);
+      }
+    }
+  }
+
+  /**
+   * Returns a new instance for computing chunk digests.
+   * @return message digest
+   */
+  public static MessageDigest digest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch(final NoSuchAlgorithmException ex) {
+      throw Util.notExpected(ex);
+    }
+  }
+
+  /**
+   * Returns the name of the latest backup of a database.
+   * @param db name of the database (empty string for general data)
+   * @param skip name of a backup to be skipped (will be overwritten)
+   * @param sopts static options
+   * @return name of backup or {@code null}
+   */
+  public static String latest(final String db, final String skip, final StaticOptions sopts) {
+    for(final String backup : new Databases(sopts).backups(db)) {
+      if(!backup.equals(skip)) return backup;
+    }
+    return null;
+  }
+
+  /**
+   * Returns the names of the incremental backups that are based on the specified backup.
+   * @param backup name of backup
+   * @param sopts static options
+   * @return names of backups
+   */
+  public static StringList deltas(final String backup, final StaticOptions sopts) {
+    final StringList deltas = new StringList();
+    for(final String delta : new Databases(sopts).backups(Databases.name(backup))) {
+      try {
+        final BackupManifest manifest = read(delta, sopts);
+        if(manifest != null && backup.equals(manifest.base(delta))) deltas.add(delta);
+      } catch(final IOException ex) {
+        Util.debug(ex);
+      }
+    }
+    return deltas;
+  }
+
+  /**
+   * Returns the manifest entry of a backup archive.
+   * @param zip archive
+   * @return entry or {@code null}
+   */
+  public static ZipEntry entry(final ZipFile zip) {
+    final Enumeration<? extends ZipEntry> entries = zip.entries();
+    while(entries.hasMoreElements()) {
+      final ZipEntry entry = entries.nextElement();
+      if(manifest(entry.getName())) return entry;
+    }
+    return null;
+  }
+
+  /**
+   * Checks if the specified archive entry is a manifest.
+   * @param name name of entry
+   * @return result of check
+   */
+  public static boolean manifest(final String name) {
+    final int i = name.indexOf('/');
+    return i != -1 && name.substring(i + 1).equals(FILE);
+  }
+
+  /**
+   * Returns the name of the backup this backup is based on.
+   * @param backup name of this backup
+   * @return name of base backup, or {@code null} if this is a full backup
+   */
+  public String base(final String backup) {
+    return base.isEmpty() ? null : Databases.name(backup) + '-' + base;
+  }
+
+  /**
+   * Returns the file entry for the specified path if the file has not been touched since
+   * this manifest was created.
+   * @param path relative path
+   * @param file file
+   * @return entry or {@code null}
+   */
+  public BackupFile unchanged(final String path, final IOFile file) {
+    final BackupFile bf = files.get(path);
+    // timestamps are only trusted if they are clearly older than the manifest
+    final long time = file.timeStamp();
+    return bf != null && bf.length == file.length() && bf.time == time &&
+        time < created - RESOLUTION ? bf : null;
+  }
+
+  /**
+   * Writes the manifest to the specified archive.
+   * @param out archive output stream
+   * @param prefix prefix of archive entries
+   * @throws IOException I/O exception
+   */
+  public void write(final ZipOutputStream out, final String prefix) throws IOException {
+    final ArrayOutput ao = new ArrayOutput();
+    try(DataOutput dout = new DataOutput(ao)) {
+      dout.writeToken(Token.token(base));
+      dout.writeLong(created);
+      dout.writeNum(files.size());
+      for(final Map.Entry<String, BackupFile> entry : files.entrySet()) {
+        final BackupFile bf = entry.getValue();
+        dout.writeToken(Token.token(entry.getKey()));
+        dout.writeLong(bf.length);
+        dout.writeLong(bf.time);
+        dout.writeToken(bf.digests);
+      }
+      dout.writeBool(blocks);
+    }
+    out.putNextEntry(new ZipEntry(prefix + '/' + FILE));
+    out.write(ao.finish());
+    out.closeEntry();
+  }
+
+  /**
+   * Backed up file.
+   */
+  public static final class BackupFile {
+    /** File length. */
+    public final long length;
+    /** Timestamp. */
+    public final long time;
+    /** Concatenated digests of all chunks. */
+    public final byte[] digests;
+
+    /**
+     * Constructor.
+     * @param length file length
+     * @param time timestamp
+     * @param digests concatenated chunk digests
+     */
+    public BackupFile(final long length, final long time, final byte[] digests) {
+      this.length = length;
+      this.time = time;
+      this.digests = digests;
+    }
+
+    /**
+     * Checks if the specified chunk differs from the backed up version.
+     * @param c chunk offset
+     * @param digest digest of the chunk
+     * @return result of check
+     */
+    public boolean changed(final int c, final byte[] digest) {
+      final int start = c * DIGEST, end = start + DIGEST;
+      return end > digests.length || !Arrays.equals(digests, start, end, digest, 0, DIGEST);
+    }
+  }
+}
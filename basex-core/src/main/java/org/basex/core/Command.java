@@ -99,8 +99,12 @@ public abstract class Command extends Job {
       Util.stack(th);
       throw th;
     } finally {
-      // ensure that job will be unregistered
-      unregister(ctx);
+      // ensure that job will be unregistered; raise error if updates could not be persisted
+      try {
+        unregister(ctx);
+      } catch(final IOException ex) {
+        throw new BaseXException(ex);
+      }
     }
   }
 
@@ -20,6 +20,8 @@ public final class MainOptions extends Options {
 
   /** Flag for creating a main memory database. */
   public static final BooleanOption MAINMEM = new BooleanOption("MAINMEM", false);
+  /** Flag for storing main memory databases off-heap (limit: -XX:MaxDirectMemorySize). */
+  public static final BooleanOption OFFHEAP = new BooleanOption("OFFHEAP", false);
   /** Flag for closing a database after creating it. */
   public static final BooleanOption CREATEONLY = new BooleanOption("CREATEONLY", false);
 
@@ -78,6 +80,12 @@ public final class MainOptions extends Options {
   public static final BooleanOption TOKENINDEX = new BooleanOption("TOKENINDEX", false);
   /** Flag for creating a full-text index. */
   public static final BooleanOption FTINDEX = new BooleanOption("FTINDEX", false);
+  /** Flag for creating a trigram index. */
+  public static final BooleanOption TRIGRAMINDEX = new BooleanOption("TRIGRAMINDEX", false);
+  /** Flag for creating a composite index. */
+  public static final BooleanOption COMPOSITEINDEX = new BooleanOption("COMPOSITEINDEX", false);
+  /** Flag for creating a name index. */
+  public static final BooleanOption NAMEINDEX = new BooleanOption("NAMEINDEX", false);
 
   /** Text index: names to include. */
   public static final StringOption TEXTINCLUDE = new StringOption("TEXTINCLUDE", "");
@@ -87,6 +95,8 @@ public final class MainOptions extends Options {
   public static final StringOption TOKENINCLUDE = new StringOption("TOKENINCLUDE", "");
   /** Full-text index: names to include. */
   public static final StringOption FTINCLUDE = new StringOption("FTINCLUDE", "");
+  /** Composite index: names to include. */
+  public static final StringOption COMPOSITEINCLUDE = new StringOption("COMPOSITEINCLUDE", "");
 
   /** Maximum length of index entries. */
   public static final NumberOption MAXLEN = new NumberOption("MAXLEN", 96);
@@ -96,6 +106,10 @@ public final class MainOptions extends Options {
   public static final BooleanOption UPDINDEX = new BooleanOption("UPDINDEX", false);
   /** Flag for automatic index updates. */
   public static final BooleanOption AUTOOPTIMIZE = new BooleanOption("AUTOOPTIMIZE", false);
+  /** Flag for compressing the pages of the node table. */
+  public static final BooleanOption COMPRESSTABLE = new BooleanOption("COMPRESSTABLE", false);
+  /** Flag for compressing texts with a trained dictionary. */
+  public static final BooleanOption TEXTDICT = new BooleanOption("TEXTDICT", false);
   /** Index split size. */
   public static final NumberOption SPLITSIZE = new NumberOption("SPLITSIZE", 0);
 
@@ -168,6 +182,8 @@ public final class MainOptions extends Options {
 
   /** Flushes the database after each update. */
   public static final BooleanOption AUTOFLUSH = new BooleanOption("AUTOFLUSH", true);
+  /** Writes updates to a redo log instead of flushing all database files. */
+  public static final BooleanOption REDOLOG = new BooleanOption("REDOLOG", false);
   /** Writes original files back after updates. */
   public static final BooleanOption WRITEBACK = new BooleanOption("WRITEBACK", false);
   /** Maximum number of index occurrences to print. */
@@ -177,8 +193,9 @@ public final class MainOptions extends Options {
 
   /** Indexing options. */
   public static final Option<?>[] INDEXING = { MAXCATS, MAXLEN, SPLITSIZE, LANGUAGE, STOPWORDS,
-    TEXTINDEX, ATTRINDEX, TOKENINDEX, FTINDEX, TEXTINCLUDE, ATTRINCLUDE, TOKENINCLUDE, FTINCLUDE,
-    STEMMING, CASESENS, DIACRITICS, UPDINDEX, AUTOOPTIMIZE };
+    TEXTINDEX, ATTRINDEX, TOKENINDEX, FTINDEX, TRIGRAMINDEX, COMPOSITEINDEX, NAMEINDEX,
+    TEXTINCLUDE, ATTRINCLUDE, TOKENINCLUDE, FTINCLUDE, COMPOSITEINCLUDE, STEMMING, CASESENS,
+    DIACRITICS, UPDINDEX, AUTOOPTIMIZE, COMPRESSTABLE, TEXTDICT };
 
   /** XML Parsing options. */
   private static final Option<?>[] XMLPARSING = { INTPARSE, STRIPWS, STRIPNS, DTD, XINCLUDE,
@@ -32,6 +32,10 @@ public final class StaticOptions extends Options {
   public static final BooleanOption FAIRLOCK = new BooleanOption("FAIRLOCK", false);
   /** Timeout (seconds) for remembering result of asynchronous queries. */
   public static final NumberOption CACHETIMEOUT = new NumberOption("CACHETIMEOUT", 3600);
+  /** Compression level of backups (0-9). */
+  public static final NumberOption BACKUPLEVEL = new NumberOption("BACKUPLEVEL", 1);
+  /** Number of threads for compressing backups; chunks are compressed in parallel if > 1. */
+  public static final NumberOption BACKUPTHREADS = new NumberOption("BACKUPTHREADS", 1);
 
   /** Comment: written to the options file. */
   public static final Comment C_CLIENT = new Comment("Client/Server Architecture");
@@ -61,8 +65,14 @@ public final class StaticOptions extends Options {
   public static final NumberOption TIMEOUT = new NumberOption("TIMEOUT", 30);
   /** Keep alive time (seconds) for clients; deactivated if set to 0. */
   public static final NumberOption KEEPALIVE = new NumberOption("KEEPALIVE", 600);
+  /** Timeout (seconds) for releasing idle query cursors; deactivated if set to 0. */
+  public static final NumberOption CURSORTIMEOUT = new NumberOption("CURSORTIMEOUT", 60);
+  /** Timeout (seconds) for releasing idle prepared queries; deactivated if set to 0. */
+  public static final NumberOption PREPAREDTIMEOUT = new NumberOption("PREPAREDTIMEOUT", 10);
   /** Defines the number of parallel readers. */
   public static final NumberOption PARALLEL = new NumberOption("PARALLEL", 8);
+  /** Runtime (ms) after which repeated jobs get low priority; deactivated if set to 0. */
+  public static final NumberOption DEMOTETIME = new NumberOption("DEMOTETIME", 0);
   /** Logging flag. */
   public static final BooleanOption LOG = new BooleanOption("LOG", true);
   /** Log message cut-off. */
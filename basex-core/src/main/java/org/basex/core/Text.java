@@ -187,6 +187,10 @@ public interface Text {
   /** Command keyword. */
   String S_TO = "TO";
   /** Command keyword. */
+  String S_INCREMENTAL = "INCREMENTAL";
+  /** Command keyword. */
+  String S_ONLINE = "ONLINE";
+  /** Command keyword. */
   String S_QUERY = "query";
   /** Command keyword. */
   String S_PATH = "path";
@@ -316,12 +320,14 @@ public interface Text {
     CmdCreate.INDEX + '|' + CmdCreate.USER + "] [...]",
     lang("c_create1"),
     lang("c_create2") + NL +
-    LI + CmdDrop.BACKUP + " ([" + S_NAME + "] ([" + S_COMMENT + "])):" + NL +
+    LI + CmdDrop.BACKUP + " (" + S_INCREMENTAL + ") (" + S_ONLINE + ") ([" + S_NAME + "] ([" +
+      S_COMMENT + "])):" + NL +
     "  " + lang("c_create22", S_NAME) + NL +
     LI + CmdCreate.DATABASE + " [" + S_NAME + "] ([" + S_INPUT + "]):"  + NL +
     "  " + lang("c_create21", S_NAME, S_INPUT) + NL +
     LI + CmdCreate.INDEX + " [" + CmdIndex.TEXT + '|' + CmdIndex.ATTRIBUTE + '|' +
-      CmdIndex.TOKEN + '|' + CmdIndex.FULLTEXT + "]:" + NL +
+      CmdIndex.TOKEN + '|' + CmdIndex.FULLTEXT + '|' + CmdIndex.TRIGRAM + '|' +
+      CmdIndex.COMPOSITE + '|' + CmdIndex.NAME + "]:" + NL +
     "  " + lang("c_create23") + NL +
     LI + CmdCreate.USER + " [" + S_NAME + "] ([" + S_PW + "]):" + NL +
     "  " + lang("c_create24")
@@ -378,6 +384,10 @@ public interface Text {
     "", lang("c_close1"), lang("c_close2")
   };
   /** Command help. */
+  String[] HELPCOMPACT = {
+    "", lang("c_compact1"), lang("c_compact2")
+  };
+  /** Command help. */
   String[] HELPLIST = {
     "([" + S_NAME + "] ([" + S_PATH + "]))", lang("c_list1"), lang("c_list2", S_NAME, S_PATH)
   };
@@ -396,7 +406,8 @@ public interface Text {
     LI + CmdDrop.DATABASE + " [" + S_NAME + "]:" + NL +
     "  " + lang("c_drop21") + NL +
     LI + CmdDrop.INDEX + " [" + CmdIndex.TEXT + '|' + CmdIndex.ATTRIBUTE + '|' +
-      CmdIndex.TOKEN + '|' + CmdIndex.FULLTEXT + "]:" + NL +
+      CmdIndex.TOKEN + '|' + CmdIndex.FULLTEXT + '|' + CmdIndex.TRIGRAM + '|' +
+      CmdIndex.COMPOSITE + '|' + CmdIndex.NAME + "]:" + NL +
     "  " + lang("c_drop22") + NL +
     LI + CmdDrop.USER + " [" + S_NAME + "] (" + ON + " [pattern]): " + NL +
       "  " + lang("c_drop23")
@@ -574,6 +585,12 @@ public interface Text {
   String INDEX_TOKENS_D = lang("index_tokens") + DOTS;
   /** Create full-text index. */
   String INDEX_FULLTEXT_D = lang("index_fulltext") + DOTS;
+  /** Create trigram index. */
+  String INDEX_TRIGRAMS_D = lang("index_trigrams") + DOTS;
+  /** Create composite index. */
+  String INDEX_COMPOSITE_D = lang("index_composite") + DOTS;
+  /** Create name index. */
+  String INDEX_NAMES_D = lang("index_names") + DOTS;
 
   /** Database created. */
   String DB_CREATED_X_X = lang("db_created_%_%");
@@ -620,6 +637,8 @@ public interface Text {
   String DB_UPDATED_X = lang("db_updated_%");
   /** Database closed. */
   String DB_CLOSED_X = lang("db_closed_%");
+  /** Database compacted. */
+  String DB_COMPACTED_X = lang("db_compacted_%");
   /** Database optimized. */
   String DB_OPTIMIZED_X = lang("db_optimized_%");
   /** Database dropped. */
@@ -864,6 +883,12 @@ public interface Text {
   String PATH_INDEX = lang("path_index");
   /** Info on token index. */
   String TOKEN_INDEX = lang("token_index");
+  /** Info on trigram index. */
+  String TRIGRAM_INDEX = lang("trigram_index");
+  /** Info on composite index. */
+  String COMPOSITE_INDEX = lang("composite_index");
+  /** Info on name index. */
+  String NAME_INDEX = lang("name_index");
 
   /** Info on elements. */
   String ELEMENTS = lang("elements");
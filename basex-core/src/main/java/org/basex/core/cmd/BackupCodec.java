@@ -0,0 +1,178 @@
+package org.basex.core.cmd;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.*;
+
+import org.basex.core.*;
+import org.basex.util.*;
+
+/**
+ * Compresses and decompresses chunks of backed up files in parallel.
+ * Each chunk is stored as a frame, consisting of the 4-byte chunk offset, the 4-byte length
+ * of the compressed data, and the compressed data.
+ *
+ * @author BaseX Team 2005-23, BSD License
+ * @author Christian Gruen
+ */
+final class BackupCodec implements Closeable {
+  /** Worker threads. */
+  private final ExecutorService pool;
+  /** Pending tasks, in submission order. */
+  private final ArrayDeque<Future<byte[]>> pending = new ArrayDeque<>();
+  /** Maximum number of pending tasks. */
+  private final int limit;
+  /** Deflaters of the worker threads. */
+  private final ThreadLocal<Deflater> deflaters;
+  /** Inflaters of the worker threads. */
+  private final ThreadLocal<Inflater> inflaters;
+  /** Functions for releasing the native resources of the deflaters and inflaters. */
+  private final Queue<Runnable> ends = new ConcurrentLinkedQueue<>();
+
+  /**
+   * Constructor.
+   * @param threads number of threads
+   * @param level compression level
+   */
+  BackupCodec(final int threads, final int level) {
+    final int nt = Math.max(1, threads);
+    pool = Executors.newFixedThreadPool(nt, r -> {
+      final Thread thread = new Thread(r, Util.className(BackupCodec.class));
+      thread.setDaemon(true);
+      return thread;
+    });
+    limit = nt << 2;
+    deflaters = ThreadLocal.withInitial(() -> {
+      final Deflater deflater = new Deflater(level);
+      ends.add(deflater::end);
+      return deflater;
+    });
+    inflaters = ThreadLocal.withInitial(() -> {
+      final Inflater inflater = new Inflater();
+      ends.add(inflater::end);
+      return inflater;
+    });
+  }
+
+  /**
+   * Returns a codec instance with the threads defined in the static options.
+   * @param sopts static options
+   * @return codec
+   */
+  static BackupCodec get(final StaticOptions sopts) {
+    return new BackupCodec(sopts.get(StaticOptions.BACKUPTHREADS),
+        sopts.get(StaticOptions.BACKUPLEVEL));
+  }
+
+  /**
+   * Compresses a chunk in the background. The frames of finished chunks are written to the
+   * output stream in submission order.
+   * @param c chunk offset
+   * @param chunk chunk buffer
+   * @param length length of the chunk
+   * @param out output stream
+   * @throws IOException I/O exception
+   */
+  void deflate(final int c, final byte[] chunk, final int length, final OutputStream out)
+      throws IOException {
+
+    final byte[] data = Arrays.copyOf(chunk, length);
+    pending.add(pool.submit(() -> {
+      final Deflater deflater = deflaters.get();
+      deflater.reset();
+      deflater.setInput(data);
+      deflater.finish();
+      final ByteArrayOutputStream frame = new ByteArrayOutputStream(data.length + 64);
+      final byte[] buffer = new byte[data.length + 64];
+      frame.write(buffer, 0, 8);
+      while(!deflater.finished()) frame.write(buffer, 0, deflater.deflate(buffer));
+      final byte[] bytes = frame.toByteArray();
+      ByteBuffer.wrap(bytes).putInt(c).putInt(bytes.length - 8);
+      return bytes;
+    }));
+    while(pending.size() > limit) out.write(next());
+  }
+
+  /**
+   * Writes the frames of all pending chunks.
+   * @param out output stream
+   * @throws IOException I/O exception
+   */
+  void flush(final OutputStream out) throws IOException {
+    while(!pending.isEmpty()) out.write(next());
+  }
+
+  /**
+   * Reads frames from the specified input stream and writes the decompressed chunks to the
+   * specified channel.
+   * @param in input stream
+   * @param channel file channel
+   * @param size chunk size
+   * @throws IOException I/O exception
+   */
+  void inflate(final InputStream in, final FileChannel channel, final int size)
+      throws IOException {
+
+    final DataInputStream dis = new DataInputStream(in);
+    for(int b; (b = dis.read()) != -1;) {
+      final int c = b << 24 | dis.readUnsignedByte() << 16 | dis.readUnsignedByte() << 8 |
+          dis.readUnsignedByte();
+      final byte[] data = new byte[dis.readInt()];
+      dis.readFully(data);
+      pending.add(pool.submit(() -> {
+        final Inflater inflater = inflaters.get();
+        inflater.reset();
+        inflater.setInput(data);
+        final byte[] chunk = new byte[size];
+        int l = 0;
+        while(!inflater.finished() && l < size) {
+          final int n = inflater.inflate(chunk, l, size - l);
+          if(n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+            throw new IOException("Chunk " + c + " is corrupt.");
+          }
+          l += n;
+        }
+        final ByteBuffer buffer = ByteBuffer.wrap(chunk, 0, l);
+        for(long pos = (long) c * size; buffer.hasRemaining();) {
+          pos += channel.write(buffer, pos);
+        }
+        return null;
+      }));
+      while(pending.size() > limit) next();
+    }
+    while(!pending.isEmpty()) next();
+  }
+
+  /**
+   * Waits for the oldest pending task and returns its result.
+   * @return result
+   * @throws IOException I/O exception
+   */
+  private byte[] next() throws IOException {
+    try {
+      return pending.poll().get();
+    } catch(final ExecutionException ex) {
+      final Throwable cause = ex.getCause();
+      throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+    } catch(final InterruptedException ex) {
+      throw new IOException(ex);
+    }
+  }
+
+  @Override
+  public void close() {
+    for(final Future<byte[]> future : pending) future.cancel(true);
+    pending.clear();
+    pool.shutdownNow();
+    // release native resources after the worker threads have been stopped
+    try {
+      pool.awaitTermination(1, TimeUnit.MINUTES);
+    } catch(final InterruptedException ex) {
+      Util.debug(ex);
+    }
+    for(Runnable end; (end = ends.poll()) != null;) end.run();
+  }
+}
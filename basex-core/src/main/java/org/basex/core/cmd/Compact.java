@@ -0,0 +1,66 @@
+package org.basex.core.cmd;
+
+import static org.basex.core.Text.*;
+
+import java.io.*;
+
+import org.basex.core.*;
+import org.basex.core.locks.*;
+import org.basex.core.users.*;
+import org.basex.data.*;
+import org.basex.util.*;
+
+/**
+ * Evaluates the 'compact' command and compacts the storage of the currently opened database.
+ * The database is compacted in small steps. Locks are released after each step, so other jobs
+ * can access the database while the command is running.
+ *
+ * @author BaseX Team 2005-23, BSD License
+ * @author Christian Gruen
+ */
+public final class Compact extends Command {
+  /**
+   * Default constructor.
+   */
+  public Compact() {
+    super(Perm.WRITE, true);
+  }
+
+  @Override
+  protected boolean run() {
+    final Data data = context.data();
+    if(data.inMemory()) return error(NO_MAINMEM);
+
+    final Compactor compactor = new Compactor((DiskData) data);
+    try {
+      for(boolean more = true; more;) {
+        data.startUpdate(options);
+        try {
+          more = compactor.step();
+        } finally {
+          data.finishUpdate(options);
+          jc().updated(data);
+        }
+        if(more && unlock(context)) {
+          // give waiting jobs a chance to access the database
+          Performance.sleep(1);
+          checkStop();
+          lock(context);
+        }
+      }
+    } catch(final IOException ex) {
+      return error(Util.message(ex));
+    }
+    return info(DB_COMPACTED_X, data.meta.name, jc().performance);
+  }
+
+  @Override
+  public void addLocks() {
+    jc().locks.writes.add(Locking.CONTEXT);
+  }
+
+  @Override
+  public boolean stoppable() {
+    return true;
+  }
+}
@@ -4,10 +4,14 @@ import static org.basex.core.Text.*;
 import static org.basex.data.DataText.*;
 
 import java.io.*;
+import java.nio.channels.*;
+import java.security.*;
 import java.util.*;
 import java.util.zip.*;
 
 import org.basex.core.*;
+import org.basex.core.BackupManifest.*;
+import org.basex.core.jobs.*;
 import org.basex.core.parse.*;
 import org.basex.core.parse.Commands.*;
 import org.basex.data.*;
@@ -23,10 +27,19 @@ import org.basex.util.list.*;
  * @author Christian Gruen
  */
 public final class CreateBackup extends ABackup {
-  /** Total files in a zip operation. */
-  private int total;
-  /** Current file in a zip operation. */
-  private int curr;
+  /** Maximum number of bytes copied in one step. */
+  private static final long COPYSIZE = 1 << 24;
+  /** Names of the snapshot directories that are currently in use. */
+  private static final HashSet<String> SNAPSHOTS = new HashSet<>();
+
+  /** Total bytes to be processed. */
+  private long total;
+  /** Processed bytes. */
+  private long curr;
+  /** Incremental flag. */
+  private final boolean incremental;
+  /** Online flag. */
+  private final boolean online;
 
   /**
    * Default constructor.
@@ -42,7 +55,32 @@ public final class CreateBackup extends ABackup {
    * @param comment (can be {@code null})
    */
   public CreateBackup(final String pattern, final String comment) {
+    this(pattern, comment, false);
+  }
+
+  /**
+   * Default constructor.
+   * @param pattern database pattern ({@code null} for general data)
+   * @param comment (can be {@code null})
+   * @param incremental only write changes since the last backup
+   */
+  public CreateBackup(final String pattern, final String comment, final boolean incremental) {
+    this(pattern, comment, incremental, false);
+  }
+
+  /**
+   * Default constructor.
+   * @param pattern database pattern ({@code null} for general data)
+   * @param comment (can be {@code null})
+   * @param incremental only write changes since the last backup
+   * @param online online backup: release locks after a snapshot of the database files has
+   *   been taken
+   */
+  public CreateBackup(final String pattern, final String comment, final boolean incremental,
+      final boolean online) {
     super(pattern != null ? pattern : "", comment);
+    this.incremental = incremental;
+    this.online = online;
   }
 
   @Override
@@ -55,8 +93,9 @@ public final class CreateBackup extends ABackup {
     final StringList names = pattern.isEmpty() ? new StringList("") : context.listDBs(pattern);
     if(names.isEmpty()) return error(DB_NOT_FOUND_X, pattern);
 
-    // loop through all databases
+    // prepare backups
     boolean ok = true;
+    final ArrayList<Backup> backups = new ArrayList<>();
     for(final String name : names) {
       // don't open databases marked as updating
       if(!name.isEmpty() && MetaData.file(soptions.dbPath(name), DATAUPD).exists()) {
@@ -65,9 +104,7 @@ public final class CreateBackup extends ABackup {
         ok = false;
       } else {
         try {
-          backup(name, comment, true, soptions, this);
-          // backup was successful
-          info(DB_BACKUP_X, name, jc().performance);
+          backups.add(new Backup(name, incremental, true, soptions));
         } catch(final IOException ex) {
           Util.debug(ex);
           info(DB_NOT_BACKUP_X, name);
@@ -75,6 +112,33 @@ public final class CreateBackup extends ABackup {
         }
       }
     }
+    for(final Backup backup : backups) total += online ? backup.size * 2 : backup.size;
+
+    try {
+      // online backup: take snapshots, release locks
+      if(online) {
+        for(final Backup backup : backups) backup.snapshot(this);
+        unlock(context);
+      }
+      // write archives
+      for(final Backup backup : backups) {
+        try {
+          backup.write(comment, this);
+          // backup was successful
+          info(DB_BACKUP_X, backup.db, jc().performance);
+        } catch(final IOException ex) {
+          Util.debug(ex);
+          info(DB_NOT_BACKUP_X, backup.db);
+          ok = false;
+        }
+      }
+    } catch(final IOException ex) {
+      Util.debug(ex);
+      info(DB_NOT_BACKUP_X, pattern);
+      ok = false;
+    } finally {
+      for(final Backup backup : backups) backup.drop();
+    }
     return ok;
   }
 
@@ -89,32 +153,278 @@ public final class CreateBackup extends ABackup {
    */
   public static void backup(final String db, final String comment, final boolean compress,
       final StaticOptions sopts, final CreateBackup cmd) throws IOException {
+    backup(db, comment, compress, false, sopts, cmd);
+  }
+
+  /**
+   * Backups the specified database.
+   * If an incremental backup is requested, and if a previous backup with manifest exists,
+   * only the chunks that have been changed since the last backup will be written.
+   * @param db name of the database (empty string for general data)
+   * @param comment comment (can be {@code null})
+   * @param compress compress flag
+   * @param incremental incremental flag
+   * @param sopts static options
+   * @param cmd calling command instance
+   * @throws IOException I/O Exception
+   */
+  public static void backup(final String db, final String comment, final boolean compress,
+      final boolean incremental, final StaticOptions sopts, final CreateBackup cmd)
+      throws IOException {
+
+    final Backup backup = new Backup(db, incremental, compress, sopts);
+    if(cmd != null) cmd.total = backup.size;
+    backup.write(comment, cmd);
+  }
+
+  /**
+   * Takes a snapshot of the specified database for an online backup.
+   * The returned task writes the archive and can be run after the locks have been released.
+   * @param db name of the database (empty string for general data)
+   * @param comment comment (can be {@code null})
+   * @param compress compress flag
+   * @param incremental incremental flag
+   * @param sopts static options
+   * @return task for writing the archive
+   * @throws IOException I/O Exception
+   */
+  public static JobContext.Task snapshot(final String db, final String comment,
+      final boolean compress, final boolean incremental, final StaticOptions sopts)
+      throws IOException {
+
+    final Backup backup = new Backup(db, incremental, compress, sopts);
+    try {
+      backup.snapshot(null);
+    } catch(final IOException ex) {
+      backup.drop();
+      throw ex;
+    }
+    return () -> {
+      try {
+        backup.write(comment, null);
+      } finally {
+        backup.drop();
+      }
+    };
+  }
+
+  /**
+   * Advances the progress.
+   * @param bytes number of processed bytes
+   */
+  private void progress(final long bytes) {
+    curr += bytes;
+  }
+
+  /**
+   * Backup of a single database.
+   */
+  private static final class Backup {
+    /** Name of the database (empty string for general data). */
+    private final String db;
+    /** Name of the backup. */
+    private final String name;
+    /** Database directory. */
+    private final IOFile dbpath;
+    /** Backup file. */
+    private final IOFile backup;
+    /** Snapshot directory. */
+    private final IOFile snapdir;
+    /** Relative paths of the files to be backed up. */
+    private final StringList files = new StringList();
+    /** Manifest of the previous backup (can be {@code null}). */
+    private final BackupManifest last;
+    /** Manifest of this backup. */
+    private final BackupManifest manifest;
+    /** Compression level. */
+    private final int level;
+    /** Number of compression threads. */
+    private final int threads;
+    /** Number of bytes to be backed up. */
+    private long size;
+    /** Snapshot directory, if a snapshot has been taken (can be {@code null}). */
+    private IOFile snapshot;
+
+    /**
+     * Constructor. Chooses the base of an incremental backup and collects the files
+     * that have been changed since then.
+     * @param db name of the database (empty string for general data)
+     * @param incremental incremental flag
+     * @param compress compress flag
+     * @param sopts static options
+     * @throws IOException I/O Exception
+     */
+    Backup(final String db, final boolean incremental, final boolean compress,
+        final StaticOptions sopts) throws IOException {
+      this.db = db;
+      level = compress ? Math.min(Math.max(sopts.get(StaticOptions.BACKUPLEVEL), 0), 9) : 0;
+      threads = sopts.get(StaticOptions.BACKUPTHREADS);
+      dbpath = sopts.dbPath(db);
+      name = db + '-' + DateTime.format(new Date(), DateTime.DATETIME);
+      backup = sopts.dbPath(name + IO.ZIPSUFFIX);
+      snapdir = sopts.dbPath('.' + name);
 
-    final IOFile dbpath = sopts.dbPath(db);
-    final StringList files = sopts.dbFiles(db);
-    if(cmd != null) cmd.total = files.size();
+      // choose latest backup as base
+      final String base = incremental ? BackupManifest.latest(db, name, sopts) : null;
+      last = base != null ? BackupManifest.read(base, sopts) : null;
+      // compress chunks in parallel if more than one thread is available
+      manifest = new BackupManifest(last != null ? Databases.date(base) : "",
+          threads > 1 && level > 0);
 
-    final String name = db + '-' + DateTime.format(new Date(), DateTime.DATETIME) + IO.ZIPSUFFIX;
-    final IOFile backup = sopts.dbPath(name);
-    try(BufferOutput bo = new BufferOutput(backup); ZipOutputStream out = new ZipOutputStream(bo)) {
-      if(comment != null) {
-        out.setComment(comment.length() > 100 ? comment.substring(0, 100) + DOTS : comment);
+      for(final String file : sopts.dbFiles(db)) {
+        // skip update file (generated when using XQuery)
+        if(file.equals(DATAUPD + IO.BASEXSUFFIX)) continue;
+        final String path = path(file);
+        final IOFile source = new IOFile(dbpath, file);
+        final BackupFile bf = last != null ? last.unchanged(path, source) : null;
+        if(bf != null) {
+          manifest.files.put(path, bf);
+        } else {
+          files.add(file);
+          size += source.length();
+        }
       }
-      // use simple, fast compression or no compression at all
-      out.setLevel(compress ? 1 : 0);
-      final byte[] data = new byte[IO.BLOCKSIZE];
+    }
+
+    /**
+     * Copies all files to be backed up to a snapshot directory. File timestamps are preserved.
+     * Snapshot directories of this database that are not in use anymore will be deleted.
+     * @param cmd calling command instance (can be {@code null})
+     * @throws IOException I/O Exception
+     */
+    void snapshot(final CreateBackup cmd) throws IOException {
+      synchronized(SNAPSHOTS) {
+        for(final IOFile dir : snapdir.parent().children()) {
+          final String dn = dir.name();
+          if(dn.startsWith("." + db + '-') && Databases.name(dn.substring(1)).equals(db) &&
+              !SNAPSHOTS.contains(dn) && dir.isDir()) dir.delete();
+        }
+        if(!SNAPSHOTS.add(snapdir.name())) throw new IOException("Snapshot exists: " + snapdir);
+      }
+      snapshot = snapdir;
       for(final String file : files) {
-        // skip update file (generated when using XQuery)
-        if(!file.equals(DATAUPD + IO.BASEXSUFFIX)) {
-          final String path = Prop.WIN ? file.replace('\\', '/') : file;
-          out.putNextEntry(new ZipEntry(db + '/' + path));
-          try(FileInputStream in = new FileInputStream(new File(dbpath.file(), file))) {
-            for(int c; (c = in.read(data)) != -1;) out.write(data, 0, c);
+        final IOFile source = new IOFile(dbpath, file), target = new IOFile(snapshot, file);
+        target.parent().md();
+        try(FileChannel in = new FileInputStream(source.file()).getChannel();
+            FileChannel out = new FileOutputStream(target.file()).getChannel()) {
+          final long length = in.size();
+          for(long pos = 0; pos < length;) {
+            final long l = in.transferTo(pos, Math.min(COPYSIZE, length - pos), out);
+            pos += l;
+            if(cmd != null) cmd.progress(l);
           }
-          out.closeEntry();
         }
-        if(cmd != null) cmd.curr++;
+        target.file().setLastModified(source.timeStamp());
+      }
+    }
+
+    /**
+     * Writes the backup archive.
+     * @param comment comment (can be {@code null})
+     * @param cmd calling command instance (can be {@code null})
+     * @throws IOException I/O Exception
+     */
+    void write(final String comment, final CreateBackup cmd) throws IOException {
+      try(BufferOutput bo = new BufferOutput(backup);
+          ZipOutputStream out = new ZipOutputStream(bo);
+          BackupCodec codec = manifest.blocks ? new BackupCodec(threads, level) : null) {
+        if(comment != null) {
+          out.setComment(comment.length() > 100 ? comment.substring(0, 100) + DOTS : comment);
+        }
+        // chunks compressed in parallel will be stored without further compression
+        out.setLevel(codec != null ? 0 : level);
+        final byte[] chunk = new byte[BackupManifest.CHUNK];
+        for(final String file : files) {
+          final String path = path(file);
+          final IOFile source = new IOFile(snapshot != null ? snapshot : dbpath, file);
+          final BackupFile old = last != null ? last.files.get(path) : null;
+          manifest.files.put(path, write(source, db + '/' + path, old, chunk, out, codec, cmd));
+        }
+        manifest.write(out, db);
+      }
+    }
+
+    /**
+     * Writes a file to the archive. If the file is part of an incremental backup,
+     * only the chunks are written that have been changed. Each chunk is then preceded by its
+     * 4-byte offset. If a codec is supplied, chunks are compressed in parallel and written as
+     * frames (see {@link BackupCodec}).
+     * @param source source file
+     * @param path path of the archive entry
+     * @param old previously backed up file (can be {@code null})
+     * @param chunk chunk buffer
+     * @param out archive output stream
+     * @param codec codec for compressing chunks (can be {@code null})
+     * @param cmd calling command instance (can be {@code null})
+     * @return manifest entry
+     * @throws IOException I/O Exception
+     */
+    private BackupFile write(final IOFile source, final String path, final BackupFile old,
+        final byte[] chunk, final ZipOutputStream out, final BackupCodec codec,
+        final CreateBackup cmd) throws IOException {
+
+      final boolean full = last == null;
+      final long time = source.timeStamp();
+      final ByteList digests = new ByteList();
+      final MessageDigest md = BackupManifest.digest();
+      boolean entry = false;
+      if(full) {
+        out.putNextEntry(new ZipEntry(path));
+        entry = true;
       }
+      try(FileInputStream in = new FileInputStream(source.file())) {
+        for(int l; (l = in.readNBytes(chunk, 0, chunk.length)) > 0;) {
+          md.update(chunk, 0, l);
+          final byte[] digest = md.digest();
+          final int c = digests.size() / BackupManifest.DIGEST;
+          digests.add(digest);
+          if(full || old == null || old.changed(c, digest)) {
+            if(!entry) {
+              out.putNextEntry(new ZipEntry(path));
+              entry = true;
+            }
+            if(codec != null) {
+              codec.deflate(c, chunk, l, out);
+            } else {
+              if(!full) {
+                out.write(c >>> 24);
+                out.write(c >>> 16);
+                out.write(c >>> 8);
+                out.write(c);
+              }
+              out.write(chunk, 0, l);
+            }
+          }
+          if(cmd != null) cmd.progress(l);
+        }
+      }
+      if(entry) {
+        if(codec != null) codec.flush(out);
+        out.closeEntry();
+      }
+      return new BackupFile(source.length(), time, digests.finish());
+    }
+
+    /**
+     * Deletes the snapshot directory.
+     */
+    void drop() {
+      if(snapshot != null) {
+        snapshot.delete();
+        synchronized(SNAPSHOTS) {
+          SNAPSHOTS.remove(snapshot.name());
+        }
+        snapshot = null;
+      }
+    }
+
+    /**
+     * Returns the normalized archive path of a file.
+     * @param file relative file path
+     * @return path
+     */
+    private static String path(final String file) {
+      return Prop.WIN ? file.replace('\\', '/') : file;
     }
   }
 
@@ -135,11 +445,14 @@ public final class CreateBackup extends ABackup {
 
   @Override
   public double progressInfo() {
-    return (double) curr / total;
+    return total == 0 ? 0 : (double) curr / total;
   }
 
   @Override
   public void build(final CmdBuilder cb) {
-    cb.init(Cmd.CREATE + " " + CmdCreate.BACKUP).args();
+    cb.init(Cmd.CREATE + " " + CmdCreate.BACKUP);
+    if(incremental) cb.arg(null, S_INCREMENTAL);
+    if(online) cb.arg(null, S_ONLINE);
+    cb.args();
   }
 }
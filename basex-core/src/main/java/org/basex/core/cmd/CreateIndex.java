@@ -55,6 +55,18 @@ public final class CreateIndex extends ACreate {
         data.meta.language = Language.get(options);
         data.meta.stopwords = options.get(MainOptions.STOPWORDS);
         break;
+      case TRIGRAM:
+        type = IndexType.TRIGRAM;
+        data.meta.createtrigram = true;
+        break;
+      case COMPOSITE:
+        type = IndexType.COMPOSITE;
+        data.meta.createcomposite = true;
+        break;
+      case NAME:
+        type = IndexType.NAME;
+        data.meta.createname = true;
+        break;
       default:
         return error(UNKNOWN_CMD_X, this);
     }
@@ -83,6 +95,9 @@ public final class CreateIndex extends ACreate {
     if(data.meta.createattr) create(IndexType.ATTRIBUTE, data, cmd);
     if(data.meta.createtoken) create(IndexType.TOKEN, data, cmd);
     if(data.meta.createft) create(IndexType.FULLTEXT, data, cmd);
+    if(data.meta.createtrigram) create(IndexType.TRIGRAM, data, cmd);
+    if(data.meta.createcomposite) create(IndexType.COMPOSITE, data, cmd);
+    if(data.meta.createname) create(IndexType.NAME, data, cmd);
   }
 
   /**
@@ -11,6 +11,7 @@ import org.basex.util.list.*;
 
 /**
  * Evaluates the 'drop backup' command and deletes backups of a database.
+ * Incremental backups that are based on a dropped backup are dropped as well.
  *
  * @author BaseX Team 2005-23, BSD License
  * @author Christian Gruen
@@ -45,12 +46,13 @@ public final class DropBackup extends ABackup {
   }
 
   /**
-   * Drops a backup with the specified name.
+   * Drops a backup with the specified name and all incremental backups that are based on it.
    * @param backup name of backup file
    * @param sopts static options
    * @return success flag
    */
   public static boolean drop(final String backup, final StaticOptions sopts) {
+    for(final String delta : BackupManifest.deltas(backup, sopts)) drop(delta, sopts);
     return sopts.dbPath(backup + IO.ZIPSUFFIX).delete();
   }
 
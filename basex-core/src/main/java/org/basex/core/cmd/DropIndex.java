@@ -43,6 +43,15 @@ public final class DropIndex extends ACreate {
     } else if(ci == CmdIndex.FULLTEXT) {
       type = IndexType.FULLTEXT;
       data.meta.createft = false;
+    } else if(ci == CmdIndex.TRIGRAM) {
+      type = IndexType.TRIGRAM;
+      data.meta.createtrigram = false;
+    } else if(ci == CmdIndex.COMPOSITE) {
+      type = IndexType.COMPOSITE;
+      data.meta.createcomposite = false;
+    } else if(ci == CmdIndex.NAME) {
+      type = IndexType.NAME;
+      data.meta.createname = false;
     } else {
       return error(UNKNOWN_CMD_X, this);
     }
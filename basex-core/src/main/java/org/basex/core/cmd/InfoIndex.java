@@ -55,6 +55,9 @@ public final class InfoIndex extends AInfo {
     tb.add(info(CmdIndexInfo.ATTRIBUTE, data, options));
     tb.add(info(CmdIndexInfo.TOKEN, data, options));
     tb.add(info(CmdIndexInfo.FULLTEXT, data, options));
+    tb.add(info(CmdIndexInfo.TRIGRAM, data, options));
+    tb.add(info(CmdIndexInfo.COMPOSITE, data, options));
+    tb.add(info(CmdIndexInfo.NAME, data, options));
     tb.add(info(CmdIndexInfo.PATH, data, options));
     out.print(tb.finish());
     return true;
@@ -88,6 +91,13 @@ public final class InfoIndex extends AInfo {
         return info(TOKEN_INDEX, IndexType.TOKEN, data, options, data.meta.tokenindex);
       case FULLTEXT:
         return info(FULLTEXT_INDEX, IndexType.FULLTEXT, data, options, data.meta.ftindex);
+      case TRIGRAM:
+        return info(TRIGRAM_INDEX, IndexType.TRIGRAM, data, options, data.meta.trigramindex);
+      case COMPOSITE:
+        return info(COMPOSITE_INDEX, IndexType.COMPOSITE, data, options,
+            data.meta.compositeindex);
+      case NAME:
+        return info(NAME_INDEX, IndexType.NAME, data, options, data.meta.nameindex);
       default:
         return Token.token(LI + NOT_AVAILABLE);
     }
@@ -86,7 +86,7 @@ public final class Optimize extends ACreate {
    * @throws IOException I/O Exception during index rebuild
    */
   public static void optimize(final Data data, final Optimize cmd) throws IOException {
-    optimize(data, false, false, false, false, cmd);
+    optimize(data, false, false, false, false, false, cmd);
   }
 
   /**
@@ -96,11 +96,13 @@ public final class Optimize extends ACreate {
    * @param enforceAttr enforce creation or deletion of attribute index
    * @param enforceToken enforce creation or deletion of token index
    * @param enforceFt enforce creation or deletion of full-text index
+   * @param enforceComposite enforce creation or deletion of composite index
    * @param cmd calling command instance (can be {@code null})
    * @throws IOException I/O Exception during index rebuild
    */
   public static void optimize(final Data data, final boolean enforceText, final boolean enforceAttr,
-      final boolean enforceToken, final boolean enforceFt, final Optimize cmd) throws IOException {
+      final boolean enforceToken, final boolean enforceFt, final boolean enforceComposite,
+      final Optimize cmd) throws IOException {
 
     // initialize structural indexes
     final MetaData meta = data.meta;
@@ -158,6 +160,9 @@ public final class Optimize extends ACreate {
     optimize(IndexType.ATTRIBUTE, data, meta.createattr, enforceAttr, cmd);
     optimize(IndexType.TOKEN, data, meta.createtoken, enforceToken, cmd);
     optimize(IndexType.FULLTEXT, data, meta.createft, enforceFt, cmd);
+    optimize(IndexType.TRIGRAM, data, meta.createtrigram, false, cmd);
+    optimize(IndexType.COMPOSITE, data, meta.createcomposite, enforceComposite, cmd);
+    optimize(IndexType.NAME, data, meta.createname, false, cmd);
   }
 
   /**
@@ -196,6 +201,9 @@ public final class Optimize extends ACreate {
       if(data.meta.textindex) optimize(IndexType.TEXT, data, true, true, null);
       if(data.meta.attrindex) optimize(IndexType.ATTRIBUTE, data, true, true, null);
       if(data.meta.tokenindex) optimize(IndexType.TOKEN, data, true, true, null);
+      if(data.meta.ftindex) optimize(IndexType.FULLTEXT, data, true, true, null);
+      if(data.meta.trigramindex) optimize(IndexType.TRIGRAM, data, true, true, null);
+      if(data.meta.compositeindex) optimize(IndexType.COMPOSITE, data, true, true, null);
     }
   }
 }
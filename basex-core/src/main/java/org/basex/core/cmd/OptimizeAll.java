@@ -93,10 +93,14 @@ public final class OptimizeAll extends ACreate {
     options.set(MainOptions.ATTRINDEX, ometa.attrindex);
     options.set(MainOptions.TOKENINDEX, ometa.tokenindex);
     options.set(MainOptions.FTINDEX, ometa.ftindex);
+    options.set(MainOptions.TRIGRAMINDEX, ometa.trigramindex);
+    options.set(MainOptions.COMPOSITEINDEX, ometa.compositeindex);
+    options.set(MainOptions.NAMEINDEX, ometa.nameindex);
     options.set(MainOptions.TEXTINCLUDE, ometa.textinclude);
     options.set(MainOptions.ATTRINCLUDE, ometa.attrinclude);
     options.set(MainOptions.TOKENINCLUDE, ometa.tokeninclude);
     options.set(MainOptions.FTINCLUDE, ometa.ftinclude);
+    options.set(MainOptions.COMPOSITEINCLUDE, ometa.compositeinclude);
     // adopt original full-text index options
     options.set(MainOptions.STEMMING, ometa.stemming);
     options.set(MainOptions.CASESENS, ometa.casesens);
@@ -106,6 +110,9 @@ public final class OptimizeAll extends ACreate {
     // adopt original index options
     options.set(MainOptions.MAXLEN, ometa.maxlen);
     options.set(MainOptions.MAXCATS, ometa.maxcats);
+    // adopt original storage options
+    options.set(MainOptions.COMPRESSTABLE, ometa.compresstable);
+    options.set(MainOptions.TEXTDICT, ometa.textdict);
 
     // build database and index structures
     final StaticOptions sopts = context.soptions;
@@ -129,6 +136,9 @@ public final class OptimizeAll extends ACreate {
     nmeta.createattr = ometa.createattr;
     nmeta.createtoken = ometa.createtoken;
     nmeta.createft = ometa.createft;
+    nmeta.createtrigram = ometa.createtrigram;
+    nmeta.createcomposite = ometa.createcomposite;
+    nmeta.createname = ometa.createname;
     nmeta.original = ometa.original;
     nmeta.inputsize = ometa.inputsize;
     nmeta.time = ometa.time;
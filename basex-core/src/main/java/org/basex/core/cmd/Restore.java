@@ -3,9 +3,12 @@ package org.basex.core.cmd;
 import static org.basex.core.Text.*;
 
 import java.io.*;
+import java.nio.channels.*;
+import java.util.*;
 import java.util.zip.*;
 
 import org.basex.core.*;
+import org.basex.core.BackupManifest.*;
 import org.basex.core.locks.*;
 import org.basex.io.*;
 import org.basex.util.*;
@@ -62,7 +65,8 @@ public final class Restore extends ABackup {
   }
 
   /**
-   * Restores the specified database .
+   * Restores the specified database. If the backup is incremental, the chain of backups
+   * it is based on will be restored first.
    * @param db name of database (empty string for general data)
    * @param backup name of backup
    * @param sopts static options
@@ -72,23 +76,123 @@ public final class Restore extends ABackup {
   public static void restore(final String db, final String backup, final StaticOptions sopts,
       final Restore cmd) throws IOException {
 
+    // collect chain of incremental backups, starting with the latest one
+    final IOFile dbPath = sopts.dbPath();
+    final StringList chain = new StringList();
+    final ArrayList<BackupManifest> manifests = new ArrayList<>();
+    for(String name = backup; name != null;) {
+      if(chain.contains(name)) throw new IOException("Cyclic backup chain: " + name);
+      final BackupManifest manifest = BackupManifest.read(name, sopts);
+      chain.add(name);
+      manifests.add(manifest);
+      name = manifest != null ? manifest.base(name) : null;
+      if(name != null && !new IOFile(dbPath, name + IO.ZIPSUFFIX).exists()) {
+        throw new IOException(Util.info(BACKUP_NOT_FOUND_X, name));
+      }
+    }
+    if(cmd != null) {
+      for(final String name : chain) {
+        try(ZipFile zip = new ZipFile(new IOFile(dbPath, name + IO.ZIPSUFFIX).file())) {
+          cmd.total += zip.size();
+        }
+      }
+    }
+
     // drop existing files
     DropDB.drop(db, sopts);
-    // unzip backup
-    final IOFile dbPath = sopts.dbPath(), file = new IOFile(dbPath, backup + IO.ZIPSUFFIX);
-    if(cmd != null) {
-      try(ZipFile zip = new ZipFile(file.file())) {
-        cmd.total = zip.size();
+    // threads for decompressing chunks are only required for compressed backups
+    boolean compressed = false;
+    for(final BackupManifest manifest : manifests) {
+      if(manifest != null && manifest.blocks) compressed = true;
+    }
+    try(BackupCodec codec = compressed ? BackupCodec.get(sopts) : null) {
+      // unzip full backup
+      final int cs = chain.size();
+      final BackupManifest full = manifests.get(cs - 1);
+      final boolean blocks = full != null && full.blocks;
+      final IOFile file = new IOFile(dbPath, chain.get(cs - 1) + IO.ZIPSUFFIX);
+      try(InputStream is = file.inputStream(); ZipInputStream in = new ZipInputStream(is)) {
+        for(ZipEntry ze; (ze = in.getNextEntry()) != null;) {
+          final String name = ze.getName();
+          if(!BackupManifest.manifest(name)) {
+            final IOFile trg = new IOFile(dbPath, name);
+            if(ze.isDirectory()) {
+              trg.md();
+            } else {
+              trg.parent().md();
+              if(blocks) {
+                try(FileChannel fc = new FileOutputStream(trg.file()).getChannel()) {
+                  codec.inflate(in, fc, BackupManifest.CHUNK);
+                }
+              } else {
+                trg.write(in);
+              }
+            }
+          }
+          if(cmd != null) cmd.curr++;
+        }
+      }
+      // apply incremental backups
+      for(int c = cs - 2; c >= 0; c--) {
+        final IOFile delta = new IOFile(dbPath, chain.get(c) + IO.ZIPSUFFIX);
+        apply(db, delta, manifests.get(c), codec, sopts, cmd);
       }
     }
-    try(InputStream is = file.inputStream(); ZipInputStream in = new ZipInputStream(is)) {
-      for(ZipEntry ze; (ze = in.getNextEntry()) != null;) {
-        final IOFile trg = new IOFile(dbPath, ze.getName());
-        if(ze.isDirectory()) {
-          trg.md();
-        } else {
-          trg.parent().md();
-          trg.write(in);
+  }
+
+  /**
+   * Applies an incremental backup.
+   * @param db name of database (empty string for general data)
+   * @param file backup file
+   * @param manifest manifest of the backup
+   * @param codec codec for decompressing chunks (can be {@code null})
+   * @param sopts static options
+   * @param cmd calling command instance (can be {@code null})
+   * @throws IOException I/O exception
+   */
+  private static void apply(final String db, final IOFile file, final BackupManifest manifest,
+      final BackupCodec codec, final StaticOptions sopts, final Restore cmd) throws IOException {
+
+    final IOFile dbPath = sopts.dbPath(db);
+    try(ZipFile zip = new ZipFile(file.file())) {
+      final String me = BackupManifest.entry(zip).getName();
+      final String prefix = me.substring(0, me.indexOf('/') + 1);
+
+      // delete files that have been removed since the previous backup
+      for(final String path : sopts.dbFiles(db)) {
+        final String key = Prop.WIN ? path.replace('\\', '/') : path;
+        if(!manifest.files.containsKey(key)) new IOFile(dbPath, path).delete();
+      }
+      // write changed chunks and adjust file lengths
+      final int size = BackupManifest.CHUNK;
+      final byte[] chunk = new byte[size];
+      for(final Map.Entry<String, BackupFile> entry : manifest.files.entrySet()) {
+        final BackupFile bf = entry.getValue();
+        final IOFile trg = new IOFile(dbPath, entry.getKey());
+        final ZipEntry ze = zip.getEntry(prefix + entry.getKey());
+        if(ze == null && trg.exists() && trg.length() == bf.length) continue;
+
+        trg.parent().md();
+        try(RandomAccessFile raf = new RandomAccessFile(trg.file(), "rw")) {
+          raf.setLength(bf.length);
+          if(ze != null && manifest.blocks) {
+            try(InputStream in = zip.getInputStream(ze)) {
+              codec.inflate(in, raf.getChannel(), size);
+            }
+          } else if(ze != null) {
+            try(DataInputStream in = new DataInputStream(new BufferedInputStream(
+                zip.getInputStream(ze)))) {
+              for(int b; (b = in.read()) != -1;) {
+                final int c = b << 24 | in.readUnsignedByte() << 16 |
+                  in.readUnsignedByte() << 8 | in.readUnsignedByte();
+                final long pos = (long) c * size;
+                final int l = (int) Math.min(size, bf.length - pos);
+                in.readFully(chunk, 0, l);
+                raf.seek(pos);
+                raf.write(chunk, 0, l);
+              }
+            }
+          }
         }
         if(cmd != null) cmd.curr++;
       }
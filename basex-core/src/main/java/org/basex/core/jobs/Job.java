@@ -1,5 +1,6 @@
 package org.basex.core.jobs;
 
+import java.io.*;
 import java.util.*;
 
 import org.basex.core.*;
@@ -27,6 +28,8 @@ public abstract class Job {
   public volatile JobState state = JobState.SCHEDULED;
   /** Stopped flag. */
   private volatile boolean stopped;
+  /** Indicates if the job has registered and still holds its locks. */
+  private boolean locked;
 
   /**
    * Returns the job context.
@@ -45,20 +48,53 @@ public abstract class Job {
     ctx.jobs.register(this);
     state(JobState.QUEUED);
     ctx.locking.acquire(this, ctx);
+    locked = true;
     state(JobState.RUNNING);
+    jc.start = System.currentTimeMillis();
     jc.performance = new Performance();
     // non-admin users: stop process after timeout
     if(!ctx.user().has(Perm.ADMIN)) startTimeout(ctx.soptions.get(StaticOptions.TIMEOUT));
   }
 
   /**
-   * Unregisters the job.
+   * Unregisters the job. The updates of the job are persisted after its locks have been released.
    * @param ctx context
+   * @throws IOException I/O exception (if the updates of the job could not be persisted)
    */
-  public final void unregister(final Context ctx) {
+  public final void unregister(final Context ctx) throws IOException {
     stopTimeout();
+    unlock(ctx);
+    try {
+      jc.sync();
+    } finally {
+      ctx.jobs.unregister(this);
+    }
+  }
+
+  /**
+   * Releases the locks of a registered job before it is unregistered.
+   * Can be called by jobs that will not access any locked resources anymore.
+   * @param ctx context
+   * @return {@code true} if locks were released
+   */
+  public final boolean unlock(final Context ctx) {
+    if(!locked) return false;
     ctx.locking.release();
-    ctx.jobs.unregister(this);
+    locked = false;
+    return true;
+  }
+
+  /**
+   * Reacquires the locks that have been released via {@link #unlock(Context)}.
+   * The lock strings that have been collected when the job was registered will be reused.
+   * @param ctx context
+   */
+  public final void lock(final Context ctx) {
+    if(locked) return;
+    state(JobState.QUEUED);
+    ctx.locking.reacquire(jc);
+    locked = true;
+    state(JobState.RUNNING);
   }
 
   /**
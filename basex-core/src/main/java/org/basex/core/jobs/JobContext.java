@@ -1,7 +1,11 @@
 package org.basex.core.jobs;
 
+import java.io.*;
+import java.util.*;
+
 import org.basex.core.*;
 import org.basex.core.locks.*;
+import org.basex.data.*;
 import org.basex.query.*;
 import org.basex.util.*;
 
@@ -27,9 +31,13 @@ public final class JobContext {
   public final Locks locks = new Locks();
   /** Time of creation. */
   public final long time = System.currentTimeMillis();
+  /** Time when the job was started ({@code 0}: job is not running yet). */
+  public long start;
 
   /** Performance measurements. */
   public Performance performance;
+  /** Estimated runtime in milliseconds, derived from previous runs ({@code -1}: unknown). */
+  public long estimate = -1;
   /** Database context. */
   public Context context;
 
@@ -41,6 +49,12 @@ public final class JobContext {
   private String tp;
   /** Job description (optional). */
   private String desc;
+  /** Priority class (optional). */
+  private JobPriority prio;
+  /** Databases that have been updated by the job. */
+  private final Set<Data> updated = Collections.synchronizedSet(new HashSet<>());
+  /** Tasks that will be run after the locks of the job have been released. */
+  private final List<Task> deferred = Collections.synchronizedList(new ArrayList<>(0));
 
   /**
    * Constructor.
@@ -86,6 +100,71 @@ public final class JobContext {
     desc = description;
   }
 
+  /**
+   * Sets a priority class.
+   * @param priority priority class
+   */
+  public void priority(final JobPriority priority) {
+    prio = priority;
+  }
+
+  /**
+   * Returns the priority class.
+   * @return priority class, or {@code null} if it has not been assigned
+   */
+  public JobPriority priority() {
+    return prio;
+  }
+
+  /**
+   * Registers a database that has been updated by the job.
+   * @param data data reference
+   */
+  public void updated(final Data data) {
+    updated.add(data);
+  }
+
+  /**
+   * Registers a task that will be run after the locks of the job have been released.
+   * @param task task
+   */
+  public void defer(final Task task) {
+    deferred.add(task);
+  }
+
+  /**
+   * Waits until the updates of all registered databases have been persisted, and runs the
+   * deferred tasks. Called after the locks of the job have been released, so that the updates of
+   * concurrent jobs can be persisted at once.
+   * @throws IOException I/O exception (raised after all databases and tasks have been processed)
+   */
+  void sync() throws IOException {
+    IOException error = null;
+    synchronized(updated) {
+      for(final Data data : updated) {
+        try {
+          data.sync();
+        } catch(final IOException ex) {
+          if(error == null) error = ex;
+          else Util.debug(ex);
+        }
+      }
+      updated.clear();
+    }
+    synchronized(deferred) {
+      for(final Task task : deferred) {
+        try {
+          task.run();
+        } catch(final IOException ex) {
+          if(error == null) error = ex;
+          else Util.debug(ex);
+        }
+      }
+      deferred.clear();
+    }
+    if(error != null) throw error;
+  }
+
   /**
    * Returns the job type.
    * @return name
@@ -110,4 +189,16 @@ public final class JobContext {
   public String toString() {
     return desc != null ? desc : job.toString();
   }
+
+  /**
+   * Task that is run after the locks of a job have been released.
+   */
+  @FunctionalInterface
+  public interface Task {
+    /**
+     * Runs the task.
+     * @throws IOException I/O exception
+     */
+    void run() throws IOException;
+  }
 }
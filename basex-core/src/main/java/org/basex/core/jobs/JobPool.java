@@ -6,6 +6,8 @@ import java.util.*;
 import java.util.concurrent.*;
 
 import org.basex.core.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
 import org.basex.util.*;
 import org.basex.util.list.*;
 
@@ -18,6 +20,8 @@ import org.basex.util.list.*;
 public final class JobPool {
   /** Number of queries to be queued. */
   static final int MAXQUERIES = 1000;
+  /** Name of the user info attribute that defines the priority class. */
+  private static final QNm PRIORITY = new QNm("priority");
 
   /** Queued or running jobs. */
   public final Map<String, Job> active = new ConcurrentHashMap<>();
@@ -25,11 +29,21 @@ public final class JobPool {
   public final Map<String, QueryJobResult> results = new ConcurrentHashMap<>();
   /** Timer tasks. */
   public final Map<String, QueryJobTask> tasks = new ConcurrentHashMap<>();
+  /** Average runtimes of recently completed jobs (ms), indexed by their string representation. */
+  private final Map<String, Long> runtimes = Collections.synchronizedMap(
+    new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, Long> entry) {
+        return size() > MAXQUERIES;
+      }
+    });
 
   /** Timer. */
   final Timer timer = new Timer(true);
   /** Timeout (ms). */
   private final long timeout;
+  /** Runtime (ms) after which repeated jobs get low priority ({@code 0}: deactivated). */
+  private final long demote;
 
   /**
    * Constructor.
@@ -37,6 +51,7 @@ public final class JobPool {
    */
   public JobPool(final StaticOptions sopts) {
     timeout = sopts.get(StaticOptions.CACHETIMEOUT) * 1000L;
+    demote = sopts.get(StaticOptions.DEMOTETIME);
   }
 
   /**
@@ -49,11 +64,43 @@ public final class JobPool {
   }
 
   /**
-   * Unregisters a job.
+   * Assigns the estimated runtime and the priority class before a job is queued.
+   * The priority class is chosen as follows:
+   * <ol>
+   *   <li> an explicitly assigned class (query option, function annotation) is preserved,</li>
+   *   <li> the class specified in the {@code priority} attribute of the user info is chosen,</li>
+   *   <li> jobs whose previous runs exceeded {@link StaticOptions#DEMOTETIME} get low priority,</li>
+   *   <li> all other jobs get normal priority.</li>
+   * </ol>
+   * @param jc job context
+   * @param ctx database context of client
+   */
+  public void admit(final JobContext jc, final Context ctx) {
+    final Long runtime = runtimes.get(jc.toString());
+    jc.estimate = runtime != null ? runtime : -1;
+    if(jc.priority() != null) return;
+
+    JobPriority prio = null;
+    final ANode info = ctx.user().info();
+    final byte[] value = info != null ? info.attribute(PRIORITY) : null;
+    if(value != null) prio = JobPriority.get(Token.string(value));
+    if(prio == null) {
+      prio = demote > 0 && jc.estimate >= demote ? JobPriority.LOW : JobPriority.NORMAL;
+    }
+    jc.priority(prio);
+  }
+
+  /**
+   * Unregisters a job and updates its average runtime.
    * @param job job
    */
   public void unregister(final Job job) {
-    active.remove(job.jc().id());
+    final JobContext jc = job.jc();
+    active.remove(jc.id());
+    if(jc.start != 0 && !job.stopped()) {
+      final long ms = System.currentTimeMillis() - jc.start;
+      runtimes.merge(jc.toString(), ms, (old, ms2) -> (old + ms2) / 2);
+    }
   }
 
   /**
@@ -0,0 +1,50 @@
+package org.basex.core.jobs;
+
+import java.util.*;
+
+/**
+ * Priority classes of jobs. Queued jobs are started in a weighted fair order:
+ * a class with a higher weight will be served more often, but no class will starve.
+ *
+ * @author BaseX Team 2005-23, BSD License
+ * @author Christian Gruen
+ */
+public enum JobPriority {
+  /** High priority (interactive requests). */
+  HIGH(4),
+  /** Normal priority. */
+  NORMAL(2),
+  /** Low priority (batch jobs, expensive queries). */
+  LOW(1);
+
+  /** Cached enums (faster). */
+  public static final JobPriority[] VALUES = values();
+
+  /** Weight of the class. */
+  public final int weight;
+
+  /**
+   * Constructor.
+   * @param weight weight
+   */
+  JobPriority(final int weight) {
+    this.weight = weight;
+  }
+
+  /**
+   * Returns a priority class for the specified string.
+   * @param string string
+   * @return priority class or {@code null}
+   */
+  public static JobPriority get(final String string) {
+    for(final JobPriority prio : VALUES) {
+      if(prio.toString().equals(string)) return prio;
+    }
+    return null;
+  }
+
+  @Override
+  public String toString() {
+    return name().toLowerCase(Locale.ENGLISH);
+  }
+}
@@ -35,4 +35,8 @@ public interface JobsText {
   QNm Q_TIME = new QNm("time");
   /** QName. */
   QNm Q_TYPE = new QNm("type");
+  /** QName. */
+  QNm Q_PRIORITY = new QNm("priority");
+  /** QName. */
+  QNm Q_ESTIMATE = new QNm("estimate");
 }
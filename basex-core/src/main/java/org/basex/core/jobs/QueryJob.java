@@ -3,6 +3,7 @@ package org.basex.core.jobs;
 import static org.basex.query.QueryError.*;
 import static org.basex.util.Token.*;
 
+import java.io.*;
 import java.util.*;
 import java.util.Map.*;
 import java.util.function.*;
@@ -239,7 +240,13 @@ public final class QueryJob extends Job implements Runnable {
 
       if(ctx.jobs.active.containsKey(id)) {
         qp.close();
-        unregister(ctx);
+        try {
+          unregister(ctx);
+        } catch(final IOException ex) {
+          // updates could not be persisted
+          result.value = null;
+          if(result.exception == null) result.exception = UPDBERROR_X.get(null, ex);
+        }
         popJob();
         qp = null;
         result.time += jc.performance.ns();
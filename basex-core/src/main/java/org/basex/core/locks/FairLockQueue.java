@@ -2,6 +2,8 @@ package org.basex.core.locks;
 
 import java.util.*;
 
+import org.basex.core.jobs.*;
+
 /**
  * Lock queue for fair locking.
  *
@@ -9,8 +11,8 @@ import java.util.*;
  * @author Christian Gruen
  */
 final class FairLockQueue extends LockQueue {
-  /** Queue. */
-  private final Queue<Long> queue = new LinkedList<>();
+  /** Queues (one per priority class). */
+  private final EnumMap<JobPriority, Queue<Long>> queues = new EnumMap<>(JobPriority.class);
 
   /**
    * Constructor.
@@ -18,29 +20,38 @@ final class FairLockQueue extends LockQueue {
    */
   FairLockQueue(final int parallel) {
     super(parallel);
+    for(final JobPriority prio : JobPriority.VALUES) queues.put(prio, new LinkedList<>());
   }
 
   @Override
-  synchronized void acquire(final Long id, final boolean read, final boolean write)
-      throws InterruptedException {
+  synchronized void acquire(final Long id, final boolean read, final boolean write,
+      final JobPriority priority) throws InterruptedException {
 
     // add job id to queue and wait
     if(jobs >= parallel) {
+      enqueue(priority);
+      final Queue<Long> queue = queues.get(priority);
       queue.add(id);
 
-      // loop until job is placed first
+      // loop until job is placed first and its priority class is to be served
       do {
         wait();
-      } while(!id.equals(queue.peek()));
+      } while(jobs >= parallel || next() != priority || !id.equals(queue.peek()));
 
       // remove job from queue
       queue.remove(id);
+      dequeue(priority);
     }
     jobs++;
   }
 
+  @Override
+  boolean queued(final JobPriority priority) {
+    return !queues.get(priority).isEmpty();
+  }
+
   @Override
   public synchronized String toString() {
-    return "Jobs: " + jobs + ", queue: " + queue;
+    return "Jobs: " + jobs + ", queue: " + queues;
   }
 }
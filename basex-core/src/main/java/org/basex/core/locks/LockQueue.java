@@ -1,17 +1,30 @@
 package org.basex.core.locks;
 
+import org.basex.core.jobs.*;
+
 /**
- * Lock queue.
+ * Lock queue. Queued jobs are assigned to priority classes, which are served in a weighted
+ * fair order (stride scheduling): each class advances its virtual time by the inverse of its
+ * weight whenever one of its jobs is started, and the class with the smallest virtual time
+ * will be served next.
  *
  * @author BaseX Team 2005-23, BSD License
  * @author Christian Gruen
  */
 abstract class LockQueue {
+  /** Stride of a class with weight 1. */
+  private static final long STRIDE = 1 << 16;
+
   /** Maximum number of parallel jobs. */
   protected final int parallel;
   /** Number of currently running jobs. */
   protected int jobs;
 
+  /** Virtual times of the priority classes. */
+  private final long[] passes = new long[JobPriority.VALUES.length];
+  /** Global virtual time. */
+  private long time;
+
   /**
    * Constructor.
    * @param parallel parallel jobs
@@ -25,9 +38,18 @@ abstract class LockQueue {
    * @param id job id
    * @param read read flag
    * @param write write flag
+   * @param priority priority class
    * @throws InterruptedException interrupted exception
    */
-  abstract void acquire(Long id, boolean read, boolean write) throws InterruptedException;
+  abstract void acquire(Long id, boolean read, boolean write, JobPriority priority)
+      throws InterruptedException;
+
+  /**
+   * Indicates if jobs of the specified priority class are queued.
+   * @param priority priority class
+   * @return result of check
+   */
+  abstract boolean queued(JobPriority priority);
 
   /**
    * Notifies other jobs that a job has been completed.
@@ -36,4 +58,39 @@ abstract class LockQueue {
     notifyAll();
     jobs--;
   }
+
+  /**
+   * Returns the priority class whose jobs will be served next.
+   * If virtual times are equal, the class with the higher priority will be chosen.
+   * @return priority class or {@code null}
+   */
+  final JobPriority next() {
+    JobPriority next = null;
+    for(final JobPriority prio : JobPriority.VALUES) {
+      if(queued(prio) && (next == null || passes[prio.ordinal()] < passes[next.ordinal()])) {
+        next = prio;
+      }
+    }
+    return next;
+  }
+
+  /**
+   * Activates a priority class before a job is added to an empty queue.
+   * Prevents idle classes from accumulating credit.
+   * @param priority priority class
+   */
+  final void enqueue(final JobPriority priority) {
+    final int p = priority.ordinal();
+    if(!queued(priority)) passes[p] = Math.max(passes[p], time);
+  }
+
+  /**
+   * Advances the virtual time of a priority class after one of its jobs has been dequeued.
+   * @param priority priority class
+   */
+  final void dequeue(final JobPriority priority) {
+    final int p = priority.ordinal();
+    time = passes[p];
+    passes[p] += STRIDE / priority.weight;
+  }
 }
@@ -5,6 +5,7 @@ import static org.basex.util.Token.*;
 
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 import java.util.concurrent.locks.*;
 
 import org.basex.core.*;
@@ -19,6 +20,8 @@ import org.basex.util.list.*;
  *
  * (Non-)fair locking can be adjusted via the {@link StaticOptions#FAIRLOCK} option.
  *
+ * Queued jobs are started in a weighted fair order of their {@link JobPriority} classes.
+ *
  * This class prevents locking deadlocks by sorting all strings.
  *
  * Locks can only be released by the same thread which acquired it.
@@ -60,6 +63,13 @@ public final class Locking {
   /** Lock object for queuing local writes and global reads. */
   private final Object globalLock = new Object();
 
+  /** Number of released write locks, indexed by lock strings. */
+  private final ConcurrentMap<String, Long> written = new ConcurrentHashMap<>();
+  /** Number of released global write locks. */
+  private final AtomicLong globalWrites = new AtomicLong();
+  /** Number of released write locks (local and global). */
+  private final AtomicLong allWrites = new AtomicLong();
+
   /** Number of running local writers. */
   private int localWriters;
   /** Number of running global readers. */
@@ -84,9 +94,24 @@ public final class Locking {
   public void acquire(final Job job, final Context ctx) {
     // collect lock strings
     job.addLocks();
+    // assign priority class
+    final JobContext jc = job.jc();
+    ctx.jobs.admit(jc, ctx);
     // prepare lock strings and acquire locks
     try {
-      acquire(job.jc().locks.finish(ctx));
+      acquire(jc.locks.finish(ctx), jc.priority());
+    } catch(final InterruptedException ex) {
+      throw Util.notExpected("Thread was interrupted: %", ex);
+    }
+  }
+
+  /**
+   * Reacquires the locks of a job that have been released via {@link #release()}.
+   * @param jc job context (the locks must have been prepared for locking)
+   */
+  public void reacquire(final JobContext jc) {
+    try {
+      acquire(jc.locks, jc.priority());
     } catch(final InterruptedException ex) {
       throw Util.notExpected("Thread was interrupted: %", ex);
     }
@@ -99,6 +124,17 @@ public final class Locking {
    * @throws InterruptedException interrupted exception
    */
   void acquire(final Locks locks) throws InterruptedException {
+    acquire(locks, JobPriority.NORMAL);
+  }
+
+  /**
+   * Puts read and write locks for the specified lock lists.
+   * The lists must have been prepared for locking (see {@link Locks#finish(Context)}).
+   * @param locks locks
+   * @param priority priority class
+   * @throws InterruptedException interrupted exception
+   */
+  void acquire(final Locks locks, final JobPriority priority) throws InterruptedException {
     // one thread can only hold a single lock
     final Long id = Thread.currentThread().getId();
     if(locked.containsKey(id)) throw new IllegalMonitorStateException("Thread holds locks: " + id);
@@ -107,7 +143,7 @@ public final class Locking {
     // queue job if the job limit has been reached
     final LockList reads = locks.reads, writes = locks.writes;
     final boolean write = writes.locking(), read = reads.locking(), lock = read || write;
-    queue.acquire(id, read, write);
+    queue.acquire(id, read, write, priority);
 
     // apply exclusive lock (global write), or shared lock otherwise
     if(lock) (writes.global() ? globalLocks.writeLock() : globalLocks.readLock()).lock();
@@ -146,6 +182,14 @@ public final class Locking {
     final LockList reads = locks.reads, writes = locks.writes;
     final boolean lock = reads.locking() || writes.locking();
 
+    // count write operations before the locks are released
+    if(writes.global()) {
+      globalWrites.incrementAndGet();
+    } else {
+      for(final String string : writes) written.merge(string, 1L, Long::sum);
+    }
+    if(writes.locking()) allWrites.incrementAndGet();
+
     // release all local locks
     for(final String string : reads) unpin(string).readLock().unlock();
     for(final String string : writes) unpin(string).writeLock().unlock();
@@ -173,6 +217,37 @@ public final class Locking {
     queue.release();
   }
 
+  /**
+   * Returns a stamp for the resources guarded by the specified locks. The stamp changes whenever
+   * a job that may have modified one of these resources has released its write locks.
+   * @param locks locks (must have been prepared for locking, see {@link Locks#finish(Context)})
+   * @return stamp
+   */
+  public long stamp(final Locks locks) {
+    final LockList reads = locks.reads, writes = locks.writes;
+    if(reads.global() || writes.global()) return allWrites.get();
+
+    long stamp = globalWrites.get();
+    for(final String string : reads) stamp += written.getOrDefault(string, 0L);
+    for(final String string : writes) stamp += written.getOrDefault(string, 0L);
+    return stamp;
+  }
+
+  /**
+   * Returns the stamp that the resources guarded by the locks of the current thread will have
+   * after these locks have been released (see {@link #stamp(Locks)}). As the resources cannot be
+   * modified by other jobs while the locks are held, the stamp can be used to detect changes
+   * that have been performed after the release.
+   * @return stamp
+   */
+  public long releaseStamp() {
+    final Locks locks = locked.get(Thread.currentThread().getId());
+    final LockList reads = locks.reads, writes = locks.writes;
+    // include the write operations that will be counted when the locks are released
+    return stamp(locks) + (reads.global() || writes.global() ? writes.locking() ? 1 : 0 :
+      writes.size());
+  }
+
   /**
    * Pins a lock string. Creates a new lock if necessary.
    * @param string lock string
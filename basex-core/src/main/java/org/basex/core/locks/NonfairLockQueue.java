@@ -2,6 +2,8 @@ package org.basex.core.locks;
 
 import java.util.*;
 
+import org.basex.core.jobs.*;
+
 /**
  * Lock queue for non-fair locking.
  *
@@ -9,10 +11,10 @@ import java.util.*;
  * @author Christian Gruen
  */
 final class NonfairLockQueue extends LockQueue {
-  /** Queued readers. */
-  private final Queue<Long> readers = new LinkedList<>();
-  /** Queued writers. */
-  private final Queue<Long> writers = new LinkedList<>();
+  /** Queued readers (one queue per priority class). */
+  private final EnumMap<JobPriority, Queue<Long>> readers = new EnumMap<>(JobPriority.class);
+  /** Queued writers (one queue per priority class). */
+  private final EnumMap<JobPriority, Queue<Long>> writers = new EnumMap<>(JobPriority.class);
 
   /**
    * Constructor.
@@ -20,29 +22,42 @@ final class NonfairLockQueue extends LockQueue {
    */
   NonfairLockQueue(final int parallel) {
     super(parallel);
+    for(final JobPriority prio : JobPriority.VALUES) {
+      readers.put(prio, new LinkedList<>());
+      writers.put(prio, new LinkedList<>());
+    }
   }
 
   @Override
-  public synchronized void acquire(final Long id, final boolean read, final boolean write)
-      throws InterruptedException {
+  public synchronized void acquire(final Long id, final boolean read, final boolean write,
+      final JobPriority priority) throws InterruptedException {
 
     // only wait if job is locking
     if(jobs >= parallel && (read || write)) {
       // add job id to queue and wait
-      final Queue<Long> queue = write ? writers : readers;
+      enqueue(priority);
+      final Queue<Long> rqueue = readers.get(priority);
+      final Queue<Long> queue = write ? writers.get(priority) : rqueue;
       queue.add(id);
 
-      // loop until job is placed first (prefer readers)
+      // loop until job is placed first (prefer readers of the same priority class)
       do {
         wait();
-      } while(jobs >= parallel || write && !readers.isEmpty() || !id.equals(queue.peek()));
+      } while(jobs >= parallel || next() != priority || write && !rqueue.isEmpty() ||
+          !id.equals(queue.peek()));
 
       // remove job from queue
       queue.remove(id);
+      dequeue(priority);
     }
     jobs++;
   }
 
+  @Override
+  boolean queued(final JobPriority priority) {
+    return !readers.get(priority).isEmpty() || !writers.get(priority).isEmpty();
+  }
+
   @Override
   public synchronized String toString() {
     return "Jobs: " + jobs + ", queued readers: " + readers + ", queued writers: " + writers;
@@ -31,6 +31,8 @@ public interface Commands {
   String CHECK = "check";
   /** Command string: "close". */
   String CLOSE = "close";
+  /** Command string: "compact". */
+  String COMPACT = "compact";
   /** Command string: "copy". */
   String COPY = "copy";
   /** Command string: "create-backup". */
@@ -152,6 +154,10 @@ public interface Commands {
   String NEWPATH = "newpath";
   /** Command attribute: "file". */
   String FILE = "file";
+  /** Command attribute: "incremental". */
+  String INCREMENTAL = "incremental";
+  /** Command attribute: "online". */
+  String ONLINE = "online";
   /** Command attribute: "value". */
   String VALUE = "value";
   /** Command attribute: "command". */
@@ -174,9 +180,11 @@ public interface Commands {
   /** Permission commands. */
   enum CmdPerm { NONE, READ, WRITE, CREATE, ADMIN }
   /** Index types. */
-  enum CmdIndex { TEXT, ATTRIBUTE, TOKEN, FULLTEXT }
+  enum CmdIndex { TEXT, ATTRIBUTE, TOKEN, FULLTEXT, TRIGRAM, COMPOSITE, NAME }
   /** Index types. */
-  enum CmdIndexInfo { NULL, TEXT, ATTRIBUTE, TOKEN, FULLTEXT, PATH, ELEMNAME, ATTRNAME }
+  enum CmdIndexInfo {
+    NULL, TEXT, ATTRIBUTE, TOKEN, FULLTEXT, TRIGRAM, COMPOSITE, NAME, PATH, ELEMNAME, ATTRNAME
+  }
   /** Alter types. */
   enum CmdAlter { DATABASE, DB, PASSWORD, USER, BACKUP }
   /** Repo types. */
@@ -185,10 +193,10 @@ public interface Commands {
   /** Command definitions. */
   enum Cmd {
     ADD(HELPADD), ALTER(HELPALTER), BINARY(HELPBINARY), CHECK(HELPCHECK), CLOSE(HELPCLOSE),
-    COPY(HELPCOPY), CREATE(HELPCREATE), DELETE(HELPDELETE), DIR(HELPDIR), DROP(HELPDROP),
-    EXECUTE(HELPEXECUTE), EXIT(HELPEXIT), EXPORT(HELPEXPORT), FIND(HELPFIND), FLUSH(HELPFLUSH),
-    GET(HELPGET), GRANT(HELPGRANT), HELP(HELPHELP), INFO(HELPINFO), INSPECT(HELPINSPECT),
-    KILL(HELPKILL), LIST(HELPLIST), OPEN(HELPOPEN), OPTIMIZE(HELPOPTIMIZE),
+    COMPACT(HELPCOMPACT), COPY(HELPCOPY), CREATE(HELPCREATE), DELETE(HELPDELETE), DIR(HELPDIR),
+    DROP(HELPDROP), EXECUTE(HELPEXECUTE), EXIT(HELPEXIT), EXPORT(HELPEXPORT), FIND(HELPFIND),
+    FLUSH(HELPFLUSH), GET(HELPGET), GRANT(HELPGRANT), HELP(HELPHELP), INFO(HELPINFO),
+    INSPECT(HELPINSPECT), KILL(HELPKILL), LIST(HELPLIST), OPEN(HELPOPEN), OPTIMIZE(HELPOPTIMIZE),
     PASSWORD(HELPPASSWORD), PUT(HELPPUT), QUIT(HELPEXIT), RENAME(HELPRENAME), REPO(HELPREPO),
     RESTORE(HELPRESTORE), RUN(HELPRUN), SET(HELPSET), SHOW(HELPSHOW), TEST(HELPTEST),
     XQUERY(HELPXQUERY);
@@ -63,7 +63,8 @@ final class StringParser extends CommandParser {
       case CREATE:
         switch(consume(CmdCreate.class, cmd)) {
           case BACKUP:
-            return new CreateBackup(glob(null), string(null));
+            final boolean incremental = key(S_INCREMENTAL, null), online = key(S_ONLINE, null);
+            return new CreateBackup(glob(null), string(null), incremental, online);
           case DATABASE: case DB:
             return new CreateDB(name(cmd), remaining(null, true));
           case INDEX:
@@ -128,6 +129,8 @@ final class StringParser extends CommandParser {
         return new Inspect();
       case CLOSE:
         return new Close();
+      case COMPACT:
+        return new Compact();
       case LIST:
         return new List(name(null), string(null));
       case DIR:
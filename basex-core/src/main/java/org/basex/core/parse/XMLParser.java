@@ -80,10 +80,13 @@ final class XMLParser extends CommandParser {
       return new Check(value(root, INPUT));
     if(e.equals(CLOSE) && check(root))
       return new Close();
+    if(e.equals(COMPACT) && check(root))
+      return new Compact();
     if(e.equals(COPY) && check(root, NAME, NEWNAME))
       return new Copy(value(root, NAME), value(root, NEWNAME));
-    if(e.equals(CREATE_BACKUP) && check(root, NAME + '?', COMMENT + '?'))
-      return new CreateBackup(value(root, NAME), value(root, COMMENT));
+    if(e.equals(CREATE_BACKUP) && check(root, NAME + '?', COMMENT + '?', INCREMENTAL + '?',
+        ONLINE + '?')) return new CreateBackup(value(root, NAME), value(root, COMMENT),
+          Strings.toBoolean(value(root, INCREMENTAL)), Strings.toBoolean(value(root, ONLINE)));
     if(e.equals(CREATE_DB) && check(root, NAME, '<' + INPUT + '?'))
       return new CreateDB(value(root, NAME), xml(root));
     if(e.equals(CREATE_INDEX) && check(root, TYPE))
@@ -0,0 +1,231 @@
+package org.basex.data;
+
+import java.io.*;
+
+import org.basex.io.random.*;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * Compacts the storage of a database in bounded steps.
+ *
+ * <ul>
+ *   <li> Sparse table pages are merged, and pages at the end of the table file are moved to
+ *        unused pages.</li>
+ *   <li> Live entries of the heap files for texts and attribute values are moved to the gaps
+ *        that have been left by deleted or updated entries, and the table references are
+ *        updated. Gaps at the end of the heap files are cut off.</li>
+ * </ul>
+ *
+ * Each step must be performed as a separate update operation. Other jobs may access the
+ * database between two steps. If the database is updated by another job, the compaction of
+ * the current heap file is restarted.
+ *
+ * @author BaseX Team 2005-23, BSD License
+ * @author Christian Gruen
+ */
+public final class Compactor {
+  /** Maximum number of page operations per step. */
+  private static final int PAGES = 1 << 8;
+  /** Maximum number of heap bytes processed per step. */
+  private static final int BYTES = 1 << 22;
+  /** Maximum number of table entries processed per step. */
+  private static final int PRES = 1 << 16;
+  /** Maximum number of heap entries moved per pass. */
+  private static final int ENTRIES = 1 << 20;
+
+  /** Compaction phases. */
+  private enum Phase {
+    /** Compact table. */ TABLE,
+    /** Find first gap in heap file. */ GAP,
+    /** Collect references to heap entries. */ COLLECT,
+    /** Move heap entries. */ MOVE,
+    /** Finished. */ DONE
+  }
+
+  /** Data reference. */
+  private final DiskData data;
+  /** Current phase. */
+  private Phase phase = Phase.TABLE;
+  /** Current heap file (texts or attribute values). */
+  private boolean text = true;
+  /** Number of updates after the last step. */
+  private int updates;
+
+  /** Heap position: current entry or target of next entry to be moved. */
+  private long pos;
+  /** Heap position from which entries will be ignored in the current pass. */
+  private long cutoff;
+  /** Current pre value. */
+  private int pre;
+  /** Heap offsets of the entries to be moved. */
+  private LongList offsets;
+  /** Pre values referencing the entries to be moved. */
+  private IntList pres;
+  /** Index of the next entry to be moved. */
+  private int entry;
+
+  /**
+   * Constructor.
+   * @param data data reference
+   */
+  public Compactor(final DiskData data) {
+    this.data = data;
+    updates = data.updates();
+  }
+
+  /**
+   * Performs the next compaction step.
+   * @return {@code true} if more steps are required
+   * @throws IOException I/O exception
+   */
+  public boolean step() throws IOException {
+    // restart heap compaction if the database has been updated by another job
+    final int u = data.updates();
+    if(u != updates + 1 && phase != Phase.TABLE) restart();
+    updates = u;
+
+    switch(phase) {
+      case TABLE:
+        if(data.table.compact(PAGES) == 0) restart();
+        break;
+      case GAP:
+        gap();
+        break;
+      case COLLECT:
+        collect();
+        break;
+      case MOVE:
+        move();
+        break;
+      default:
+    }
+    return phase != Phase.DONE;
+  }
+
+  /**
+   * Searches for the first gap in the current heap file.
+   */
+  private void gap() {
+    final DataAccess heap = data.heap(text);
+    final long length = heap.length(), end = Math.min(length, pos + BYTES);
+    while(pos < end) {
+      final int size = heap.size(pos);
+      if(size == 0) {
+        pass();
+        return;
+      }
+      pos += size;
+    }
+    if(pos >= length) next();
+  }
+
+  /**
+   * Collects references to heap entries that are located after the first gap.
+   * If too many references are found, only the lowest offsets are kept.
+   */
+  private void collect() {
+    final int size = data.meta.size, last = Math.min(size, pre + PRES);
+    for(; pre < last; pre++) {
+      final int kind = data.kind(pre);
+      if(text ? kind == Data.ELEM || kind == Data.ATTR : kind != Data.ATTR) continue;
+      final long ref = data.textRef(pre);
+      if(Inline.inlined(ref)) continue;
+      final long off = ref & Compress.COMPRESS - 1;
+      if(off < pos || off >= cutoff) continue;
+
+      offsets.add(off);
+      pres.add(pre);
+      if(offsets.size() == ENTRIES) {
+        sort();
+        final int half = ENTRIES >>> 1;
+        cutoff = offsets.get(half);
+        offsets.size(half);
+        pres.size(half);
+      }
+    }
+    if(pre == size) {
+      sort();
+      entry = 0;
+      phase = Phase.MOVE;
+    }
+  }
+
+  /**
+   * Moves heap entries to the current gap and updates their references.
+   */
+  private void move() {
+    final DataAccess heap = data.heap(text);
+    final int count = offsets.size();
+    for(long moved = 0; entry < count && moved < BYTES; entry++) {
+      final long off = offsets.get(entry);
+      final int pr = pres.get(entry), size = heap.size(off);
+      final long ref = data.textRef(pr);
+      if(Inline.inlined(ref) || (ref & Compress.COMPRESS - 1) != off) {
+        restart();
+        return;
+      }
+      if(off != pos) {
+        heap.move(off, pos, size);
+        data.textRef(pr, ref & Compress.COMPRESS | pos);
+        moved += size;
+      }
+      pos += size;
+    }
+    if(entry < count) return;
+
+    if(cutoff == Long.MAX_VALUE) {
+      // all entries have been moved: cut off remaining space
+      heap.length(pos);
+      next();
+    } else {
+      // continue with entries located after the cutoff
+      pass();
+    }
+  }
+
+  /**
+   * Starts a new pass for moving entries to the current gap.
+   */
+  private void pass() {
+    offsets = new LongList();
+    pres = new IntList();
+    cutoff = Long.MAX_VALUE;
+    pre = 0;
+    phase = Phase.COLLECT;
+  }
+
+  /**
+   * Sorts the collected entries by their offsets.
+   */
+  private void sort() {
+    final long[] offs = offsets.toArray();
+    pres.sort(offs, true);
+    offsets = new LongList(offs.length).add(offs);
+  }
+
+  /**
+   * Restarts the compaction of the current heap file.
+   */
+  private void restart() {
+    offsets = null;
+    pres = null;
+    pos = 0;
+    phase = Phase.GAP;
+  }
+
+  /**
+   * Continues with the next heap file, or finishes compaction.
+   */
+  private void next() {
+    offsets = null;
+    pres = null;
+    pos = 0;
+    if(text) {
+      text = false;
+      phase = Phase.GAP;
+    } else {
+      phase = Phase.DONE;
+    }
+  }
+}
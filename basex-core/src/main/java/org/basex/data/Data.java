@@ -107,6 +107,12 @@ public abstract class Data {
   public ValueIndex tokenIndex;
   /** Full-text index. */
   public ValueIndex ftIndex;
+  /** Trigram index. */
+  public ValueIndex trigramIndex;
+  /** Composite index. */
+  public ValueIndex compositeIndex;
+  /** Name index. */
+  public NameIndex nameIndex;
 
   /** Indicates if distances are to be updated. */
   public boolean updateDists = true;
@@ -167,8 +173,9 @@ public abstract class Data {
   /**
    * Finishes an update operation: removes the update file and the exclusive lock.
    * @param opts main options
+   * @throws IOException I/O exception (if the updates could not be written)
    */
-  public abstract void finishUpdate(MainOptions opts);
+  public abstract void finishUpdate(MainOptions opts) throws IOException;
 
   /**
    * Flushes updated data.
@@ -176,6 +183,14 @@ public abstract class Data {
    */
   public abstract void flush(boolean all);
 
+  /**
+   * Waits until all finished updates have been persisted.
+   * Can be called after the locks of an updating job have been released.
+   * @throws IOException I/O exception (if the updates could not be persisted)
+   */
+  @SuppressWarnings("unused")
+  public void sync() throws IOException { }
+
   /**
    * Returns an index iterator for the specified token.
    * @param search index search definition
@@ -218,6 +233,9 @@ public abstract class Data {
       case ATTRIBUTE: return attrIndex;
       case TOKEN:     return tokenIndex;
       case FULLTEXT:  return ftIndex;
+      case TRIGRAM:   return trigramIndex;
+      case COMPOSITE: return compositeIndex;
+      case NAME:      return nameIndex;
       case PATH:      return paths;
       default:        throw Util.notExpected();
     }
@@ -531,6 +549,9 @@ public abstract class Data {
         if(meta.updindex) {
           if(meta.attrindex) attrIndex.delete(new ValueCache(pre, IndexType.ATTRIBUTE, this));
           if(meta.tokenindex) tokenIndex.delete(new ValueCache(pre, IndexType.TOKEN, this));
+          if(meta.compositeindex) {
+            compositeIndex.delete(new ValueCache(pre, IndexType.COMPOSITE, this));
+          }
         }
         table.write1(pre, 11, uriId);
         table.write2(pre, 1, attrNames.put(name));
@@ -539,27 +560,63 @@ public abstract class Data {
         if(meta.updindex) {
           if(meta.attrindex) attrIndex.add(new ValueCache(pre, IndexType.ATTRIBUTE, this));
           if(meta.tokenindex) tokenIndex.add(new ValueCache(pre, IndexType.TOKEN, this));
+          if(meta.compositeindex) {
+            compositeIndex.add(new ValueCache(pre, IndexType.COMPOSITE, this));
+          }
         }
 
       } else {
         // update element name
         final IntList pres = new IntList();
-        // update text index
-        if(meta.updindex && meta.textindex) {
+        // update text and full-text index
+        if(meta.updindex && (meta.textindex || meta.ftindex)) {
           final int last = pre + size;
           for(int curr = pre + attSize(pre, kind); curr < last; curr += size(curr, kind(curr))) {
             if(kind(curr) == TEXT) pres.add(curr);
           }
-          textIndex.delete(new ValueCache(pres, IndexType.TEXT, this));
+          if(meta.textindex) textIndex.delete(new ValueCache(pres, IndexType.TEXT, this));
+          if(meta.ftindex) ftIndex.delete(new ValueCache(pres, IndexType.FULLTEXT, this));
         }
+        // update composite index (keys of attributes, texts and child elements contain the name)
+        final IntList comps = meta.updindex && meta.compositeindex ? compositePres(pre) : null;
+        if(comps != null) compositeIndex.delete(new ValueCache(comps, IndexType.COMPOSITE, this));
         table.write1(pre, 3, uriId);
         final int nameId = elemNames.put(name);
         table.write2(nsPre, 1, (nsFlag || nsFlag(nsPre) ? 1 << 15 : 0) | nameId);
-        if(!pres.isEmpty()) textIndex.add(new ValueCache(pres, IndexType.TEXT, this));
+        if(!pres.isEmpty()) {
+          if(meta.textindex) textIndex.add(new ValueCache(pres, IndexType.TEXT, this));
+          if(meta.ftindex) ftIndex.add(new ValueCache(pres, IndexType.FULLTEXT, this));
+        }
+        if(comps != null) compositeIndex.add(new ValueCache(comps, IndexType.COMPOSITE, this));
       }
     }
   }
 
+  /**
+   * Returns the pre values of all nodes with composite index keys that contain the name of the
+   * specified element: its attributes and texts, and the attributes and texts of its child
+   * elements.
+   * @param pre pre value of the element
+   * @return pre values
+   */
+  private IntList compositePres(final int pre) {
+    final IntList pres = new IntList();
+    final int last = pre + size(pre, ELEM);
+    for(int curr = pre + 1; curr < last; curr += size(curr, kind(curr))) {
+      final int kind = kind(curr);
+      if(kind == ELEM) {
+        final int end = curr + size(curr, ELEM);
+        for(int child = curr + 1; child < end; child += size(child, kind(child))) {
+          final int knd = kind(child);
+          if(knd == ATTR || knd == TEXT) pres.add(child);
+        }
+      } else if(kind == ATTR || kind == TEXT) {
+        pres.add(curr);
+      }
+    }
+    return pres;
+  }
+
   /**
    * Updates (replaces) the value of a single text, comment, pi, attribute or document node.
    * @param pre pre value of the node to be updated
@@ -925,6 +982,19 @@ public abstract class Data {
     table.write1(pre, 1, table.read1(pre, 1) & 0x7F | (nsFlag ? 0x80 : 0));
   }
 
+  /**
+   * Enables or disables bulk updates. If enabled, structural changes of the table are cached
+   * and written in a single pass when bulk updates are disabled again.
+   * @param bulk bulk flag
+   */
+  public final void bulk(final boolean bulk) {
+    if(bulk) {
+      if(!(table instanceof TableBulkAccess)) table = new TableBulkAccess(table);
+    } else if(table instanceof TableBulkAccess) {
+      table = ((TableBulkAccess) table).finish();
+    }
+  }
+
   /**
    * Inserts the internal buffer to the storage without updating the table structure.
    * @param pre insert position
@@ -1083,6 +1153,13 @@ public abstract class Data {
       if(meta.textindex) textIndex.delete(new ValueCache(pre, size, IndexType.TEXT, this));
       if(meta.attrindex) attrIndex.delete(new ValueCache(pre, size, IndexType.ATTRIBUTE, this));
       if(meta.tokenindex) tokenIndex.delete(new ValueCache(pre, size, IndexType.TOKEN, this));
+      if(meta.ftindex) ftIndex.delete(new ValueCache(pre, size, IndexType.FULLTEXT, this));
+      if(meta.trigramindex) {
+        trigramIndex.delete(new ValueCache(pre, size, IndexType.TRIGRAM, this));
+      }
+      if(meta.compositeindex) {
+        compositeIndex.delete(new ValueCache(pre, size, IndexType.COMPOSITE, this));
+      }
       if(id != -1) idmap.delete(pre, id, -size);
     }
   }
@@ -1101,6 +1178,11 @@ public abstract class Data {
       if(meta.textindex) textIndex.add(new ValueCache(pre, size, IndexType.TEXT, this));
       if(meta.attrindex) attrIndex.add(new ValueCache(pre, size, IndexType.ATTRIBUTE, this));
       if(meta.tokenindex) tokenIndex.add(new ValueCache(pre, size, IndexType.TOKEN, this));
+      if(meta.ftindex) ftIndex.add(new ValueCache(pre, size, IndexType.FULLTEXT, this));
+      if(meta.trigramindex) trigramIndex.add(new ValueCache(pre, size, IndexType.TRIGRAM, this));
+      if(meta.compositeindex) {
+        compositeIndex.add(new ValueCache(pre, size, IndexType.COMPOSITE, this));
+      }
     }
   }
 
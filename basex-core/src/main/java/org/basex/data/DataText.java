@@ -12,7 +12,7 @@ public interface DataText {
   // META DATA ====================================================================================
 
   /** Database version; older version cannot open these instances. */
-  String STORAGE = "9.0.1";
+  String STORAGE = "10.8";
   /** Index version; older version cannot open indexes of these instances. */
   String ISTORAGE = "8.6";
 
@@ -34,6 +34,10 @@ public interface DataText {
   String DBUPDIDX = "UPDINDEX";
   /** Automatic optimization. */
   String DBAUTOOPT = "AUTOOPT";
+  /** Compressed table. */
+  String DBCMPTBL = "CMPTBL";
+  /** Text dictionary. */
+  String DBTXTDCT = "TXTDICT";
   /** Text index. */
   String DBTXTIDX = "TXTINDEX";
   /** Attribute index. */
@@ -42,6 +46,12 @@ public interface DataText {
   String DBTOKIDX = "TOKINDEX";
   /** Full-text index. */
   String DBFTXIDX = "FTXINDEX";
+  /** Trigram index. */
+  String DBTRIIDX = "TRIINDEX";
+  /** Composite index. */
+  String DBCMPIDX = "CMPINDEX";
+  /** Name index. */
+  String DBNAMIDX = "NAMINDEX";
   /** Text index: names. */
   String DBTXTINC = "TXTINC";
   /** Attribute index: names. */
@@ -50,6 +60,8 @@ public interface DataText {
   String DBTOKINC = "TOKINC";
   /** Full-text index: names. */
   String DBFTXINC = "FTXINC";
+  /** Composite index: names. */
+  String DBCMPINC = "CMPINC";
   /** Full-text stemming. */
   String DBFTST = "FTSTEM";
   /** Full-text language. */
@@ -80,6 +92,12 @@ public interface DataText {
   String DBCRTTOK = "CRTTOK";
   /** Recreate full-text index. */
   String DBCRTFTX = "CRTFTX";
+  /** Recreate trigram index. */
+  String DBCRTTRI = "CRTTRI";
+  /** Recreate composite index. */
+  String DBCRTCMP = "CRTCMP";
+  /** Recreate name index. */
+  String DBCRTNAM = "CRTNAM";
 
   /** Tags. */
   String DBTAGS = "TAGS";
@@ -106,6 +124,12 @@ public interface DataText {
   String DATATOK = "tok";
   /** Database - Full-text index. */
   String DATAFTX = "ftx";
+  /** Database - Trigram index. */
+  String DATATRI = "tri";
+  /** Database - Composite index. */
+  String DATACMP = "cmp";
+  /** Database - Name index. */
+  String DATANAM = "nam";
   /** Database - Stopword list. */
   String DATASWL = "swl";
   /** Database - Updating flag. */
@@ -114,6 +138,12 @@ public interface DataText {
   String DATAPTH = "pth";
   /** Database - ID-PRE mapping. */
   String DATAIDP = "idp";
+  /** Database - Backup manifest. */
+  String DATABKP = "bkp";
+  /** Database - Redo log. */
+  String DATAREDO = "redo";
+  /** Database - Text dictionary. */
+  String DATADICT = "dict";
 
   // XML SERIALIZATION ============================================================================
 
@@ -16,6 +16,7 @@ import org.basex.index.path.*;
 import org.basex.index.value.*;
 import org.basex.io.*;
 import org.basex.io.in.DataInput;
+import org.basex.io.out.*;
 import org.basex.io.out.DataOutput;
 import org.basex.io.random.*;
 import org.basex.util.*;
@@ -47,6 +48,9 @@ import org.basex.util.*;
  *   - NOT COMPRESSED: return external text unchanged
  * </pre>
  *
+ * External texts are compressed with {@link Compress}, or with a {@link TextCodec} if a text
+ * dictionary has been trained when the database was built (see {@link MetaData#textdict}).
+ *
  * @author BaseX Team 2005-23, BSD License
  * @author Christian Gruen
  * @author Tim Petrowsky
@@ -56,6 +60,14 @@ public final class DiskData extends Data {
   private DataAccess texts;
   /** Values access file. */
   private DataAccess values;
+  /** Text codec ({@code null} if texts are compressed with {@link Compress}). */
+  private TextCodec codec;
+  /** Number of updates that have been started since the database was opened. */
+  private int updates;
+  /** Redo log (can be {@code null}). */
+  private volatile RedoLog redo;
+  /** Log sequence number of the last update that has been written to the redo log. */
+  private volatile long lsn;
 
   /**
    * Default constructor, called from {@link Open#open}.
@@ -65,6 +77,8 @@ public final class DiskData extends Data {
   public DiskData(final MetaData meta) throws IOException {
     super(meta);
 
+    // replay committed updates that have not been written to the database files
+    final boolean recovered = RedoLog.recover(meta);
     try(DataInput in = new DataInput(meta.dbFile(DATAINF))) {
       meta.read(in);
       while(true) {
@@ -87,12 +101,27 @@ public final class DiskData extends Data {
       if(meta.textindex) textIndex = new UpdatableDiskValues(this, IndexType.TEXT);
       if(meta.attrindex) attrIndex = new UpdatableDiskValues(this, IndexType.ATTRIBUTE);
       if(meta.tokenindex) tokenIndex = new UpdatableDiskValues(this, IndexType.TOKEN);
+      if(meta.trigramindex) trigramIndex = new UpdatableDiskValues(this, IndexType.TRIGRAM);
+      if(meta.compositeindex) {
+        compositeIndex = new UpdatableDiskValues(this, IndexType.COMPOSITE);
+      }
     } else {
       if(meta.textindex) textIndex = new DiskValues(this, IndexType.TEXT);
       if(meta.attrindex) attrIndex = new DiskValues(this, IndexType.ATTRIBUTE);
       if(meta.tokenindex) tokenIndex = new DiskValues(this, IndexType.TOKEN);
+      if(meta.trigramindex) trigramIndex = new DiskValues(this, IndexType.TRIGRAM);
+      if(meta.compositeindex) compositeIndex = new DiskValues(this, IndexType.COMPOSITE);
+    }
+    if(meta.ftindex) ftIndex = meta.updindex ? new UpdatableFTIndex(this) : new FTIndex(this);
+    if(meta.nameindex) nameIndex = new NameIndex(this);
+
+    // updatable index structures are not logged: rebuild them after a crash
+    if(recovered && meta.updindex) {
+      for(final IndexType type : new IndexType[] { IndexType.TEXT, IndexType.ATTRIBUTE,
+          IndexType.TOKEN, IndexType.TRIGRAM, IndexType.COMPOSITE, IndexType.FULLTEXT }) {
+        if(meta.index(type)) createIndex(type, null);
+      }
     }
-    if(meta.ftindex) ftIndex = new FTIndex(this);
   }
 
   /**
@@ -125,6 +154,12 @@ public final class DiskData extends Data {
     table = new TableDiskAccess(meta, false);
     texts = new DataAccess(meta.dbFile(DATATXT));
     values = new DataAccess(meta.dbFile(DATAATV));
+    final IOFile dict = meta.dbFile(DATADICT);
+    if(dict.exists()) {
+      try(DataInput in = new DataInput(dict)) {
+        codec = new TextCodec(in);
+      }
+    }
   }
 
   /**
@@ -135,28 +170,38 @@ public final class DiskData extends Data {
     if(!meta.dirty) return;
 
     try(DataOutput out = new DataOutput(meta.dbFile(DATAINF))) {
-      meta.write(out);
-      out.writeToken(token(DBTAGS));
-      elemNames.write(out);
-      out.writeToken(token(DBATTS));
-      attrNames.write(out);
-      out.writeToken(token(DBPATH));
-      paths.write(out);
-      out.writeToken(token(DBNS));
-      nspaces.write(out);
-      out.writeToken(token(DBDOCS));
-      resources.write(out);
-      out.write(0);
+      write(out);
     }
     if(meta.updindex) idmap.write(meta.dbFile(DATAIDP));
     meta.dirty = false;
   }
 
+  /**
+   * Writes the meta data and the main structures.
+   * @param out output stream
+   * @throws IOException I/O exception
+   */
+  private void write(final DataOutput out) throws IOException {
+    meta.write(out);
+    out.writeToken(token(DBTAGS));
+    elemNames.write(out);
+    out.writeToken(token(DBATTS));
+    attrNames.write(out);
+    out.writeToken(token(DBPATH));
+    paths.write(out);
+    out.writeToken(token(DBNS));
+    nspaces.write(out);
+    out.writeToken(token(DBDOCS));
+    resources.write(out);
+    out.write(0);
+  }
+
   @Override
   public synchronized void close() {
     if(closed) return;
     super.close();
     try {
+      if(redo != null) closeLog();
       write();
       table.close();
       texts.close();
@@ -165,6 +210,9 @@ public final class DiskData extends Data {
       close(IndexType.ATTRIBUTE);
       close(IndexType.TOKEN);
       close(IndexType.FULLTEXT);
+      close(IndexType.TRIGRAM);
+      close(IndexType.COMPOSITE);
+      close(IndexType.NAME);
     } catch(final IOException ex) {
       Util.stack(ex);
     }
@@ -189,8 +237,10 @@ public final class DiskData extends Data {
     close(type);
     final IndexBuilder ib;
     switch(type) {
-      case TEXT: case ATTRIBUTE: case TOKEN: ib = new DiskValuesBuilder(this, type); break;
+      case TEXT: case ATTRIBUTE: case TOKEN: case TRIGRAM: case COMPOSITE:
+        ib = new DiskValuesBuilder(this, type); break;
       case FULLTEXT: ib = new FTBuilder(this); break;
+      case NAME: ib = new NameIndexBuilder(this); break;
       default: throw Util.notExpected();
     }
     try {
@@ -220,6 +270,9 @@ public final class DiskData extends Data {
       case ATTRIBUTE: attrIndex = index; break;
       case TOKEN:     tokenIndex = index; break;
       case FULLTEXT:  ftIndex = index; break;
+      case TRIGRAM:   trigramIndex = index; break;
+      case COMPOSITE: compositeIndex = index; break;
+      case NAME:      nameIndex = (NameIndex) index; break;
       default:        break;
     }
   }
@@ -231,29 +284,142 @@ public final class DiskData extends Data {
       final IOFile upd = meta.updateFile();
       if(upd.exists()) throw new BaseXException(DB_UPDATED_X, meta.name);
       if(!upd.touch()) throw Util.notExpected("%: could not create lock file.", meta.name);
+      // assign redo log before the first block is modified
+      if(opts.get(MainOptions.REDOLOG) && redo == null) {
+        try {
+          log(new RedoLog(meta.dbFile(DATAREDO)));
+        } catch(final IOException ex) {
+          throw new BaseXException(ex);
+        }
+      }
     }
+    ++updates;
   }
 
   @Override
-  public synchronized void finishUpdate(final MainOptions opts) {
+  public synchronized void finishUpdate(final MainOptions opts) throws IOException {
     // OPTIMIZE ALL will close the database before this function is called
     if(closed) return;
 
-    // remove updating file
+    // write updates to redo log
     final boolean auto = opts.get(MainOptions.AUTOFLUSH);
+    final boolean log = auto && opts.get(MainOptions.REDOLOG);
+    if(log) {
+      try {
+        commit();
+      } catch(final IOException ex) {
+        // keep updating file: further updates will be rejected until the database is repaired
+        table.lock(false);
+        throw ex;
+      }
+    }
+
+    // remove updating file
     if(auto) {
       final IOFile upd = meta.updateFile();
       if(!upd.exists()) throw Util.notExpected("%: lock file does not exist.", meta.name);
       if(!upd.delete()) throw Util.notExpected("%: could not delete lock file.", meta.name);
     }
 
-    flush(auto);
+    if(!log) flush(auto);
     if(!table.lock(false)) throw Util.notExpected("Database '%': could not unlock.", meta.name);
   }
 
+  @Override
+  public void sync() throws IOException {
+    final RedoLog rl = redo;
+    if(rl != null) rl.sync(lsn);
+  }
+
+  /**
+   * Writes the images of all modified pages and files to the redo log.
+   * Table and heap pages are kept in memory until the next checkpoint: if the log exceeds its
+   * maximum size, all database files will be written, and the log will be reset.
+   * Index structures are flushed, but not logged: after a crash, they will be rebuilt.
+   * @throws IOException I/O exception
+   */
+  private void commit() throws IOException {
+    final TableDiskAccess tda = (TableDiskAccess) table;
+    tda.commit();
+    texts.commit();
+    values.commit();
+    if(meta.dirty) {
+      final ArrayOutput ao = new ArrayOutput();
+      try(DataOutput out = new DataOutput(ao)) {
+        write(out);
+      }
+      redo.file(DATAINF, ao.next());
+      if(meta.updindex) {
+        try(DataOutput out = new DataOutput(ao)) {
+          idmap.write(out);
+        }
+        redo.file(DATAIDP, ao.next());
+      }
+    }
+    // index structures are not logged
+    if(textIndex != null) textIndex.flush();
+    if(attrIndex != null) attrIndex.flush();
+    if(trigramIndex != null) trigramIndex.flush();
+    if(compositeIndex != null) compositeIndex.flush();
+    if(ftIndex != null) ftIndex.flush();
+    lsn = redo.commit();
+
+    if(redo.size() > RedoLog.CHECKPOINT) {
+      checkpoint();
+      redo.reset();
+    }
+  }
+
+  /**
+   * Writes all database files and synchronizes them with the disk.
+   * @throws IOException I/O exception
+   */
+  private void checkpoint() throws IOException {
+    final boolean dirty = meta.dirty;
+    write();
+    if(dirty) {
+      RedoLog.sync(meta.dbFile(DATAINF));
+      if(meta.updindex) RedoLog.sync(meta.dbFile(DATAIDP));
+    }
+    ((TableDiskAccess) table).sync();
+    texts.sync();
+    values.sync();
+    if(textIndex != null) textIndex.flush();
+    if(attrIndex != null) attrIndex.flush();
+    if(trigramIndex != null) trigramIndex.flush();
+    if(compositeIndex != null) compositeIndex.flush();
+    if(ftIndex != null) ftIndex.flush();
+  }
+
+  /**
+   * Writes all database files and deletes the redo log.
+   * @throws IOException I/O exception
+   */
+  private void closeLog() throws IOException {
+    checkpoint();
+    redo.close();
+    log(null);
+  }
+
+  /**
+   * Assigns a redo log to the database files.
+   * @param rl redo log (can be {@code null})
+   */
+  private void log(final RedoLog rl) {
+    redo = rl;
+    ((TableDiskAccess) table).log(rl);
+    texts.log(rl, DATATXT);
+    values.log(rl, DATAATV);
+  }
+
   @Override
   public synchronized void flush(final boolean all) {
     try {
+      // write all files if updates have been logged before
+      if(redo != null) {
+        closeLog();
+        return;
+      }
       table.flush(all);
       if(all) {
         write();
@@ -261,6 +427,9 @@ public final class DiskData extends Data {
         values.flush();
         if(textIndex != null) textIndex.flush();
         if(attrIndex != null) attrIndex.flush();
+        if(trigramIndex != null) trigramIndex.flush();
+        if(compositeIndex != null) compositeIndex.flush();
+        if(ftIndex != null) ftIndex.flush();
       }
     } catch(final IOException ex) {
       Util.stack(ex);
@@ -304,7 +473,17 @@ public final class DiskData extends Data {
    */
   private byte[] txt(final long offset, final boolean text) {
     final byte[] txt = (text ? texts : values).readToken(offset & Compress.COMPRESS - 1);
-    return Compress.compressed(offset) ? Compress.unpack(txt) : txt;
+    return !Compress.compressed(offset) ? txt : codec != null ? codec.unpack(txt) :
+      Compress.unpack(txt);
+  }
+
+  /**
+   * Compresses a text.
+   * @param value text
+   * @return compressed or original text
+   */
+  private byte[] pack(final byte[] value) {
+    return codec != null ? codec.pack(value) : Compress.pack(value);
   }
 
   @Override
@@ -312,6 +491,23 @@ public final class DiskData extends Data {
     return false;
   }
 
+  /**
+   * Returns the number of updates that have been started since the database was opened.
+   * @return number of updates
+   */
+  int updates() {
+    return updates;
+  }
+
+  /**
+   * Returns the heap file for texts or attribute values.
+   * @param text texts or attribute values
+   * @return heap file
+   */
+  DataAccess heap(final boolean text) {
+    return text ? texts : values;
+  }
+
   // UPDATE OPERATIONS ============================================================================
 
   @Override
@@ -341,7 +537,7 @@ public final class DiskData extends Data {
       textRef(pre, v);
     } else {
       // otherwise, try to compress new value
-      final byte[] val = Compress.pack(value);
+      final byte[] val = pack(value);
 
       // choose inserting position
       final long off;
@@ -369,7 +565,7 @@ public final class DiskData extends Data {
     if(inlined != 0) return inlined;
 
     // store text in heap file
-    final byte[] packed = Compress.pack(value);
+    final byte[] packed = pack(value);
     final DataAccess store = text ? texts : values;
     final long offset = store.length();
     store.writeToken(offset, packed);
@@ -16,16 +16,24 @@ import org.basex.util.hash.*;
 /**
  * This class stores and organizes the database table and the index structures
  * for textual content in a compressed memory structure.
+ * If {@link MainOptions#OFFHEAP} is enabled, the table and the texts of databases that are built
+ * from documents are stored outside the Java heap. The value indexes reference the off-heap
+ * texts, so only the index ids remain on the heap. By default, the JVM limits direct memory to
+ * the maximum heap size: large databases require a higher {@code -XX:MaxDirectMemorySize} value.
  * The table mapping is documented in {@link Data}.
  *
  * @author BaseX Team 2005-23, BSD License
  * @author Christian Gruen
  */
 public final class MemData extends Data {
-  /** Texts. */
+  /** Texts ({@code null} if texts are stored off-heap). */
   private final TokenSet texts;
-  /** Attribute Values. */
+  /** Attribute Values ({@code null} if values are stored off-heap). */
   private final TokenSet values;
+  /** Off-heap texts ({@code null} if texts are stored on the heap). */
+  private final DirectTokenSet dtexts;
+  /** Off-heap attribute values ({@code null} if values are stored on the heap). */
+  private final DirectTokenSet dvalues;
 
   /**
    * Constructor.
@@ -34,7 +42,7 @@ public final class MemData extends Data {
    * @param options main options
    */
   public MemData(final PathIndex paths, final Namespaces nspaces, final MainOptions options) {
-    this(null, null, paths, nspaces, null, null, options);
+    this(paths, nspaces, options, options.get(MainOptions.OFFHEAP));
   }
 
   /**
@@ -42,30 +50,28 @@ public final class MemData extends Data {
    * @param options main options
    */
   public MemData(final MainOptions options) {
-    this(null, null, options);
+    this(null, null, options, false);
   }
 
   /**
    * Constructor for building a new database.
-   * @param elemNames element name index
-   * @param attrNames attribute name index
    * @param paths path index
    * @param nspaces namespaces
-   * @param texts texts
-   * @param values values
    * @param options main options
+   * @param offheap store table and texts outside the Java heap
    */
-  private MemData(final Names elemNames, final Names attrNames, final PathIndex paths,
-      final Namespaces nspaces, final TokenSet texts, final TokenSet values,
-      final MainOptions options) {
+  private MemData(final PathIndex paths, final Namespaces nspaces, final MainOptions options,
+      final boolean offheap) {
 
     super(new MetaData(options));
-    table = new TableMemAccess(meta);
+    table = new TableMemAccess(meta, offheap);
     if(meta.updindex) idmap = new IdPreMap(meta.lastid);
-    this.texts = texts == null ? new TokenSet() : texts;
-    this.values = values == null ? new TokenSet() : values;
-    this.elemNames = elemNames == null ? new Names(meta) : elemNames;
-    this.attrNames = attrNames == null ? new Names(meta) : attrNames;
+    texts = offheap ? null : new TokenSet();
+    values = offheap ? null : new TokenSet();
+    dtexts = offheap ? new DirectTokenSet() : null;
+    dvalues = offheap ? new DirectTokenSet() : null;
+    elemNames = new Names(meta);
+    attrNames = new Names(meta);
     this.paths = paths == null ? new PathIndex(this) : paths;
     this.nspaces = nspaces == null ? new Namespaces() : nspaces;
   }
@@ -76,7 +82,7 @@ public final class MemData extends Data {
     switch(type) {
       case TEXT: case ATTRIBUTE: case TOKEN:
         ib = new MemValuesBuilder(this, type); break;
-      case FULLTEXT:
+      case FULLTEXT: case TRIGRAM: case COMPOSITE: case NAME:
         throw new BaseXException(NO_MAINMEM);
       default:
         throw Util.notExpected();
@@ -95,7 +101,10 @@ public final class MemData extends Data {
       case TEXT:
       case ATTRIBUTE:
       case TOKEN:     break;
-      case FULLTEXT:  throw new BaseXException(NO_MAINMEM);
+      case FULLTEXT:
+      case TRIGRAM:
+      case COMPOSITE:
+      case NAME:      throw new BaseXException(NO_MAINMEM);
       default:        throw Util.notExpected();
     }
     set(type, null);
@@ -128,7 +137,8 @@ public final class MemData extends Data {
 
   @Override
   public byte[] text(final int pre, final boolean text) {
-    return (text ? texts : values).key((int) textRef(pre));
+    final int id = (int) textRef(pre);
+    return texts != null ? (text ? texts : values).key(id) : (text ? dtexts : dvalues).key(id);
   }
 
   @Override
@@ -154,12 +164,21 @@ public final class MemData extends Data {
   /**
    * Returns the string values of the database.
    * @param text text/attribute flag
-   * @return set
+   * @return set, or {@code null} if the values are stored off-heap
    */
   public TokenSet values(final boolean text) {
     return text ? texts : values;
   }
 
+  /**
+   * Returns the off-heap string values of the database.
+   * @param text text/attribute flag
+   * @return set, or {@code null} if the values are stored on the heap
+   */
+  public DirectTokenSet directValues(final boolean text) {
+    return text ? dtexts : dvalues;
+  }
+
   // UPDATE OPERATIONS ============================================================================
 
   @Override
@@ -174,6 +193,7 @@ public final class MemData extends Data {
 
   @Override
   protected long textRef(final byte[] value, final boolean text) {
-    return (text ? texts : values).put(value);
+    return texts != null ? (text ? texts : values).put(value) :
+      (text ? dtexts : dvalues).put(value);
   }
 }
@@ -45,11 +45,21 @@ public final class MetaData {
   public boolean tokenindex;
   /** Indicates if a full-text index exists. */
   public boolean ftindex;
+  /** Indicates if a trigram index exists. */
+  public boolean trigramindex;
+  /** Indicates if a composite index exists. */
+  public boolean compositeindex;
+  /** Indicates if a name index exists. */
+  public boolean nameindex;
 
   /** Flag for activated automatic index update. */
   public boolean updindex;
   /** Flag for automatic index updating. */
   public boolean autooptimize;
+  /** Flag for compressed table pages. */
+  public boolean compresstable;
+  /** Flag for texts compressed with a trained dictionary. */
+  public boolean textdict;
 
   /** Indicates if the text index is to be recreated. */
   public boolean createtext;
@@ -59,6 +69,12 @@ public final class MetaData {
   public boolean createtoken;
   /** Indicates if the full-text index is to be recreated. */
   public boolean createft;
+  /** Indicates if the trigram index is to be recreated. */
+  public boolean createtrigram;
+  /** Indicates if the composite index is to be recreated. */
+  public boolean createcomposite;
+  /** Indicates if the name index is to be recreated. */
+  public boolean createname;
   /** Text index: names to include. */
   public String textinclude;
   /** Attribute index: names to include. */
@@ -67,6 +83,8 @@ public final class MetaData {
   public String tokeninclude;
   /** Full-text index: names to include. */
   public String ftinclude;
+  /** Composite index: names to include. */
+  public String compositeinclude;
 
   /** Flag for full-text stemming. */
   public boolean stemming;
@@ -135,11 +153,16 @@ public final class MetaData {
     createattr = options.get(MainOptions.ATTRINDEX);
     createtoken = options.get(MainOptions.TOKENINDEX);
     createft = options.get(MainOptions.FTINDEX);
+    createtrigram = options.get(MainOptions.TRIGRAMINDEX);
+    createcomposite = options.get(MainOptions.COMPOSITEINDEX);
+    createname = options.get(MainOptions.NAMEINDEX);
     diacritics = options.get(MainOptions.DIACRITICS);
     stemming = options.get(MainOptions.STEMMING);
     casesens = options.get(MainOptions.CASESENS);
     updindex = options.get(MainOptions.UPDINDEX);
     autooptimize = options.get(MainOptions.AUTOOPTIMIZE);
+    compresstable = options.get(MainOptions.COMPRESSTABLE);
+    textdict = options.get(MainOptions.TEXTDICT);
     maxlen = options.get(MainOptions.MAXLEN);
     maxcats = options.get(MainOptions.MAXCATS);
     stopwords = options.get(MainOptions.STOPWORDS);
@@ -148,6 +171,7 @@ public final class MetaData {
     attrinclude = options.get(MainOptions.ATTRINCLUDE);
     tokeninclude = options.get(MainOptions.TOKENINCLUDE);
     ftinclude = options.get(MainOptions.FTINCLUDE);
+    compositeinclude = options.get(MainOptions.COMPOSITEINCLUDE);
     splitsize = options.get(MainOptions.SPLITSIZE);
   }
 
@@ -329,6 +353,9 @@ public final class MetaData {
       case ATTRIBUTE: return attrindex;
       case TOKEN:     return tokenindex;
       case FULLTEXT:  return ftindex;
+      case TRIGRAM:   return trigramindex;
+      case COMPOSITE: return compositeindex;
+      case NAME:      return nameindex;
       default:        throw Util.notExpected();
     }
   }
@@ -344,6 +371,9 @@ public final class MetaData {
       case ATTRIBUTE: attrindex = exists; break;
       case TOKEN:     tokenindex = exists; break;
       case FULLTEXT:  ftindex = exists; break;
+      case TRIGRAM:   trigramindex = exists; break;
+      case COMPOSITE: compositeindex = exists; break;
+      case NAME:      nameindex = exists; break;
       default:        throw Util.notExpected();
     }
   }
@@ -359,6 +389,9 @@ public final class MetaData {
       case ATTRIBUTE: return attrinclude;
       case TOKEN:     return tokeninclude;
       case FULLTEXT:  return ftinclude;
+      case TRIGRAM:   return "";
+      case COMPOSITE: return compositeinclude;
+      case NAME:      return "";
       default:        throw Util.notExpected();
     }
   }
@@ -374,6 +407,9 @@ public final class MetaData {
       case ATTRIBUTE: attrinclude = options.get(MainOptions.ATTRINCLUDE); break;
       case TOKEN:     tokeninclude = options.get(MainOptions.TOKENINCLUDE); break;
       case FULLTEXT:  ftinclude = options.get(MainOptions.FTINCLUDE); break;
+      case TRIGRAM:   break;
+      case COMPOSITE: compositeinclude = options.get(MainOptions.COMPOSITEINCLUDE); break;
+      case NAME:      break;
       default:        throw Util.notExpected();
     }
   }
@@ -407,19 +443,28 @@ public final class MetaData {
         case DBFTDC:     diacritics = toBoolean(v); break;
         case DBUPDIDX:   updindex = toBoolean(v); break;
         case DBAUTOOPT:  autooptimize = toBoolean(v); break;
+        case DBCMPTBL:   compresstable = toBoolean(v); break;
+        case DBTXTDCT:   textdict = toBoolean(v); break;
         case DBTXTIDX:   textindex = toBoolean(v); break;
         case DBATVIDX:   attrindex = toBoolean(v); break;
         case DBTOKIDX:   tokenindex = toBoolean(v); break;
         case DBFTXIDX:   ftindex = toBoolean(v); break;
+        case DBTRIIDX:   trigramindex = toBoolean(v); break;
+        case DBCMPIDX:   compositeindex = toBoolean(v); break;
+        case DBNAMIDX:   nameindex = toBoolean(v); break;
         case DBTXTINC:   textinclude = v; break;
         case DBATVINC:   attrinclude = v; break;
         case DBTOKINC:   tokeninclude = v; break;
         case DBFTXINC:   ftinclude = v; break;
+        case DBCMPINC:   compositeinclude = v; break;
         case DBSPLITS:   splitsize = toInt(v); break;
         case DBCRTTXT:   createtext = toBoolean(v); break;
         case DBCRTATV:   createattr = toBoolean(v); break;
         case DBCRTTOK:   createtoken = toBoolean(v); break;
         case DBCRTFTX:   createft = toBoolean(v); break;
+        case DBCRTTRI:   createtrigram = toBoolean(v); break;
+        case DBCRTCMP:   createcomposite = toBoolean(v); break;
+        case DBCRTNAM:   createname = toBoolean(v); break;
         case DBFTST:     stemming = toBoolean(v); break;
         case DBFTCS:     casesens = toBoolean(v); break;
         case DBUPTODATE: uptodate = toBoolean(v); break;
@@ -450,19 +495,28 @@ public final class MetaData {
     writeInfo(out, DBSIZE,     size);
     writeInfo(out, DBUPDIDX,   updindex);
     writeInfo(out, DBAUTOOPT,  autooptimize);
+    writeInfo(out, DBCMPTBL,   compresstable);
+    writeInfo(out, DBTXTDCT,   textdict);
     writeInfo(out, DBTXTIDX,   textindex);
     writeInfo(out, DBATVIDX,   attrindex);
     writeInfo(out, DBTOKIDX,   tokenindex);
     writeInfo(out, DBFTXIDX,   ftindex);
+    writeInfo(out, DBTRIIDX,   trigramindex);
+    writeInfo(out, DBCMPIDX,   compositeindex);
+    writeInfo(out, DBNAMIDX,   nameindex);
     writeInfo(out, DBTXTINC,   textinclude);
     writeInfo(out, DBATVINC,   attrinclude);
     writeInfo(out, DBTOKINC,   tokeninclude);
     writeInfo(out, DBFTXINC,   ftinclude);
+    writeInfo(out, DBCMPINC,   compositeinclude);
     writeInfo(out, DBSPLITS,   splitsize);
     writeInfo(out, DBCRTTXT,   createtext);
     writeInfo(out, DBCRTATV,   createattr);
     writeInfo(out, DBCRTTOK,   createtoken);
     writeInfo(out, DBCRTFTX,   createft);
+    writeInfo(out, DBCRTTRI,   createtrigram);
+    writeInfo(out, DBCRTCMP,   createcomposite);
+    writeInfo(out, DBCRTNAM,   createname);
     writeInfo(out, DBFTST,     stemming);
     writeInfo(out, DBFTCS,     casesens);
     writeInfo(out, DBFTDC,     diacritics);
@@ -487,8 +541,12 @@ public final class MetaData {
       textindex = false;
       attrindex = false;
       tokenindex = false;
+      ftindex = false;
+      trigramindex = false;
+      compositeindex = false;
     }
-    ftindex = false;
+    // the name index references pre values, which may have changed
+    nameindex = false;
   }
 
   /**
@@ -96,6 +96,21 @@ public enum MetaProp {
     public Boolean value(final MetaData meta) { return meta.ftindex; }
   },
   /** Property. */
+  TRIGRAMINDEX(true) {
+    @Override
+    public Boolean value(final MetaData meta) { return meta.trigramindex; }
+  },
+  /** Property. */
+  COMPOSITEINDEX(true) {
+    @Override
+    public Boolean value(final MetaData meta) { return meta.compositeindex; }
+  },
+  /** Property. */
+  NAMEINDEX(true) {
+    @Override
+    public Boolean value(final MetaData meta) { return meta.nameindex; }
+  },
+  /** Property. */
   TEXTINCLUDE(true) {
     @Override
     public String value(final MetaData meta) { return meta.textinclude; }
@@ -116,6 +131,11 @@ public enum MetaProp {
     public String value(final MetaData meta) { return meta.ftinclude; }
   },
   /** Property. */
+  COMPOSITEINCLUDE(true) {
+    @Override
+    public String value(final MetaData meta) { return meta.compositeinclude; }
+  },
+  /** Property. */
   LANGUAGE(true) {
     @Override
     public String value(final MetaData meta) { return meta.language.toString(); }
@@ -151,6 +171,16 @@ public enum MetaProp {
     public Boolean value(final MetaData meta) { return meta.autooptimize; }
   },
   /** Property. */
+  COMPRESSTABLE(true) {
+    @Override
+    public Boolean value(final MetaData meta) { return meta.compresstable; }
+  },
+  /** Property. */
+  TEXTDICT(true) {
+    @Override
+    public Boolean value(final MetaData meta) { return meta.textdict; }
+  },
+  /** Property. */
   MAXCATS(true) {
     @Override
     public Integer value(final MetaData meta) { return meta.maxcats; }
@@ -12,6 +12,13 @@ import org.basex.util.list.*;
 /**
  * Updatable ID-PRE mapping.
  *
+ * The rows of the mapping are stored in a balanced tree (treap), ordered by their PRE values.
+ * Each node stores the differences of its PRE and increment values to the previous row,
+ * and each subtree stores the sums of these differences. This way, PRE values of all
+ * subsequent rows can be shifted by updating a single node, and rows can be looked up,
+ * inserted and removed in logarithmic time. The intervals of inserted IDs are indexed by their
+ * first ID value.
+ *
  * @author BaseX Team 2005-23, BSD License
  * @author Dimitar Popov
  */
@@ -20,19 +27,12 @@ public class IdPreMap {
   private static final int INV = -1;
   /** Base ID value. */
   private int baseid;
-  /** PRE values of the inserted/deleted IDs. */
-  private int[] pres;
-  /** Inserted first ID values. */
-  private int[] fids;
-  /** Inserted last ID values. */
-  private int[] nids;
-  /** Increments showing how the PRE values have been modified. */
-  private int[] incs;
-  /** ID values for the PRE, before inserting/deleting a record. */
-  private int[] oids;
-
-  /** Number of records in the table. */
-  private int rows;
+  /** Root node (can be {@code null}). */
+  private Node root;
+  /** Nodes with inserted ID intervals, indexed by the first ID value. */
+  private final TreeMap<Integer, Node> inserted = new TreeMap<>();
+  /** Seed for node priorities. */
+  private int seed = 0x2545F491;
 
   /**
    * Constructor.
@@ -40,11 +40,6 @@ public class IdPreMap {
    */
   public IdPreMap(final int id) {
     baseid = id;
-    pres = new int[1];
-    fids = new int[1];
-    nids = new int[1];
-    incs = new int[1];
-    oids = new int[1];
   }
 
   /**
@@ -55,12 +50,33 @@ public class IdPreMap {
   public IdPreMap(final IOFile f) throws IOException {
     try(DataInput in = new DataInput(f)) {
       baseid = in.readNum();
-      rows = in.readNum();
-      pres = in.readNums();
-      fids = in.readNums();
-      nids = in.readNums();
-      incs = in.readNums();
-      oids = in.readNums();
+      final int rows = in.readNum();
+      final int[] pres = in.readNums(), fids = in.readNums(), nids = in.readNums();
+      final int[] incs = in.readNums(), oids = in.readNums();
+
+      // build tree in linear time: the rightmost path is kept on a stack
+      final ArrayList<Node> path = new ArrayList<>();
+      for(int i = 0; i < rows; i++) {
+        final Node node = new Node(fids[i], nids[i], oids[i], prio());
+        node.dpre = pres[i] - (i > 0 ? pres[i - 1] : 0);
+        node.dinc = incs[i] - (i > 0 ? incs[i - 1] : 0);
+        Node last = null;
+        for(int p = path.size() - 1; p >= 0 && path.get(p).prio < node.prio; p--) {
+          last = path.remove(p);
+        }
+        node.left = last;
+        if(last != null) last.parent = node;
+        if(path.isEmpty()) {
+          root = node;
+        } else {
+          final Node parent = path.get(path.size() - 1);
+          parent.right = node;
+          node.parent = parent;
+        }
+        path.add(node);
+        index(node);
+      }
+      if(root != null) update(root, true);
     }
   }
 
@@ -71,16 +87,38 @@ public class IdPreMap {
    */
   public final void write(final IOFile file) throws IOException {
     try(DataOutput out = new DataOutput(file)) {
-      out.writeNum(baseid);
-      out.writeNum(rows);
-      out.writeNums(pres);
-      out.writeNums(fids);
-      out.writeNums(nids);
-      out.writeNums(incs);
-      out.writeNums(oids);
+      write(out);
     }
   }
 
+  /**
+   * Write the map to the specified output.
+   * @param out output stream
+   * @throws IOException I/O error while writing the map
+   */
+  public final void write(final DataOutput out) throws IOException {
+    final int rows = size(root);
+    final int[] pres = new int[rows], fids = new int[rows], nids = new int[rows];
+    final int[] incs = new int[rows], oids = new int[rows];
+    int i = 0, pre = 0, inc = 0;
+    for(Node node = first(); node != null; node = next(node), i++) {
+      pre += node.dpre;
+      inc += node.dinc;
+      pres[i] = pre;
+      fids[i] = node.fid;
+      nids[i] = node.nid;
+      incs[i] = inc;
+      oids[i] = node.oid;
+    }
+    out.writeNum(baseid);
+    out.writeNum(rows);
+    out.writeNums(pres);
+    out.writeNums(fids);
+    out.writeNums(nids);
+    out.writeNums(incs);
+    out.writeNums(oids);
+  }
+
   /**
    * Finishes database creation.
    * @param base last id
@@ -96,17 +134,27 @@ public class IdPreMap {
    */
   public int pre(final int id) {
     // no updates or id is not affected by updates
-    if(rows == 0 || id < pres[0]) return id;
+    if(root == null || id < pre(first())) return id;
 
     if(id > baseid) {
       // id was inserted by update
-      for(int i = 0; i < rows; ++i) {
-        if(fids[i] <= id && id <= nids[i]) return pres[i] + id - fids[i];
+      final Map.Entry<Integer, Node> entry = inserted.floorEntry(id);
+      if(entry != null) {
+        final Node node = entry.getValue();
+        if(id <= node.nid) return pre(node) + id - node.fid;
       }
     } else {
-      // id is affected by updates
-      final int i = sortedLastIndexOf(oids, id);
-      return id + incs[i < 0 ? -i - 2 : i];
+      // id is affected by updates: find last row with an original ID smaller than or equal to id
+      Node node = root, last = null;
+      while(node != null) {
+        if(node.oid <= id) {
+          last = node;
+          node = node.right;
+        } else {
+          node = node.left;
+        }
+      }
+      return last != null ? id + inc(last) : id;
     }
     return -1;
   }
@@ -118,6 +166,7 @@ public class IdPreMap {
    * @param c number of inserted records
    */
   public void insert(final int pre, final int id, final int c) {
+    final int rows = size(root);
     if(rows == 0 && pre == id && id == baseid + 1) {
       // no mapping, and we append at the end => nothing to do
       baseid += c;
@@ -129,36 +178,36 @@ public class IdPreMap {
     int oid = pre;
 
     if(rows > 0) {
-      pos = Arrays.binarySearch(pres, 0, rows, pre);
+      pos = searchPre(pre);
       if(pos < 0) {
         pos = -pos - 1;
         if(pos != 0) {
           // check if inserting into an existing id interval
-          final int prev = pos - 1;
-          final int prevcnt = nids[prev] - fids[prev] + 1;
-          final int prevpre = pres[prev];
+          final Node prev = node(pos - 1);
+          final int prevcnt = prev.nid - prev.fid + 1;
+          final int prevpre = pre(prev);
 
           if(pre < prevpre + prevcnt) {
             // split the id interval
             final int split = pre - prevpre;
-            final int fid = fids[prev] + split;
+            final int fid = prev.fid + split;
 
             // add a new next interval
-            add(pos, pre, fid, nids[prev], incs[prev], oids[prev]);
+            add(pos, pre, fid, prev.nid, inc(prev), prev.oid);
 
             // shrink the previous interval
-            nids[prev] = fid - 1;
-            incs[prev] -= prevcnt - split;
+            ids(prev, prev.fid, fid - 1);
+            shift(prev, 0, split - prevcnt);
 
-            oid = oids[prev];
+            oid = prev.oid;
           } else {
-            oid = pre - incs[prev];
+            oid = pre - inc(prev);
           }
-          inc += incs[prev];
+          inc += inc(prev);
         }
       } else if(pos > 0) {
-        oid = oids[pos];
-        inc += incs[pos - 1];
+        oid = node(pos).oid;
+        inc += inc(node(pos - 1));
       }
 
       increment(pos, c);
@@ -175,6 +224,7 @@ public class IdPreMap {
    * @param c number of deleted records (negative)
    */
   public void delete(final int pre, final int id, final int c) {
+    int rows = size(root);
     if(rows == 0 && pre == id && id - c == baseid + 1) {
       // no mapping, and we delete at the end => nothing to do
       baseid += c;
@@ -191,11 +241,12 @@ public class IdPreMap {
     final int startIndex = findPre(pre);
 
     // remove all updates which has affected records which now have to be deleted
-    final int removeStart = startIndex < rows && pres[startIndex] < pre ?
+    final int removeStart = startIndex < rows && pre(node(startIndex)) < pre ?
       startIndex + 1 : startIndex;
     int removeEnd = -1;
-    for(int i = startIndex; i < rows; ++i) {
-      if(end < pres[i] + nids[i] - fids[i]) break;
+    Node node = startIndex < rows ? node(startIndex) : null;
+    for(int i = startIndex; node != null; ++i, node = next(node)) {
+      if(end < pre(node) + node.nid - node.fid) break;
       removeEnd = i;
     }
 
@@ -203,12 +254,14 @@ public class IdPreMap {
     final int oid;
     int endIndex;
     if(removeEnd >= 0) {
-      inc = incs[removeEnd];
-      oid = oids[removeEnd];
+      final Node last = node(removeEnd);
+      inc = inc(last);
+      oid = last.oid;
       endIndex = removeStart;
       remove(removeStart, removeEnd);
+      rows = size(root);
     } else {
-      inc = startIndex > 0 ? incs[startIndex - 1] : 0;
+      inc = startIndex > 0 ? inc(node(startIndex - 1)) : 0;
       oid = id;
       endIndex = startIndex;
     }
@@ -219,17 +272,17 @@ public class IdPreMap {
       return;
     }
 
-    final int min = pres[startIndex];
+    final Node start = node(startIndex);
+    final int min = pre(start);
     if(startIndex < endIndex) {
-      if(endIndex < rows && pres[endIndex] <= end) {
+      if(endIndex < rows && pre(node(endIndex)) <= end) {
         shrinkFromStart(endIndex, pre, c);
       } else {
         --endIndex;     // endIndex is not processed, so we let the increment do that
       }
       shrinkFromEnd(startIndex, pre, inc + c);
     } else if(min < pre) {
-      add(++endIndex, pres[startIndex], fids[startIndex], nids[startIndex],
-          incs[startIndex], oids[startIndex]);
+      add(++endIndex, min, start.fid, start.nid, inc(start), start.oid);
       shrinkFromStart(endIndex, pre, c);
       shrinkFromEnd(startIndex, pre, inc + c);
     } else if(end < min) {
@@ -248,9 +301,10 @@ public class IdPreMap {
    * @param c number of deleted records (negative number)
    */
   private void shrinkFromStart(final int i, final int pre, final int c) {
-    incs[i] += c;
-    fids[i] += pre - c - pres[i];
-    pres[i] = pre;
+    final Node node = node(i);
+    final int p = pre(node);
+    ids(node, node.fid + pre - c - p, node.nid);
+    shift(node, pre - p, c);
   }
 
   /**
@@ -260,8 +314,9 @@ public class IdPreMap {
    * @param inc new inc-value
    */
   private void shrinkFromEnd(final int i, final int pre, final int inc) {
-    nids[i] = fids[i] + pre - pres[i] - 1;
-    incs[i] = inc;
+    final Node node = node(i);
+    ids(node, node.fid, node.fid + pre - pre(node) - 1);
+    shift(node, 0, inc - inc(node));
   }
 
   /**
@@ -270,9 +325,29 @@ public class IdPreMap {
    * @param with increment value
    */
   private void increment(final int from, final int with) {
-    for(int i = from; i < rows; ++i) {
-      pres[i] += with;
-      incs[i] += with;
+    if(from < size(root)) {
+      final Node node = node(from);
+      node.dpre += with;
+      node.dinc += with;
+      update(node, false);
+    }
+  }
+
+  /**
+   * Shifts the pre- and inc-values of a single tuple.
+   * @param node node of the tuple
+   * @param pre pre-value difference
+   * @param inc inc-value difference
+   */
+  private void shift(final Node node, final int pre, final int inc) {
+    node.dpre += pre;
+    node.dinc += inc;
+    update(node, false);
+    final Node next = next(node);
+    if(next != null) {
+      next.dpre -= pre;
+      next.dinc -= inc;
+      update(next, false);
     }
   }
 
@@ -281,7 +356,7 @@ public class IdPreMap {
    * @return number of stored tuples
    */
   public int size() {
-    return rows;
+    return size(root);
   }
 
   /**
@@ -290,32 +365,42 @@ public class IdPreMap {
    * @return index of the record where the pre is found, or the insertion point if not found
    */
   private int findPre(final int pre) {
-    int low = 0;
-    int high = rows - 1;
-    while(low <= high) {
-      final int mid = low + high >>> 1;
-      final int midValMin = pres[mid];
-      final int midValMax = midValMin + nids[mid] - fids[mid];
-      if(midValMax < pre) low = mid + 1;
-      else if(midValMin > pre) high = mid - 1;
-      else return mid; // key found
+    int index = 0, base = 0;
+    for(Node node = root; node != null;) {
+      final int min = base + spre(node.left) + node.dpre, max = min + node.nid - node.fid;
+      if(max < pre) {
+        index += size(node.left) + 1;
+        base = min;
+        node = node.right;
+      } else if(min > pre) {
+        node = node.left;
+      } else {
+        return index + size(node.left); // key found
+      }
     }
-    return low; // key not found.
+    return index; // key not found.
   }
 
   /**
-   * Binary search of a key in a list. If there are several hits the last one is returned.
-   * @param a array to search into
-   * @param e key to search for
-   * @return index of the found hit or where the key ought to be inserted
+   * Searches for a tuple with the given pre value.
+   * @param pre pre value
+   * @return index of the tuple, or {@code -(insertion point) - 1}
    */
-  private int sortedLastIndexOf(final int[] a, final int e) {
-    int i = Arrays.binarySearch(a, 0, rows, e);
-    if(i >= 0) {
-      while(++i < rows && a[i] == e);
-      return i - 1;
+  private int searchPre(final int pre) {
+    int index = 0, base = 0;
+    for(Node node = root; node != null;) {
+      final int p = base + spre(node.left) + node.dpre;
+      if(p < pre) {
+        index += size(node.left) + 1;
+        base = p;
+        node = node.right;
+      } else if(p > pre) {
+        node = node.left;
+      } else {
+        return index + size(node.left);
+      }
     }
-    return i;
+    return -index - 1;
   }
 
   /**
@@ -329,29 +414,32 @@ public class IdPreMap {
    */
   private void add(final int i, final int pre, final int fid, final int nid,
       final int inc, final int oid) {
-    if(rows == pres.length) {
-      final int s = Array.newCapacity(rows);
-      pres = Arrays.copyOf(pres, s);
-      fids = Arrays.copyOf(fids, s);
-      nids = Arrays.copyOf(nids, s);
-      incs = Arrays.copyOf(incs, s);
-      oids = Arrays.copyOf(oids, s);
+
+    final Node node = new Node(fid, nid, oid, prio());
+    final Node prev = i > 0 ? node(i - 1) : null, next = i < size(root) ? node(i) : null;
+    node.dpre = pre - (prev != null ? pre(prev) : 0);
+    node.dinc = inc - (prev != null ? inc(prev) : 0);
+    if(next != null) {
+      // differences of the next tuple now refer to the new tuple
+      next.dpre -= node.dpre;
+      next.dinc -= node.dinc;
     }
-    if(i < rows) {
-      final int destPos = i + 1;
-      final int length = rows - i;
-      Array.copy(pres, i, length, pres, destPos);
-      Array.copy(fids, i, length, fids, destPos);
-      Array.copy(nids, i, length, nids, destPos);
-      Array.copy(incs, i, length, incs, destPos);
-      Array.copy(oids, i, length, oids, destPos);
+
+    // attach new node as leaf
+    if(root == null) {
+      root = node;
+    } else if(next != null && next.left == null) {
+      next.left = node;
+      node.parent = next;
+    } else {
+      prev.right = node;
+      node.parent = prev;
     }
-    pres[i] = pre;
-    fids[i] = fid;
-    nids[i] = nid;
-    incs[i] = inc;
-    oids[i] = oid;
-    ++rows;
+    update(node, false);
+
+    // restore heap order
+    while(node.parent != null && node.parent.prio < node.prio) rotate(node);
+    index(node);
   }
 
   /**
@@ -360,16 +448,199 @@ public class IdPreMap {
    * @param e end index of records in the table (inclusive)
    */
   private void remove(final int s, final int e) {
-    if(s <= e) {
-      final int last = e + 1;
-      final int length = rows - last;
-      Array.copy(pres, last, length, pres, s);
-      Array.copy(fids, last, length, fids, s);
-      Array.copy(nids, last, length, nids, s);
-      Array.copy(incs, last, length, incs, s);
-      Array.copy(oids, last, length, oids, s);
-      rows -= last - s;
+    for(int i = s; i <= e; i++) {
+      final Node node = node(s), next = next(node);
+      if(next != null) {
+        next.dpre += node.dpre;
+        next.dinc += node.dinc;
+      }
+      // move node down until it has at most one child
+      while(node.left != null && node.right != null) {
+        rotate(node.left.prio > node.right.prio ? node.left : node.right);
+      }
+      final Node child = node.left != null ? node.left : node.right, parent = node.parent;
+      if(child != null) child.parent = parent;
+      if(parent == null) root = child;
+      else if(parent.left == node) parent.left = child;
+      else parent.right = child;
+      if(parent != null) update(parent, false);
+      if(next != null) update(next, false);
+      ids(node, INV, INV);
+    }
+  }
+
+  /**
+   * Assigns new ID values to a node and updates the ID index.
+   * @param node node
+   * @param fid first ID value
+   * @param nid last ID value
+   */
+  private void ids(final Node node, final int fid, final int nid) {
+    if(node.fid != INV) inserted.remove(node.fid, node);
+    node.fid = fid;
+    node.nid = nid;
+    index(node);
+  }
+
+  /**
+   * Adds a node with a non-empty ID interval to the ID index.
+   * @param node node
+   */
+  private void index(final Node node) {
+    if(node.fid != INV && node.fid <= node.nid) inserted.put(node.fid, node);
+  }
+
+  /**
+   * Returns the node at the specified index.
+   * @param i index
+   * @return node
+   */
+  private Node node(final int i) {
+    int index = i;
+    Node node = root;
+    while(true) {
+      final int s = size(node.left);
+      if(index == s) return node;
+      if(index < s) {
+        node = node.left;
+      } else {
+        index -= s + 1;
+        node = node.right;
+      }
+    }
+  }
+
+  /**
+   * Returns the first node.
+   * @return node or {@code null}
+   */
+  private Node first() {
+    Node node = root;
+    if(node != null) {
+      while(node.left != null) node = node.left;
     }
+    return node;
+  }
+
+  /**
+   * Returns the node following the specified node.
+   * @param node node
+   * @return next node or {@code null}
+   */
+  private static Node next(final Node node) {
+    Node n = node.right;
+    if(n != null) {
+      while(n.left != null) n = n.left;
+      return n;
+    }
+    n = node;
+    while(n.parent != null && n.parent.right == n) n = n.parent;
+    return n.parent;
+  }
+
+  /**
+   * Computes the pre value of the specified node.
+   * @param node node
+   * @return pre value
+   */
+  private static int pre(final Node node) {
+    int pre = spre(node.left) + node.dpre;
+    for(Node n = node; n.parent != null; n = n.parent) {
+      if(n.parent.right == n) pre += spre(n.parent.left) + n.parent.dpre;
+    }
+    return pre;
+  }
+
+  /**
+   * Computes the increment value of the specified node.
+   * @param node node
+   * @return increment value
+   */
+  private static int inc(final Node node) {
+    int inc = sinc(node.left) + node.dinc;
+    for(Node n = node; n.parent != null; n = n.parent) {
+      if(n.parent.right == n) inc += sinc(n.parent.left) + n.parent.dinc;
+    }
+    return inc;
+  }
+
+  /**
+   * Rotates the specified node above its parent.
+   * @param node node
+   */
+  private void rotate(final Node node) {
+    final Node parent = node.parent, grand = parent.parent;
+    if(parent.left == node) {
+      parent.left = node.right;
+      if(node.right != null) node.right.parent = parent;
+      node.right = parent;
+    } else {
+      parent.right = node.left;
+      if(node.left != null) node.left.parent = parent;
+      node.left = parent;
+    }
+    parent.parent = node;
+    node.parent = grand;
+    if(grand == null) root = node;
+    else if(grand.left == parent) grand.left = node;
+    else grand.right = node;
+    parent.update();
+    node.update();
+  }
+
+  /**
+   * Updates the aggregated values of a node and its ancestors, or of all nodes in a subtree.
+   * @param node node
+   * @param subtree update all descendants instead of all ancestors
+   */
+  private static void update(final Node node, final boolean subtree) {
+    if(subtree) {
+      if(node.left != null) update(node.left, true);
+      if(node.right != null) update(node.right, true);
+      node.update();
+    } else {
+      for(Node n = node; n != null; n = n.parent) n.update();
+    }
+  }
+
+  /**
+   * Returns a new node priority.
+   * @return priority
+   */
+  private int prio() {
+    int s = seed;
+    s ^= s << 13;
+    s ^= s >>> 17;
+    s ^= s << 5;
+    seed = s;
+    return s;
+  }
+
+  /**
+   * Returns the number of nodes of a subtree.
+   * @param node root of subtree (can be {@code null})
+   * @return size
+   */
+  private static int size(final Node node) {
+    return node != null ? node.size : 0;
+  }
+
+  /**
+   * Returns the sum of pre-value differences of a subtree.
+   * @param node root of subtree (can be {@code null})
+   * @return sum
+   */
+  private static int spre(final Node node) {
+    return node != null ? node.spre : 0;
+  }
+
+  /**
+   * Returns the sum of inc-value differences of a subtree.
+   * @param node root of subtree (can be {@code null})
+   * @return sum
+   */
+  private static int sinc(final Node node) {
+    return node != null ? node.sinc : 0;
   }
 
   @Override
@@ -377,11 +648,65 @@ public class IdPreMap {
     final Table t = new Table();
     t.header.add("PRE").add("FID").add("NID").add("INC").add("OID");
     for(int i = 0; i < 5; ++i) t.align.add(true);
-    for(int i = 0; i < rows; i++) {
+    int pre = 0, inc = 0;
+    for(Node node = first(); node != null; node = next(node)) {
+      pre += node.dpre;
+      inc += node.dinc;
       final TokenList tl = new TokenList();
-      tl.add(pres[i]).add(fids[i]).add(nids[i]).add(incs[i]).add(oids[i]);
+      tl.add(pre).add(node.fid).add(node.nid).add(inc).add(node.oid);
       t.contents.add(tl);
     }
     return t + "\n- BaseID: " + baseid + '\n';
   }
+
+  /** Tree node, representing a single tuple. */
+  private static final class Node {
+    /** Priority. */
+    final int prio;
+    /** First ID value. */
+    int fid;
+    /** Last ID value. */
+    int nid;
+    /** Original ID value. */
+    int oid;
+    /** Difference of the pre value to the previous tuple. */
+    int dpre;
+    /** Difference of the inc value to the previous tuple. */
+    int dinc;
+    /** Sum of pre-value differences in this subtree. */
+    int spre;
+    /** Sum of inc-value differences in this subtree. */
+    int sinc;
+    /** Number of nodes in this subtree. */
+    int size;
+    /** Left child. */
+    Node left;
+    /** Right child. */
+    Node right;
+    /** Parent node. */
+    Node parent;
+
+    /**
+     * Constructor.
+     * @param fid first ID value
+     * @param nid last ID value
+     * @param oid original ID value
+     * @param prio priority
+     */
+    Node(final int fid, final int nid, final int oid, final int prio) {
+      this.fid = fid;
+      this.nid = nid;
+      this.oid = oid;
+      this.prio = prio;
+    }
+
+    /**
+     * Updates the aggregated values.
+     */
+    void update() {
+      size = 1 + size(left) + size(right);
+      spre = dpre + spre(left) + spre(right);
+      sinc = dinc + sinc(left) + sinc(right);
+    }
+  }
 }
@@ -86,7 +86,14 @@ public abstract class IndexBuilder extends Job {
    * @return result of check
    */
   protected final boolean indexEntry() {
-    return data.kind(pre) == (text ? Data.TEXT : Data.ATTR) && includeNames.contains(pre, text);
+    final int kind = data.kind(pre);
+    // trigram index: include all texts and attribute values
+    if(type == IndexType.TRIGRAM) return kind == Data.TEXT || kind == Data.ATTR;
+    // composite index: include attributes and texts of elements
+    if(type == IndexType.COMPOSITE) {
+      return CompositeKeys.candidate(data, pre) && includeNames.contains(pre, kind == Data.TEXT);
+    }
+    return kind == (text ? Data.TEXT : Data.ATTR) && includeNames.contains(pre, text);
   }
 
   /**
@@ -170,6 +177,9 @@ public abstract class IndexBuilder extends Job {
       case ATTRIBUTE: return INDEX_ATTRIBUTES_D;
       case TOKEN: return INDEX_TOKENS_D;
       case FULLTEXT: return INDEX_FULLTEXT_D;
+      case TRIGRAM: return INDEX_TRIGRAMS_D;
+      case COMPOSITE: return INDEX_COMPOSITE_D;
+      case NAME: return INDEX_NAMES_D;
       default: throw Util.notExpected();
     }
   }
@@ -17,7 +17,7 @@ public final class IndexCache {
   /** Queue used to collect unused keys. */
   private final ReferenceQueue<IndexEntry> queue = new ReferenceQueue<>();
   /** Read-write lock. */
-  private final ReentrantReadWriteLock rwl = new ReentrantReadWriteLock(true);
+  private final ReentrantReadWriteLock rwl = new ReentrantReadWriteLock();
   /** Hash table buckets. */
   private BucketEntry[] buckets = new BucketEntry[Array.INITIAL_CAPACITY];
   /** Number of entries in the cache. */
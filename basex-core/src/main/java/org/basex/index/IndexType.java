@@ -28,7 +28,13 @@ public enum IndexType {
   /** Token index. */
   TOKEN,
   /** Full-text index. */
-  FULLTEXT;
+  FULLTEXT,
+  /** Trigram index. */
+  TRIGRAM,
+  /** Composite index. */
+  COMPOSITE,
+  /** Name index. */
+  NAME;
 
   @Override
   public String toString() {
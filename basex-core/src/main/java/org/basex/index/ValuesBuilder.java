@@ -9,7 +9,7 @@ import org.basex.data.*;
  * @author Christian Gruen
  */
 public abstract class ValuesBuilder extends IndexBuilder {
-  /** Tokenize flag. */
+  /** Tokenize flag (token positions will be stored). */
   protected final boolean tokenize;
 
   /**
@@ -19,6 +19,6 @@ public abstract class ValuesBuilder extends IndexBuilder {
    */
   protected ValuesBuilder(final Data data, final IndexType type) {
     super(data, type);
-    tokenize = type == IndexType.TOKEN;
+    tokenize = type == IndexType.TOKEN || type == IndexType.TRIGRAM;
   }
 }
@@ -25,8 +25,14 @@ public final class FTBuilder extends IndexBuilder {
   private final FTIndexTrees tree;
   /** Word parser. */
   private final FTLexer lexer;
+  /** Store node ids instead of pre values. */
+  private final boolean ids;
   /** Number of indexed tokens. */
   private long ntok;
+  /** Number of indexed nodes. */
+  private int nodes;
+  /** Total length of the indexed texts. */
+  private long length;
 
   /**
    * Constructor.
@@ -51,6 +57,7 @@ public final class FTBuilder extends IndexBuilder {
       throw new BaseXException(NO_STEMMER_X, fto.ln);
 
     lexer = new FTLexer(fto);
+    ids = meta.updindex;
   }
 
   @Override
@@ -65,6 +72,8 @@ public final class FTBuilder extends IndexBuilder {
         // current lexer position
         final StopWords sw = lexer.ftOpt().sw;
         lexer.init(data.text(pre, true));
+        nodes++;
+        length += data.textLen(pre, true);
         int pos = -1;
         while(lexer.hasNext()) {
           final byte[] token = lexer.nextToken();
@@ -76,7 +85,7 @@ public final class FTBuilder extends IndexBuilder {
               writeIndex(true);
               clean();
             }
-            tree.index(token, pre, pos, splits);
+            tree.index(token, ids ? data.id(pre) : pre, pos, splits);
             count++;
           }
         }
@@ -86,7 +95,9 @@ public final class FTBuilder extends IndexBuilder {
       write(splits > 0);
 
       finishIndex();
-      return new FTIndex(data);
+      // discard changes of a previous updatable index
+      data.meta.dbFile(DATAFTX + 'd').delete();
+      return ids ? new UpdatableFTIndex(data) : new FTIndex(data);
 
     } catch(final Throwable th) {
       // drop index files
@@ -146,7 +157,7 @@ public final class FTBuilder extends IndexBuilder {
         // merge and write data size
         outY.write4(merge(outZ, il, v));
       }
-      writeInd(outX, ind, ind.get(ind.size() - 2) + 1, (int) outY.size());
+      writeInd(outX, ind, ind.get(ind.size() - 2) + 1, (int) outY.size(), true);
     }
   }
 
@@ -156,10 +167,11 @@ public final class FTBuilder extends IndexBuilder {
    * @param il token length and offsets
    * @param ls last token length
    * @param lp last offset
+   * @param blocks postings are stored in blocks
    * @throws IOException I/O exception
    */
-  private static void writeInd(final DataOutput outX, final IntList il, final int ls, final int lp)
-      throws IOException {
+  private void writeInd(final DataOutput outX, final IntList il, final int ls, final int lp,
+      final boolean blocks) throws IOException {
 
     final int is = il.size();
     outX.writeNum(is >> 1);
@@ -169,6 +181,12 @@ public final class FTBuilder extends IndexBuilder {
     }
     outX.writeNum(ls);
     outX.write4(lp);
+    // marker for block postings, followed by index statistics
+    if(blocks) {
+      outX.write1(FTIndex.BLOCKS | (ids ? FTIndex.IDS : 0));
+      outX.writeNum(nodes);
+      outX.write5(length);
+    }
   }
 
   /**
@@ -203,12 +221,12 @@ public final class FTBuilder extends IndexBuilder {
         // write full-text data size (number of pre values)
         outY.write4(t.nextNumPre());
         // write compressed pre and pos arrays
-        writeFTData(outZ, t.nextPres(), t.nextPoss());
+        writeFTData(outZ, t.nextPres(), t.nextPoss(), !partial);
 
         dr = outZ.size();
         tr = (int) outY.size();
       }
-      writeInd(outX, ind, ++j, tr);
+      writeInd(outX, ind, ++j, tr, !partial);
     }
     tree.initFT();
 
@@ -245,23 +263,35 @@ public final class FTBuilder extends IndexBuilder {
     Num.size(po, po.length);
 
     // write full-text data
-    writeFTData(out, pr, po);
+    writeFTData(out, pr, po, true);
     return s;
   }
 
   /**
    * Writes full-text data for a single token to disk.
-   * Format: {@code score? pre1 pos1 pre2 pos2 ... (0 score)? pre...}
+   * Format of partial indexes: {@code pre1 pos1 pre2 pos2 ...}
    * @param out DataOutput for disk access
    * @param vpre compressed pre values
    * @param vpos compressed pos values
+   * @param blocks write postings in blocks (see {@link FTPostings})
    * @throws IOException IOException
    */
-  private static void writeFTData(final DataOutput out, final byte[] vpre, final byte[] vpos)
-      throws IOException {
+  private static void writeFTData(final DataOutput out, final byte[] vpre, final byte[] vpos,
+      final boolean blocks) throws IOException {
 
     int np = 4, pp = 4;
     final int ns = Num.size(vpre);
+    if(blocks) {
+      final IntList pres = new IntList(), poss = new IntList();
+      while(np < ns) {
+        pres.add(Num.get(vpre, np));
+        poss.add(Num.get(vpos, pp));
+        np += Num.length(vpre, np);
+        pp += Num.length(vpos, pp);
+      }
+      FTPostings.write(out, pres, poss);
+      return;
+    }
     while(np < ns) {
       // full-text data is stored here, with -scoreU, pre1, pos1, ...,
       // -scoreU, preU, posU
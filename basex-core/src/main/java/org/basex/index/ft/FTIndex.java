@@ -7,6 +7,7 @@ import static org.basex.util.ft.FTFlag.*;
 
 import java.io.*;
 import java.util.*;
+import java.util.function.*;
 
 import org.basex.core.*;
 import org.basex.data.*;
@@ -43,17 +44,26 @@ import org.basex.util.similarity.*;
  * {@code z} is the pointer on the data entries of the token [long]
  * {@code s} is the number of pre values, saved in data [int]
  * </li>
- * <li>File <b>z</b> contains the {@code id/pos} references.
- *   The values are ordered, but not distinct:
+ * <li>File <b>z</b> contains the {@code pre/pos} references of all tokens.
+ *   The values are ordered, but not distinct. They are organized in compressed blocks
+ *   with skip tables (see {@link FTPostings}). In indexes created by older versions, which
+ *   lack a trailing marker byte in file <b>x</b>, the values are stored as
  *   {@code pre1/pos1, pre2/pos2, pre3/pos3, ...} [{@link Num}]</li>
  * </ul>
  *
+ * <p>If the index is updatable (see {@link UpdatableFTIndex}), node ids are stored instead
+ * of pre values.</p>
+ *
  * @author BaseX Team 2005-23, BSD License
  * @author Christian Gruen
  */
-public final class FTIndex extends ValueIndex {
+public class FTIndex extends ValueIndex {
   /** Minimum fixed size for each token entry. */
-  private static final int ENTRY = 9;
+  static final int ENTRY = 9;
+  /** Flag in the marker byte of file <b>x</b>: postings are stored in blocks. */
+  static final int BLOCKS = 1;
+  /** Flag in the marker byte of file <b>x</b>: node ids are stored instead of pre values. */
+  static final int IDS = 2;
 
   /** Cached texts. Increases used memory, but speeds up repeated queries. */
   private final IntObjMap<byte[]> ctext = new IntObjMap<>();
@@ -62,16 +72,24 @@ public final class FTIndex extends ValueIndex {
 
   /** Index storing each unique token length and pointer
    * on the first token with this length. */
-  private final DataAccess dataX;
+  private DataAccess dataX;
   /** Index storing each token, its data size and pointer on the data. */
-  private final DataAccess dataY;
+  private DataAccess dataY;
   /** Storing pre and pos values for each token. */
-  private final DataAccess dataZ;
+  private DataAccess dataZ;
 
   /** Cache for number of hits and data reference per token. */
-  private final IndexCache cache = new IndexCache();
+  private IndexCache cache;
   /** Token positions. */
-  private final int[] positions;
+  int[] positions;
+  /** Indicates if postings are stored in blocks. */
+  private boolean blocks;
+  /** Indicates if node ids are stored instead of pre values. */
+  boolean ids;
+  /** Number of indexed nodes ({@code -1}: unknown). */
+  int nodes;
+  /** Total length of the indexed texts. */
+  long length;
 
   /**
    * Constructor, initializing the index structure.
@@ -80,6 +98,16 @@ public final class FTIndex extends ValueIndex {
    */
   public FTIndex(final Data data) throws IOException {
     super(data, IndexType.FULLTEXT);
+    open();
+  }
+
+  /**
+   * Opens the index files.
+   * @throws IOException I/O Exception
+   */
+  final void open() throws IOException {
+    cache = new IndexCache();
+    ctext.clear();
     // cache token length index
     dataX = new DataAccess(data.meta.dbFile(DATAFTX + 'x'));
     dataY = new DataAccess(data.meta.dbFile(DATAFTX + 'y'));
@@ -92,6 +120,18 @@ public final class FTIndex extends ValueIndex {
       positions[p] = dataX.read4();
     }
     positions[pl - 1] = (int) dataY.length();
+    // skip last token length and offset, check for marker
+    dataX.readNum();
+    dataX.read4();
+    blocks = dataX.cursor() < dataX.length();
+    ids = false;
+    nodes = -1;
+    length = 0;
+    if(blocks) {
+      ids = (dataX.read1() & IDS) != 0;
+      nodes = dataX.readNum();
+      length = dataX.read5();
+    }
   }
 
   @Override
@@ -102,7 +142,7 @@ public final class FTIndex extends ValueIndex {
     // estimate costs for queries which stretch over multiple index entries
     final FTOpt opt = ((FTLexer) search).ftOpt();
     return IndexCosts.get(opt.is(FZ) || opt.is(WC) ? Math.max(1, data.meta.size >> 4) :
-      entry(token).size);
+      count(token));
   }
 
   @Override
@@ -125,13 +165,51 @@ public final class FTIndex extends ValueIndex {
     }
 
     // return cached or new result
-    final IndexEntry entry = entry(token);
-    if(entry.size > 0) {
-      return iter(entry.offset, entry.size, dataZ, token);
+    final FTPostings postings = postings(token);
+    return postings != null && postings.size() > 0 ? iter(postings, token) :
+      FTIndexIterator.FTEMPTY;
+  }
+
+  /**
+   * Ranks the nodes that contain the specified tokens with the BM25 scoring model.
+   * @param tokens distinct query tokens
+   * @param all all tokens must be found
+   * @param k maximum number of results
+   * @return ranking
+   */
+  public synchronized FTRanking ranking(final TokenList tokens, final boolean all, final int k) {
+    if(nodes == -1) {
+      // indexes of older versions: compute statistics from the texts
+      nodes = 0;
+      final int size = data.meta.size;
+      for(int pre = 0; pre < size; pre++) {
+        if(data.kind(pre) != Data.TEXT) continue;
+        nodes++;
+        length += data.textLen(pre, true);
+      }
     }
 
-    // no results
-    return FTIndexIterator.FTEMPTY;
+    final ArrayList<FTPostings> postings = new ArrayList<>();
+    for(final byte[] token : tokens) {
+      final FTPostings pst = token.length > data.meta.maxlen ? null : postings(token);
+      if(pst != null && pst.size() > 0) {
+        postings.add(pst);
+      } else if(all) {
+        postings.clear();
+        break;
+      }
+    }
+    return new FTRanking(data, postings.toArray(FTPostings[]::new), nodes,
+        (double) length / Math.max(1, nodes), all, k);
+  }
+
+  /**
+   * Returns the number of postings of a token.
+   * @param token token
+   * @return number of postings
+   */
+  int count(final byte[] token) {
+    return entry(token).size;
   }
 
   /**
@@ -139,7 +217,7 @@ public final class FTIndex extends ValueIndex {
    * @param value token to be found or cached
    * @return cache entry
    */
-  private IndexEntry entry(final byte[] value) {
+  final IndexEntry entry(final byte[] value) {
     final IndexEntry entry = cache.get(value);
     if(entry != null) return entry;
 
@@ -326,7 +404,7 @@ public final class FTIndex extends ValueIndex {
    * @param lt length of the token
    * @return int pointer on ftdata
    */
-  private long pointer(final long pt, final int lt) {
+  final long pointer(final long pt, final int lt) {
     return dataY.read5(pt + lt);
   }
 
@@ -336,7 +414,7 @@ public final class FTIndex extends ValueIndex {
    * @param lt length of the token
    * @return size of the ftdata
    */
-  private int size(final long pt, final int lt) {
+  final int size(final long pt, final int lt) {
     return dataY.read4(pt + lt + 5);
   }
 
@@ -350,17 +428,21 @@ public final class FTIndex extends ValueIndex {
     final int tokl = token.length, pl = positions.length, e = Math.min(pl - 1, tokl + k);
     int s = Math.max(1, tokl - k) - 1;
     final ArrayList<FTIndexIterator> iters = new ArrayList<>();
+    final LevenshteinAutomaton la = new LevenshteinAutomaton(token, k);
     while(++s <= e) {
-      int p = positions[s];
+      final int p = positions[s];
       if(p == -1) continue;
       int t = s + 1, r = -1;
       while(t < pl && r == -1) r = positions[t++];
-      while(p < r) {
-        if(ls.similar(dataY.readBytes(p, s), token, k)) {
-          iters.add(iter(pointer(p, s), size(p, s), dataZ, token));
+      final int ts = s;
+      scan(ts, p, r, la::reject, (tok, pt) -> {
+        if(ls.similar(tok, token, k)) {
+          iters.add(iter(postings(tok, pointer(pt, ts), size(pt, ts)), token));
         }
-        p += s + ENTRY;
-      }
+      });
+    }
+    for(final byte[] tok : added()) {
+      if(ls.similar(tok, token, k)) iters.add(iter(postings(tok, 0, 0), token));
     }
     return iters.isEmpty() ? FTIndexIterator.FTEMPTY :
       FTIndexIterator.union(iters.toArray(FTIndexIterator[]::new));
@@ -383,68 +465,223 @@ public final class FTIndex extends ValueIndex {
       int c = p + 1, end = -1;
       while(c < pl && end == -1) end = positions[c++];
       start = find(prefix, start, end, p);
+      // limit range to tokens starting with the prefix
+      final byte[] next = successor(prefix, prefix.length);
+      if(next != null) end = seek(next, start, end, p);
+
+      final int ts = p;
+      scan(ts, start, end, wc::reject, (tok, pt) -> {
+        if(wc.match(tok)) add(postings(tok, pointer(pt, ts), size(pt, ts)), pr, ps);
+      });
+    }
+    for(final byte[] tok : added()) {
+      if(wc.match(tok)) add(postings(tok, 0, 0), pr, ps);
+    }
+    return iter(sort(pr, ps), token);
+  }
 
-      while(start < end) {
-        final byte[] t = dataY.readBytes(start, p);
-        if(!startsWith(t, prefix)) break;
-        if(wc.match(t)) {
-          dataZ.cursor(pointer(start, p));
-          final int s = size(start, p);
-          for(int d = 0; d < s; d++) {
-            pr.add(dataZ.readNum());
-            ps.add(dataZ.readNum());
-          }
-        }
-        start += p + ENTRY;
+  /**
+   * Adds postings to the specified lists.
+   * @param postings postings
+   * @param pr pre values
+   * @param ps pos values
+   */
+  private static void add(final FTPostings postings, final IntList pr, final IntList ps) {
+    while(postings.next()) {
+      pr.add(postings.pre());
+      ps.add(postings.pos());
+    }
+  }
+
+  /**
+   * Visits all tokens with the specified length that are not rejected by a filter.
+   * If the filter rejects a prefix of a token, all subsequent tokens with the same prefix
+   * are skipped.
+   * @param length token length
+   * @param start pointer to the first token
+   * @param end pointer after the last token
+   * @param filter returns the length of a rejected prefix of a token, or {@code -1}
+   * @param visitor visitor for tokens and their pointers
+   */
+  final void scan(final int length, final int start, final int end,
+      final ToIntFunction<byte[]> filter, final ObjIntConsumer<byte[]> visitor) {
+    final int el = length + ENTRY;
+    for(int p = start; p < end;) {
+      final byte[] token = dataY.readBytes(p, length);
+      final int rejected = filter.applyAsInt(token);
+      if(rejected == -1) {
+        visitor.accept(token, p);
+        p += el;
+      } else {
+        final byte[] next = successor(token, rejected);
+        if(next == null) break;
+        p = seek(next, p + el, end, length);
       }
     }
-    return iter(new FTCache(pr, ps), token);
   }
 
   /**
-   * Returns an iterator for an index entry.
-   * @param off offset on entries
-   * @param size number of id/pos entries
-   * @param da data source
-   * @param token index token
-   * @return iterator
+   * Returns the pointer to the first token that is equal to or greater than the specified token.
+   * As most skipped ranges are small, the range is first narrowed down by exponential search.
+   * In contrast to {@link #find(byte[], int, int, int)}, the visited tokens are not cached.
+   * @param token token (may be shorter than the tokens in the specified range)
+   * @param start pointer to the first token
+   * @param end pointer after the last token
+   * @param length token length
+   * @return pointer
+   */
+  private int seek(final byte[] token, final int start, final int end, final int length) {
+    final int el = length + ENTRY, n = (end - start) / el;
+    int l = 0, h = 1;
+    while(h <= n && diff(dataY.readBytes(start + (h - 1) * el, length), token) < 0) {
+      l = h;
+      h <<= 1;
+    }
+    h = Math.min(h - 1, n);
+    while(l < h) {
+      final int m = l + h >>> 1;
+      if(diff(dataY.readBytes(start + m * el, length), token) < 0) l = m + 1;
+      else h = m;
+    }
+    return start + l * el;
+  }
+
+  /**
+   * Returns the smallest token that is greater than all tokens starting with the specified prefix.
+   * @param token token
+   * @param length length of the prefix
+   * @return token or {@code null} if no such token exists
    */
-  private static FTIndexIterator iter(final long off, final int size, final DataAccess da,
-      final byte[] token) {
-    da.cursor(off);
+  private static byte[] successor(final byte[] token, final int length) {
+    for(int l = length - 1; l >= 0; l--) {
+      if(token[l] != (byte) 0xFF) {
+        final byte[] next = Arrays.copyOf(token, l + 1);
+        next[l]++;
+        return next;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the tokens that have been added by updates and that are not found in the index files.
+   * @return tokens
+   */
+  TokenList added() {
+    return new TokenList(0);
+  }
+
+  /**
+   * Returns the postings of a token.
+   * @param token token
+   * @return postings or {@code null}
+   */
+  FTPostings postings(final byte[] token) {
+    final IndexEntry entry = entry(token);
+    return entry.size > 0 ? postings(token, entry.offset, entry.size) : null;
+  }
+
+  /**
+   * Returns the postings of a token.
+   * @param token token
+   * @param off offset of the postings
+   * @param size number of postings
+   * @return postings
+   */
+  FTPostings postings(@SuppressWarnings("unused") final byte[] token, final long off,
+      final int size) {
+    return postings(off, size);
+  }
+
+  /**
+   * Returns the postings that are stored at the specified offset.
+   * @param off offset of the postings
+   * @param size number of postings
+   * @return postings
+   */
+  final FTPostings postings(final long off, final int size) {
+    if(blocks && size > FTPostings.BLOCK) return new FTPostings(this, off, size);
+
+    dataZ.cursor(off);
+    if(blocks) return FTPostings.read(dataZ, size);
     final IntList pr = new IntList(size), ps = new IntList(size);
     for(int c = 0; c < size; c++) {
-      pr.add(da.readNum());
-      ps.add(da.readNum());
+      pr.add(dataZ.readNum());
+      ps.add(dataZ.readNum());
+    }
+    return sort(pr, ps);
+  }
+
+  /**
+   * Reads a compressed number from the postings file.
+   * @param off file offset
+   * @return number
+   */
+  synchronized int number(final long off) {
+    return dataZ.readNum(off);
+  }
+
+  /**
+   * Reads bytes from the postings file.
+   * @param off file offset
+   * @param length number of bytes
+   * @return bytes
+   */
+  synchronized byte[] bytes(final long off, final int length) {
+    return dataZ.readBytes(off, length);
+  }
+
+  /**
+   * Returns postings, sorted by pre and pos values.
+   * @param pr pre values
+   * @param ps pos values
+   * @return postings
+   */
+  static FTPostings sort(final IntList pr, final IntList ps) {
+    final int s = pr.size();
+    final long[] v = new long[s];
+    for(int i = 0; i < s; i++) v[i] = (long) pr.get(i) << 32 | ps.get(i);
+    Arrays.sort(v);
+    final int[] pres = new int[s], poss = new int[s];
+    for(int i = 0; i < s; i++) {
+      pres[i] = (int) (v[i] >>> 32);
+      poss[i] = (int) v[i];
     }
-    return iter(new FTCache(pr, ps), token);
+    return new FTPostings(pres, poss, s);
   }
 
   /**
-   * Returns an iterator for an index entry.
-   * @param ftc id cache
+   * Returns an iterator for the postings of an index entry.
+   * @param postings postings
    * @param token index token
    * @return iterator
    */
-  private static FTIndexIterator iter(final FTCache ftc, final byte[] token) {
-    final int size = ftc.pre.size();
+  static FTIndexIterator iter(final FTPostings postings, final byte[] token) {
+    final int size = postings.size();
 
     return new FTIndexIterator() {
       final FTMatches all = new FTMatches();
-      int pos, pre, c;
+      // state of the postings cursor (0: not started, 1: valid, -1: exhausted)
+      int pos, pre, state;
 
       @Override
       public boolean more() {
-        if(c == size) return false;
-        all.reset(pos);
-        int o = ftc.order[c];
-        pre = ftc.pre.get(o);
-        all.or(ftc.pos.get(o));
-        while(++c < size) {
-          o = ftc.order[c];
-          if(pre != ftc.pre.get(o)) break;
-          all.or(ftc.pos.get(o));
+        return more(0);
+      }
+
+      @Override
+      public boolean more(final int target) {
+        if(state == 0 || state == 1 && postings.pre() < target) {
+          state = postings.next(target) ? 1 : -1;
         }
+        if(state == -1) return false;
+
+        // group all positions of the current pre value
+        pre = postings.pre();
+        all.reset(pos);
+        do {
+          all.or(postings.pos());
+        } while((state = postings.next() ? 1 : -1) == 1 && postings.pre() == pre);
         return true;
       }
 
@@ -475,32 +712,6 @@ public final class FTIndex extends ValueIndex {
     };
   }
 
-  /**
-   * Full-text cache.
-   */
-  private static final class FTCache {
-    /** Order. */
-    private final int[] order;
-    /** Pre values. */
-    private final IntList pre;
-    /** Pos values. */
-    private final IntList pos;
-
-    /**
-     * Constructor.
-     * @param pr pre values
-     * @param ps positions
-     */
-    private FTCache(final IntList pr, final IntList ps) {
-      final int s = pr.size();
-      final long[] v = new long[s];
-      for(int i = 0; i < s; i++) v[i] = (long) pr.get(i) << 32 | ps.get(i);
-      order = Array.createOrder(v, true);
-      pre = pr;
-      pos = ps;
-    }
-  }
-
   @Override
   public void add(final ValueCache values) {
     throw Util.notExpected();
@@ -0,0 +1,395 @@
+package org.basex.index.ft;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.io.out.DataOutput;
+import org.basex.io.random.*;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * This class writes and reads the postings (pre and pos values) of a full-text token.
+ *
+ * Postings are sorted by pre and pos values. Small lists with up to {@link #BLOCK} entries
+ * are stored as compressed numbers (pre value distances and pos values). Larger lists are
+ * organized in blocks of {@link #BLOCK} entries. They start with the number of distinct pre
+ * values, the maximum number of postings per pre value, and a skip table, which contains
+ * the delta-encoded first and last pre values and the byte lengths of all blocks. It is followed
+ * by the blocks, in which the differences between subsequent pre values and the pos values are
+ * bit-packed. Blocks with pre values that are smaller than a requested pre value are skipped
+ * without being decoded.
+ *
+ * @author BaseX Team 2005-23, BSD License
+ * @author Christian Gruen
+ */
+final class FTPostings {
+  /** Number of postings per block. */
+  static final int BLOCK = 128;
+
+  /** Index reference ({@code null} if all postings have been loaded). */
+  private final FTIndex index;
+  /** Number of postings. */
+  private final int size;
+  /** Pre values of the current block. */
+  private int[] pres;
+  /** Pos values of the current block. */
+  private int[] poss;
+  /** Number of postings in the current block. */
+  private int count;
+  /** Current offset in the block. */
+  private int offset = -1;
+
+  /** Number of distinct pre values ({@code -1}: not known yet). */
+  private int nodes = -1;
+  /** Maximum number of postings per pre value. */
+  private int frequency;
+
+  /** Skip table (lazily loaded). */
+  private byte[] table;
+  /** Offset of the skip table. */
+  private final long start;
+  /** Current position in the skip table. */
+  private int tp;
+  /** Offset of the next block. */
+  private long next;
+  /** Index of the next block. */
+  private int block;
+  /** Last pre value of the current block ({@code -1}: no block has been loaded yet). */
+  private int last = -1;
+
+  /**
+   * Constructor for postings that are stored in blocks.
+   * @param index index reference
+   * @param start offset of the postings
+   * @param size number of postings
+   */
+  FTPostings(final FTIndex index, final long start, final int size) {
+    this.index = index;
+    this.start = start;
+    this.size = size;
+  }
+
+  /**
+   * Constructor for postings that have been completely loaded.
+   * @param pres sorted pre values
+   * @param poss pos values
+   * @param size number of postings
+   */
+  FTPostings(final int[] pres, final int[] poss, final int size) {
+    this.pres = pres;
+    this.poss = poss;
+    this.size = size;
+    index = null;
+    start = 0;
+    count = size;
+    last = Integer.MAX_VALUE;
+  }
+
+  /**
+   * Returns the number of postings.
+   * @return number of postings
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Returns the number of distinct pre values.
+   * @return number of pre values
+   */
+  int nodes() {
+    if(nodes == -1) {
+      if(index != null) {
+        header();
+      } else {
+        // compute statistics from loaded postings
+        int n = 0, f = 0;
+        for(int s = 0, r = 0; s < size; s++) {
+          r = s > 0 && pres[s] == pres[s - 1] ? r + 1 : 1;
+          if(r == 1) n++;
+          f = Math.max(f, r);
+        }
+        nodes = n;
+        frequency = f;
+      }
+    }
+    return nodes;
+  }
+
+  /**
+   * Returns the maximum number of postings with the same pre value.
+   * @return frequency
+   */
+  int frequency() {
+    nodes();
+    return frequency;
+  }
+
+  /**
+   * Moves the cursor to the next posting.
+   * @return {@code true} if a posting was found
+   */
+  boolean next() {
+    if(++offset < count) return true;
+    if(index == null || block == blocks()) {
+      offset = count;
+      return false;
+    }
+    load(entry());
+    return true;
+  }
+
+  /**
+   * Moves the cursor to the next posting with a pre value that is equal to or greater than
+   * the specified value.
+   * @param pre pre value
+   * @return {@code true} if a posting was found
+   */
+  boolean next(final int pre) {
+    if(index == null) {
+      // binary search in loaded postings
+      int l = offset + 1, h = count;
+      while(l < h) {
+        final int m = l + h >>> 1;
+        if(pres[m] < pre) l = m + 1;
+        else h = m;
+      }
+      offset = l;
+      return l < count;
+    }
+
+    // skip blocks with smaller pre values
+    if(last < pre) {
+      while(true) {
+        if(block == blocks()) {
+          offset = count;
+          return false;
+        }
+        final long[] entry = entry();
+        if(entry[1] >= pre) {
+          load(entry);
+          offset = -1;
+          break;
+        }
+        next += entry[2];
+        last = (int) entry[1];
+        block++;
+      }
+    }
+    while(next()) {
+      if(pres[offset] >= pre) return true;
+    }
+    return false;
+  }
+
+  /**
+   * Returns the pre value of the current posting.
+   * @return pre value
+   */
+  int pre() {
+    return pres[offset];
+  }
+
+  /**
+   * Returns the pos value of the current posting.
+   * @return pos value
+   */
+  int pos() {
+    return poss[offset];
+  }
+
+  /**
+   * Returns the number of blocks.
+   * @return number of blocks
+   */
+  private int blocks() {
+    return (size + BLOCK - 1) / BLOCK;
+  }
+
+  /**
+   * Reads the skip table entry of the next block.
+   * @return first and last pre value and byte length of the block
+   */
+  private long[] entry() {
+    if(table == null) header();
+    final long first = Math.max(last, 0) + (long) read();
+    return new long[] { first, first + read(), read() };
+  }
+
+  /**
+   * Reads the statistics and the skip table.
+   */
+  private void header() {
+    if(table != null) return;
+    next = start;
+    nodes = number();
+    frequency = number();
+    final int length = number();
+    table = index.bytes(next, length);
+    next += length;
+    pres = new int[BLOCK];
+    poss = new int[BLOCK];
+  }
+
+  /**
+   * Reads a number from the postings file and advances the file offset.
+   * @return number
+   */
+  private int number() {
+    final int v = index.number(next);
+    next += Num.length(v);
+    return v;
+  }
+
+  /**
+   * Reads a number from the skip table.
+   * @return number
+   */
+  private int read() {
+    final int v = Num.get(table, tp);
+    tp += Num.length(table, tp);
+    return v;
+  }
+
+  /**
+   * Loads and decodes a block.
+   * @param entry skip table entry
+   */
+  private void load(final long[] entry) {
+    final int length = (int) entry[2];
+    final byte[] bytes = index.bytes(next, length);
+    next += length;
+    count = Math.min(BLOCK, size - block * BLOCK);
+    block++;
+    last = (int) entry[1];
+
+    pres[0] = (int) entry[0];
+    final int p = unpack(bytes, 0, pres, 1, count - 1);
+    for(int c = 1; c < count; c++) pres[c] += pres[c - 1];
+    unpack(bytes, p, poss, 0, count);
+    offset = 0;
+  }
+
+  // STATIC METHODS ===============================================================================
+
+  /**
+   * Reads a small list of postings from the current cursor position.
+   * @param da data access
+   * @param size number of postings (at most {@link #BLOCK})
+   * @return postings
+   */
+  static FTPostings read(final DataAccess da, final int size) {
+    final int[] pres = new int[size], poss = new int[size];
+    for(int s = 0, pre = 0; s < size; s++) {
+      pre += da.readNum();
+      pres[s] = pre;
+      poss[s] = da.readNum();
+    }
+    return new FTPostings(pres, poss, size);
+  }
+
+  /**
+   * Writes postings.
+   * @param out output stream
+   * @param pres sorted pre values
+   * @param poss pos values
+   * @throws IOException I/O exception
+   */
+  static void write(final DataOutput out, final IntList pres, final IntList poss)
+      throws IOException {
+
+    final int size = pres.size();
+    if(size <= BLOCK) {
+      for(int s = 0, last = 0; s < size; s++) {
+        out.writeNum(pres.get(s) - last);
+        out.writeNum(poss.get(s));
+        last = pres.get(s);
+      }
+      return;
+    }
+
+    final ByteList table = new ByteList(), blocks = new ByteList();
+    final int[] values = new int[BLOCK];
+    for(int b = 0, last = 0; b < size; b += BLOCK) {
+      final int count = Math.min(BLOCK, size - b), bs = blocks.size();
+      final int first = pres.get(b), lst = pres.get(b + count - 1);
+      for(int c = 1; c < count; c++) values[c - 1] = pres.get(b + c) - pres.get(b + c - 1);
+      pack(blocks, values, count - 1);
+      for(int c = 0; c < count; c++) values[c] = poss.get(b + c);
+      pack(blocks, values, count);
+
+      table.add(Num.num(first - last)).add(Num.num(lst - first)).add(Num.num(blocks.size() - bs));
+      last = lst;
+    }
+    int nodes = 0, frequency = 0;
+    for(int s = 0, r = 0; s < size; s++) {
+      r = s > 0 && pres.get(s) == pres.get(s - 1) ? r + 1 : 1;
+      if(r == 1) nodes++;
+      frequency = Math.max(frequency, r);
+    }
+    out.writeNum(nodes);
+    out.writeNum(frequency);
+    out.writeNum(table.size());
+    out.write(table.finish());
+    out.write(blocks.finish());
+  }
+
+  /**
+   * Bit-packs values.
+   * @param list target list
+   * @param values values
+   * @param count number of values
+   */
+  private static void pack(final ByteList list, final int[] values, final int count) {
+    int max = 0;
+    for(int c = 0; c < count; c++) max |= values[c];
+    final int bits = 32 - Integer.numberOfLeadingZeros(max);
+    list.add(bits);
+    long buffer = 0;
+    int filled = 0;
+    for(int c = 0; c < count; c++) {
+      buffer |= (values[c] & 0xFFFFFFFFL) << filled;
+      filled += bits;
+      while(filled >= 8) {
+        list.add((int) buffer);
+        buffer >>>= 8;
+        filled -= 8;
+      }
+    }
+    if(filled > 0) list.add((int) buffer);
+  }
+
+  /**
+   * Unpacks bit-packed values.
+   * @param bytes bytes
+   * @param pos position of the packed values
+   * @param values target array
+   * @param offset offset in the target array
+   * @param count number of values
+   * @return position after the packed values
+   */
+  private static int unpack(final byte[] bytes, final int pos, final int[] values,
+      final int offset, final int count) {
+
+    int p = pos;
+    final int bits = bytes[p++];
+    if(bits == 0) {
+      Arrays.fill(values, offset, offset + count, 0);
+      return p;
+    }
+    final long mask = (1L << bits) - 1;
+    long buffer = 0;
+    int filled = 0;
+    for(int c = 0; c < count; c++) {
+      while(filled < bits) {
+        buffer |= (bytes[p++] & 0xFFL) << filled;
+        filled += 8;
+      }
+      values[offset + c] = (int) (buffer & mask);
+      buffer >>>= bits;
+      filled -= bits;
+    }
+    return p;
+  }
+}
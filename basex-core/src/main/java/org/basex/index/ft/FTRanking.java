@@ -0,0 +1,263 @@
+package org.basex.index.ft;
+
+import java.util.*;
+
+import org.basex.data.*;
+
+/**
+ * This class ranks the results of a full-text index lookup with the BM25 scoring model and
+ * returns the best results.
+ *
+ * If results are requested that contain any of the query tokens, the MaxScore algorithm is
+ * applied: The tokens are sorted by the maximum score they can contribute. Tokens whose summed
+ * maximum scores cannot exceed the score of the currently worst result are not used for
+ * generating candidates anymore; they are only looked up for candidates that may still be
+ * accepted, and their postings are skipped via the skip tables of the index.
+ *
+ * @author BaseX Team 2005-23, BSD License
+ * @author Christian Gruen
+ */
+public final class FTRanking {
+  /** BM25 parameter: term frequency saturation. */
+  private static final double K1 = 1.2;
+  /** BM25 parameter: length normalization. */
+  private static final double B = 0.75;
+
+  /** Pre values of the results, sorted by descending score. */
+  private final int[] pres;
+  /** Scores of the results. */
+  private final double[] scores;
+
+  /** Data reference. */
+  private final Data data;
+  /** Average text length. */
+  private final double length;
+  /** Minimum accepted results, ordered by ascending score and descending pre value. */
+  private final PriorityQueue<double[]> results = new PriorityQueue<>((r1, r2) ->
+    r1[1] != r2[1] ? Double.compare(r1[1], r2[1]) : Double.compare(r2[0], r1[0]));
+  /** Maximum number of results. */
+  private final int k;
+
+  /**
+   * Constructor.
+   * @param data data reference
+   * @param postings postings of the query tokens
+   * @param nodes number of indexed nodes
+   * @param length average text length
+   * @param all all tokens must be found
+   * @param k maximum number of results
+   */
+  FTRanking(final Data data, final FTPostings[] postings, final int nodes, final double length,
+      final boolean all, final int k) {
+
+    this.data = data;
+    this.length = length;
+    this.k = k;
+
+    final int pl = postings.length;
+    final Term[] terms = new Term[pl];
+    for(int p = 0; p < pl; p++) terms[p] = new Term(postings[p], nodes);
+    if(pl > 0 && k > 0) {
+      if(all) all(terms);
+      else any(terms);
+    }
+
+    final int rs = results.size();
+    pres = new int[rs];
+    scores = new double[rs];
+    for(int r = rs - 1; r >= 0; r--) {
+      final double[] result = results.poll();
+      pres[r] = (int) result[0];
+      scores[r] = result[1];
+    }
+  }
+
+  /**
+   * Returns the pre values of the results, sorted by descending score.
+   * @return pre values
+   */
+  public int[] pres() {
+    return pres;
+  }
+
+  /**
+   * Returns the scores of the results.
+   * @return scores
+   */
+  public double[] scores() {
+    return scores;
+  }
+
+  /**
+   * Ranks all nodes that contain at least one of the tokens (MaxScore).
+   * @param terms terms
+   */
+  private void any(final Term[] terms) {
+    // sort terms by their maximum score, compute accumulated maximum scores
+    Arrays.sort(terms, (t1, t2) -> Double.compare(t1.max, t2.max));
+    final int tl = terms.length;
+    final double[] bounds = new double[tl];
+    for(int t = 0; t < tl; t++) bounds[t] = (t == 0 ? 0 : bounds[t - 1]) + terms[t].max;
+    for(final Term term : terms) term.next(0);
+    final double[] parts = new double[tl];
+
+    // terms before this index are not used for generating candidates
+    int essential = 0;
+    while(true) {
+      int pre = Integer.MAX_VALUE;
+      for(int t = essential; t < tl; t++) {
+        if(terms[t].pre != -1) pre = Math.min(pre, terms[t].pre);
+      }
+      if(pre == Integer.MAX_VALUE) break;
+
+      // compute scores of essential terms
+      final int dl = data.textLen(pre, true);
+      double score = 0;
+      for(int t = essential; t < tl; t++) {
+        final Term term = terms[t];
+        parts[t] = 0;
+        if(term.pre == pre) {
+          parts[t] = term.score(dl, length);
+          score += parts[t];
+          term.next(pre + 1);
+        }
+      }
+      // add scores of non-essential terms as long as the node may be accepted
+      final double min = min();
+      int t = essential;
+      while(--t >= 0 && score + bounds[t] > min) {
+        final Term term = terms[t];
+        if(term.pre != -1 && term.pre < pre) term.next(pre);
+        parts[t] = term.pre == pre ? term.score(dl, length) : 0;
+        score += parts[t];
+      }
+      if(t >= 0) continue;
+
+      // sum up scores in a fixed order
+      score = 0;
+      for(final double s : parts) score += s;
+      if(add(pre, score)) {
+        final double m = min();
+        while(essential < tl && bounds[essential] <= m) essential++;
+      }
+    }
+  }
+
+  /**
+   * Ranks all nodes that contain all tokens.
+   * @param terms terms
+   */
+  private void all(final Term[] terms) {
+    // start with the least frequent token
+    Arrays.sort(terms, (t1, t2) -> Integer.compare(t1.postings.nodes(), t2.postings.nodes()));
+    final int tl = terms.length;
+    int pre = 0;
+    while(true) {
+      // align all terms
+      boolean found = true;
+      for(int t = 0; t < tl; t++) {
+        final Term term = terms[t];
+        if(term.pre == -1 || term.pre < pre) term.next(pre);
+        if(term.pre == -1) return;
+        if(term.pre > pre) {
+          pre = term.pre;
+          found = false;
+          break;
+        }
+      }
+      if(!found) continue;
+
+      final int dl = data.textLen(pre, true);
+      double score = 0;
+      for(final Term term : terms) score += term.score(dl, length);
+      add(pre, score);
+      pre++;
+    }
+  }
+
+  /**
+   * Returns the score of the currently worst accepted result.
+   * @return score, or {@code -1} if less than the maximum number of results have been found
+   */
+  private double min() {
+    return results.size() < k ? -1 : results.peek()[1];
+  }
+
+  /**
+   * Adds a result if its score is higher than the score of the worst accepted result.
+   * As nodes are processed in document order, nodes with the same score are rejected.
+   * @param pre pre value
+   * @param score score
+   * @return {@code true} if the result was added
+   */
+  private boolean add(final int pre, final double score) {
+    if(results.size() == k) {
+      if(score <= results.peek()[1]) return false;
+      results.poll();
+    }
+    results.add(new double[] { pre, score });
+    return true;
+  }
+
+  /**
+   * Postings of a query token, grouped by pre values.
+   */
+  private static final class Term {
+    /** Postings. */
+    private final FTPostings postings;
+    /** Inverse document frequency. */
+    private final double idf;
+    /** Maximum score. */
+    private final double max;
+    /** Current pre value ({@code -1}: no more postings). */
+    private int pre = -1;
+    /** Number of postings for the current pre value. */
+    private int freq;
+    /** State of the postings cursor (0: not started, 1: valid, -1: exhausted). */
+    private int state;
+
+    /**
+     * Constructor.
+     * @param postings postings
+     * @param nodes total number of indexed nodes
+     */
+    private Term(final FTPostings postings, final int nodes) {
+      this.postings = postings;
+      final int n = postings.nodes();
+      idf = Math.log(1 + (nodes - n + 0.5) / (n + 0.5));
+      // upper bound: maximum frequency, minimum text length
+      final int f = postings.frequency();
+      max = idf * f * (K1 + 1) / (f + K1 * (1 - B));
+    }
+
+    /**
+     * Moves the cursor to the next pre value that is equal to or greater than the specified
+     * value.
+     * @param target pre value
+     */
+    private void next(final int target) {
+      if(state == 0 || state == 1 && postings.pre() < target) {
+        state = postings.next(target) ? 1 : -1;
+      }
+      if(state == -1) {
+        pre = -1;
+        return;
+      }
+      pre = postings.pre();
+      freq = 0;
+      do {
+        freq++;
+      } while((state = postings.next() ? 1 : -1) == 1 && postings.pre() == pre);
+    }
+
+    /**
+     * Returns the score for the current pre value.
+     * @param dl text length
+     * @param avg average text length
+     * @return score
+     */
+    private double score(final int dl, final double avg) {
+      return idf * freq * (K1 + 1) / (freq + K1 * (1 - B + B * dl / avg));
+    }
+  }
+}
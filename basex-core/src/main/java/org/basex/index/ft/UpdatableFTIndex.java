@@ -0,0 +1,442 @@
+package org.basex.index.ft;
+
+import static org.basex.data.DataText.*;
+import static org.basex.util.Token.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.index.*;
+import org.basex.index.query.*;
+import org.basex.index.value.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * This class provides access and update functions to a full-text index structure stored on disk.
+ * The index files are described in the {@link FTIndex} class. They contain node ids instead of
+ * pre values.
+ *
+ * Updates are not written to the index files: The postings of inserted texts are kept in a delta
+ * segment, and the ids of deleted texts are marked in a bit array. Both are consulted by all
+ * index lookups and stored in a separate file. If the number of changes exceeds a threshold,
+ * the changes are merged into the index files when the database is flushed.
+ *
+ * @author BaseX Team 2005-23, BSD License
+ * @author Christian Gruen
+ */
+public final class UpdatableFTIndex extends FTIndex {
+  /** Minimum number of changes before the delta segment is merged (can be lowered for testing). */
+  static int minChanges = 1 << 20;
+
+  /** Postings of inserted texts (alternating ids and pos values), indexed by their tokens. */
+  private final TokenObjMap<IntList> delta = new TokenObjMap<>();
+  /** Ids of deleted texts whose postings are stored in the index files. */
+  private BitArray deleted = new BitArray();
+  /** Number of postings in the delta segment. */
+  private int added;
+  /** Number of deleted texts. */
+  private int removed;
+  /** Indicates if the delta segment has been changed. */
+  private boolean dirty;
+
+  /**
+   * Constructor, initializing the index structure.
+   * @param data data reference
+   * @throws IOException I/O Exception
+   */
+  public UpdatableFTIndex(final Data data) throws IOException {
+    super(data);
+    final IOFile file = file();
+    if(file.exists()) {
+      try(DataInput in = new DataInput(file)) {
+        nodes = in.readNum();
+        length = in.readLong();
+        final long[] words = in.readLongs(in.readNum());
+        deleted = new BitArray(words, words.length * 64);
+        removed = in.readNum();
+        for(int t = in.readNum(); --t >= 0;) {
+          final byte[] token = in.readToken();
+          final int[] nums = in.readNums();
+          delta.put(token, new IntList(nums));
+          added += nums.length >> 1;
+        }
+      }
+    }
+  }
+
+  @Override
+  public synchronized void add(final ValueCache values) {
+    // index of an older version (pre values): invalidate index
+    if(!ids) {
+      data.meta.ftindex = false;
+      return;
+    }
+    for(final byte[] token : values) {
+      final IntList ids = values.ids(token), pos = values.pos(token), list =
+        delta.computeIfAbsent(token, () -> new IntList(ids.size() << 1));
+      final int is = ids.size();
+      for(int i = 0; i < is; i++) list.add(ids.get(i)).add(pos.get(i));
+      added += is;
+    }
+    stats(values.nodes(), values.length());
+  }
+
+  @Override
+  public synchronized void delete(final ValueCache values) {
+    if(!ids) {
+      data.meta.ftindex = false;
+      return;
+    }
+    final IntSet set = new IntSet();
+    for(final byte[] token : values) {
+      for(final int id : values.ids(token).toArray()) set.add(id);
+    }
+    // remove postings from the delta segment
+    for(final byte[] token : values) {
+      final IntList list = delta.get(token);
+      if(list == null) continue;
+      final IntList nums = new IntList(list.size());
+      final int ls = list.size();
+      for(int l = 0; l < ls; l += 2) {
+        final int id = list.get(l);
+        if(!set.contains(id)) nums.add(id).add(list.get(l + 1));
+      }
+      added -= ls - nums.size() >> 1;
+      delta.put(token, nums);
+    }
+    // mark ids of deleted texts; their postings in the index files will be ignored
+    for(final int id : set.toArray()) {
+      if(!deleted.get(id)) {
+        deleted.set(id);
+        removed++;
+      }
+    }
+    stats(-values.nodes(), -values.length());
+  }
+
+  /**
+   * Updates the index statistics.
+   * @param n number of added or removed texts
+   * @param l length of the added or removed texts
+   */
+  private void stats(final int n, final long l) {
+    if(nodes != -1) {
+      nodes += n;
+      length += l;
+    }
+    dirty = true;
+  }
+
+  @Override
+  public synchronized void flush() {
+    if(!dirty) return;
+    try {
+      if(added + removed > Math.max(minChanges, data.meta.size >>> 4)) merge();
+      else write();
+    } catch(final IOException ex) {
+      Util.stack(ex);
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    try {
+      if(dirty) write();
+    } catch(final IOException ex) {
+      Util.stack(ex);
+    }
+    super.close();
+  }
+
+  @Override
+  public synchronized EntryIterator entries(final IndexEntries entries) {
+    final EntryIterator iter = super.entries(entries);
+    if(added == 0 && removed == 0) return iter;
+
+    // merge tokens of the index files and the delta segment, skip tokens without postings
+    final byte[] prefix = entries.token();
+    final TokenList tokens = new TokenList();
+    for(final byte[] token : added()) {
+      if(startsWith(token, prefix)) tokens.add(token);
+    }
+    final Iterator<byte[]> extra = sort(tokens).iterator();
+    return new EntryIterator() {
+      byte[] next = iter.next(), ext = extra.hasNext() ? extra.next() : null;
+      int count;
+
+      @Override
+      public byte[] next() {
+        synchronized(UpdatableFTIndex.this) {
+          while(true) {
+            final byte[] token;
+            if(next != null && (ext == null || compare(next, ext) < 0)) {
+              token = next;
+              next = iter.next();
+            } else if(ext != null) {
+              token = ext;
+              ext = extra.hasNext() ? extra.next() : null;
+            } else {
+              return null;
+            }
+            final FTPostings postings = postings(token);
+            count = postings != null ? postings.size() : 0;
+            if(count > 0) return token;
+          }
+        }
+      }
+
+      @Override
+      public int count() {
+        return count;
+      }
+    };
+  }
+
+  @Override
+  int count(final byte[] token) {
+    return super.count(token) + deltaSize(delta.get(token));
+  }
+
+  @Override
+  TokenList added() {
+    final TokenList tokens = new TokenList();
+    for(final byte[] token : delta) {
+      if(deltaSize(delta.get(token)) > 0 && entry(token).size == 0) tokens.add(token);
+    }
+    return tokens;
+  }
+
+  @Override
+  FTPostings postings(final byte[] token) {
+    final IndexEntry entry = entry(token);
+    return postings(token, entry.offset, entry.size);
+  }
+
+  @Override
+  FTPostings postings(final byte[] token, final long off, final int size) {
+    final IntList list = delta.get(token);
+    // no updates: node ids are identical to pre values
+    if(!ids || deltaSize(list) == 0 && removed == 0 && data.idmap.size() == 0) {
+      return size > 0 ? super.postings(token, off, size) : null;
+    }
+
+    // map ids of the index files and the delta segment to pre values
+    final IntList pr = new IntList(), ps = new IntList();
+    if(size > 0) {
+      final FTPostings postings = postings(off, size);
+      while(postings.next()) {
+        final int id = postings.pre();
+        if(!deleted.get(id)) {
+          pr.add(data.pre(id));
+          ps.add(postings.pos());
+        }
+      }
+    }
+    if(list != null) {
+      final int ls = list.size();
+      for(int l = 0; l < ls; l += 2) {
+        pr.add(data.pre(list.get(l)));
+        ps.add(list.get(l + 1));
+      }
+    }
+    return sort(pr, ps);
+  }
+
+  /**
+   * Writes the delta segment to disk.
+   * @throws IOException I/O exception
+   */
+  private void write() throws IOException {
+    final IOFile file = file();
+    final TokenList tokens = new TokenList();
+    for(final byte[] token : delta) {
+      if(deltaSize(delta.get(token)) > 0) tokens.add(token);
+    }
+    if(tokens.isEmpty() && removed == 0) {
+      file.delete();
+    } else {
+      try(DataOutput out = new DataOutput(file)) {
+        out.writeNum(nodes);
+        out.writeLong(length);
+        out.writeLongs(deleted.toArray());
+        out.writeNum(removed);
+        out.writeNum(tokens.size());
+        for(final byte[] token : tokens) {
+          out.writeToken(token);
+          out.writeNums(delta.get(token).toArray());
+        }
+      }
+    }
+    dirty = false;
+  }
+
+  /**
+   * Merges the delta segment into the index files. The postings of all tokens are read,
+   * the postings of deleted texts are dropped, and the postings of the delta segment are added.
+   * @throws IOException I/O exception
+   */
+  private void merge() throws IOException {
+    final String name = DATAFTX + 'm';
+    final IntList ind = new IntList();
+    int last = 0;
+    try(DataOutput outX = new DataOutput(data.meta.dbFile(name + 'x'));
+        DataOutput outY = new DataOutput(data.meta.dbFile(name + 'y'));
+        DataOutput outZ = new DataOutput(data.meta.dbFile(name + 'z'))) {
+
+      // tokens of the delta segment that are not stored in the index files
+      final TokenList tokens = sort(added());
+      final int ts = tokens.size(), pl = positions.length;
+      int t = 0;
+      for(int p = 0; p < pl - 1; p++) {
+        final int tl = p;
+        final TokenList list = new TokenList();
+        final LongList pointers = new LongList();
+        final int start = positions[p];
+        if(start != -1) {
+          int c = p + 1, end = -1;
+          while(c < pl && end == -1) end = positions[c++];
+          scan(tl, start, end, tok -> -1, (tok, pt) -> {
+            list.add(tok);
+            pointers.add(pointer(pt, tl) << 32 | size(pt, tl));
+          });
+        }
+        // merge tokens of both lists
+        final int ls = list.size();
+        for(int l = 0; l < ls || t < ts && tokens.get(t).length == tl;) {
+          final byte[] token;
+          final long pointer;
+          if(l < ls && (t == ts || tokens.get(t).length != tl ||
+              diff(list.get(l), tokens.get(t)) < 0)) {
+            token = list.get(l);
+            pointer = pointers.get(l++);
+          } else {
+            token = tokens.get(t++);
+            pointer = 0;
+          }
+          final IntList pr = new IntList(), ps = new IntList();
+          postings(token, pointer >>> 32, (int) pointer, pr, ps);
+          if(pr.isEmpty()) continue;
+
+          if(ind.isEmpty() || ind.get(ind.size() - 2) < tl) {
+            ind.add(tl);
+            ind.add((int) outY.size());
+          }
+          outY.writeBytes(token);
+          outY.write5(outZ.size());
+          outY.write4(pr.size());
+          FTPostings.write(outZ, pr, ps);
+          last = tl;
+        }
+      }
+
+      final int is = ind.size();
+      outX.writeNum(is >> 1);
+      for(int i = 0; i < is; i += 2) {
+        outX.writeNum(ind.get(i));
+        outX.write4(ind.get(i + 1));
+      }
+      outX.writeNum(last + 1);
+      outX.write4((int) outY.size());
+      outX.write1(BLOCKS | IDS);
+      outX.writeNum(Math.max(0, nodes));
+      outX.write5(length);
+    }
+
+    // replace index files
+    super.close();
+    for(final char ch : new char[] { 'x', 'y', 'z' }) {
+      final IOFile target = data.meta.dbFile(DATAFTX + ch);
+      if(!target.delete() || !data.meta.dbFile(name + ch).rename(target)) {
+        throw new IOException("Could not replace " + target);
+      }
+    }
+    delta.clear();
+    deleted = new BitArray();
+    added = 0;
+    removed = 0;
+    file().delete();
+    dirty = false;
+    open();
+  }
+
+  /**
+   * Adds the ids and pos values of a token to the specified lists, sorted by ids and pos values.
+   * @param token token
+   * @param off offset of the postings in the index files
+   * @param size number of postings in the index files
+   * @param pr ids
+   * @param ps pos values
+   */
+  private void postings(final byte[] token, final long off, final int size, final IntList pr,
+      final IntList ps) {
+
+    if(size > 0) {
+      final FTPostings postings = postings(off, size);
+      while(postings.next()) {
+        final int id = postings.pre();
+        if(!deleted.get(id)) {
+          pr.add(id);
+          ps.add(postings.pos());
+        }
+      }
+    }
+    final IntList list = delta.get(token);
+    if(list != null) {
+      final int ls = list.size();
+      for(int l = 0; l < ls; l += 2) {
+        pr.add(list.get(l));
+        ps.add(list.get(l + 1));
+      }
+    }
+    final FTPostings sorted = sort(pr, ps);
+    pr.reset();
+    ps.reset();
+    while(sorted.next()) {
+      pr.add(sorted.pre());
+      ps.add(sorted.pos());
+    }
+  }
+
+  /**
+   * Returns the file of the delta segment.
+   * @return file
+   */
+  private IOFile file() {
+    return data.meta.dbFile(DATAFTX + 'd');
+  }
+
+  /**
+   * Returns the number of postings in a delta list.
+   * @param list list (can be {@code null})
+   * @return number of postings
+   */
+  private static int deltaSize(final IntList list) {
+    return list != null ? list.size() >> 1 : 0;
+  }
+
+  /**
+   * Sorts tokens by their length and their bytes (i.e., in the order of the index files).
+   * @param tokens tokens
+   * @return sorted tokens
+   */
+  private static TokenList sort(final TokenList tokens) {
+    return tokens.sort(UpdatableFTIndex::compare, true);
+  }
+
+  /**
+   * Compares two tokens by their length and their bytes.
+   * @param token1 first token
+   * @param token2 second token
+   * @return result of comparison
+   */
+  private static int compare(final byte[] token1, final byte[] token2) {
+    final int d = token1.length - token2.length;
+    return d != 0 ? d : diff(token1, token2);
+  }
+}
@@ -0,0 +1,177 @@
+package org.basex.index.name;
+
+import static org.basex.core.Text.*;
+import static org.basex.data.DataText.*;
+
+import java.io.*;
+
+import org.basex.core.*;
+import org.basex.data.*;
+import org.basex.index.*;
+import org.basex.index.query.*;
+import org.basex.index.stats.*;
+import org.basex.index.value.*;
+import org.basex.io.random.*;
+import org.basex.query.util.index.*;
+import org.basex.util.*;
+
+/**
+ * This index contains the sorted pre values of all elements with the same name.
+ * It is used to evaluate descendant steps with name tests: the elements of a subtree can be
+ * retrieved with two binary searches, and the costs are proportional to the number of results.
+ * The data structure is described in the {@link NameIndexBuilder} class.
+ *
+ * @author BaseX Team 2005-23, BSD License
+ * @author Christian Gruen
+ */
+public final class NameIndex extends ValueIndex {
+  /** Minimum number of nodes of a subtree for which the index will be used. */
+  public static final int MIN_NODES = 64;
+
+  /** Offsets to the pre values of the element names. */
+  private final DataAccess idxr;
+  /** Pre values. */
+  private final DataAccess idxl;
+  /** Number of indexed name ids (including the unused id {@code 0}). */
+  private final int ids;
+
+  /**
+   * Constructor, initializing the index structure.
+   * @param data data reference
+   * @throws IOException I/O Exception
+   */
+  public NameIndex(final Data data) throws IOException {
+    super(data, IndexType.NAME);
+    idxr = new DataAccess(data.meta.dbFile(DATANAM + 'r'));
+    idxl = new DataAccess(data.meta.dbFile(DATANAM + 'l'));
+    ids = (int) (idxr.length() >>> 2) - 1;
+  }
+
+  /**
+   * Returns the pre values of all elements with the specified name in the specified range.
+   * @param id id of the element name
+   * @param first first pre value (inclusive)
+   * @param last last pre value (exclusive)
+   * @return iterator
+   */
+  public IndexIterator iter(final int id, final int first, final int last) {
+    if(id <= 0 || id >= ids) return IndexIterator.EMPTY;
+    final int start = start(id), end = start(id + 1);
+    final int s = search(first, start, end), e = search(last, s, end);
+    return s == e ? IndexIterator.EMPTY : new IndexIterator() {
+      int i = s;
+
+      @Override
+      public boolean more() {
+        return i < e;
+      }
+
+      @Override
+      public int pre() {
+        return idxl.read4((long) i++ << 2);
+      }
+
+      @Override
+      public int size() {
+        return e - s;
+      }
+    };
+  }
+
+  /**
+   * Returns the number of elements with the specified name.
+   * @param id id of the element name
+   * @return number of elements
+   */
+  public int count(final int id) {
+    return id <= 0 || id >= ids ? 0 : start(id + 1) - start(id);
+  }
+
+  @Override
+  public byte[] info(final MainOptions options) {
+    final TokenBuilder tb = new TokenBuilder();
+    tb.add(LI_STRUCTURE).add(SORTED_LIST).add(NL);
+    tb.add(LI_SIZE).add(Performance.format(idxl.length() + idxr.length())).add(NL);
+
+    final IndexStats stats = new IndexStats(options.get(MainOptions.MAXSTAT));
+    for(int id = 1; id < ids; id++) {
+      final int count = count(id);
+      if(stats.adding(count)) stats.add(data.elemNames.key(id), count);
+    }
+    stats.print(tb);
+    return tb.finish();
+  }
+
+  @Override
+  public int size() {
+    return Math.max(0, ids - 1);
+  }
+
+  @Override
+  public IndexCosts costs(final IndexSearch search) {
+    return IndexCosts.get(count(data.elemNames.id(search.token())));
+  }
+
+  @Override
+  public IndexIterator iter(final IndexSearch search) {
+    return iter(data.elemNames.id(search.token()), 0, data.meta.size);
+  }
+
+  @Override
+  public boolean drop() {
+    return data.meta.drop(DATANAM + '.');
+  }
+
+  @Override
+  public void close() {
+    idxr.close();
+    idxl.close();
+  }
+
+  @Override
+  public void flush() { }
+
+  /**
+   * Returns the offset to the first pre value of the specified name.
+   * @param id name id
+   * @return offset
+   */
+  private int start(final int id) {
+    return idxr.read4((long) id << 2);
+  }
+
+  /**
+   * Returns the offset to the first pre value that is equal to or greater than the specified
+   * value.
+   * @param pre pre value to be found
+   * @param start offset to the first pre value (inclusive)
+   * @param end offset to the last pre value (exclusive)
+   * @return offset
+   */
+  private int search(final int pre, final int start, final int end) {
+    int l = start, h = end - 1;
+    while(l <= h) {
+      final int m = l + h >>> 1;
+      if(idxl.read4((long) m << 2) < pre) l = m + 1;
+      else h = m - 1;
+    }
+    return l;
+  }
+
+  // Unsupported methods ==========================================================================
+
+  @Override
+  public EntryIterator entries(final IndexEntries entries) {
+    throw Util.notExpected();
+  }
+
+  @Override
+  public void add(final ValueCache values) {
+    throw Util.notExpected();
+  }
+
+  @Override
+  public void delete(final ValueCache values) {
+    throw Util.notExpected();
+  }
+}
@@ -0,0 +1,75 @@
+package org.basex.index.name;
+
+import static org.basex.data.DataText.*;
+
+import java.io.*;
+
+import org.basex.data.*;
+import org.basex.index.*;
+import org.basex.io.out.DataOutput;
+import org.basex.util.*;
+
+/**
+ * <p>This class builds an index with the pre values of all elements, grouped by their names,
+ * and stores the result to disk.</p>
+ *
+ * <p>The data is stored on disk in the following format:</p>
+ * <ul>
+ * <li> {@code DATANAM + 'l'}: contains the pre values of all elements, sorted by the ids of the
+ *   element names and by document order. All values are stored as 4-byte integers, which allows
+ *   for binary searches.</li>
+ * <li> {@code DATANAM + 'r'}: contains 4-byte offsets to the first pre value of each name id,
+ *   followed by the total number of pre values.</li>
+ * </ul>
+ *
+ * @author BaseX Team 2005-23, BSD License
+ * @author Christian Gruen
+ */
+public final class NameIndexBuilder extends IndexBuilder {
+  /**
+   * Constructor.
+   * @param data data reference
+   */
+  public NameIndexBuilder(final Data data) {
+    super(data, IndexType.NAME);
+  }
+
+  @Override
+  public NameIndex build() throws IOException {
+    Util.debug(detailedInfo());
+
+    try {
+      // count elements per name, compute offsets
+      final int ids = data.elemNames.size() + 1;
+      final int[] starts = new int[ids + 1];
+      for(pre = 0; pre < size; ++pre) {
+        if((pre & 0x0FFF) == 0) check();
+        if(data.kind(pre) == Data.ELEM) starts[data.nameId(pre) + 1]++;
+      }
+      for(int id = 1; id <= ids; id++) starts[id] += starts[id - 1];
+
+      // assign pre values
+      final int[] offsets = starts.clone(), pres = new int[starts[ids]];
+      for(pre = 0; pre < size; ++pre) {
+        if((pre & 0x0FFF) == 0) check();
+        if(data.kind(pre) == Data.ELEM) pres[offsets[data.nameId(pre)]++] = pre;
+      }
+      count = pres.length;
+
+      try(DataOutput outR = new DataOutput(data.meta.dbFile(DATANAM + 'r'))) {
+        for(final int start : starts) outR.write4(start);
+      }
+      try(DataOutput outL = new DataOutput(data.meta.dbFile(DATANAM + 'l'))) {
+        for(final int p : pres) outL.write4(p);
+      }
+
+      finishIndex();
+      return new NameIndex(data);
+
+    } catch(final Throwable th) {
+      // drop index files
+      data.meta.drop(DATANAM + ".");
+      throw th;
+    }
+  }
+}
@@ -30,6 +30,20 @@ public abstract class FTIndexIterator implements IndexIterator {
    */
   public abstract FTMatches matches();
 
+  /**
+   * Moves the iterator to the next result with a pre value that is equal to or greater than
+   * the specified value. The iterator is moved forward at least once.
+   * Can be overwritten by iterators that are able to skip results.
+   * @param pre pre value
+   * @return result of check
+   */
+  public boolean more(final int pre) {
+    while(more()) {
+      if(pre() >= pre) return true;
+    }
+    return false;
+  }
+
   /**
    * Sets the position of the token in the query.
    * @param p query position
@@ -48,20 +62,30 @@ public abstract class FTIndexIterator implements IndexIterator {
 
       @Override
       public boolean more() {
+        return more(0);
+      }
+
+      @Override
+      public boolean more(final int target) {
         final int il = iters.length;
         if(ir == null) {
           ir = new FTIndexIterator[il];
           for(int i = 0; i < il; i++) {
-            ir[i] = iters[i].more() ? iters[i] : null;
+            ir[i] = iters[i].more(target) ? iters[i] : null;
           }
         } else {
           final int cs = curr.size();
           for(int c = 0; c < cs; c++) {
             final int i = curr.get(c);
-            if(!ir[i].more()) ir[i] = null;
+            if(!ir[i].more(target)) ir[i] = null;
+          }
+          // skip results of the remaining iterators
+          for(int i = 0; i < il; i++) {
+            if(ir[i] != null && ir[i].pre() < target && !ir[i].more(target)) ir[i] = null;
           }
         }
         int pre = Integer.MAX_VALUE;
+        curr.reset();
         for(int i = 0; i < il; i++) {
           if(ir[i] == null) continue;
           final int p = ir[i].pre();
@@ -130,27 +154,35 @@ public abstract class FTIndexIterator implements IndexIterator {
       final int dis) {
 
     return new FTIndexIterator() {
-      private FTIndexIterator ii1, ii2;
       private FTMatches all;
 
       @Override
       public boolean more() {
-        int d = 0;
+        return more(0);
+      }
+
+      @Override
+      public boolean more(final int pre) {
+        // leapfrog: skip the results of each iterator that are smaller than the other pre value
+        if(!i1.more(pre) || !i2.more(i1.pre())) return false;
         while(true) {
-          if(d <= 0) ii1 = i1.more() ? i1 : null;
-          if(d >= 0) ii2 = i2.more() ? i2 : null;
-          if(ii1 == null || ii2 == null) return false;
-          d = ii1.pre() - ii2.pre();
-          if(d != 0) continue;
-          all = ii1.matches();
-          final FTMatches all2 = ii2.matches();
-          if(dis == 0) {
-            for(final FTMatch m1 : all) {
-              for(final FTMatch m2 : all2) m1.add(m2);
+          final int p1 = i1.pre(), p2 = i2.pre();
+          if(p1 < p2) {
+            if(!i1.more(p2)) return false;
+          } else if(p1 > p2) {
+            if(!i2.more(p1)) return false;
+          } else {
+            all = i1.matches();
+            final FTMatches all2 = i2.matches();
+            if(dis == 0) {
+              for(final FTMatch m1 : all) {
+                for(final FTMatch m2 : all2) m1.add(m2);
+              }
+              return true;
+            } else if(all.phrase(all2, dis)) {
+              return true;
             }
-            return true;
-          } else if(all.phrase(all2, dis)) {
-            return true;
+            if(!i1.more() || !i2.more(i1.pre())) return false;
           }
         }
       }
@@ -162,7 +194,7 @@ public abstract class FTIndexIterator implements IndexIterator {
 
       @Override
       public int pre() {
-        return ii1.pre();
+        return i1.pre();
       }
 
       @Override
@@ -0,0 +1,122 @@
+package org.basex.index.stats;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.util.Array;
+
+/**
+ * This class provides an equi-depth histogram for numeric values: each bucket contains
+ * approximately the same number of values. While statistics are built, the values are sampled
+ * (reservoir sampling), and the bucket bounds are computed from the sample.
+ *
+ * @author BaseX Team 2005-23, BSD License
+ * @author Christian Gruen
+ */
+final class Histogram {
+  /** Number of buckets. */
+  private static final int BUCKETS = 32;
+  /** Maximum number of sampled values. */
+  private static final int SAMPLE = 1024;
+
+  /** Sampled values ({@code null} if the histogram has been read from disk). */
+  private double[] sample;
+  /** Number of values that have been added. */
+  private long seen;
+  /** Bucket bounds (can be {@code null}). */
+  private double[] bounds;
+
+  /**
+   * Default constructor.
+   */
+  Histogram() {
+    sample = new double[Array.INITIAL_CAPACITY];
+  }
+
+  /**
+   * Constructor, specifying an input stream.
+   * @param in input stream
+   * @throws IOException I/O exception
+   */
+  Histogram(final DataInput in) throws IOException {
+    final int bl = in.readNum();
+    bounds = new double[bl];
+    for(int b = 0; b < bl; b++) bounds[b] = in.readDouble();
+    sample = null;
+  }
+
+  /**
+   * Writes the histogram to the specified output stream.
+   * @param out output stream
+   * @throws IOException I/O exception
+   */
+  void write(final DataOutput out) throws IOException {
+    final double[] bnds = bounds();
+    out.writeNum(bnds.length);
+    for(final double bound : bnds) out.writeDouble(bound);
+  }
+
+  /**
+   * Adds a value. Values are only sampled while statistics are built.
+   * @param value value
+   */
+  void add(final double value) {
+    if(sample == null) return;
+    if(seen < SAMPLE) {
+      if(seen == sample.length) sample = Arrays.copyOf(sample, (int) seen << 1);
+      sample[(int) seen] = value;
+    } else {
+      // replace a random value; a mixed counter is used to get reproducible results
+      long r = (seen + 1) * 0x9E3779B97F4A7C15L;
+      r = (r ^ r >>> 31) * 0xBF58476D1CE4E5B9L;
+      r = Long.remainderUnsigned(r ^ r >>> 29, seen + 1);
+      if(r < SAMPLE) sample[(int) r] = value;
+    }
+    seen++;
+    bounds = null;
+  }
+
+  /**
+   * Estimates the fraction of the values that are located in the specified range.
+   * @param min minimum value (inclusive)
+   * @param max maximum value (inclusive)
+   * @return fraction (between {@code 0} and {@code 1})
+   */
+  double fraction(final double min, final double max) {
+    final double[] bnds = bounds();
+    final int bl = bnds.length - 1;
+    if(bl < 1) return bl == 0 && min <= bnds[0] && bnds[0] <= max ? 1 : 0;
+
+    double f = 0;
+    for(int b = 0; b < bl; b++) {
+      final double lo = bnds[b], hi = bnds[b + 1];
+      if(lo == hi) {
+        if(min <= lo && lo <= max) f++;
+      } else {
+        f += Math.max(0, Math.min(hi, max) - Math.max(lo, min)) / (hi - lo);
+      }
+    }
+    return f / bl;
+  }
+
+  /**
+   * Returns the bucket bounds. If values have been sampled, the bounds are computed from the
+   * sorted sample.
+   * @return bounds
+   */
+  private double[] bounds() {
+    if(bounds == null) {
+      final int sl = (int) Math.min(seen, SAMPLE);
+      final double[] sorted = Arrays.copyOf(sample, sl);
+      Arrays.sort(sorted);
+      final int bl = Math.min(BUCKETS, sl - 1);
+      bounds = new double[Math.max(0, bl + 1)];
+      for(int b = 0; b <= bl; b++) {
+        bounds[b] = sorted[bl == 0 ? 0 : (int) ((long) b * (sl - 1) / bl)];
+      }
+    }
+    return bounds;
+  }
+}
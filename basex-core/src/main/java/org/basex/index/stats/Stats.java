@@ -12,6 +12,8 @@ import org.basex.util.hash.*;
 
 /**
  * This class provides statistical data for an indexed node.
+ * If the number of distinct values exceeds the category limit, it is estimated with a sketch.
+ * The distribution of numeric values is described by a histogram.
  *
  * @author BaseX Team 2005-23, BSD License
  * @author Christian Gruen
@@ -30,6 +32,10 @@ public final class Stats {
 
   /** Leaf node flag. Indicates if all nodes only have a text node as child. */
   private boolean leaf;
+  /** Histogram for numeric values (can be {@code null}). */
+  private Histogram histogram;
+  /** Estimator for the number of distinct values, if no categories exist (can be {@code null}). */
+  private Cardinality distinct;
 
   /**
    * Default constructor.
@@ -61,7 +67,10 @@ public final class Stats {
     }
     count = in.readNum();
     leaf = in.readBool();
-    in.readDouble();
+    // legacy slot, required before version 7.1: now indicates which additional statistics follow
+    final int extra = (int) in.readDouble();
+    if((extra & 1) != 0) histogram = new Histogram(in);
+    if((extra & 2) != 0) distinct = new Cardinality(in);
   }
 
   /**
@@ -89,17 +98,22 @@ public final class Stats {
       values.write(out);
     }
 
+    // histograms are only required if no categories exist
+    final boolean hist = histogram != null && isNumeric(type) && !isCategory(type);
     out.writeNum(count);
     out.writeBool(leaf);
-    // legacy (required before version 7.1)
-    out.writeDouble(0);
+    // legacy slot, required before version 7.1: now indicates which additional statistics follow
+    out.writeDouble((hist ? 1 : 0) | (distinct != null ? 2 : 0));
+    if(hist) histogram.write(out);
+    if(distinct != null) distinct.write(out);
   }
 
   /**
    * Adds a value. All values are first treated as integer values. If a value cannot be converted
    * to an integer, it is treated as double value. If conversion fails again, it is handled as
    * string category. Next, all values are cached. As soon as their number exceeds a maximum,
-   * the cached values are skipped, and contents are treated as arbitrary strings.
+   * the cached values are skipped, contents are treated as arbitrary strings, and the number of
+   * distinct values is estimated. Numeric values are additionally sampled for a histogram.
    * @param value value to be added
    * @param meta meta data
    */
@@ -120,6 +134,7 @@ public final class Stats {
         } else {
           if(min > d) min = d;
           if(max < d) max = d;
+          histogram(d);
         }
       }
       // try to save new value as double
@@ -127,13 +142,16 @@ public final class Stats {
         final double d = toDouble(value);
         if(Double.isNaN(d)) {
           t = STRING;
+          histogram = null;
         } else {
           if(min > d) min = d;
           if(max < d) max = d;
+          histogram(d);
         }
       }
     } else {
       t = STRING;
+      histogram = null;
     }
     type = t;
 
@@ -141,13 +159,82 @@ public final class Stats {
     if(values != null) {
       if(vl > meta.maxlen || vl > 0 && ws(value)) {
         // give up categories if string is too long or only consists of whitespaces
-        values = null;
+        skipCategories();
       } else {
         values.put(value, Math.max(1, values.get(value) + 1));
         // give up categories if number of entries exceeds limit
-        if(values.size() > meta.maxcats) values = null;
+        if(values.size() > meta.maxcats) skipCategories();
+      }
+    }
+    if(distinct != null) distinct.add(value);
+  }
+
+  /**
+   * Returns the number of distinct values.
+   * @return number of distinct values, or {@code -1} if it is unknown
+   */
+  public int distinct() {
+    return values != null ? values.size() : distinct != null ? distinct.estimate() : -1;
+  }
+
+  /**
+   * Estimates the number of numeric values in the specified range.
+   * @param mn minimum value (inclusive)
+   * @param mx maximum value (inclusive)
+   * @return estimated number of values, or {@code -1} if no numeric statistics exist
+   */
+  public int estimate(final double mn, final double mx) {
+    if(!isNumeric(type)) return -1;
+    if(mn > max || mx < min || mn > mx) return 0;
+    if(values != null) {
+      // categories: count exact number of values
+      int c = 0;
+      for(final byte[] value : values) {
+        final double d = toDouble(value);
+        if(d >= mn && d <= mx) c += values.get(value);
       }
+      return c;
     }
+    // use histogram, or assume uniform distribution
+    final double f = histogram != null ? histogram.fraction(mn, mx) : max == min ? 1 :
+      (Math.min(mx, max) - Math.max(mn, min)) / (max - min);
+    return (int) Math.ceil(f * count);
+  }
+
+  /**
+   * Estimates the number of string values in the specified range.
+   * @param mn minimum value
+   * @param mni include minimum value
+   * @param mx maximum value
+   * @param mxi include maximum value
+   * @return exact number of values, or {@code -1} if no categories exist
+   */
+  public int estimate(final byte[] mn, final boolean mni, final byte[] mx, final boolean mxi) {
+    if(values == null) return -1;
+    int c = 0;
+    for(final byte[] value : values) {
+      final int d1 = diff(value, mn), d2 = diff(value, mx);
+      if((mni ? d1 >= 0 : d1 > 0) && (mxi ? d2 <= 0 : d2 < 0)) c += values.get(value);
+    }
+    return c;
+  }
+
+  /**
+   * Adds a numeric value to the histogram.
+   * @param value value
+   */
+  private void histogram(final double value) {
+    if(histogram == null) histogram = new Histogram();
+    histogram.add(value);
+  }
+
+  /**
+   * Gives up categories and starts estimating the number of distinct values.
+   */
+  private void skipCategories() {
+    distinct = new Cardinality();
+    for(final byte[] value : values) distinct.add(value);
+    values = null;
   }
 
   /**
@@ -173,6 +260,7 @@ public final class Stats {
       sb.append(", ");
       final int size = values != null ? values.size() : 0;
       if(size > 1) sb.append(size).append(" distinct ");
+      else if(distinct != null) sb.append('~').append(distinct.estimate()).append(" distinct ");
       sb.append(StatsType.toString(type));
       if(size != 1) sb.append('s');
       if(isNumeric(type)) {
@@ -0,0 +1,65 @@
+package org.basex.index.value;
+
+import static org.basex.util.Token.*;
+
+import org.basex.data.*;
+import org.basex.util.*;
+
+/**
+ * This class creates the keys of the composite index. A key consists of the name of the parent
+ * element, the name of the element or attribute, and the text or attribute value.
+ * Examples: {@code order/id=42}, {@code order/@id=42}.
+ *
+ * @author BaseX Team 2005-23, BSD License
+ * @author Christian Gruen
+ */
+public final class CompositeKeys {
+  /** Private constructor. */
+  private CompositeKeys() { }
+
+  /**
+   * Checks if the specified node can be indexed: an attribute, or a text with a parent element.
+   * @param data data reference
+   * @param pre pre value
+   * @return result of check
+   */
+  public static boolean candidate(final Data data, final int pre) {
+    final int kind = data.kind(pre);
+    return kind == Data.ATTR ||
+      kind == Data.TEXT && data.kind(data.parent(pre, Data.TEXT)) == Data.ELEM;
+  }
+
+  /**
+   * Returns the key of the specified node (see {@link #candidate(Data, int)}).
+   * @param data data reference
+   * @param pre pre value
+   * @return key
+   */
+  public static byte[] get(final Data data, final int pre) {
+    final boolean text = data.kind(pre) == Data.TEXT;
+    final int elem = data.parent(pre, text ? Data.TEXT : Data.ATTR);
+    final byte[] name, parent;
+    if(text) {
+      name = data.name(elem, Data.ELEM);
+      final int par = data.parent(elem, Data.ELEM);
+      parent = par != -1 && data.kind(par) == Data.ELEM ? data.name(par, Data.ELEM) : EMPTY;
+    } else {
+      name = data.name(pre, Data.ATTR);
+      parent = data.name(elem, Data.ELEM);
+    }
+    return concat(path(parent, name, text), data.text(pre, text));
+  }
+
+  /**
+   * Returns the path of a key, which will be followed by the value.
+   * @param parent name of the parent element (empty for root elements)
+   * @param name element or attribute name
+   * @param text text flag (element or attribute)
+   * @return path
+   */
+  public static byte[] path(final byte[] parent, final byte[] name, final boolean text) {
+    final TokenBuilder tb = new TokenBuilder().add(parent).add('/');
+    if(!text) tb.add('@');
+    return tb.add(name).add('=').finish();
+  }
+}
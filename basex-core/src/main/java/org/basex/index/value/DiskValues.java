@@ -22,23 +22,32 @@ import org.basex.util.list.*;
  * This class provides access to attribute values and text contents stored on disk.
  * The data structure is described in the {@link DiskValuesBuilder} class.
  *
+ * The index files are read with positional operations, and no shared file cursor is used.
+ * As a result, the index can be accessed by concurrent readers without synchronization.
+ * Updates are only performed if a database is exclusively locked.
+ *
  * @author BaseX Team 2005-23, BSD License
  * @author Christian Gruen
  */
 public class DiskValues extends ValueIndex {
+  /** Number of bytes to read from the id lists in one operation. */
+  private static final int BLOCK = 1 << 12;
+
   /** ID references. */
   final DataAccess idxr;
   /** ID lists. */
   final DataAccess idxl;
   /** Cached index entries: mapping between keys and index entries. */
   final IndexCache cache = new IndexCache();
-  /** Cached texts: mapping between key positions in the reference file, and the indexed texts. */
+  /**
+   * Cached texts: mapping between key positions in the reference file, and the indexed texts.
+   * Read operations must be synchronized on this instance.
+   */
   final IntObjMap<byte[]> ctext = new IntObjMap<>();
   /** Number of current index entries. */
   final AtomicInteger size = new AtomicInteger();
-
-  /** Synchronization object. */
-  private final Object monitor = new Object();
+  /** Filter for the index keys (can be {@code null}). */
+  final ValueFilter filter;
 
   /**
    * Constructor, initializing the index structure.
@@ -62,6 +71,7 @@ public class DiskValues extends ValueIndex {
     idxl = new DataAccess(data.meta.dbFile(prefix + 'l'));
     idxr = new DataAccess(data.meta.dbFile(prefix + 'r'));
     size.set(idxl.read4());
+    filter = ValueFilter.read(data.meta.dbFile(prefix + 'b'));
   }
 
   @Override
@@ -71,15 +81,13 @@ public class DiskValues extends ValueIndex {
     tb.add(LI_NAMES).add(data.meta.names(type)).add(NL);
 
     final IndexStats stats = new IndexStats(options.get(MainOptions.MAXSTAT));
-    synchronized(monitor) {
-      final long l = idxl.length() + idxr.length();
-      tb.add(LI_SIZE).add(Performance.format(l)).add(NL);
-      final int entries = size();
-      for(int index = 0; index < entries; index++) {
-        final long pos = idxr.read5(index * 5L);
-        final int count = idxl.readNum(pos);
-        if(stats.adding(count)) stats.add(key(idxl.readNum()), count);
-      }
+    final long l = idxl.length() + idxr.length();
+    tb.add(LI_SIZE).add(Performance.format(l)).add(NL);
+    final int entries = size();
+    for(int index = 0; index < entries; index++) {
+      final ListReader lr = reader(index);
+      final int count = lr.next();
+      if(stats.adding(count)) stats.add(key(lr.next(), lr), count);
     }
     stats.print(tb);
     return tb.finish();
@@ -138,10 +146,9 @@ public class DiskValues extends ValueIndex {
 
   @Override
   public final void close() {
-    synchronized(monitor) {
-      idxl.close();
-      idxr.close();
-    }
+    if(filter != null) filter.write();
+    idxl.close();
+    idxr.close();
   }
 
   @Override
@@ -167,6 +174,7 @@ public class DiskValues extends ValueIndex {
 
   @Override
   public final void flush() {
+    if(filter != null) filter.write();
     idxl.flush();
     idxr.flush();
   }
@@ -200,15 +208,13 @@ public class DiskValues extends ValueIndex {
    */
   protected final int get(final byte[] key, final int first, final int last) {
     int l = first, h = last - 1;
-    synchronized(monitor) {
-      while(l <= h) {
-        final int m = l + h >>> 1;
-        final byte[] txt = indexEntry(m).key;
-        final int d = diff(txt, key);
-        if(d == 0) return m;
-        if(d < 0) l = m + 1;
-        else h = m - 1;
-      }
+    while(l <= h) {
+      final int m = l + h >>> 1;
+      final byte[] txt = indexEntry(m).key;
+      final int d = diff(txt, key);
+      if(d == 0) return m;
+      if(d < 0) l = m + 1;
+      else h = m - 1;
     }
     return -(l + 1);
   }
@@ -224,21 +230,16 @@ public class DiskValues extends ValueIndex {
   private IndexEntry entry(final byte[] value) {
     final IndexEntry entry = cache.get(value);
     if(entry != null) return entry;
+    // skip binary search if the key does not exist
+    if(filter != null && !filter.contains(value)) return new IndexEntry(value, 0, 0);
 
-    final long index = get(value);
+    final int index = get(value);
     if(index < 0) return new IndexEntry(value, 0, 0);
 
-    final int count;
-    final long offset;
-
-    synchronized(monitor) {
-      // get position in heap file
-      final long pos = idxr.read5(index * 5L);
-      count = idxl.readNum(pos);
-      offset = idxl.cursor();
-    }
-
-    return cache.add(value, count, offset);
+    // get position in heap file
+    final ListReader lr = reader(index);
+    final int count = lr.next();
+    return cache.add(value, count, lr.offset());
   }
 
   /**
@@ -256,10 +257,8 @@ public class DiskValues extends ValueIndex {
       @Override
       public byte[] next() {
         if(c < sz) {
-          synchronized(monitor) {
-            entry = indexEntry(c++);
-            if(startsWith(entry.key, prefix)) return entry.key;
-          }
+          entry = indexEntry(c++);
+          if(startsWith(entry.key, prefix)) return entry.key;
         }
         return null;
       }
@@ -296,10 +295,8 @@ public class DiskValues extends ValueIndex {
 
       @Override
       public byte[] get(final int i) {
-        synchronized(monitor) {
-          entry = indexEntry(reverse ? last - i - 1 : first + i);
-          return entry.key;
-        }
+        entry = indexEntry(reverse ? last - i - 1 : first + i);
+        return entry.key;
       }
 
       @Override
@@ -311,26 +308,32 @@ public class DiskValues extends ValueIndex {
 
   /**
    * Read a key at the given position.
-   * <p><em>Important:</em> This method is NOT thread-safe, since it is used in loops.</p>
+   * <p><em>Important:</em> This method is thread-safe.</p>
    * @param index key position
    * @return index entry
    */
   private IndexEntry indexEntry(final int index) {
     // try the cache first
-    byte[] key = ctext.get(index);
+    byte[] key;
+    synchronized(ctext) {
+      key = ctext.get(index);
+    }
     if(key != null) {
       final IndexEntry entry = cache.get(key);
       if(entry != null) return entry;
     }
 
     // read text and cache result
-    final long pos = idxr.read5(index * 5L);
-    final int count = idxl.readNum(pos);
+    final ListReader lr = reader(index);
+    final int count = lr.next();
+    final long offset = lr.offset();
     if(key == null) {
-      key = key(idxl.readNum());
-      ctext.put(index, key);
+      key = key(lr.next(), lr);
+      synchronized(ctext) {
+        ctext.put(index, key);
+      }
     }
-    return cache.add(key, count, pos + Num.length(count));
+    return cache.add(key, count, offset);
   }
 
   /**
@@ -342,14 +345,14 @@ public class DiskValues extends ValueIndex {
    */
   protected IntList pres(final int sz, final long offset) {
     final IntList pres = new IntList(sz);
-    synchronized(monitor) {
-      idxl.cursor(offset);
-      for(int i = 0, id = 0; i < sz; i++) {
-        id += idxl.readNum();
-        // token index: skip position
-        if(type == IndexType.TOKEN) idxl.readNum();
-        pres.add(pre(id));
-      }
+    final boolean positions = type == IndexType.TOKEN || type == IndexType.TRIGRAM;
+    final long bytes = sz * (positions ? 10L : 5L);
+    final ListReader lr = new ListReader(offset, (int) Math.min(BLOCK, bytes));
+    for(int i = 0, id = 0; i < sz; i++) {
+      id += lr.next();
+      // token and trigram index: skip position
+      if(positions) lr.next();
+      pres.add(pre(id));
     }
     return pres;
   }
@@ -363,20 +366,19 @@ public class DiskValues extends ValueIndex {
   private IntList idRange(final StringRange tok) {
     // check if min and max are positive integers with the same number of digits
     final IntList pres = new IntList();
-    synchronized(monitor) {
-      final int i = get(tok.min);
-      final int entries = size();
-      for(int index = i < 0 ? -i - 1 : tok.mni ? i : i + 1; index < entries; index++) {
-        final int count = idxl.readNum(idxr.read5(index * 5L));
-        int id = idxl.readNum();
-        // skip traversal if value is too large
-        final int diff = diff(key(id), tok.max);
-        if(diff > 0 || !tok.mxi && diff == 0) break;
-        // add pre values
-        for(int c = 0; c < count; c++) {
-          pres.add(pre(id));
-          id += idxl.readNum();
-        }
+    final int i = get(tok.min);
+    final int entries = size();
+    for(int index = i < 0 ? -i - 1 : tok.mni ? i : i + 1; index < entries; index++) {
+      final ListReader lr = reader(index);
+      final int count = lr.next();
+      int id = lr.next();
+      // skip traversal if value is too large
+      final int diff = diff(key(id, lr), tok.max);
+      if(diff > 0 || !tok.mxi && diff == 0) break;
+      // add pre values
+      for(int c = 0; c < count; c++) {
+        pres.add(pre(id));
+        if(c + 1 < count) id += lr.next();
       }
     }
     return pres.sort();
@@ -395,27 +397,26 @@ public class DiskValues extends ValueIndex {
     final boolean simple = len != 0 && min > 0 && (long) min == min && token(min).length == len;
 
     final IntList pres = new IntList();
-    synchronized(monitor) {
-      final int entries = size();
-      final boolean text = type == IndexType.TEXT;
-      for(int index = 0; index < entries; ++index) {
-        final int count = idxl.readNum(idxr.read5(index * 5L));
-        int id = idxl.readNum();
-        final int pre = pre(id);
-
-        final double v = data.textDbl(pre, text);
-        if(v >= min && v <= max) {
-          // value is in range
-          for(int c = 0; c < count; c++) {
-            pres.add(pre(id));
-            id += idxl.readNum();
-          }
-        } else if(simple && v > max && data.textLen(pre, text) == len) {
-          // if limits are integers, if min, max and current value have the same
-          // string length, and if current value is larger than max, test can be
-          // skipped, as all remaining values will be bigger
-          break;
+    final int entries = size();
+    final boolean text = type == IndexType.TEXT;
+    for(int index = 0; index < entries; ++index) {
+      final ListReader lr = reader(index);
+      final int count = lr.next();
+      int id = lr.next();
+      final int pre = pre(id);
+
+      final double v = data.textDbl(pre, text);
+      if(v >= min && v <= max) {
+        // value is in range
+        for(int c = 0; c < count; c++) {
+          pres.add(pre(id));
+          if(c + 1 < count) id += lr.next();
         }
+      } else if(simple && v > max && data.textLen(pre, text) == len) {
+        // if limits are integers, if min, max and current value have the same
+        // string length, and if current value is larger than max, test can be
+        // skipped, as all remaining values will be bigger
+        break;
       }
     }
     return pres.sort();
@@ -424,11 +425,26 @@ public class DiskValues extends ValueIndex {
   /**
    * Returns the specified key, considering tokenization.
    * @param id id of key
+   * @param lr reader, pointing to the position of the key (token and trigram index)
    * @return key token
    */
-  private byte[] key(final int id) {
-    final byte[] text = data.text(pre(id), type == IndexType.TEXT);
-    return type == IndexType.TOKEN ? distinctTokens(text)[idxl.readNum()] : text;
+  private byte[] key(final int id, final ListReader lr) {
+    final int pre = pre(id);
+    if(type == IndexType.TRIGRAM) {
+      return Trigrams.get(data.text(pre, data.kind(pre) == Data.TEXT), lr.next());
+    }
+    if(type == IndexType.COMPOSITE) return CompositeKeys.get(data, pre);
+    final byte[] text = data.text(pre, type == IndexType.TEXT);
+    return type == IndexType.TOKEN ? distinctTokens(text)[lr.next()] : text;
+  }
+
+  /**
+   * Returns a reader for the id list of the specified key.
+   * @param index key position
+   * @return reader
+   */
+  private ListReader reader(final int index) {
+    return new ListReader(idxr.read5(index * 5L), 16);
   }
 
   /**
@@ -443,17 +459,18 @@ public class DiskValues extends ValueIndex {
     final int entries = size();
     for(int index = 0; index < entries; index++) {
       final long pos = idxr.read5(index * 5L);
-      final int count = idxl.readNum(pos);
-      int id = idxl.readNum();
+      final ListReader lr = new ListReader(pos, BLOCK);
+      final int count = lr.next();
+      int id = lr.next();
       tb.add("  ").addInt(index).add(". offset: ").addLong(pos);
       if(all) {
-        tb.add(", key: \"").add(key(id)).add('"');
+        tb.add(", key: \"").add(key(id, lr)).add('"');
         tb.add(", ids").add("/pres").add(": ").addInt(id).add('/').addInt(pre(id));
       } else {
         tb.add(", ids").add(": ").addInt(id);
       }
       for(int c = 1; c < count; c++) {
-        id += idxl.readNum();
+        id += lr.next();
         tb.add(",").addInt(id);
         if(all) tb.add('/').addInt(pre(id));
       }
@@ -473,6 +490,62 @@ public class DiskValues extends ValueIndex {
    * @return file suffix
    */
   static String fileSuffix(final IndexType type) {
-    return type == IndexType.TOKEN ? DATATOK : type == IndexType.TEXT ? DATATXT : DATAATV;
+    return type == IndexType.TOKEN ? DATATOK : type == IndexType.TRIGRAM ? DATATRI :
+      type == IndexType.COMPOSITE ? DATACMP : type == IndexType.TEXT ? DATATXT : DATAATV;
+  }
+
+  /**
+   * Reader for the compressed numbers of an id list. The bytes are read from the {@link #idxl}
+   * file in blocks, and each block is read in a single positional operation. As no shared file
+   * cursor is used, concurrent readers need not be synchronized.
+   */
+  private final class ListReader {
+    /** Bytes of the current block. */
+    private byte[] bytes = EMPTY;
+    /** File offset of the current block. */
+    private long start;
+    /** Position in the current block. */
+    private int pos;
+    /** Number of bytes to read for the next block. */
+    private int block;
+
+    /**
+     * Constructor.
+     * @param offset file offset
+     * @param block number of bytes to read for the first block
+     */
+    ListReader(final long offset, final int block) {
+      start = offset;
+      this.block = block;
+    }
+
+    /**
+     * Returns the next number.
+     * @return number
+     */
+    int next() {
+      // read next block if the next number may exceed the current block
+      if(bytes.length - pos < 5) {
+        final long off = start + pos;
+        final int len = (int) Math.min(Math.max(block, 5), idxl.length() - off);
+        if(len > bytes.length - pos) {
+          bytes = idxl.readBytes(off, len);
+          start = off;
+          pos = 0;
+          block = BLOCK;
+        }
+      }
+      final int num = Num.get(bytes, pos);
+      pos += Num.length(bytes, pos);
+      return num;
+    }
+
+    /**
+     * Returns the file offset of the next number.
+     * @return offset
+     */
+    long offset() {
+      return start + pos;
+    }
   }
 }
@@ -26,6 +26,8 @@ import org.basex.util.list.*;
  *   structure. Instead, they can be found by following the id references to
  *   the main table.
  * </li>
+ * <li> {@code DATATXT/ATV + 'b'}: contains a Bloom filter for the keys, which is used to skip
+ *   the search for non-existing keys (see {@link ValueFilter}).</li>
  * </ul>
  *
  * @author BaseX Team 2005-23, BSD License
@@ -55,12 +57,26 @@ public final class DiskValuesBuilder extends ValuesBuilder {
         if((pre & 0x0FFF) == 0) check();
         if(indexEntry()) {
           final int id = updindex ? data.id(pre) : pre;
-          if(tokenize) {
+          if(type == IndexType.TRIGRAM) {
+            final byte[] string = data.text(pre, data.kind(pre) == Data.TEXT);
+            final IntList offsets = Trigrams.offsets(string);
+            final int os = offsets.size();
+            for(int o = 0; o < os; o++) {
+              final int offset = offsets.get(o);
+              index.add(Trigrams.get(string, offset), id, offset);
+              count++;
+            }
+          } else if(tokenize) {
             int pos = 0;
             for(final byte[] token : distinctTokens(data.text(pre, text))) {
               index.add(token, id, pos++);
               count++;
             }
+          } else if(type == IndexType.COMPOSITE) {
+            if(data.textLen(pre, data.kind(pre) == Data.TEXT) <= data.meta.maxlen) {
+              index.add(CompositeKeys.get(data, pre), id, 0);
+              count++;
+            }
           } else if(data.textLen(pre, text) <= data.meta.maxlen) {
             index.add(data.text(pre, text), id, 0);
             count++;
@@ -103,6 +119,7 @@ public final class DiskValuesBuilder extends ValuesBuilder {
   private void merge() throws IOException {
     final String f = DiskValues.fileSuffix(type);
     int entries = 0;
+    final ValueFilter filter;
     try(DataOutput outL = new DataOutput(data.meta.dbFile(f + 'l'));
         DataOutput outR = new DataOutput(data.meta.dbFile(f + 'r'))) {
       outL.write4(0);
@@ -111,7 +128,12 @@ public final class DiskValuesBuilder extends ValuesBuilder {
       final IntList ml = new IntList();
       final IntList id = new IntList(), pos = tokenize ? new IntList() : null;
       final DiskValuesMerger[] vm = new DiskValuesMerger[splits];
-      for(int i = 0; i < splits; ++i) vm[i] = new DiskValuesMerger(data, type, i);
+      long keys = 0;
+      for(int i = 0; i < splits; ++i) {
+        vm[i] = new DiskValuesMerger(data, type, i);
+        keys += vm[i].size();
+      }
+      filter = new ValueFilter(data.meta.dbFile(f + 'b'), keys);
 
       // parse through all values
       while(true) {
@@ -136,6 +158,7 @@ public final class DiskValuesBuilder extends ValuesBuilder {
         }
 
         // parse through all values, cache and sort id values
+        filter.add(vm[min].key);
         final int ms = ml.size();
         for(int m = 0; m < ms; ++m) {
           final DiskValuesMerger t = vm[ml.get(m)];
@@ -160,6 +183,7 @@ public final class DiskValuesBuilder extends ValuesBuilder {
     try(DataAccess da = new DataAccess(data.meta.dbFile(f + 'l'))) {
       da.write4(entries);
     }
+    filter.write();
   }
 
   /**
@@ -170,6 +194,8 @@ public final class DiskValuesBuilder extends ValuesBuilder {
   private void writeIndex(final boolean partial) throws IOException {
     // write id arrays and references
     final String name = DiskValues.fileSuffix(type) + (partial ? splits : "");
+    final ValueFilter filter = partial ? null :
+      new ValueFilter(data.meta.dbFile(name + 'b'), index.size());
     try(DataOutput outL = new DataOutput(data.meta.dbFile(name + 'l'));
         DataOutput outR = new DataOutput(data.meta.dbFile(name + 'r'))) {
       outL.write4(index.size());
@@ -177,7 +203,8 @@ public final class DiskValuesBuilder extends ValuesBuilder {
       final IntList id = new IntList(), pos = tokenize ? new IntList() : null;
       index.init();
       while(index.more()) {
-        final byte[] values = index.ids.get(index.next());
+        final int i = index.next();
+        final byte[] values = index.ids.get(i);
         final int vs = Num.size(values);
 
         if(partial) {
@@ -195,9 +222,11 @@ public final class DiskValuesBuilder extends ValuesBuilder {
           }
           // write final structure to disk
           write(outL, outR, id, pos);
+          filter.add(index.keys.get(i));
         }
       }
     }
+    if(filter != null) filter.write();
 
     // temporarily write texts
     if(partial) {
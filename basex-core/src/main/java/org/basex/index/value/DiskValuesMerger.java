@@ -44,6 +44,14 @@ final class DiskValuesMerger {
     next();
   }
 
+  /**
+   * Returns the number of keys.
+   * @return number of keys
+   */
+  int size() {
+    return dv.size();
+  }
+
   /**
    * Jumps to the next value. {@link #values} will have 0 entries if the end of file is reached.
    * @throws IOException I/O exception
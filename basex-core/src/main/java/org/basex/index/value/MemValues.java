@@ -22,8 +22,10 @@ import org.basex.util.list.*;
  * @author Christian Gruen
  */
 public final class MemValues extends ValueIndex {
-  /** Values. */
+  /** Values ({@code null} if the values of the database are stored off-heap). */
   private final TokenSet values;
+  /** Off-heap values of the database ({@code null} if values are stored on the heap). */
+  private final DirectTokenSet dvalues;
   /** IDs lists. */
   private ArrayList<int[]> idsList;
   /** ID array lengths. */
@@ -38,10 +40,12 @@ public final class MemValues extends ValueIndex {
    */
   public MemValues(final Data data, final IndexType type) {
     super(data, type);
-    // token index: work extra token set instance
-    values = type == IndexType.TOKEN ? new TokenSet() :
-      ((MemData) data).values(type == IndexType.TEXT);
-    final int s = values.size() + 1;
+    // token index: work extra token set instance. otherwise, reference database values
+    final MemData md = (MemData) data;
+    final boolean text = type == IndexType.TEXT;
+    values = type == IndexType.TOKEN ? new TokenSet() : md.values(text);
+    dvalues = values == null ? md.directValues(text) : null;
+    final int s = keys() + 1;
     idsList = new ArrayList<>(s);
     lenList = new IntList(s);
     reorder = new BoolList(s);
@@ -49,7 +53,7 @@ public final class MemValues extends ValueIndex {
 
   @Override
   public IndexIterator iter(final IndexSearch search) {
-    final int id = values.id(search.token());
+    final int id = id(search.token());
     if(id == 0) return IndexIterator.EMPTY;
 
     final int len = lenList.get(id);
@@ -75,7 +79,7 @@ public final class MemValues extends ValueIndex {
 
   @Override
   public IndexCosts costs(final IndexSearch search) {
-    return IndexCosts.get(lenList.get(values.id(search.token())));
+    return IndexCosts.get(lenList.get(id(search.token())));
   }
 
   @Override
@@ -83,14 +87,14 @@ public final class MemValues extends ValueIndex {
     final byte[] token = entries.token();
 
     return new EntryIterator() {
-      final int s = values.size();
+      final int s = keys();
       int p;
 
       @Override
       public byte[] next() {
         while(++p <= s) {
           if(lenList.get(p) == 0) continue;
-          final byte[] key = values.key(p);
+          final byte[] key = key(p);
           if(startsWith(key, token)) return key;
         }
         return null;
@@ -110,10 +114,10 @@ public final class MemValues extends ValueIndex {
     tb.add(LI_NAMES).add(data.meta.names(type)).add(NL);
 
     final IndexStats stats = new IndexStats(options.get(MainOptions.MAXSTAT));
-    final int s = values.size();
+    final int s = keys();
     for(int p = 1; p <= s; p++) {
       final int oc = lenList.get(p);
-      if(oc > 0 && stats.adding(oc)) stats.add(values.key(p), oc);
+      if(oc > 0 && stats.adding(oc)) stats.add(key(p), oc);
     }
     stats.print(tb);
     return tb.finish();
@@ -166,7 +170,7 @@ public final class MemValues extends ValueIndex {
    */
   void add(final byte[] key, final int... vals) {
     // token index: add values. otherwise, reference existing values
-    final int id = type == IndexType.TOKEN ? values.put(key) : values.id(key), vl = vals.length;
+    final int id = type == IndexType.TOKEN ? values.put(key) : id(key), vl = vals.length;
     // updatable index: if required, resize existing arrays
     while(idsList.size() < id + 1) idsList.add(null);
     if(lenList.size() < id + 1) lenList.set(id, 0);
@@ -179,7 +183,7 @@ public final class MemValues extends ValueIndex {
       if(ids.length < size) ids = Arrays.copyOf(ids, Array.newCapacity(size));
       Array.copyFromStart(vals, vl, ids, len);
       if(ids[len - 1] > vals[0]) {
-        if(reorder == null) reorder = new BoolList(values.size());
+        if(reorder == null) reorder = new BoolList(keys());
         reorder.set(id, true);
       }
     }
@@ -204,7 +208,7 @@ public final class MemValues extends ValueIndex {
    * @param vals sorted values
    */
   void delete(final byte[] key, final int... vals) {
-    final int id = values.id(key), vl = vals.length, l = lenList.get(id), s = l - vl;
+    final int id = id(key), vl = vals.length, l = lenList.get(id), s = l - vl;
     final int[] ids = idsList.get(id);
     for(int i = 0, n = 0, v = 0; i < l; i++) {
       if(v == vl || ids[i] != vals[v]) ids[n++] = ids[i];
@@ -214,6 +218,32 @@ public final class MemValues extends ValueIndex {
     if(s == 0) idsList.set(id, null);
   }
 
+  /**
+   * Returns the id of the specified key.
+   * @param key key
+   * @return id, or {@code 0} if key does not exist
+   */
+  private int id(final byte[] key) {
+    return values != null ? values.id(key) : dvalues.id(key);
+  }
+
+  /**
+   * Returns the key with the specified id.
+   * @param id id
+   * @return key
+   */
+  private byte[] key(final int id) {
+    return values != null ? values.key(id) : dvalues.key(id);
+  }
+
+  /**
+   * Returns the number of keys.
+   * @return number of keys
+   */
+  private int keys() {
+    return values != null ? values.size() : dvalues.size();
+  }
+
   /**
    * Returns a string representation of the index structure.
    * @param all include database contents in the representation. During updates, database lookups
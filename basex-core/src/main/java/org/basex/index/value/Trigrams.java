@@ -0,0 +1,76 @@
+package org.basex.index.value;
+
+import static org.basex.util.Token.*;
+
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * This class splits strings into trigrams, which are the keys of the trigram index.
+ * A trigram is a substring of three characters. A string contains another string if it
+ * contains all trigrams of this string.
+ *
+ * @author BaseX Team 2005-23, BSD License
+ * @author Christian Gruen
+ */
+public final class Trigrams {
+  /** Number of characters of a trigram. */
+  public static final int N = 3;
+
+  /** Private constructor. */
+  private Trigrams() { }
+
+  /**
+   * Returns the byte offsets of the distinct trigrams of a string.
+   * The offset of the first occurrence of each trigram is returned.
+   * @param string string
+   * @return offsets
+   */
+  public static IntList offsets(final byte[] string) {
+    final IntList offsets = new IntList();
+    final int[] starts = starts(string);
+    final int sl = starts.length - N;
+    if(sl > 0) {
+      final TokenSet set = new TokenSet();
+      for(int s = 0; s < sl; s++) {
+        if(set.add(substring(string, starts[s], starts[s + N]))) offsets.add(starts[s]);
+      }
+    }
+    return offsets;
+  }
+
+  /**
+   * Returns the trigram at the specified byte offset.
+   * @param string string
+   * @param offset byte offset
+   * @return trigram
+   */
+  public static byte[] get(final byte[] string, final int offset) {
+    int end = offset;
+    for(int n = 0; n < N; n++) end += cl(string, end);
+    return substring(string, offset, end);
+  }
+
+  /**
+   * Adds the distinct trigrams of a string to the specified set.
+   * @param string string
+   * @param set set of trigrams
+   */
+  public static void add(final byte[] string, final TokenSet set) {
+    final int[] starts = starts(string);
+    final int sl = starts.length - N;
+    for(int s = 0; s < sl; s++) set.add(substring(string, starts[s], starts[s + N]));
+  }
+
+  /**
+   * Returns the byte offsets of all characters of a string, followed by its length.
+   * @param string string
+   * @return offsets
+   */
+  private static int[] starts(final byte[] string) {
+    final IntList starts = new IntList();
+    final int sl = string.length;
+    for(int s = 0; s < sl; s += cl(string, s)) starts.add(s);
+    return starts.add(sl).finish();
+  }
+}
@@ -6,6 +6,7 @@ import java.util.*;
 
 import org.basex.data.*;
 import org.basex.index.*;
+import org.basex.util.ft.*;
 import org.basex.util.hash.*;
 import org.basex.util.list.*;
 
@@ -22,6 +23,10 @@ public final class ValueCache implements Iterable<byte[]> {
   private final ArrayList<IntList> ids = new ArrayList<>();
   /** Positions. */
   private final ArrayList<IntList> pos;
+  /** Number of cached nodes. */
+  private int nodes;
+  /** Total length of the cached texts. */
+  private long length;
 
   /**
    * Caches the text and id for a node with specified pre value.
@@ -51,15 +56,52 @@ public final class ValueCache implements Iterable<byte[]> {
    * @param data data reference
    */
   public ValueCache(final IntList pres, final IndexType type, final Data data) {
-    pos = type == IndexType.TOKEN ? new ArrayList<>() : null;
+    final boolean ft = type == IndexType.FULLTEXT, trigram = type == IndexType.TRIGRAM;
+    pos = type == IndexType.TOKEN || ft || trigram ? new ArrayList<>() : null;
 
     final IndexNames in = new IndexNames(type, data);
-    final boolean text = type == IndexType.TEXT;
+    final boolean text = type == IndexType.TEXT || ft;
     final int pl = pres.size(), kind = text ? Data.TEXT : Data.ATTR;
+    final FTLexer lexer = ft ? lexer(data) : null;
     for(int p = 0; p < pl; p++) {
       final int pre = pres.get(p);
-      if(data.kind(pre) == kind && in.contains(pre, text)) {
-        if(type == IndexType.TOKEN) {
+      if(trigram) {
+        // trigram index: include all texts and attribute values
+        final int knd = data.kind(pre);
+        if(knd == Data.TEXT || knd == Data.ATTR) {
+          nodes++;
+          final byte[] string = data.text(pre, knd == Data.TEXT);
+          final IntList offsets = Trigrams.offsets(string);
+          final int os = offsets.size();
+          for(int o = 0; o < os; o++) {
+            final int offset = offsets.get(o);
+            addId(Trigrams.get(string, offset), pre, offset, data);
+          }
+        }
+      } else if(type == IndexType.COMPOSITE) {
+        // composite index: include attributes and texts of elements
+        if(CompositeKeys.candidate(data, pre)) {
+          final boolean txt = data.kind(pre) == Data.TEXT;
+          if(in.contains(pre, txt)) {
+            nodes++;
+            length += data.textLen(pre, txt);
+            if(data.textLen(pre, txt) <= data.meta.maxlen) {
+              addId(CompositeKeys.get(data, pre), pre, 0, data);
+            }
+          }
+        }
+      } else if(data.kind(pre) == kind && in.contains(pre, text)) {
+        nodes++;
+        length += data.textLen(pre, text);
+        if(ft) {
+          // skip too long and stopword tokens (see FTBuilder)
+          final StopWords sw = lexer.ftOpt().sw;
+          lexer.init(data.text(pre, true));
+          for(int ps = 0; lexer.hasNext(); ps++) {
+            final byte[] token = lexer.nextToken();
+            if(token.length <= data.meta.maxlen && !sw.contains(token)) addId(token, pre, ps, data);
+          }
+        } else if(type == IndexType.TOKEN) {
           int ps = 0;
           for(final byte[] token : distinctTokens(data.text(pre, false))) {
             addId(token, pre, ps++, data);
@@ -71,6 +113,18 @@ public final class ValueCache implements Iterable<byte[]> {
     }
   }
 
+  /**
+   * Returns a lexer for the full-text options of the database.
+   * @param data data reference
+   * @return lexer
+   */
+  private static FTLexer lexer(final Data data) {
+    final FTOpt opt = new FTOpt().assign(data.meta);
+    opt.sw = new StopWords();
+    opt.sw.compile(data);
+    return new FTLexer(opt);
+  }
+
   /**
    * Caches all texts and ids in the specified database range.
    * @param pre pre value
@@ -129,7 +183,7 @@ public final class ValueCache implements Iterable<byte[]> {
    * @param key key
    * @return id list
    */
-  IntList ids(final byte[] key) {
+  public IntList ids(final byte[] key) {
     return ids.get(keys.id(key) - 1);
   }
 
@@ -138,7 +192,23 @@ public final class ValueCache implements Iterable<byte[]> {
    * @param key key
    * @return id list or {@code null}
    */
-  IntList pos(final byte[] key) {
+  public IntList pos(final byte[] key) {
     return pos != null ? pos.get(keys.id(key) - 1) : null;
   }
+
+  /**
+   * Returns the number of cached nodes.
+   * @return number of nodes
+   */
+  public int nodes() {
+    return nodes;
+  }
+
+  /**
+   * Returns the total length of the cached texts.
+   * @return length
+   */
+  public long length() {
+    return length;
+  }
 }
@@ -0,0 +1,133 @@
+package org.basex.index.value;
+
+import java.io.*;
+
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.util.*;
+
+/**
+ * Bloom filter for the keys of a value index. If a key is not contained in the filter,
+ * it is not contained in the index, and the binary search in the index can be skipped.
+ * False positives are possible, false negatives are not: Keys are never removed from the filter.
+ *
+ * The filter is stored in a separate file. It is deleted before the first update and written
+ * again when the index is flushed, so a stale filter will never be read.
+ *
+ * @author BaseX Team 2005-23, BSD License
+ * @author Christian Gruen
+ */
+final class ValueFilter {
+  /** Number of bits per key (results in a false positive rate of about 1%). */
+  private static final int BITS = 10;
+  /** Number of hash functions. */
+  private static final int HASHES = 7;
+  /** Minimum number of bits. */
+  private static final long MIN = 1 << 10;
+  /** Maximum number of bits. */
+  private static final long MAX = 1 << 30;
+
+  /** Filter file. */
+  private final IOFile file;
+  /** Bits. */
+  private final long[] words;
+  /** Bit mask. */
+  private final int mask;
+  /** Indicates if the filter has been modified. */
+  private boolean dirty;
+
+  /**
+   * Constructor.
+   * @param file filter file
+   * @param keys expected number of keys
+   */
+  ValueFilter(final IOFile file, final long keys) {
+    long bits = MIN;
+    while(bits < keys * BITS && bits < MAX) bits <<= 1;
+    this.file = file;
+    words = new long[(int) (bits >>> 6)];
+    mask = (int) bits - 1;
+  }
+
+  /**
+   * Constructor.
+   * @param file filter file
+   * @param words bits
+   */
+  private ValueFilter(final IOFile file, final long[] words) {
+    this.file = file;
+    this.words = words;
+    mask = (words.length << 6) - 1;
+  }
+
+  /**
+   * Reads a filter from disk.
+   * @param file filter file
+   * @return filter, or {@code null} if it does not exist
+   * @throws IOException I/O exception
+   */
+  static ValueFilter read(final IOFile file) throws IOException {
+    if(!file.exists()) return null;
+    try(DataInput in = new DataInput(file)) {
+      return new ValueFilter(file, in.readLongs(in.readNum()));
+    }
+  }
+
+  /**
+   * Adds a key.
+   * @param key key
+   */
+  void add(final byte[] key) {
+    // delete the obsolete file before the first update
+    if(!dirty) {
+      file.delete();
+      dirty = true;
+    }
+    final long hash = hash(key);
+    final int h1 = (int) hash, h2 = (int) (hash >>> 32);
+    for(int h = 0; h < HASHES; h++) {
+      final int bit = h1 + h * h2 & mask;
+      words[bit >>> 6] |= 1L << bit;
+    }
+  }
+
+  /**
+   * Checks if the filter may contain the specified key.
+   * @param key key
+   * @return {@code false} if the key is definitely not contained in the index
+   */
+  boolean contains(final byte[] key) {
+    final long hash = hash(key);
+    final int h1 = (int) hash, h2 = (int) (hash >>> 32);
+    for(int h = 0; h < HASHES; h++) {
+      final int bit = h1 + h * h2 & mask;
+      if((words[bit >>> 6] & 1L << bit) == 0) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Writes the filter to disk if it has been modified.
+   */
+  void write() {
+    if(!dirty) return;
+    try(DataOutput out = new DataOutput(file)) {
+      out.writeLongs(words);
+      dirty = false;
+    } catch(final IOException ex) {
+      Util.stack(ex);
+    }
+  }
+
+  /**
+   * Computes a 64-bit hash value (FNV-1a) for the specified key.
+   * @param key key
+   * @return hash value
+   */
+  private static long hash(final byte[] key) {
+    long hash = 0xCBF29CE484222325L;
+    for(final byte b : key) hash = (hash ^ b) * 0x100000001B3L;
+    return hash;
+  }
+}
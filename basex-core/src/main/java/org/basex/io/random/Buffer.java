@@ -15,4 +15,14 @@ final class Buffer {
   long pos = -1;
   /** Dirty flag. */
   boolean dirty;
+  /** Indicates if the current contents have been written to the redo log. */
+  boolean logged;
+
+  /**
+   * Marks the buffer as dirty.
+   */
+  void dirty() {
+    dirty = true;
+    logged = false;
+  }
 }
@@ -1,8 +1,13 @@
 package org.basex.io.random;
 
+import java.util.*;
+
 /**
  * This class provides a simple, clock-based buffer management.
  *
+ * Buffers can be pinned: a pinned buffer is replaced with a new one and kept in memory until it
+ * is released. This way, dirty buffers need not be written to disk when they are displaced.
+ *
  * @author BaseX Team 2005-23, BSD License
  * @author Christian Gruen
  */
@@ -11,6 +16,8 @@ final class Buffers {
   private static final int BUFFERS = 1 << 4;
   /** Buffers. */
   private final Buffer[] buffer = new Buffer[BUFFERS];
+  /** Pinned buffers, indexed by their position. */
+  private final HashMap<Long, Buffer> pinned = new HashMap<>();
   /** Current buffer offset. */
   private int offset;
 
@@ -22,20 +29,25 @@ final class Buffers {
   }
 
   /**
-   * Initializes the buffers.
+   * Initializes the buffers and discards pinned buffers.
    */
   void init() {
     for(int b = 0; b < BUFFERS; ++b) {
       buffer[b] = new Buffer();
     }
+    pinned.clear();
   }
 
   /**
-   * Returns all buffers.
+   * Returns all buffers, including the pinned ones.
    * @return buffers
    */
   Buffer[] all() {
-    return buffer;
+    if(pinned.isEmpty()) return buffer;
+    final Buffer[] all = Arrays.copyOf(buffer, BUFFERS + pinned.size());
+    int b = BUFFERS;
+    for(final Buffer bf : pinned.values()) all[b++] = bf;
+    return all;
   }
 
   /**
@@ -61,4 +73,46 @@ final class Buffers {
     offset = o + 1 & BUFFERS - 1;
     return true;
   }
+
+  /**
+   * Pins the current buffer and replaces it with a new one.
+   */
+  void pin() {
+    final Buffer bf = buffer[offset];
+    pinned.put(bf.pos, bf);
+    buffer[offset] = new Buffer();
+  }
+
+  /**
+   * Replaces the current buffer with the pinned buffer at the specified position.
+   * @param pos buffer position
+   * @return {@code true} if a pinned buffer was found
+   */
+  boolean unpin(final long pos) {
+    final Buffer bf = pinned.remove(pos);
+    if(bf == null) return false;
+    buffer[offset] = bf;
+    return true;
+  }
+
+  /**
+   * Releases all pinned buffers. Must be called after the buffers have been written.
+   */
+  void release() {
+    pinned.clear();
+  }
+
+  /**
+   * Discards all buffers at or after the specified position.
+   * @param pos buffer position
+   */
+  void truncate(final long pos) {
+    for(final Buffer bf : buffer) {
+      if(bf.pos >= pos) {
+        bf.pos = -1;
+        bf.dirty = false;
+      }
+    }
+    pinned.keySet().removeIf(p -> p >= pos);
+  }
 }
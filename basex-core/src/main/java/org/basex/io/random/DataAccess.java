@@ -16,6 +16,10 @@ public final class DataAccess implements Closeable {
   private final Buffers buffers = new Buffers();
   /** Reference to the data input stream. */
   private final RandomAccessFile raf;
+  /** Redo log (can be {@code null}). */
+  private RedoLog log;
+  /** Name of the database file in the redo log. */
+  private String name;
   /** File size. */
   private long length;
   /** Changed flag. */
@@ -49,6 +53,7 @@ public final class DataAccess implements Closeable {
       for(final Buffer buffer : buffers.all()) {
         if(buffer.dirty) writeBlock(buffer);
       }
+      buffers.release();
       if(changed) {
         raf.setLength(length);
         changed = false;
@@ -58,6 +63,38 @@ public final class DataAccess implements Closeable {
     }
   }
 
+  /**
+   * Assigns a redo log. If a log is assigned, dirty blocks will be kept in main memory until the
+   * file is flushed, and their images will be written to the log when an update is committed.
+   * @param rl redo log (can be {@code null})
+   * @param nm name of the database file
+   */
+  public synchronized void log(final RedoLog rl, final String nm) {
+    log = rl;
+    name = nm;
+  }
+
+  /**
+   * Writes the images of all dirty blocks and the file length to the redo log.
+   * The blocks will be written to disk lazily.
+   * @throws IOException I/O exception
+   */
+  public synchronized void commit() throws IOException {
+    for(final Buffer buffer : buffers.all()) {
+      if(buffer.dirty) log(buffer);
+    }
+    log.length(name, length);
+  }
+
+  /**
+   * Flushes the buffered data and synchronizes the file with the disk.
+   * @throws IOException I/O exception
+   */
+  public synchronized void sync() throws IOException {
+    flush();
+    raf.getFD().sync();
+  }
+
   @Override
   public synchronized void close() {
     flush();
@@ -217,9 +254,15 @@ public final class DataAccess implements Closeable {
     final long b = pos - off;
     if(!buffers.cursor(b)) return;
 
-    final Buffer buffer = buffers.current();
     try {
-      if(buffer.dirty) writeBlock(buffer);
+      if(buffers.current().dirty) {
+        // redo log: keep dirty block in memory until the file is flushed
+        if(log != null) buffers.pin();
+        else writeBlock(buffers.current());
+      }
+      if(buffers.unpin(b)) return;
+
+      final Buffer buffer = buffers.current();
       buffer.pos = b;
       raf.seek(buffer.pos);
       if(buffer.pos < raf.length())
@@ -316,7 +359,7 @@ public final class DataAccess implements Closeable {
       final Buffer buffer = buffer();
       final int l = Math.min(last - o, IO.BLOCKSIZE - off);
       Array.copy(data, o, l, buffer.data, off);
-      buffer.dirty = true;
+      buffer.dirty();
       off += l;
       o += l;
       // adjust file size
@@ -375,11 +418,39 @@ public final class DataAccess implements Closeable {
     return o;
   }
 
+  /**
+   * Returns the size of the entry at the specified position.
+   * @param pos position of the entry
+   * @return size, or {@code 0} if the position points to unused space
+   */
+  public synchronized int size(final long pos) {
+    if(read1(pos) == (byte) 0xFF) return 0;
+    final int len = readNum(pos);
+    return len + (int) (cursor() - pos);
+  }
+
+  /**
+   * Moves an entry to a lower position. The space released at the end of the old entry
+   * is filled with 0xFF.
+   * @param from position of the entry
+   * @param to new position (must be followed by unused space up to the old position)
+   * @param size size of the entry
+   */
+  public synchronized void move(final long from, final long to, final int size) {
+    final byte[] entry = readBytes(from, size);
+    cursor(to);
+    writeBytes(entry, 0, size);
+    final long end = from + size;
+    long pos = Math.max(to + size, from);
+    cursor(pos);
+    while(pos++ < end) write(0xFF);
+  }
+
   /**
    * Sets the file length.
    * @param len file length
    */
-  private synchronized void length(final long len) {
+  public synchronized void length(final long len) {
     if(len != length) {
       changed = true;
       length = len;
@@ -403,7 +474,7 @@ public final class DataAccess implements Closeable {
    */
   private void write(final int value) {
     final Buffer buffer = buffer();
-    buffer.dirty = true;
+    buffer.dirty();
     buffer.data[off++] = (byte) value;
     final long nl = buffer.pos + off;
     if(nl > length) length(nl);
@@ -416,11 +487,26 @@ public final class DataAccess implements Closeable {
    */
   private void writeBlock(final Buffer buffer) throws IOException {
     final long pos = buffer.pos, len = Math.min(IO.BLOCKSIZE, length - pos);
-    raf.seek(pos);
-    raf.write(buffer.data, 0, (int) len);
+    // skip blocks that have been cut off by reducing the file length
+    if(len > 0) {
+      raf.seek(pos);
+      raf.write(buffer.data, 0, (int) len);
+    }
     buffer.dirty = false;
   }
 
+  /**
+   * Writes the image of the specified block to the redo log.
+   * @param buffer buffer to log
+   * @throws IOException I/O exception
+   */
+  private void log(final Buffer buffer) throws IOException {
+    if(buffer.logged) return;
+    final long pos = buffer.pos, len = Math.min(IO.BLOCKSIZE, length - pos);
+    if(len > 0) log.page(name, pos, buffer.data, (int) len);
+    buffer.logged = true;
+  }
+
   /**
    * Returns a buffer which can be used for writing new bytes.
    * @return buffer
@@ -0,0 +1,237 @@
+package org.basex.io.random;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.*;
+
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.util.*;
+
+/**
+ * This class compresses and decompresses the pages of a database table.
+ *
+ * Before a page is compressed, its bytes are grouped by their offset in the table entries
+ * (first all bytes with offset 0, then all bytes with offset 1, etc.). As node kinds, name ids,
+ * distances and sizes of neighboring entries are highly repetitive, the resulting columns can
+ * be compressed much better than the original page.
+ *
+ * Compressed pages are stored in extents of variable size. A page is rewritten in its extent if
+ * it still fits in; otherwise, a new extent is appended to the file. Pages that cannot be
+ * compressed are stored uncompressed.
+ *
+ * @author BaseX Team 2005-23, BSD License
+ * @author Christian Gruen
+ */
+final class PageCodec {
+  /** Granularity of extent sizes. */
+  private static final int ALIGN = 1 << 8;
+
+  /** File offsets of the extents ({@code -1}: page has not been stored yet). */
+  private long[] offsets;
+  /** Extent sizes (negative if a page is stored uncompressed). */
+  private int[] sizes;
+  /** End of the occupied file space. */
+  private long end;
+
+  /** Deflater. */
+  private final Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+  /** Inflater. */
+  private final Inflater inflater = new Inflater(true);
+  /** Page with grouped bytes. */
+  private final byte[] columns = new byte[IO.BLOCKSIZE];
+  /** Compressed page. */
+  private final byte[] packed = new byte[IO.BLOCKSIZE];
+
+  /** Offset of the last written page. */
+  private long offset;
+  /** Length of the last written page. */
+  private int length;
+  /** Contents of the last written page. */
+  private byte[] output;
+
+  /**
+   * Constructor for an empty directory.
+   * @param pages number of pages
+   */
+  PageCodec(final int pages) {
+    offsets = new long[Math.max(1, pages)];
+    sizes = new int[offsets.length];
+    Arrays.fill(offsets, -1);
+  }
+
+  /**
+   * Constructor, reading the directory from the specified input.
+   * @param in input stream
+   * @throws IOException I/O exception
+   */
+  PageCodec(final DataInput in) throws IOException {
+    offsets = in.readLongs(in.readNum());
+    sizes = in.readNums();
+    final int sl = sizes.length;
+    for(int s = 0; s < sl; s++) {
+      if(offsets[s] != -1) end = Math.max(end, offsets[s] + Math.abs(sizes[s]));
+    }
+  }
+
+  /**
+   * Writes the directory.
+   * @param out output stream
+   * @throws IOException I/O exception
+   */
+  void write(final DataOutput out) throws IOException {
+    out.writeLongs(offsets);
+    out.writeNums(sizes);
+  }
+
+  /**
+   * Returns the end of the occupied file space.
+   * @return file offset
+   */
+  long end() {
+    return end;
+  }
+
+  /**
+   * Reads and decompresses a page.
+   * @param file table file
+   * @param pos page position
+   * @param data page buffer
+   * @throws IOException I/O exception
+   */
+  void read(final RandomAccessFile file, final int pos, final byte[] data) throws IOException {
+    if(pos >= offsets.length || offsets[pos] == -1) {
+      Arrays.fill(data, (byte) 0);
+      return;
+    }
+    file.seek(offsets[pos]);
+    final int size = sizes[pos];
+    if(size < 0) {
+      file.readFully(data);
+      return;
+    }
+
+    file.readFully(packed, 0, size);
+    inflater.reset();
+    inflater.setInput(packed, 0, size);
+    try {
+      if(inflater.inflate(columns) != IO.BLOCKSIZE) throw new IOException("Page " + pos +
+          " could not be decompressed.");
+    } catch(final DataFormatException ex) {
+      throw new IOException(ex);
+    }
+    for(int e = 0, d = 0; e < IO.ENTRIES; e++) {
+      for(int c = e; c < IO.BLOCKSIZE; c += IO.ENTRIES) data[d++] = columns[c];
+    }
+  }
+
+  /**
+   * Compresses and writes a page.
+   * The offset, length and contents of the written page can be requested via {@link #offset()},
+   * {@link #length()} and {@link #output()}.
+   * @param file table file
+   * @param pos page position
+   * @param data page buffer
+   * @return {@code true} if the directory has been changed
+   * @throws IOException I/O exception
+   */
+  boolean write(final RandomAccessFile file, final int pos, final byte[] data)
+      throws IOException {
+
+    // choose extent: rewrite existing extent or append new one
+    final boolean raw = pack(pos, data);
+    final int old = sizes[pos];
+    final boolean changed;
+    if(offsets[pos] != -1 && Math.abs(old) >= length) {
+      final int sz = raw ? -Math.abs(old) : Math.abs(old);
+      changed = sz != old;
+      sizes[pos] = sz;
+    } else {
+      extent(pos, raw);
+      changed = true;
+    }
+    offset = offsets[pos];
+    file.seek(offset);
+    file.write(output, 0, length);
+    return changed;
+  }
+
+  /**
+   * Compresses a page and assigns a new extent to it. The page is not written to disk, and
+   * the old extent remains untouched. The offset, length and contents of the page can be
+   * requested via {@link #offset()}, {@link #length()} and {@link #output()}.
+   * @param pos page position
+   * @param data page buffer
+   */
+  void append(final int pos, final byte[] data) {
+    extent(pos, pack(pos, data));
+    offset = offsets[pos];
+  }
+
+  /**
+   * Compresses a page and resizes the directory if necessary.
+   * @param pos page position
+   * @param data page buffer
+   * @return {@code true} if the page could not be compressed
+   */
+  private boolean pack(final int pos, final byte[] data) {
+    for(int e = 0, d = 0; e < IO.ENTRIES; e++) {
+      for(int c = e; c < IO.BLOCKSIZE; c += IO.ENTRIES) columns[c] = data[d++];
+    }
+    deflater.reset();
+    deflater.setInput(columns);
+    deflater.finish();
+    final int len = deflater.deflate(packed);
+    final boolean raw = !deflater.finished();
+    // pad compressed page to the aligned size (the last extent must be completely stored)
+    final int size = raw ? IO.BLOCKSIZE : len + ALIGN - 1 & -ALIGN;
+    if(!raw) Arrays.fill(packed, len, size, (byte) 0);
+    output = raw ? data : packed;
+    length = size;
+
+    if(pos >= offsets.length) {
+      final int ns = Math.max(pos + 1, Array.newCapacity(offsets.length));
+      final int os = offsets.length;
+      offsets = Arrays.copyOf(offsets, ns);
+      sizes = Arrays.copyOf(sizes, ns);
+      Arrays.fill(offsets, os, ns, -1);
+    }
+    return raw;
+  }
+
+  /**
+   * Appends a new extent for the last compressed page.
+   * @param pos page position
+   * @param raw indicates if the page is stored uncompressed
+   */
+  private void extent(final int pos, final boolean raw) {
+    offsets[pos] = end;
+    sizes[pos] = raw ? -length : length;
+    end += length;
+  }
+
+  /**
+   * Returns the file offset of the last written page.
+   * @return offset
+   */
+  long offset() {
+    return offset;
+  }
+
+  /**
+   * Returns the length of the last written page.
+   * @return length
+   */
+  int length() {
+    return length;
+  }
+
+  /**
+   * Returns the contents of the last written page.
+   * @return contents
+   */
+  byte[] output() {
+    return output;
+  }
+}
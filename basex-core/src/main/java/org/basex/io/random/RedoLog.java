@@ -0,0 +1,335 @@
+package org.basex.io.random;
+
+import static org.basex.data.DataText.*;
+import static org.basex.util.Token.*;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.*;
+
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.*;
+import org.basex.io.out.DataOutput;
+import org.basex.util.*;
+
+/**
+ * This class writes committed updates to a redo log in the database directory.
+ * Instead of flushing all modified blocks after each update, images of the modified blocks and
+ * files are appended to the log. The blocks are kept in main memory and written to the database
+ * files at the next checkpoint. As blocks of uncommitted updates never reach the database files,
+ * no undo information is required. If a database is opened after a crash, the log is replayed.
+ *
+ * The log consists of chunks. Each chunk starts with its length and a CRC32 checksum, followed
+ * by a commit flag and a sequence of records:
+ *
+ * <pre>
+ * PAGE   file name (token), file offset (long), block contents (token)
+ * LENGTH file name (token), file length (long)
+ * FILE   file name (token), file contents (token)
+ * </pre>
+ *
+ * The last chunk of a transaction is flagged as commit. Only records of transactions that have
+ * been concluded by a complete commit chunk will be replayed.
+ * Durability is ensured by {@link #sync(long)}: concurrent callers are combined,
+ * and a single disk synchronization is performed for all transactions that have been
+ * committed in the meantime (group commit).
+ *
+ * @author BaseX Team 2005-23, BSD License
+ * @author Christian Gruen
+ */
+public final class RedoLog {
+  /** Log size after which the database files should be checkpointed. */
+  public static final long CHECKPOINT = 1 << 26;
+  /** Maximum size of a chunk. */
+  private static final int CHUNK = 1 << 20;
+
+  /** Record: block image. */
+  private static final int PAGE = 1;
+  /** Record: file length. */
+  private static final int LENGTH = 2;
+  /** Record: file image. */
+  private static final int FILE = 3;
+  /** Size of a chunk header. */
+  private static final int HEADER = 8;
+
+  /** Log file. */
+  private final IOFile file;
+  /** File channel. */
+  private final FileChannel channel;
+  /** Buffer for records that have not been written yet. */
+  private final ArrayOutput buffer = new ArrayOutput();
+  /** Output for records. */
+  private final DataOutput out = new DataOutput(buffer);
+
+  /** Total number of bytes written to the log since it was created (log sequence number). */
+  private long lsn;
+  /** Log sequence number up to which the log has been synchronized. */
+  private long synced;
+  /** Indicates if a disk synchronization is currently running. */
+  private boolean syncing;
+  /** Size of the log file. */
+  private long size;
+
+  /**
+   * Constructor, creating a new log.
+   * @param file log file
+   * @throws IOException I/O exception
+   */
+  public RedoLog(final IOFile file) throws IOException {
+    this.file = file;
+    channel = FileChannel.open(file.file().toPath(), StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    buffer.write(0);
+  }
+
+  /**
+   * Adds an image of a block.
+   * @param name name of database file
+   * @param pos file offset
+   * @param data block contents
+   * @param len number of bytes to be logged
+   * @throws IOException I/O exception
+   */
+  synchronized void page(final String name, final long pos, final byte[] data, final int len)
+      throws IOException {
+    out.write1(PAGE);
+    out.writeToken(token(name));
+    out.writeLong(pos);
+    out.writeNum(len);
+    for(int d = 0; d < len; d++) out.write(data[d]);
+    if(buffer.size() >= CHUNK) chunk(false);
+  }
+
+  /**
+   * Adds the length of a file.
+   * @param name name of database file
+   * @param length file length
+   * @throws IOException I/O exception
+   */
+  synchronized void length(final String name, final long length) throws IOException {
+    out.write1(LENGTH);
+    out.writeToken(token(name));
+    out.writeLong(length);
+  }
+
+  /**
+   * Adds the image of a complete file.
+   * @param name name of database file
+   * @param contents file contents
+   * @throws IOException I/O exception
+   */
+  public synchronized void file(final String name, final byte[] contents) throws IOException {
+    out.write1(FILE);
+    out.writeToken(token(name));
+    out.writeToken(contents);
+    if(buffer.size() >= CHUNK) chunk(false);
+  }
+
+  /**
+   * Concludes a transaction and writes all pending records to the log.
+   * The log will not be synchronized with the disk.
+   * @return log sequence number that needs to be passed on to {@link #sync(long)}
+   * @throws IOException I/O exception
+   */
+  public synchronized long commit() throws IOException {
+    chunk(true);
+    return lsn;
+  }
+
+  /**
+   * Ensures that the log has been synchronized with the disk up to the specified position.
+   * If another thread is synchronizing the log, the call waits for its completion.
+   * Otherwise, all bytes written so far are synchronized at once.
+   * @param pos log sequence number
+   * @throws IOException I/O exception
+   */
+  public void sync(final long pos) throws IOException {
+    final long target;
+    synchronized(this) {
+      while(syncing && synced < pos) {
+        try {
+          wait();
+        } catch(final InterruptedException ex) {
+          throw new InterruptedIOException(ex.getMessage());
+        }
+      }
+      if(synced >= pos) return;
+      syncing = true;
+      target = lsn;
+    }
+    try {
+      channel.force(false);
+    } finally {
+      synchronized(this) {
+        syncing = false;
+        synced = Math.max(synced, target);
+        notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Returns the size of the log file.
+   * @return size
+   */
+  public synchronized long size() {
+    return size;
+  }
+
+  /**
+   * Discards the log. Must be called after all database files have been written and
+   * synchronized with the disk.
+   * @throws IOException I/O exception
+   */
+  public synchronized void reset() throws IOException {
+    buffer.reset();
+    buffer.write(0);
+    channel.truncate(0);
+    channel.position(0);
+    size = 0;
+    done();
+  }
+
+  /**
+   * Closes and deletes the log. Must be called after all database files have been written and
+   * synchronized with the disk.
+   */
+  public synchronized void close() {
+    try {
+      channel.close();
+    } catch(final IOException ex) {
+      Util.stack(ex);
+    }
+    file.delete();
+    done();
+  }
+
+  /**
+   * Marks all transactions as synchronized and notifies waiting threads.
+   */
+  private void done() {
+    synced = lsn;
+    notifyAll();
+  }
+
+  /**
+   * Writes the buffered records as a new chunk.
+   * @param commit commit flag
+   * @throws IOException I/O exception
+   */
+  private void chunk(final boolean commit) throws IOException {
+    final int len = (int) buffer.size();
+    final byte[] data = buffer.buffer();
+    data[0] = (byte) (commit ? 1 : 0);
+    final CRC32 crc = new CRC32();
+    crc.update(data, 0, len);
+
+    final ByteBuffer header = ByteBuffer.allocate(HEADER);
+    header.putInt(len).putInt((int) crc.getValue()).flip();
+    final ByteBuffer[] bbs = { header, ByteBuffer.wrap(data, 0, len) };
+    long written = 0;
+    while(written < len + HEADER) written += channel.write(bbs);
+    // reserve first byte for commit flag
+    buffer.reset();
+    buffer.write(0);
+    size += written;
+    lsn += written;
+  }
+
+  // RECOVERY =====================================================================================
+
+  /**
+   * Replays the log of the specified database, if it exists.
+   * All committed records are written to the database files, and the log is deleted.
+   * @param meta meta data
+   * @return {@code true} if a log was replayed
+   * @throws IOException I/O exception
+   */
+  public static boolean recover(final MetaData meta) throws IOException {
+    final IOFile log = meta.dbFile(DATAREDO);
+    if(!log.exists()) return false;
+
+    // find the end of the last complete transaction
+    long end = 0;
+    try(RandomAccessFile raf = new RandomAccessFile(log.file(), "r")) {
+      for(byte[] chunk; (chunk = chunk(raf)) != null;) {
+        if(chunk[0] == 1) end = raf.getFilePointer();
+      }
+    }
+
+    // replay records
+    final HashMap<String, RandomAccessFile> files = new HashMap<>();
+    try(RandomAccessFile raf = new RandomAccessFile(log.file(), "r")) {
+      while(raf.getFilePointer() < end) {
+        try(DataInput in = new DataInput(new IOContent(chunk(raf)))) {
+          // skip commit flag
+          in.read();
+          for(int type; (type = in.read()) != -1;) {
+            final String name = string(in.readToken());
+            if(type == FILE) {
+              final IOFile target = meta.dbFile(name);
+              target.write(in.readToken());
+              sync(target);
+              continue;
+            }
+            RandomAccessFile target = files.get(name);
+            if(target == null) {
+              target = new RandomAccessFile(meta.dbFile(name).file(), "rw");
+              files.put(name, target);
+            }
+            final long pos = in.readLong();
+            if(type == PAGE) {
+              target.seek(pos);
+              target.write(in.readToken());
+            } else {
+              target.setLength(pos);
+            }
+          }
+        }
+      }
+    } finally {
+      for(final RandomAccessFile raf : files.values()) {
+        raf.getFD().sync();
+        raf.close();
+      }
+    }
+    if(!log.delete()) throw new IOException("Redo log could not be deleted: " + log);
+    return true;
+  }
+
+  /**
+   * Synchronizes the contents of a file with the disk.
+   * @param file file
+   * @throws IOException I/O exception
+   */
+  public static void sync(final IOFile file) throws IOException {
+    try(FileChannel fc = FileChannel.open(file.file().toPath(), StandardOpenOption.WRITE)) {
+      fc.force(true);
+    }
+  }
+
+  /**
+   * Reads the next chunk from the log.
+   * @param raf log file
+   * @return chunk (the first byte contains the commit flag),
+   *   or {@code null} if no complete chunk exists
+   * @throws IOException I/O exception
+   */
+  private static byte[] chunk(final RandomAccessFile raf) throws IOException {
+    final long rem = raf.length() - raf.getFilePointer();
+    if(rem < HEADER) return null;
+    final int len = raf.readInt(), checksum = raf.readInt();
+    if(len < 1 || len > rem - HEADER) return null;
+
+    final byte[] chunk = new byte[len];
+    raf.readFully(chunk);
+    final CRC32 crc = new CRC32();
+    crc.update(chunk);
+    return (int) crc.getValue() == checksum ? chunk : null;
+  }
+}
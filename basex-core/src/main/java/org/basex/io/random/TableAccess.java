@@ -47,6 +47,15 @@ public abstract class TableAccess {
    */
   public abstract boolean lock(boolean write);
 
+  /**
+   * Compacts the table: sparse pages are merged, and pages at the end of the file are moved to
+   * unused pages. Entries and pre values remain unchanged.
+   * @param max maximum number of page operations
+   * @return number of performed operations ({@code 0} if the table is already compact)
+   * @throws IOException I/O exception
+   */
+  public abstract int compact(int max) throws IOException;
+
   /**
    * Reads a byte value and returns it as an integer value.
    * @param pre pre value
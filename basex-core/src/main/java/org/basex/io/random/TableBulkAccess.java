@@ -0,0 +1,334 @@
+package org.basex.io.random;
+
+import java.util.*;
+
+import org.basex.io.*;
+import org.basex.util.*;
+
+/**
+ * This class caches structural changes of a table. It is used if a large number of entries
+ * is inserted and deleted at different positions.
+ *
+ * The cached table consists of an unchanged range of entries, starting from the first entry,
+ * and a list of segments, which either reference a range of entries in the original table or
+ * contain new entries. Inserts and deletes only modify the segment list. When the updates are
+ * finished, the changed range of the original table is rewritten in a single sequential pass.
+ *
+ * Updates are expected to be performed from the highest to the lowest pre value. To speed up
+ * access to the changed entries at the beginning of the modified range, segments are stored
+ * in reverse order.
+ *
+ * @author BaseX Team 2005-23, BSD License
+ * @author Christian Gruen
+ */
+public final class TableBulkAccess extends TableAccess {
+  /** Maximum number of entries that will be inserted at once when changes are written. */
+  private static final int CHUNK = 1 << 16;
+
+  /** Original table. */
+  private final TableAccess table;
+  /** Segments in reverse order (the first segment is stored last). */
+  private final ArrayList<Segment> segments = new ArrayList<>();
+  /** Size of the original table. */
+  private final int size;
+  /** Number of unchanged entries at the beginning of the table. */
+  private int low;
+
+  /** Segment of the last accessed entry ({@code null} if it is found in the original table). */
+  private Segment segment;
+
+  /**
+   * Constructor.
+   * @param table original table
+   */
+  public TableBulkAccess(final TableAccess table) {
+    super(table.meta);
+    this.table = table;
+    size = meta.size;
+    low = size;
+  }
+
+  /**
+   * Writes all cached changes to the original table and returns it.
+   * @return original table
+   */
+  public TableAccess finish() {
+    final int vsize = meta.size;
+    meta.size = size;
+
+    // skip segments that reference unchanged entries at the beginning and the end of the table
+    int s = segments.size(), e = 0, high = size;
+    for(Segment seg; s > e && (seg = segments.get(s - 1)).entries == null && seg.start == low;) {
+      low += seg.count;
+      s--;
+    }
+    for(Segment seg; e < s && (seg = segments.get(e)).entries == null &&
+        seg.start + seg.count == high;) {
+      high = seg.start;
+      e++;
+    }
+
+    // insert new contents of the changed range behind the old entries, delete old entries
+    final byte[] buffer = new byte[CHUNK << IO.NODEPOWER];
+    int pre = high, c = 0;
+    for(int i = s - 1; i >= e; i--) {
+      final Segment seg = segments.get(i);
+      for(int n = 0; n < seg.count; n++) {
+        final int o = c << IO.NODEPOWER;
+        if(seg.entries != null) {
+          Array.copy(seg.entries, seg.start + n << IO.NODEPOWER, IO.NODESIZE, buffer, o);
+        } else {
+          for(int b = 0; b < IO.NODESIZE; b += 4) {
+            final int v = table.read4(seg.start + n, b);
+            buffer[o + b] = (byte) (v >>> 24);
+            buffer[o + b + 1] = (byte) (v >>> 16);
+            buffer[o + b + 2] = (byte) (v >>> 8);
+            buffer[o + b + 3] = (byte) v;
+          }
+        }
+        if(++c == CHUNK) {
+          table.insert(pre, buffer.clone());
+          pre += c;
+          c = 0;
+        }
+      }
+    }
+    if(c > 0) table.insert(pre, Arrays.copyOf(buffer, c << IO.NODEPOWER));
+    if(high > low) table.delete(low, high - low);
+
+    if(meta.size != vsize) throw Util.notExpected("Invalid table size: % != %", meta.size, vsize);
+    segments.clear();
+    return table;
+  }
+
+  @Override
+  public void flush(final boolean all) {
+    throw Util.notExpected();
+  }
+
+  @Override
+  public void close() {
+    throw Util.notExpected();
+  }
+
+  @Override
+  public boolean lock(final boolean write) {
+    return table.lock(write);
+  }
+
+  @Override
+  public int compact(final int max) {
+    return 0;
+  }
+
+  @Override
+  public int read1(final int pre, final int off) {
+    final int p = cursor(pre);
+    if(segment == null) return table.read1(p, off);
+    final int o = p + off;
+    final byte[] data = segment.entries;
+    return data[o] & 0xFF;
+  }
+
+  @Override
+  public int read2(final int pre, final int off) {
+    final int p = cursor(pre);
+    if(segment == null) return table.read2(p, off);
+    final int o = p + off;
+    final byte[] data = segment.entries;
+    return ((data[o] & 0xFF) << 8) + (data[o + 1] & 0xFF);
+  }
+
+  @Override
+  public int read4(final int pre, final int off) {
+    final int p = cursor(pre);
+    if(segment == null) return table.read4(p, off);
+    final int o = p + off;
+    final byte[] data = segment.entries;
+    return ((data[o] & 0xFF) << 24) + ((data[o + 1] & 0xFF) << 16) +
+      ((data[o + 2] & 0xFF) << 8) + (data[o + 3] & 0xFF);
+  }
+
+  @Override
+  public long read5(final int pre, final int off) {
+    final int p = cursor(pre);
+    if(segment == null) return table.read5(p, off);
+    final int o = p + off;
+    final byte[] data = segment.entries;
+    return ((long) (data[o] & 0xFF) << 32) + ((long) (data[o + 1] & 0xFF) << 24) +
+      ((data[o + 2] & 0xFF) << 16) + ((data[o + 3] & 0xFF) << 8) + (data[o + 4] & 0xFF);
+  }
+
+  @Override
+  public void write1(final int pre, final int off, final int value) {
+    final int p = cursor(pre);
+    if(segment == null) {
+      table.write1(p, off, value);
+    } else {
+      final int o = p + off;
+      segment.entries[o] = (byte) value;
+    }
+  }
+
+  @Override
+  public void write2(final int pre, final int off, final int value) {
+    final int p = cursor(pre);
+    if(segment == null) {
+      table.write2(p, off, value);
+    } else {
+      final int o = p + off;
+      final byte[] data = segment.entries;
+      data[o] = (byte) (value >>> 8);
+      data[o + 1] = (byte) value;
+    }
+  }
+
+  @Override
+  public void write4(final int pre, final int off, final int value) {
+    final int p = cursor(pre);
+    if(segment == null) {
+      table.write4(p, off, value);
+    } else {
+      final int o = p + off;
+      final byte[] data = segment.entries;
+      data[o]     = (byte) (value >>> 24);
+      data[o + 1] = (byte) (value >>> 16);
+      data[o + 2] = (byte) (value >>> 8);
+      data[o + 3] = (byte) value;
+    }
+  }
+
+  @Override
+  public void write5(final int pre, final int off, final long value) {
+    final int p = cursor(pre);
+    if(segment == null) {
+      table.write5(p, off, value);
+    } else {
+      final int o = p + off;
+      final byte[] data = segment.entries;
+      data[o]     = (byte) (value >>> 32);
+      data[o + 1] = (byte) (value >>> 24);
+      data[o + 2] = (byte) (value >>> 16);
+      data[o + 3] = (byte) (value >>> 8);
+      data[o + 4] = (byte) value;
+    }
+  }
+
+  @Override
+  protected void copy(final byte[] entries, final int first, final int last) {
+    final int count = last - first;
+    if(count == 0) return;
+    delete(first, count);
+    add(first, Arrays.copyOf(entries, count << IO.NODEPOWER));
+  }
+
+  @Override
+  public void delete(final int pre, final int count) {
+    if(count == 0) return;
+    final int e = boundary(pre + count), s = boundary(pre);
+    segments.subList(e, s).clear();
+    meta.size -= count;
+  }
+
+  @Override
+  public void insert(final int pre, final byte[] entries) {
+    // entries are copied, as the array may be reused by the caller
+    if(entries.length != 0) add(pre, entries.clone());
+  }
+
+  @Override
+  public String toString() {
+    return Util.className(this) + " (low: " + low + ", segments: " + segments.size() + ')';
+  }
+
+  // PRIVATE METHODS ==============================================================================
+
+  /**
+   * Adds a segment with new entries.
+   * @param pre pre value
+   * @param entries entries
+   */
+  private void add(final int pre, final byte[] entries) {
+    final int count = entries.length >>> IO.NODEPOWER;
+    segments.add(boundary(pre), new Segment(entries, 0, count));
+    meta.size += count;
+  }
+
+  /**
+   * Finds the segment containing the entry for the specified pre value.
+   * Assigns the {@link #segment} (or {@code null} if the entry is found in the original table)
+   * and returns the position of the entry.
+   * @param pre pre value of the entry
+   * @return pre value in the original table, or byte offset of the entry in the segment
+   */
+  private int cursor(final int pre) {
+    segment = null;
+    if(pre < low) return pre;
+
+    int s = low;
+    for(int i = segments.size() - 1; i >= 0; i--) {
+      final Segment seg = segments.get(i);
+      final int e = s + seg.count;
+      if(pre < e) {
+        final int p = seg.start + pre - s;
+        if(seg.entries == null) return p;
+        segment = seg;
+        return p << IO.NODEPOWER;
+      }
+      s = e;
+    }
+    throw Util.notExpected("Data Access out of bounds: % (table size: %)", pre, meta.size);
+  }
+
+  /**
+   * Ensures that a segment starts at the specified pre value, splitting an existing segment
+   * if necessary, and returns its position in the segment list.
+   * @param pre pre value
+   * @return index of the first segment that precedes the pre value
+   */
+  private int boundary(final int pre) {
+    segment = null;
+    if(pre < low) {
+      segments.add(new Segment(null, pre, low - pre));
+      low = pre;
+      return segments.size();
+    }
+    int s = low;
+    for(int i = segments.size() - 1; i >= 0; i--) {
+      if(s == pre) return i + 1;
+      final Segment seg = segments.get(i);
+      final int e = s + seg.count;
+      if(pre < e) {
+        final int c = pre - s;
+        segments.add(i + 1, new Segment(seg.entries, seg.start, c));
+        seg.start += c;
+        seg.count -= c;
+        return i + 1;
+      }
+      s = e;
+    }
+    return 0;
+  }
+
+  /** Segment of the table. */
+  private static final class Segment {
+    /** New entries ({@code null} if entries of the original table are referenced). */
+    private final byte[] entries;
+    /** Pre value of the first entry in the original table, or index of the first new entry. */
+    private int start;
+    /** Number of entries. */
+    private int count;
+
+    /**
+     * Constructor.
+     * @param entries new entries ({@code null} if entries of the original table are referenced)
+     * @param start pre value in the original table, or index of the first new entry
+     * @param count number of entries
+     */
+    private Segment(final byte[] entries, final int start, final int count) {
+      this.entries = entries;
+      this.start = start;
+      this.count = count;
+    }
+  }
+}
@@ -10,6 +10,7 @@ import org.basex.core.*;
 import org.basex.data.*;
 import org.basex.io.*;
 import org.basex.io.in.DataInput;
+import org.basex.io.out.*;
 import org.basex.io.out.DataOutput;
 import org.basex.util.*;
 
@@ -29,6 +30,10 @@ public final class TableDiskAccess extends TableAccess {
   private BitArray usedPages;
   /** File lock. */
   private FileLock lock;
+  /** Redo log (can be {@code null}). */
+  private RedoLog log;
+  /** Page codec ({@code null} if pages are stored uncompressed). */
+  private PageCodec codec;
 
   /** First pre values (ascending order); will be initialized with the first update. */
   private int[] fPreIndex;
@@ -72,6 +77,8 @@ public final class TableDiskAccess extends TableAccess {
         final int s = in.readNum();
         usedPages = new BitArray(in.readLongs(s), used);
       }
+      // directory of compressed pages
+      if(in.read() == 1) codec = new PageCodec(in);
     }
 
     // initialize data file
@@ -102,35 +109,116 @@ public final class TableDiskAccess extends TableAccess {
     for(final Buffer buffer : buffers.all()) {
       write(buffer);
     }
+    buffers.release();
+    // truncate file if the table has been compacted while a redo log was assigned
+    final long length = (long) pages << IO.BLOCKPOWER;
+    if(codec == null && file.length() > length) file.setLength(length);
     if(!dirty || !all) return;
 
     try(DataOutput out = new DataOutput(meta.dbFile(DATATBL + 'i'))) {
-      final int p = pages;
-      boolean regular = true;
-
-      // check if page mapping is regular (are all pages used and in ascending order?)
-      if(fPreIndex != null) {
-        regular = p == used;
-        for(int i = 0; i < p && regular; i++) regular = fPreIndex[i] == i * IO.ENTRIES;
-        for(int i = 0; i < p && regular; i++) regular = pageIndex[i] == i;
-        if(regular) removeMapping();
-      }
+      write(out);
+    }
+    dirty = false;
+  }
 
-      if(regular) {
-        // no mapping available or required (0: empty table; MAX: no mapping, see TableOutput#close)
-        out.writeNum(p);
-        out.writeNum(used == 0 ? 0 : Integer.MAX_VALUE);
-      } else {
-        out.writeNum(p);
-        out.writeNum(used);
-        out.writeNum(p);
-        for(int s = 0; s < p; s++) out.writeNum(fPreIndex[s]);
-        out.writeNum(p);
-        for(int s = 0; s < p; s++) out.writeNum(pageIndex[s]);
-        out.writeLongs(usedPages.toArray());
+  /**
+   * Assigns a redo log. If a log is assigned, dirty pages will be kept in main memory until the
+   * table is flushed, and their images will be written to the log when an update is committed.
+   * @param rl redo log (can be {@code null})
+   */
+  public synchronized void log(final RedoLog rl) {
+    log = rl;
+  }
+
+  /**
+   * Writes the images of all dirty pages and the page index to the redo log.
+   * The pages and the index will be written to disk lazily.
+   * @throws IOException I/O exception
+   */
+  public synchronized void commit() throws IOException {
+    for(final Buffer buffer : buffers.all()) {
+      if(buffer.dirty) log(buffer);
+    }
+    if(dirty) {
+      final ArrayOutput ao = new ArrayOutput();
+      try(DataOutput out = new DataOutput(ao)) {
+        write(out);
       }
+      log.file(DATATBL + 'i', ao.finish());
+    }
+  }
+
+  /**
+   * Flushes all contents and synchronizes the table files with the disk.
+   * @throws IOException I/O exception
+   */
+  public synchronized void sync() throws IOException {
+    flush(true);
+    file.getFD().sync();
+    RedoLog.sync(meta.dbFile(DATATBL + 'i'));
+  }
+
+  /**
+   * Writes the page index.
+   * @param out output stream
+   * @throws IOException I/O exception
+   */
+  private void write(final DataOutput out) throws IOException {
+    final int p = pages;
+    boolean regular = true;
+
+    // check if page mapping is regular (are all pages used and in ascending order?)
+    if(fPreIndex != null) {
+      regular = p == used;
+      for(int i = 0; i < p && regular; i++) regular = fPreIndex[i] == i * IO.ENTRIES;
+      for(int i = 0; i < p && regular; i++) regular = pageIndex[i] == i;
+      if(regular) removeMapping();
+    }
+
+    if(regular) {
+      // no mapping available or required (0: empty table; MAX: no mapping, see TableOutput#close)
+      out.writeNum(p);
+      out.writeNum(used == 0 ? 0 : Integer.MAX_VALUE);
+    } else {
+      out.writeNum(p);
+      out.writeNum(used);
+      out.writeNum(p);
+      for(int s = 0; s < p; s++) out.writeNum(fPreIndex[s]);
+      out.writeNum(p);
+      for(int s = 0; s < p; s++) out.writeNum(pageIndex[s]);
+      out.writeLongs(usedPages.toArray());
+    }
+    if(codec != null) {
+      out.write1(1);
+      codec.write(out);
     }
-    dirty = false;
+  }
+
+  /**
+   * Compresses all pages of the table. The pages are rewritten in a single sequential pass.
+   * As compressed pages are never larger than the original ones, a page will only overwrite
+   * pages that have already been read.
+   * @throws IOException I/O exception
+   */
+  public synchronized void compress() throws IOException {
+    if(codec != null) return;
+    flush(false);
+    buffers.init();
+
+    final PageCodec pc = new PageCodec(pages);
+    final byte[] data = new byte[IO.BLOCKSIZE];
+    final int ps = (int) Math.min(pages, file.length() >>> IO.BLOCKPOWER);
+    for(int p = 0; p < ps; p++) {
+      file.seek((long) p << IO.BLOCKPOWER);
+      file.readFully(data);
+      pc.write(file, p, data);
+    }
+    file.setLength(pc.end());
+    codec = pc;
+    page = -1;
+    firstPre = -1;
+    nextPre = -1;
+    dirty = true;
   }
 
   @Override
@@ -153,6 +241,70 @@ public final class TableDiskAccess extends TableAccess {
     }
   }
 
+  @Override
+  public synchronized int compact(final int max) throws IOException {
+    // no mapping (pages are regular) or empty table: nothing to do
+    if(fPreIndex == null || used == 0) return 0;
+    dirty();
+
+    // merge adjacent pages whose entries fit into a single page
+    int ops = 0;
+    for(int p = 0; p + 1 < used && ops < max;) {
+      final int o = occSpace(p), n = occSpace(p + 1);
+      if(o + n > IO.ENTRIES) {
+        p++;
+      } else {
+        read(pageIndex[p + 1]);
+        final byte[] entries = Arrays.copyOf(buffers.current().data, n << IO.NODEPOWER);
+        read(pageIndex[p]);
+        final Buffer buffer = buffers.current();
+        Array.copyFromStart(entries, entries.length, buffer.data, o << IO.NODEPOWER);
+        buffer.dirty();
+        usedPages.clear(pageIndex[p + 1]);
+        Array.remove(fPreIndex, p + 1, 1, used);
+        Array.remove(pageIndex, p + 1, 1, used);
+        --used;
+        ++ops;
+      }
+    }
+
+    // move pages from the end of the file to unused pages
+    // (skipped for compressed pages: their extents are reclaimed by OPTIMIZE ALL)
+    for(int p = 0; codec == null && p < used && ops < max; p++) {
+      final int pos = pageIndex[p];
+      if(pos < used) continue;
+      final int free = usedPages.nextFree();
+      read(pos);
+      final byte[] entries = buffers.current().data.clone();
+      read(free);
+      final Buffer buffer = buffers.current();
+      Array.copy(entries, IO.BLOCKSIZE, buffer.data);
+      buffer.dirty();
+      usedPages.set(free);
+      usedPages.clear(pos);
+      pageIndex[p] = free;
+      ++ops;
+    }
+
+    // truncate file if all pages are located at its beginning
+    if(codec == null && ops < max && pages > used) {
+      buffers.truncate(used);
+      // redo log: the old pages may still be referenced on disk, file is truncated when flushed
+      if(log != null) log.length(DATATBL, (long) used << IO.BLOCKPOWER);
+      else file.setLength((long) used << IO.BLOCKPOWER);
+      pages = used;
+      ++ops;
+    }
+
+    // invalidate page pointers
+    if(ops > 0) {
+      page = -1;
+      firstPre = -1;
+      nextPre = -1;
+    }
+    return ops;
+  }
+
   @Override
   public synchronized int read1(final int pre, final int offset) {
     final int o = offset + cursor(pre);
@@ -188,7 +340,7 @@ public final class TableDiskAccess extends TableAccess {
     final int o = offset + cursor(pre);
     final Buffer buffer = buffers.current();
     buffer.data[o] = (byte) value;
-    buffer.dirty = true;
+    buffer.dirty();
   }
 
   @Override
@@ -198,7 +350,7 @@ public final class TableDiskAccess extends TableAccess {
     final byte[] data = buffer.data;
     data[o] = (byte) (value >>> 8);
     data[o + 1] = (byte) value;
-    buffer.dirty = true;
+    buffer.dirty();
   }
 
   @Override
@@ -210,7 +362,7 @@ public final class TableDiskAccess extends TableAccess {
     data[o + 1] = (byte) (value >>> 16);
     data[o + 2] = (byte) (value >>> 8);
     data[o + 3] = (byte) value;
-    buffer.dirty = true;
+    buffer.dirty();
   }
 
   @Override
@@ -223,7 +375,7 @@ public final class TableDiskAccess extends TableAccess {
     data[o + 2] = (byte) (value >>> 16);
     data[o + 3] = (byte) (value >>> 8);
     data[o + 4] = (byte) value;
-    buffer.dirty = true;
+    buffer.dirty();
   }
 
   @Override
@@ -233,7 +385,7 @@ public final class TableDiskAccess extends TableAccess {
       final int off = cursor(i);
       final Buffer buffer = buffers.current();
       Array.copy(entries, o, IO.NODESIZE, buffer.data, off);
-      buffer.dirty = true;
+      buffer.dirty();
     }
   }
 
@@ -338,7 +490,7 @@ public final class TableDiskAccess extends TableAccess {
     Buffer buffer = buffers.current();
     if(nold + nnew <= IO.BLOCKSIZE) {
       Array.insert(buffer.data, split, nnew, nold, entries);
-      buffer.dirty = true;
+      buffer.dirty();
 
       // increment first pre-values of pages after the last modified page
       for(int i = page + 1; i < used; ++i) fPreIndex[i] += nr;
@@ -358,7 +510,7 @@ public final class TableDiskAccess extends TableAccess {
     int nrem = IO.BLOCKSIZE - split;
     if(nrem > 0) {
       Array.copyFromStart(all, nrem, buffer.data, split);
-      buffer.dirty = true;
+      buffer.dirty();
     }
 
     // number of new required pages and remaining bytes
@@ -376,7 +528,7 @@ public final class TableDiskAccess extends TableAccess {
           buffer = buffers.current();
           Array.copyFromStart(buffer.data, o, buffer.data, remain);
           Array.copyToStart(all, all.length - remain, remain, buffer.data);
-          buffer.dirty = true;
+          buffer.dirty();
           // reduce the pre value, since it will be later incremented with nr
           fPreIndex[page] -= remain >>> IO.NODEPOWER;
           // go back to the previous page
@@ -521,12 +673,16 @@ public final class TableDiskAccess extends TableAccess {
   private void read(final int pre) {
     if(!buffers.cursor(pre)) return;
 
-    final Buffer buffer = buffers.current();
     try {
-      write(buffer);
+      evict();
+      if(buffers.unpin(pre)) return;
+
+      final Buffer buffer = buffers.current();
       buffer.pos = pre;
       if(pre >= pages) {
         pages = pre + 1;
+      } else if(codec != null) {
+        codec.read(file, pre, buffer.data);
       } else {
         file.seek(buffer.pos << IO.BLOCKPOWER);
         file.readFully(buffer.data);
@@ -536,6 +692,35 @@ public final class TableDiskAccess extends TableAccess {
     }
   }
 
+  /**
+   * Writes the current buffer to disk. If a redo log is assigned, a dirty buffer is pinned:
+   * it will be kept in memory until the table is flushed.
+   * @throws IOException I/O exception
+   */
+  private void evict() throws IOException {
+    if(log != null && buffers.current().dirty) buffers.pin();
+    else write(buffers.current());
+  }
+
+  /**
+   * Writes the image of the specified buffer to the redo log.
+   * @param buffer buffer to log
+   * @throws IOException I/O exception
+   */
+  private void log(final Buffer buffer) throws IOException {
+    if(buffer.logged) return;
+    if(codec != null) {
+      // compressed pages: log the compressed image in a new extent, as the old extent
+      // is still referenced by the directory on disk
+      codec.append((int) buffer.pos, buffer.data);
+      log.page(DATATBL, codec.offset(), codec.output(), codec.length());
+      dirty = true;
+    } else {
+      log.page(DATATBL, buffer.pos << IO.BLOCKPOWER, buffer.data, IO.BLOCKSIZE);
+    }
+    buffer.logged = true;
+  }
+
   /**
    * Writes the specified buffer to disk and resets the dirty flag.
    * @param buffer buffer to write
@@ -544,8 +729,12 @@ public final class TableDiskAccess extends TableAccess {
   private void write(final Buffer buffer) throws IOException {
     if(!buffer.dirty) return;
 
-    file.seek(buffer.pos << IO.BLOCKPOWER);
-    file.write(buffer.data);
+    if(codec != null) {
+      if(codec.write(file, (int) buffer.pos, buffer.data)) dirty = true;
+    } else {
+      file.seek(buffer.pos << IO.BLOCKPOWER);
+      file.write(buffer.data);
+    }
     buffer.dirty = false;
   }
 
@@ -580,7 +769,7 @@ public final class TableDiskAccess extends TableAccess {
   private static void delete(final Buffer buffer, final int from, final int to, final int length) {
     final byte[] array = buffer.data;
     Array.copy(array, to << IO.NODEPOWER, length << IO.NODEPOWER, array, from << IO.NODEPOWER);
-    buffer.dirty = true;
+    buffer.dirty();
   }
 
   /**
@@ -593,7 +782,7 @@ public final class TableDiskAccess extends TableAccess {
     final Buffer buffer = buffers.current();
     final int len = Math.min(IO.BLOCKSIZE, array.length - offset);
     Array.copyToStart(array, offset, len, buffer.data);
-    buffer.dirty = true;
+    buffer.dirty();
     return len;
   }
 
@@ -8,7 +8,7 @@ import org.basex.util.*;
 
 /**
  * This class allows main memory access to the database table representation.
- * All table entries are stored in arrays
+ * All table entries are stored in arrays, or in direct buffers outside the Java heap.
  *
  * @author BaseX Team 2005-23, BSD License
  * @author Christian Gruen
@@ -20,13 +20,25 @@ public final class TableMemAccess extends TableAccess {
   private boolean dense = true;
   /** Current block index. */
   private int current;
+  /** Store entries outside the Java heap. */
+  private final boolean direct;
 
   /**
    * Constructor.
    * @param meta meta data
    */
   public TableMemAccess(final MetaData meta) {
+    this(meta, false);
+  }
+
+  /**
+   * Constructor.
+   * @param meta meta data
+   * @param direct store entries outside the Java heap
+   */
+  public TableMemAccess(final MetaData meta, final boolean direct) {
     super(meta);
+    this.direct = direct;
   }
 
   @Override
@@ -42,6 +54,11 @@ public final class TableMemAccess extends TableAccess {
     return true;
   }
 
+  @Override
+  public int compact(final int max) {
+    return 0;
+  }
+
   @Override
   public int read1(final int pre, final int offset) {
     final TableMemBlock block = block(pre);
@@ -140,7 +157,7 @@ public final class TableMemAccess extends TableAccess {
       final int bs = blocks.size();
       final int remaining = bs == 0 ? 0 : blocks.get(bs - 1).remaining(size);
       if(remaining < count) {
-        blocks.addAll(bs, TableMemBlock.get(count - remaining, pre + remaining));
+        blocks.addAll(bs, TableMemBlock.get(count - remaining, pre + remaining, direct));
       }
     } else {
       // insert entries. if no space is left, insert new blocks
@@ -1,5 +1,6 @@
 package org.basex.io.random;
 
+import java.nio.*;
 import java.util.*;
 
 import org.basex.io.*;
@@ -8,35 +9,42 @@ import org.basex.util.list.*;
 
 /**
  * Organizes a single main memory table block.
- * All table entries are stored in arrays
+ * All table entries are stored in arrays, or in direct buffers outside the Java heap.
  *
  * @author BaseX Team 2005-23, BSD License
  * @author Christian Gruen
  */
 final class TableMemBlock {
-  /** Table data, with two values for one XML node. */
+  /** Table data, with two values for one XML node ({@code null} if data is stored off-heap). */
   private long[] data;
+  /** Off-heap table data ({@code null} if data is stored in an array). */
+  private LongBuffer buffer;
   /** First pre value. */
   int firstPre;
 
   /**
    * Constructor with initial capacity.
    * @param compact compact block size
+   * @param direct store entries outside the Java heap
    */
-  private TableMemBlock(final boolean compact) {
-    data = new long[(compact ? 1 : IO.BLOCKSIZE) << 1];
+  private TableMemBlock(final boolean compact, final boolean direct) {
+    final int size = (compact ? 1 : IO.BLOCKSIZE) << 1;
+    if(direct) buffer = allocate(size);
+    else data = new long[size];
   }
 
   /**
    * Creates new blocks.
    * @param count number of entries to add
    * @param compact compact block size
+   * @param direct store entries outside the Java heap
    * @return new blocks
    */
-  private static ArrayList<TableMemBlock> get(final int count, final boolean compact) {
+  private static ArrayList<TableMemBlock> get(final int count, final boolean compact,
+      final boolean direct) {
     final int bs = IO.BLOCKSIZE + count - 1 >>> IO.BLOCKPOWER;
     final ArrayList<TableMemBlock> list = new ArrayList<>(bs);
-    for(int b = 0; b < bs; b++) list.add(new TableMemBlock(compact));
+    for(int b = 0; b < bs; b++) list.add(new TableMemBlock(compact, direct));
     return list;
   }
 
@@ -44,10 +52,11 @@ final class TableMemBlock {
    * Creates new blocks with computed pre values.
    * @param count number of entries to add
    * @param pre pre value of first block (will be incremented for subsequent blocks)
+   * @param direct store entries outside the Java heap
    * @return new blocks
    */
-  static ArrayList<TableMemBlock> get(final int count, final int pre) {
-    final ArrayList<TableMemBlock> blocks = get(count, true);
+  static ArrayList<TableMemBlock> get(final int count, final int pre, final boolean direct) {
+    final ArrayList<TableMemBlock> blocks = get(count, true, direct);
     int fp = pre;
     for(final TableMemBlock block : blocks) {
       block.firstPre = fp;
@@ -72,7 +81,8 @@ final class TableMemBlock {
    * @return value
    */
   long value(final int pre, final int offset) {
-    return data[index(pre, offset)];
+    final int i = index(pre, offset);
+    return data != null ? data[i] : buffer.get(i);
   }
 
   /**
@@ -84,7 +94,8 @@ final class TableMemBlock {
   void value(final int pre, final int offset, final long value) {
     final int i = index(pre, offset);
     resize(i + 1);
-    data[i] = value;
+    if(data != null) data[i] = value;
+    else buffer.put(i, value);
   }
 
   /**
@@ -97,7 +108,7 @@ final class TableMemBlock {
   int delete(final int pre, final int count, final int nextPre) {
     final int first = pre - firstPre, last = first + count, filled = nextPre - firstPre;
     if(last >= filled) return filled - first;
-    System.arraycopy(data, last << 1, data, first << 1, filled - last << 1);
+    move(last << 1, first << 1, filled - last << 1);
     return count;
   }
 
@@ -115,18 +126,18 @@ final class TableMemBlock {
     // check if entries can be inserted into existing block
     if(count <= remaining) {
       resize(last + copy << 1);
-      System.arraycopy(data, first << 1, data, last << 1, copy << 1);
+      move(first << 1, last << 1, copy << 1);
       return null;
     }
 
     // otherwise, create new blocks
     resize(IO.BLOCKSIZE << 1);
-    final ArrayList<TableMemBlock> blocks = get(count - remaining, false);
+    final ArrayList<TableMemBlock> blocks = get(count - remaining, false, data == null);
     // create temporary array with final entries
     final int total = filled + count;
     final long[] longs = new long[total << 1];
-    System.arraycopy(data, 0, longs, 0, first << 1);
-    System.arraycopy(data, first << 1, longs, last << 1, copy << 1);
+    read(0, longs, 0, first << 1);
+    read(first << 1, longs, last << 1, copy << 1);
 
     /* redistribute entries evenly:
      * 300 entries: 2 blocks with 150 entries each
@@ -135,12 +146,12 @@ final class TableMemBlock {
     final int bs = blocks.size(), fill = (total + bs) / (bs + 1);
     final int total2 = total << 1, fill2 = fill << 1;
     // populate original block
-    System.arraycopy(longs, 0, data, 0, fill2);
+    write(longs, 0, 0, fill2);
     // populate new blocks
     int copied = fill, copied2 = fill2;
     for(final TableMemBlock block : blocks) {
       block.firstPre = firstPre + copied;
-      System.arraycopy(longs, copied2, block.data, 0, Math.min(fill2, total2 - copied2));
+      block.write(longs, copied2, 0, Math.min(fill2, total2 - copied2));
       copied += fill;
       copied2 += fill2;
     }
@@ -152,9 +163,16 @@ final class TableMemBlock {
    * @param size minimum size
    */
   private void resize(final int size) {
-    final long[] dt = data;
-    final int dl = dt.length;
-    if(dl < size) data = Arrays.copyOf(dt, Math.min(Math.max(size, dl << 1), IO.BLOCKSIZE << 1));
+    final int dl = length();
+    if(dl >= size) return;
+    final int ns = Math.min(Math.max(size, dl << 1), IO.BLOCKSIZE << 1);
+    if(data != null) {
+      data = Arrays.copyOf(data, ns);
+    } else {
+      final LongBuffer bf = allocate(ns);
+      bf.put(buffer).rewind();
+      buffer = bf;
+    }
   }
 
   @Override
@@ -162,9 +180,9 @@ final class TableMemBlock {
     final StringBuilder sb = new StringBuilder(Util.className(this) + '[' + firstPre + ": ");
     final IntList ints = new IntList();
     int first = -1, last = 0;
-    final int dl = data.length;
+    final int dl = length();
     for(int d = 0; d < dl; d++) {
-      if(data[d] != 0) {
+      if((data != null ? data[d] : buffer.get(d)) != 0) {
         if(first == -1) first = d;
         last = d;
       } else if(first != -1) {
@@ -192,4 +210,71 @@ final class TableMemBlock {
     final int p = pre - firstPre << 1;
     return offset < 8 ? p : p + 1;
   }
+
+  /**
+   * Returns the number of allocated values.
+   * @return number of values
+   */
+  private int length() {
+    return data != null ? data.length : buffer.capacity();
+  }
+
+  /**
+   * Moves values inside the block. Source and target range may overlap.
+   * @param from index of the first value to move
+   * @param to target index
+   * @param count number of values
+   */
+  private void move(final int from, final int to, final int count) {
+    if(data != null) {
+      System.arraycopy(data, from, data, to, count);
+    } else if(from > to) {
+      for(int c = 0; c < count; c++) buffer.put(to + c, buffer.get(from + c));
+    } else {
+      for(int c = count - 1; c >= 0; c--) buffer.put(to + c, buffer.get(from + c));
+    }
+  }
+
+  /**
+   * Copies values of the block to an array.
+   * @param from index of the first value
+   * @param longs target array
+   * @param to target index
+   * @param count number of values
+   */
+  private void read(final int from, final long[] longs, final int to, final int count) {
+    if(data != null) {
+      System.arraycopy(data, from, longs, to, count);
+    } else {
+      final LongBuffer bf = buffer.duplicate();
+      bf.position(from);
+      bf.get(longs, to, count);
+    }
+  }
+
+  /**
+   * Copies values from an array to the block.
+   * @param longs source array
+   * @param from index of the first value
+   * @param to target index
+   * @param count number of values
+   */
+  private void write(final long[] longs, final int from, final int to, final int count) {
+    if(data != null) {
+      System.arraycopy(longs, from, data, to, count);
+    } else {
+      final LongBuffer bf = buffer.duplicate();
+      bf.position(to);
+      bf.put(longs, from, count);
+    }
+  }
+
+  /**
+   * Allocates a direct buffer.
+   * @param size number of values
+   * @return buffer
+   */
+  private static LongBuffer allocate(final int size) {
+    return ByteBuffer.allocateDirect(size << 3).order(ByteOrder.nativeOrder()).asLongBuffer();
+  }
 }
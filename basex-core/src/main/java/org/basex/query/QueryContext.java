@@ -74,6 +74,10 @@ public final class QueryContext extends Job implements Closeable {
   public final SharedData shared = new SharedData();
   /** User-defined locks. */
   public final LockList locks = new LockList();
+  /** User-defined priority class (can be {@code null}). */
+  public JobPriority priority;
+  /** Indicates if the query will be evaluated repeatedly (external variables will be rebound). */
+  public boolean prepared;
   /** Current query focus. */
   public QueryFocus focus = new QueryFocus();
   /** Date/time values. */
@@ -123,7 +127,7 @@ public final class QueryContext extends Job implements Closeable {
   public boolean finalContext;
 
   /** External variables and context to be bound at compile time. */
-  private final QNmMap<Value> bindings = new QNmMap<>();
+  private QNmMap<Value> bindings = new QNmMap<>();
 
   /** Serialization options. */
   private SerializerOptions sopts;
@@ -276,12 +280,7 @@ public final class QueryContext extends Job implements Closeable {
       maxCalls = context.options.get(MainOptions.TAILCALLS);
 
       // bind external variables
-      if(parent == null) {
-        final Map<String, String> map = context.options.toMap(MainOptions.BINDINGS);
-        for(final Entry<String, String> entry : map.entrySet()) {
-          bind(entry.getKey(), Atm.get(entry.getValue()), null, main.sc);
-        }
-      }
+      bindOptions();
       vars.bindExternal(this, bindings);
 
       return compile(false);
@@ -308,10 +307,49 @@ public final class QueryContext extends Job implements Closeable {
       if(value != null) contextScope = new ContextScope(value, sc.contextType, new VarScope(sc));
       if(contextScope != null) finalContext = true;
 
-      return compile(true);
+      compile(true);
+      // queries that depend on the current date and time cannot be evaluated repeatedly
+      if(dateTime != null) prepared = false;
+      return null;
     });
   }
 
+  /**
+   * Finalizes the evaluation of a query that has been prepared for repeated evaluation.
+   * The query can only be evaluated again if it is not updating, and if all opened resources are
+   * databases, which remain opened. If {@code false} is returned, the query must be closed.
+   * @return {@code true} if the query can be evaluated again after {@link #rebind()}
+   */
+  public boolean reset() {
+    if(!prepared || !optimized || closed || updating || contextScope != null ||
+        !resources.persistent()) return false;
+
+    options.close();
+    threads.close();
+    bindings = new QNmMap<>();
+    focus = new QueryFocus();
+    dateTime = null;
+    info.reset();
+    for(final AtomicLong time : new AtomicLong[] { info.parsing, info.compiling,
+        info.optimizing, info.evaluating, info.serializing }) time.set(0);
+    return true;
+  }
+
+  /**
+   * Assigns the values that have been bound since the last evaluation to the external variables
+   * of a prepared query (see {@link #reset()}). If {@code false} is returned, the query must be
+   * closed and compiled again, because different variables have been bound, or because the types
+   * of the new values are incompatible with the compiled query.
+   * @return success flag
+   * @throws QueryException query exception
+   */
+  public boolean rebind() throws QueryException {
+    bindOptions();
+    if(bindings.contains(QNm.EMPTY) || !vars.rebind(this, bindings)) return false;
+    options.compile();
+    return true;
+  }
+
   /**
    * Compiles the expression.
    * @param dynamic dynamic compilation
@@ -390,6 +428,8 @@ public final class QueryContext extends Job implements Closeable {
 
   @Override
   public void addLocks() {
+    if(priority != null) jc().priority(priority);
+
     // choose read or write locks
     final Locks l = jc().locks;
     final LockList list = updating ? l.writes : l.reads;
@@ -671,6 +711,19 @@ public final class QueryContext extends Job implements Closeable {
     }
   }
 
+  /**
+   * Binds the external variables that have been specified via {@link MainOptions#BINDINGS}.
+   * @throws QueryException query exception
+   */
+  private void bindOptions() throws QueryException {
+    if(parent == null) {
+      final Map<String, String> map = context.options.toMap(MainOptions.BINDINGS);
+      for(final Entry<String, String> entry : map.entrySet()) {
+        bind(entry.getKey(), Atm.get(entry.getValue()), null, main.sc);
+      }
+    }
+  }
+
   /**
    * Casts a value to the specified type.
    * @param value value to be cast
@@ -286,6 +286,8 @@ public enum QueryError {
 
   /** Error code. */
   FT_OPTIONS(FT, "options", "Wildcards and fuzzy option cannot be specified both."),
+  /** Error code. */
+  FT_RANKED_X(FT, "options", "Option '%' is not supported by ranked retrieval."),
 
   // Geo Module
 
@@ -12,6 +12,7 @@ import java.util.*;
 import java.util.regex.*;
 
 import org.basex.core.*;
+import org.basex.core.jobs.*;
 import org.basex.core.locks.*;
 import org.basex.io.*;
 import org.basex.io.serial.*;
@@ -556,8 +557,14 @@ public class QueryParser extends InputParser {
 
     } else if(eq(qname.uri(), BASEX_URI)) {
       // query-specific options
-      if(!name.equals(LOCK)) throw error(BASEX_OPTIONS1_X, name);
-      for(final String lock : Locking.queryLocks(value)) qc.locks.add(lock);
+      if(name.equals(LOCK)) {
+        for(final String lock : Locking.queryLocks(value)) qc.locks.add(lock);
+      } else if(name.equals(PRIORITY)) {
+        qc.priority = JobPriority.get(string(value));
+        if(qc.priority == null) throw error(BASEX_OPTIONS_X_X, name, value);
+      } else {
+        throw error(BASEX_OPTIONS1_X, name);
+      }
     }
     // ignore unknown options
   }
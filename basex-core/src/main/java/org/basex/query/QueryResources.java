@@ -103,6 +103,16 @@ public final class QueryResources {
     inputs.clear();
   }
 
+  /**
+   * Indicates if all opened resources are persistent databases.
+   * @return result of check
+   */
+  boolean persistent() {
+    boolean persistent = colls.isEmpty() && external.isEmpty() && inputs.isEmpty();
+    for(final Data data : datas) persistent &= !data.inMemory();
+    return persistent;
+  }
+
   /**
    * Returns the globally opened database.
    * @return database or {@code null} if no database is globally opened
@@ -199,6 +199,7 @@ public interface QueryText {
   /** Parser token. */ String DECIMAL_FORMATS = "decimal-formats";
 
   /** Parser token. */ String LOCK = "lock";
+  /** Parser token. */ String PRIORITY = "priority";
   /** Parser token. */ String NON_DETERMNISTIC = "non-deterministic";
 
   /** Parsed by the syntax highlighter (don’t remove): remaining constants will be ignored. */
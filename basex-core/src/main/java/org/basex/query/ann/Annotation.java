@@ -31,6 +31,8 @@ public enum Annotation {
   _BASEX_INLINE("inline([limit])", params(INTEGER_O), BASEX_URI),
   /** XQuery annotation. */
   _BASEX_LOCK("lock(key)", params(STRING_O), BASEX_URI),
+  /** XQuery annotation. */
+  _BASEX_PRIORITY("priority(class)", params(STRING_O), BASEX_URI),
 
   /** XQuery annotation. */
   _INPUT_CSV("csv(option[,...])", params(STRING_O), INPUT_URI),
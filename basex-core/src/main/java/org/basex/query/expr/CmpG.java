@@ -565,6 +565,10 @@ public class CmpG extends Cmp {
       if(!(expr1.arg(0).seqType().zeroOrOne() && ((FnTokenize) expr1).whitespaces())) return false;
       expr1 = expr1.arg(0);
       type = IndexType.TOKEN;
+    } else {
+      // prefer composite index if the names of the node and its parent element are known
+      final IndexType it = ii.type(expr1, IndexType.COMPOSITE);
+      if(it != null) return ii.create(exprs[1], it, false, info);
     }
     return ii.create(exprs[1], ii.type(expr1, type), false, info);
   }
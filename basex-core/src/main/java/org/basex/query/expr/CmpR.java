@@ -221,9 +221,11 @@ public final class CmpR extends Single {
       return true;
     }
 
-    // estimate costs
+    // estimate costs (use statistics if available)
     ii.costs = IndexInfo.costs(data, nr);
     if(ii.costs == null) return false;
+    final int results = key.estimate(nr.min, nr.max);
+    if(results >= 0) ii.costs = IndexCosts.get(Math.max(1, results));
 
     // skip if numbers are negative, doubles, or of different string length
     final int mnl = min >= 0 && (long) min == min ? Token.token(min).length : -1;
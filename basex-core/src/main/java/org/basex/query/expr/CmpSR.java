@@ -8,6 +8,7 @@ import java.util.*;
 import org.basex.data.*;
 import org.basex.index.*;
 import org.basex.index.query.*;
+import org.basex.index.stats.*;
 import org.basex.query.*;
 import org.basex.query.CompileContext.*;
 import org.basex.query.expr.CmpG.*;
@@ -198,10 +199,13 @@ public final class CmpSR extends Single {
     final IndexType type = ii.type(expr, null);
     if(type == null) return false;
 
-    // create range access
+    // create range access, estimate costs (use statistics if available)
     final StringRange sr = new StringRange(type, min, mni, max, mxi);
     ii.costs = IndexInfo.costs(data, sr);
     if(ii.costs == null) return false;
+    final Stats stats = ii.stats();
+    final int results = stats != null ? stats.estimate(min, mni, max, mxi) : -1;
+    if(results >= 0) ii.costs = IndexCosts.get(Math.max(1, results));
 
     final TokenBuilder tb = new TokenBuilder();
     tb.add(mni ? '[' : '(').add(min).add(',').add(max).add(mxi ? ']' : ')');
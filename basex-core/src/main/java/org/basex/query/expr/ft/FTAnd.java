@@ -66,15 +66,23 @@ public final class FTAnd extends FTExpr {
     return new FTIter() {
       @Override
       public FTNode next() throws QueryException {
-        // find item with the lowest pre value
+        return next(0);
+      }
+
+      @Override
+      public FTNode next(final int pre) throws QueryException {
         final int il = nodes.length;
+        for(int i = 0; i < il; ++i) {
+          if(nodes[i] != null && nodes[i].pre() < pre) nodes[i] = iters[i].next(pre);
+        }
+        // align all iterators: skip nodes with smaller pre values
         for(int i = 0; i < il; ++i) {
           if(nodes[i] == null) return null;
 
           final int d = nodes[0].pre() - nodes[i].pre();
           if(d != 0) {
-            if(d < 0) i = 0;
-            nodes[i] = iters[i].next();
+            if(d < 0) nodes[0] = iters[0].next(nodes[i].pre());
+            else nodes[i] = iters[i].next(nodes[0].pre());
             i = -1;
           }
         }
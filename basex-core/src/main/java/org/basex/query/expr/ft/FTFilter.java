@@ -51,13 +51,17 @@ public abstract class FTFilter extends FTExpr {
     return new FTIter() {
       @Override
       public FTNode next() throws QueryException {
-        FTNode it;
-        while((it = iter.next()) != null) {
+        return next(0);
+      }
+
+      @Override
+      public FTNode next(final int pre) throws QueryException {
+        for(FTNode it = iter.next(pre); it != null; it = iter.next()) {
           qc.checkStop();
           // only create lexer if content needs to be parsed
-          if(filter(qc, it, content() ? new FTLexer().init(it.string(info)) : null)) break;
+          if(filter(qc, it, content() ? new FTLexer().init(it.string(info)) : null)) return it;
         }
-        return it;
+        return null;
       }
     };
   }
@@ -144,6 +144,40 @@ public final class FTWildcard {
     return match(cps(tok), 0, 0);
   }
 
+  /**
+   * Returns the length of the shortest prefix of the specified token that cannot be extended
+   * to a match.
+   * @param tok token to be checked
+   * @return length of the prefix in bytes, or {@code -1} if the token may be extended to a match
+   */
+  public int reject(final byte[] tok) {
+    final int[] cp = cps(tok);
+    // literal prefix, followed by an unbounded wildcard: only check prefix
+    int f = 0;
+    while(f < size && cps[f] != DOT) f++;
+    if(f < size && max[f] == Integer.MAX_VALUE) {
+      final int cl = Math.min(f, cp.length);
+      int length = 0;
+      for(int c = 0; c < cl; c++) {
+        length += cpLength(cp[c]);
+        if(cp[c] != cps[c]) return length;
+      }
+      return -1;
+    }
+
+    int l = 0, h = cp.length;
+    if(prefix(cp, h, 0, 0)) return -1;
+    // prefixes of prefixes that can be extended can be extended as well
+    while(h - l > 1) {
+      final int m = l + h >>> 1;
+      if(prefix(cp, m, 0, 0)) l = m;
+      else h = m;
+    }
+    int length = 0;
+    for(int c = 0; c < h; c++) length += cpLength(cp[c]);
+    return length;
+  }
+
   /**
    * Indicates if the input contains no wildcard characters.
    * @return result of check
@@ -178,4 +212,29 @@ public final class FTWildcard {
     }
     return ti == tl;
   }
+
+  /**
+   * Checks if the wildcard can match a string that starts with the specified codepoints.
+   * @param tok codepoints of the token
+   * @param tl number of codepoints to be checked
+   * @param tp input position
+   * @param qp query position
+   * @return result of check
+   */
+  private boolean prefix(final int[] tok, final int tl, final int tp, final int qp) {
+    int qi = qp, ti = tp;
+    while(ti < tl) {
+      if(qi == size) return false;
+      if(cps[qi] == DOT) {
+        final int n = min[qi], m = max[qi++];
+        // wildcard may consume the remaining codepoints, or a match may be found afterwards
+        for(int c = n; c <= m; c++) {
+          if(ti + c >= tl || prefix(tok, tl, ti + c, qi)) return true;
+        }
+        return false;
+      }
+      if(tok[ti++] != cps[qi++]) return false;
+    }
+    return true;
+  }
 }
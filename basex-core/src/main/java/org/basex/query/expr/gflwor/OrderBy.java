@@ -9,6 +9,7 @@ import java.util.List;
 
 import org.basex.query.*;
 import org.basex.query.expr.*;
+import org.basex.query.func.ft.*;
 import org.basex.query.util.*;
 import org.basex.query.value.*;
 import org.basex.query.value.item.*;
@@ -143,6 +144,10 @@ public final class OrderBy extends Clause {
         if(keys[0].desc) fr.expr = cc.function(REVERSE, info, fr.expr);
         return true;
       }
+      // for $n in ft:search(D, T, map { 'ranked': true() }) order by ft:score($n) descending
+      //   return $n  ->  for $n in ft:search(D, T, map { 'ranked': true() }) return $n
+      if(fr != null && keys[0].desc && _FT_SCORE.is(expr) && expr.arg(0) instanceof VarRef &&
+          ((VarRef) expr.arg(0)).var.is(fr.var) && FtSearch.ranked(fr.expr, cc)) return true;
     }
     return false;
   }
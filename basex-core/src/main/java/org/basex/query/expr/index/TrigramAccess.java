@@ -0,0 +1,121 @@
+package org.basex.query.expr.index;
+
+import static org.basex.query.QueryText.*;
+
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.index.*;
+import org.basex.index.query.*;
+import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.iter.*;
+import org.basex.query.util.*;
+import org.basex.query.value.*;
+import org.basex.query.value.seq.*;
+import org.basex.query.value.type.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * This index class retrieves candidates for substring searches from the trigram index.
+ * The returned text nodes or attributes contain all requested trigrams. As the trigrams may
+ * occur at arbitrary positions, the candidates must be verified by the calling expression.
+ *
+ * @author BaseX Team 2005-23, BSD License
+ * @author Christian Gruen
+ */
+public final class TrigramAccess extends IndexAccess {
+  /** Trigrams. */
+  private final byte[][] trigrams;
+  /** Type of the returned nodes ({@link IndexType#TEXT} or {@link IndexType#ATTRIBUTE}). */
+  private final IndexType type;
+
+  /**
+   * Constructor.
+   * @param info input info
+   * @param trigrams distinct trigrams
+   * @param type type of the returned nodes ({@link IndexType#TEXT} or
+   *   {@link IndexType#ATTRIBUTE})
+   * @param db index database
+   */
+  public TrigramAccess(final InputInfo info, final byte[][] trigrams, final IndexType type,
+      final IndexDb db) {
+    super(db, info, type == IndexType.TEXT ? NodeType.TEXT : NodeType.ATTRIBUTE);
+    this.trigrams = trigrams;
+    this.type = type;
+  }
+
+  @Override
+  public Iter iter(final QueryContext qc) throws QueryException {
+    return value(qc).iter();
+  }
+
+  @Override
+  public Value value(final QueryContext qc) throws QueryException {
+    final Data data = db.data(qc, IndexType.TRIGRAM);
+
+    // retrieve pre values of all trigrams, start with the shortest list
+    final int ts = trigrams.length;
+    final IntList[] lists = new IntList[ts];
+    for(int t = 0; t < ts; t++) {
+      final IndexIterator ii = data.iter(new StringToken(IndexType.TRIGRAM, trigrams[t]));
+      final IntList list = new IntList(ii.size());
+      while(ii.more()) list.add(ii.pre());
+      lists[t] = list;
+    }
+    Arrays.sort(lists, Comparator.comparingInt(IntList::size));
+
+    // intersect lists, skip nodes of the wrong kind
+    final int kind = type == IndexType.TEXT ? Data.TEXT : Data.ATTR;
+    final IntList pres = new IntList();
+    final int[] offsets = new int[ts];
+    final IntList first = lists[0];
+    final int fs = first.size();
+    OUTER:
+    for(int f = 0; f < fs; f++) {
+      qc.checkStop();
+      final int pre = first.get(f);
+      for(int t = 1; t < ts; t++) {
+        final IntList list = lists[t];
+        final int ls = list.size();
+        int o = offsets[t];
+        while(o < ls && list.get(o) < pre) o++;
+        offsets[t] = o;
+        if(o == ls) break OUTER;
+        if(list.get(o) != pre) continue OUTER;
+      }
+      if(data.kind(pre) == kind) pres.add(pre);
+    }
+    return DBNodeSeq.get(pres.finish(), data, this);
+  }
+
+  @Override
+  public Expr inline(final InlineContext ic) throws QueryException {
+    return inlineDb(ic) ? optimize(ic.cc) : null;
+  }
+
+  @Override
+  public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
+    return copyType(new TrigramAccess(info, trigrams, type, db.copy(cc, vm)));
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if(!(obj instanceof TrigramAccess)) return false;
+    final TrigramAccess ta = (TrigramAccess) obj;
+    return type == ta.type && Arrays.deepEquals(trigrams, ta.trigrams) && super.equals(obj);
+  }
+
+  @Override
+  public void toXml(final QueryPlan plan) {
+    plan.add(plan.create(this, INDEX, type), db, StrSeq.get(trigrams));
+  }
+
+  @Override
+  public void toString(final QueryString qs) {
+    qs.token(IndexType.TRIGRAM).params(new Object[] { db, StrSeq.get(trigrams) });
+  }
+}
@@ -8,6 +8,7 @@ import java.util.*;
 import org.basex.data.*;
 import org.basex.index.*;
 import org.basex.index.query.*;
+import org.basex.index.value.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.expr.path.*;
@@ -34,6 +35,8 @@ import org.basex.util.list.*;
 public final class ValueAccess extends IndexAccess {
   /** Index type. */
   private final IndexType type;
+  /** Path of the composite index keys ({@code null} if the composite index is not accessed). */
+  private final byte[] path;
   /** Parent name test (can be {@code null}). */
   private final NameTest test;
   /** Token set ({@code null} if expression was specified). */
@@ -51,7 +54,7 @@ public final class ValueAccess extends IndexAccess {
    */
   public ValueAccess(final InputInfo info, final TokenSet tokens, final IndexType type,
       final NameTest test, final IndexDb db) {
-    this(info, type, test, db, Empty.VALUE, tokens);
+    this(info, type, null, test, db, Empty.VALUE, tokens);
   }
 
   /**
@@ -64,7 +67,7 @@ public final class ValueAccess extends IndexAccess {
    */
   public ValueAccess(final InputInfo info, final Expr expr, final IndexType type,
       final NameTest test, final IndexDb db) {
-    this(info, type, test, db, expr, null);
+    this(info, type, null, test, db, expr, null);
   }
 
   /**
@@ -72,16 +75,19 @@ public final class ValueAccess extends IndexAccess {
    * @param info input info
    * @param type index type ({@link IndexType#TEXT}, {@link IndexType#TOKEN},
    *   {@link IndexType#ATTRIBUTE})
+   * @param path path of the composite index keys (if not {@code null}, the composite index
+   *   will be accessed instead of the text or attribute index)
    * @param test test (can be {@code null})
    * @param db index database
    * @param expr search expression
    * @param tokens tokens (can be {@code null})
    */
-  private ValueAccess(final InputInfo info, final IndexType type, final NameTest test,
-      final IndexDb db, final Expr expr, final TokenSet tokens) {
+  public ValueAccess(final InputInfo info, final IndexType type, final byte[] path,
+      final NameTest test, final IndexDb db, final Expr expr, final TokenSet tokens) {
     super(db, info, test != null ? NodeType.ELEMENT : type == IndexType.TEXT ? NodeType.TEXT :
       NodeType.ATTRIBUTE);
     this.type = type;
+    this.path = path;
     this.test = test;
     this.expr = expr;
     this.tokens = tokens;
@@ -106,7 +112,7 @@ public final class ValueAccess extends IndexAccess {
     if(c == 0) return Empty.ITER;
 
     // single search term: return single iterator
-    final Data data = db.data(qc, type);
+    final Data data = db.data(qc, index());
     if(c == 1) return iter(cache.key(1), data);
 
     // multiple search terms: collect results, return result iterator
@@ -141,23 +147,26 @@ public final class ValueAccess extends IndexAccess {
 
     // check if index is available and if it may contain the requested term
     // otherwise, use sequential scan
-    final boolean index = data.meta.index(type) && (
+    final IndexType it = index();
+    final boolean index = data.meta.index(it) && (
         !(type == IndexType.TEXT || type == IndexType.ATTRIBUTE) ||
         tl > 0 && tl <= data.meta.maxlen
     );
 
-    final IndexIterator ii = index ? data.iter(new StringToken(type, term)) : scan(term, data);
+    final IndexIterator ii = index ? data.iter(new StringToken(it, key(term))) :
+      scan(term, data);
     final int kind = type == IndexType.TEXT ? Data.TEXT : Data.ATTR;
     final DBNode tmp = new DBNode(data, 0, test == null ? kind : Data.ELEM);
 
-    // test names of parents (index access or sequential scan)
+    // test names of parents (index access or sequential scan).
+    // the names of the composite index keys need not be tested again
     if(test != null) {
       return new DBNodeIter(data) {
         @Override
         public DBNode next() {
           while(ii.more()) {
             tmp.pre(data.parent(ii.pre(), kind));
-            if(test.matches(tmp)) return tmp.finish();
+            if(path != null || test.matches(tmp)) return tmp.finish();
           }
           return null;
         }
@@ -216,6 +225,7 @@ public final class ValueAccess extends IndexAccess {
       final boolean text = type == IndexType.TEXT;
       final byte kind = text ? Data.TEXT : Data.ATTR;
       final int sz = data.meta.size;
+      final byte[] key = path != null ? key(value) : null;
       int pre = -1;
 
       @Override
@@ -225,7 +235,10 @@ public final class ValueAccess extends IndexAccess {
       @Override
       public boolean more() {
         while(++pre < sz) {
-          if(data.kind(pre) == kind && eq(data.text(pre, text), value)) return true;
+          if(data.kind(pre) == kind && eq(data.text(pre, text), value) && (key == null ||
+            CompositeKeys.candidate(data, pre) && eq(CompositeKeys.get(data, pre), key))) {
+            return true;
+          }
         }
         return false;
       }
@@ -287,7 +300,8 @@ public final class ValueAccess extends IndexAccess {
 
   @Override
   public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    return copyType(new ValueAccess(info, type, test, db.copy(cc, vm), expr.copy(cc, vm), tokens));
+    return copyType(new ValueAccess(info, type, path, test, db.copy(cc, vm), expr.copy(cc, vm),
+        tokens));
   }
 
   @Override
@@ -305,22 +319,53 @@ public final class ValueAccess extends IndexAccess {
     if(!(obj instanceof ValueAccess)) return false;
     final ValueAccess v = (ValueAccess) obj;
     return Objects.equals(tokens, v.tokens) && expr.equals(obj) && type == v.type &&
-        Objects.equals(test, v.test) && super.equals(obj);
+        Arrays.equals(path, v.path) && Objects.equals(test, v.test) && super.equals(obj);
   }
 
   @Override
   public void toXml(final QueryPlan plan) {
-    plan.add(plan.create(this, INDEX, type, NAME, test), db, toExpr());
+    plan.add(plan.create(this, INDEX, index(), PATH, path != null ? path() : null, NAME, test),
+        db, toExpr());
   }
 
   @Override
   public void toString(final QueryString qs) {
+    if(path != null) {
+      qs.token(IndexType.COMPOSITE).params(new Object[] { db, Str.get(path()), toExpr() });
+      if(test != null) qs.token('/').token(new CachedStep(info, Axis.PARENT, test));
+      return;
+    }
     final Function function = type == IndexType.TEXT ? Function._DB_TEXT :
       type == IndexType.ATTRIBUTE ? Function._DB_ATTRIBUTE : Function._DB_TOKEN;
     qs.function(function, db, toExpr());
     if(test != null) qs.token('/').token(new CachedStep(info, Axis.PARENT, test));
   }
 
+  /**
+   * Returns the type of the accessed index.
+   * @return index type
+   */
+  private IndexType index() {
+    return path != null ? IndexType.COMPOSITE : type;
+  }
+
+  /**
+   * Returns the index key for the specified search term.
+   * @param term search term
+   * @return key
+   */
+  private byte[] key(final byte[] term) {
+    return path != null ? concat(path, term) : term;
+  }
+
+  /**
+   * Returns the path of the composite index keys without the trailing separator.
+   * @return path
+   */
+  private byte[] path() {
+    return substring(path, 0, path.length - 1);
+  }
+
   /**
    * Returns an expression instance for cached tokens, or the search expression itself.
    * @return expression
@@ -38,7 +38,7 @@ final class IterLastStep extends Step {
 
         // return last item
         ANode last = null;
-        for(final ANode node : axis.iter(checkNode(qc))) {
+        for(final ANode node : axisIter(qc)) {
           qc.checkStop();
           if(test.matches(node)) last = node.finish();
         }
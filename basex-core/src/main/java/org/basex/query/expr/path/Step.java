@@ -11,6 +11,7 @@ import org.basex.index.path.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.func.Function;
+import org.basex.query.iter.*;
 import org.basex.query.util.*;
 import org.basex.query.util.list.*;
 import org.basex.query.value.*;
@@ -418,6 +419,30 @@ public abstract class Step extends Preds {
       QueryError.PATHNODE_X_X_X.get(info, this, value.type, value);
   }
 
+  /**
+   * Returns an iterator for the nodes of the axis. Descendant steps with element name tests
+   * are evaluated with the name index if the database has no namespaces.
+   * @param qc query context
+   * @return iterator
+   * @throws QueryException query exception
+   */
+  final BasicNodeIter axisIter(final QueryContext qc) throws QueryException {
+    final ANode node = checkNode(qc);
+    if((axis == DESCENDANT || axis == DESCENDANT_OR_SELF) && node instanceof DBNode &&
+        test instanceof NameTest && test.type == NodeType.ELEMENT) {
+      final NameTest nt = (NameTest) test;
+      final NamePart part = nt.part();
+      final Data data = node.data();
+      if(data.meta.nameindex && data.nspaces.isEmpty() &&
+          (part == NamePart.LOCAL || part == NamePart.FULL && !nt.qname.hasURI())) {
+        final BasicNodeIter iter = ((DBNode) node).descendantIter(data.elemNames.id(nt.local),
+            axis == DESCENDANT_OR_SELF);
+        if(iter != null) return iter;
+      }
+    }
+    return axis.iter(node);
+  }
+
   @Override
   public boolean accept(final ASTVisitor visitor) {
     for(final Expr pred : exprs) {
@@ -13,4 +13,8 @@ public final class CreateBackupOptions extends Options {
   public static final StringOption COMMENT = new StringOption("comment");
   /** Include root directory. */
   public static final BooleanOption COMPRESS = new BooleanOption("compress", true);
+  /** Only write changes since the last backup. */
+  public static final BooleanOption INCREMENTAL = new BooleanOption("incremental", false);
+  /** Write archive after the locks have been released. */
+  public static final BooleanOption ONLINE = new BooleanOption("online", false);
 }
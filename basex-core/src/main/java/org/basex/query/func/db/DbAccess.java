@@ -33,6 +33,8 @@ abstract class DbAccess extends StandardFunc {
   /** QName. */
   static final QNm Q_COMMENT = new QNm("comment");
   /** QName. */
+  static final QNm Q_BASE = new QNm("base");
+  /** QName. */
   static final QNm Q_RESOURCE = new QNm("resource");
   /** QName. */
   static final QNm Q_RESOURCES = new QNm("resources");
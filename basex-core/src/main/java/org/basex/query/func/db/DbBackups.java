@@ -3,6 +3,8 @@ package org.basex.query.func.db;
 import static org.basex.query.func.db.DbAccess.*;
 import static org.basex.query.QueryError.*;
 
+import java.io.*;
+
 import org.basex.core.*;
 import org.basex.core.cmd.*;
 import org.basex.io.*;
@@ -41,6 +43,13 @@ public final class DbBackups extends StandardFunc {
         elem.add(Q_SIZE, new IOFile(dbPath, backup + IO.ZIPSUFFIX).length());
         final String comment = ShowBackups.comment(backup, ctx);
         if(!comment.isEmpty()) elem.add(Q_COMMENT, comment);
+        try {
+          final BackupManifest manifest = BackupManifest.read(backup, ctx.soptions);
+          final String base = manifest != null ? manifest.base(backup) : null;
+          if(base != null) elem.add(Q_BASE, base);
+        } catch(final IOException ex) {
+          Util.debug(ex);
+        }
         return elem.finish();
       }
     };
@@ -23,7 +23,10 @@ public final class DbCreateBackup extends BackupFn {
 
     final String comment = options.get(CreateBackupOptions.COMMENT);
     final boolean compress = options.get(CreateBackupOptions.COMPRESS);
-    qc.updates().add(new BackupCreate(name, comment, compress, qc, info), qc);
+    final boolean incremental = options.get(CreateBackupOptions.INCREMENTAL);
+    final boolean online = options.get(CreateBackupOptions.ONLINE);
+    qc.updates().add(new BackupCreate(name, comment, compress, incremental, online, qc, info),
+        qc);
     return Empty.VALUE;
   }
 }
@@ -1,13 +1,16 @@
 package org.basex.query.func.fn;
 
+import org.basex.index.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.func.*;
 import org.basex.query.util.*;
 import org.basex.query.util.collation.*;
+import org.basex.query.util.index.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.seq.*;
 import org.basex.util.*;
+import org.basex.util.list.*;
 
 /**
  * Function implementation.
@@ -36,4 +39,13 @@ public final class FnContains extends StandardFunc {
     }
     return this;
   }
+
+  @Override
+  public boolean indexAccessible(final IndexInfo ii) throws QueryException {
+    // support limited to default collation and static strings
+    final Expr substring = arg(1);
+    return !defined(2) && substring instanceof Str &&
+      ii.type(arg(0), IndexType.TRIGRAM) != null &&
+      ii.create(new TokenList(1).add(((Str) substring).string()), this, info);
+  }
 }
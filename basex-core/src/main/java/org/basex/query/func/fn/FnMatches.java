@@ -3,11 +3,14 @@ package org.basex.query.func.fn;
 import static org.basex.query.func.Function.*;
 import static org.basex.util.Token.*;
 
+import org.basex.index.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
+import org.basex.query.util.index.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.type.*;
 import org.basex.util.*;
+import org.basex.util.list.*;
 
 /**
  * Function implementation.
@@ -44,4 +47,14 @@ public final class FnMatches extends RegEx {
     }
     return this;
   }
+
+  @Override
+  public boolean indexAccessible(final IndexInfo ii) throws QueryException {
+    // support limited to static patterns and flags
+    final Expr pattern = arg(1), flags = defined(2) ? arg(2) : Str.EMPTY;
+    if(!(pattern instanceof Str && flags instanceof Str)) return false;
+    final TokenList literals = literals(((Str) pattern).string(), ((Str) flags).string());
+    return literals != null && ii.type(arg(0), IndexType.TRIGRAM) != null &&
+      ii.create(literals, this, info);
+  }
 }
@@ -9,6 +9,7 @@ import org.basex.query.expr.*;
 import org.basex.query.expr.List;
 import org.basex.query.func.*;
 import org.basex.query.func.file.*;
+import org.basex.query.func.ft.*;
 import org.basex.query.iter.*;
 import org.basex.query.value.*;
 import org.basex.query.value.item.*;
@@ -209,6 +210,12 @@ public class FnSubsequence extends StandardFunc {
         return sr.start == 0 ? input : Empty.VALUE;
       }
 
+      // subsequence(ft:search(D, T, map { 'ranked': true() }), 1, k)
+      //   ->  ft:search(D, T, map { 'ranked': true(), 'top': k })
+      if(_FT_SEARCH.is(input) && sr.start == 0) {
+        final Expr ex = FtSearch.opt(this, sr.length, cc);
+        if(ex != this) return ex;
+      }
       if(sr.length == 1) {
         // subsequence(E, 1, 1)  ->  head(E)
         // subsequence(E, pos, 1)  ->  items-at(E, pos)
@@ -13,6 +13,7 @@ import org.basex.query.util.regex.parse.*;
 import org.basex.util.*;
 import org.basex.util.Token;
 import org.basex.util.hash.*;
+import org.basex.util.list.*;
 
 /**
  * Regular expression functions.
@@ -87,6 +88,29 @@ abstract class RegEx extends StandardFunc {
     return separator == -1 || contains(REGEX_CHARS, separator) ? -1 : separator;
   }
 
+  /**
+   * Returns literal strings that occur in all matches of a regular expression.
+   * @param regex regular expression
+   * @param modifiers modifiers
+   * @return literal strings, or {@code null} if the expression cannot be analyzed
+   */
+  static TokenList literals(final byte[] regex, final byte[] modifiers) {
+    boolean strip = false, all = false, multi = false;
+    for(final byte mod : modifiers) {
+      if(mod == 'q') return new TokenList(1).add(regex);
+      if(mod == 'x') strip = true;
+      else if(mod == 's') all = true;
+      else if(mod == 'm') multi = true;
+      else if(mod != ';') return null;
+    }
+    try {
+      return new RegExParser(regex, strip, all, multi).parse().literals();
+    } catch(final ParseException | TokenMgrError ex) {
+      Util.debug(ex);
+      return null;
+    }
+  }
+
   /**
    * Compiles this regular expression to a {@link Pattern}.
    * @param regex regular expression to parse
@@ -32,4 +32,8 @@ public class FtIndexOptions extends Options {
   /** Option: content. */
   public static final EnumOption<FTContents> CONTENT =
       new EnumOption<>("content", FTContents.class);
+  /** Option: ranked retrieval. */
+  public static final BooleanOption RANKED = new BooleanOption("ranked", false);
+  /** Option: maximum number of ranked results ({@code 0}: all results). */
+  public static final NumberOption TOP = new NumberOption("top", 0);
 }
@@ -1,15 +1,29 @@
 package org.basex.query.func.ft;
 
+import static org.basex.query.QueryError.*;
+import static org.basex.query.func.Function.*;
+
 import org.basex.data.*;
+import org.basex.index.*;
+import org.basex.index.ft.*;
 import org.basex.query.*;
 import org.basex.query.CompileContext.*;
 import org.basex.query.expr.*;
 import org.basex.query.expr.ft.*;
 import org.basex.query.expr.index.*;
+import org.basex.query.func.*;
+import org.basex.query.func.fn.*;
 import org.basex.query.iter.*;
 import org.basex.query.util.*;
 import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.map.*;
+import org.basex.query.value.node.*;
+import org.basex.util.*;
 import org.basex.util.ft.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+import org.basex.util.options.*;
 
 /**
  * Function implementation.
@@ -27,11 +41,115 @@ public final class FtSearch extends FtAccess {
     final IndexDb db = new IndexStaticDb(data, info);
     final FTMode mode = options.get(FtIndexOptions.MODE);
     final FTOpt opt = ftOpt(options, qc).assign(data.meta);
+    if(options.get(FtIndexOptions.RANKED) || options.get(FtIndexOptions.TOP) > 0) {
+      return ranked(db.data(qc, IndexType.FULLTEXT), query, options, opt);
+    }
 
     final FTWords ftw = new FTWords(info, db, query, mode).ftOpt(opt).optimize(qc);
     return new FTIndexAccess(info, ftExpr(ftw, options), db).iter(qc);
   }
 
+  /**
+   * Returns the best results, ranked by the BM25 scoring model.
+   * The query strings are split into single tokens. Results are returned in descending
+   * order of their scores.
+   * @param data data reference
+   * @param query query strings
+   * @param options options
+   * @param opt full-text options
+   * @return node iterator
+   * @throws QueryException query exception
+   */
+  private NodeIter ranked(final Data data, final Value query, final FtIndexOptions options,
+      final FTOpt opt) throws QueryException {
+
+    final FTMode mode = options.get(FtIndexOptions.MODE);
+    for(final Option<?> option : new Option<?>[] { FtIndexOptions.FUZZY,
+        FtIndexOptions.WILDCARDS, FtIndexOptions.ORDERED, FtIndexOptions.DISTANCE,
+        FtIndexOptions.WINDOW, FtIndexOptions.SCOPE, FtIndexOptions.CONTENT }) {
+      final Object value = options.get(option);
+      if(value != null && !Boolean.FALSE.equals(value)) throw FT_RANKED_X.get(info, option.name());
+    }
+    if(mode == FTMode.PHRASE) throw FT_RANKED_X.get(info, FtIndexOptions.MODE.name());
+
+    final TokenSet tokens = new TokenSet();
+    final FTLexer lexer = new FTLexer(opt);
+    for(final Item item : query) {
+      lexer.init(toToken(item));
+      while(lexer.hasNext()) tokens.add(lexer.nextToken());
+    }
+    final int top = options.get(FtIndexOptions.TOP);
+    final FTIndex index = (FTIndex) data.index(IndexType.FULLTEXT);
+    final FTRanking ranking = index.ranking(new TokenList(tokens),
+        mode == FTMode.ALL || mode == FTMode.ALL_WORDS, top > 0 ? top : Integer.MAX_VALUE);
+
+    final int[] pres = ranking.pres();
+    final double[] scores = ranking.scores();
+    return new NodeIter() {
+      int p;
+
+      @Override
+      public ANode next() {
+        if(p == pres.length) return null;
+        final FTNode node = new FTNode(null, data, pres[p], 0, 0);
+        node.score(scores[p++]);
+        return node;
+      }
+    };
+  }
+
+  /**
+   * Returns the options of a ranked search, if they are statically known.
+   * @param qc query context
+   * @return options or {@code null}
+   */
+  private FtIndexOptions ranked(final QueryContext qc) {
+    if(!(arg(2) instanceof XQMap)) return null;
+    try {
+      final FtIndexOptions options = toOptions(arg(2), new FtIndexOptions(), true, qc);
+      return options.get(FtIndexOptions.RANKED) || options.get(FtIndexOptions.TOP) > 0 ?
+        options : null;
+    } catch(final QueryException ex) {
+      // invalid options will be reported at runtime
+      Util.debug(ex);
+      return null;
+    }
+  }
+
+  /**
+   * Checks if the specified expression is a ranked search with static options.
+   * The results of such a search are returned in descending order of their scores.
+   * @param expr expression
+   * @param cc compilation context
+   * @return result of check
+   */
+  public static boolean ranked(final Expr expr, final CompileContext cc) {
+    return _FT_SEARCH.is(expr) && ((FtSearch) expr).ranked(cc.qc) != null;
+  }
+
+  /**
+   * Creates an optimized version of a {@link FnSubsequence} call with a ranked search:
+   * the number of requested results is passed on to the search.
+   * @param func original function (argument is an instance of the function of this class)
+   * @param length number of items to return
+   * @param cc compilation context
+   * @return optimized function instance; original function otherwise
+   * @throws QueryException query exception
+   */
+  public static Expr opt(final StandardFunc func, final long length,
+      final CompileContext cc) throws QueryException {
+
+    final FtSearch search = (FtSearch) func.arg(0);
+    final FtIndexOptions options = search.ranked(cc.qc);
+    if(options == null || length > Integer.MAX_VALUE) return func;
+    final int top = options.get(FtIndexOptions.TOP);
+    if(top > 0 && top <= length) return search;
+
+    final XQMap map = ((XQMap) search.arg(2)).put(Str.get(FtIndexOptions.TOP.name()),
+        Int.get(length), search.info);
+    return cc.function(_FT_SEARCH, search.info, search.arg(0), search.arg(1), map);
+  }
+
   @Override
   public Value value(final QueryContext qc) throws QueryException {
     return iter(qc).value(qc, this);
@@ -52,6 +52,9 @@ public final class JobListDetails extends StandardFunc {
       elem.add(Q_STATE, job.state.name().toLowerCase(Locale.ENGLISH));
       elem.add(Q_USER, jc.context.clientName());
       if(ms >= 0) elem.add(Q_DURATION, DTDur.get(ms).string(info));
+      final JobPriority prio = jc.priority();
+      if(prio != null) elem.add(Q_PRIORITY, prio.toString());
+      if(jc.estimate >= 0) elem.add(Q_ESTIMATE, DTDur.get(jc.estimate).string(info));
       if(jt != null) {
         elem.add(Q_START, dateTime(jt.start));
         if(jt.end != Long.MAX_VALUE) elem.add(Q_END, dateTime(jt.end));
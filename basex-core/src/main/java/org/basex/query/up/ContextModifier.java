@@ -123,9 +123,17 @@ abstract class ContextModifier {
       throw DB_LOCK2_X.get(null, ex);
     } finally {
       // remove locks: in case of a crash, remove only already acquired write locks
+      IOException error = null;
       for(final Data data : datas) {
-        data.finishUpdate(ctx.options);
+        try {
+          data.finishUpdate(ctx.options);
+        } catch(final IOException ex) {
+          if(error == null) error = ex;
+          else Util.debug(ex);
+        }
+        qc.jc().updated(data);
       }
+      if(error != null) throw UPDBERROR_X.get(null, error);
     }
 
     // apply remaining updates based on database names
@@ -23,6 +23,8 @@ import org.basex.util.hash.*;
  *        the descendants of a deleted node).</li>
  *   <li> Resolution of text node adjacency.</li>
  *   <li> Merging of atomic updates to reduce number of I/Os. </li>
+ *   <li> Bulk updates: if many nodes are inserted and deleted, the changed range of the table
+ *        is rewritten in a single pass.</li>
  * </ol>
  *
  * <p>To avoid ambiguity it is not allowed to add:</p>
@@ -46,6 +48,9 @@ import org.basex.util.hash.*;
  * @author Lukas Kircher
  */
 public final class AtomicUpdateCache {
+  /** Minimum number of structural updates for applying table changes in bulk. */
+  private static final int BULK = 1000;
+
   /** List of structural updates (nodes are inserted to / deleted from the table). */
   private final List<StructuralUpdate> structUpdates = new ArrayList<>(1);
   /** Value / non-structural updates like rename. */
@@ -288,7 +293,15 @@ public final class AtomicUpdateCache {
     // value updates applied front-to-back, doens't matter as there are no row shifts
     for(final BasicUpdate update : valueUpdates) update.apply(data);
     // structural updates are applied back-to-front
-    for(int i = structUpdates.size() - 1; i >= 0; i--) structUpdates.get(i).apply(data);
+    final int us = structUpdates.size();
+    final boolean bulk = us >= BULK;
+    if(bulk) data.bulk(true);
+    try {
+      for(int i = us - 1; i >= 0; i--) structUpdates.get(i).apply(data);
+    } finally {
+      // in bulk mode, the changed table range will be rewritten at once
+      if(bulk) data.bulk(false);
+    }
   }
 
   /**
@@ -106,6 +106,7 @@ public final class DBNew {
             }
           } finally {
             data.finishUpdate(mopts);
+            qc.jc().updated(data);
           }
         }
       }
@@ -44,9 +44,13 @@ public final class DBOptimize extends DBUpdate {
     this.all = all;
     this.qc = qc;
 
+    // storage options can only be changed if all structures are rebuilt
     final ArrayList<Option<?>> supported = new ArrayList<>();
     for(final Option<?> option : MainOptions.INDEXING) {
-      if(all || option != MainOptions.UPDINDEX) supported.add(option);
+      if(all || option != MainOptions.UPDINDEX && option != MainOptions.COMPRESSTABLE &&
+          option != MainOptions.TEXTDICT) {
+        supported.add(option);
+      }
     }
 
     // create options, based on global defaults
@@ -56,12 +60,18 @@ public final class DBOptimize extends DBUpdate {
     dbopts.assignIfAbsent(MainOptions.ATTRINDEX, meta.createattr);
     dbopts.assignIfAbsent(MainOptions.TOKENINDEX, meta.createtoken);
     dbopts.assignIfAbsent(MainOptions.FTINDEX, meta.createft);
+    dbopts.assignIfAbsent(MainOptions.TRIGRAMINDEX, meta.createtrigram);
+    dbopts.assignIfAbsent(MainOptions.COMPOSITEINDEX, meta.createcomposite);
+    dbopts.assignIfAbsent(MainOptions.NAMEINDEX, meta.createname);
     dbopts.assignIfAbsent(MainOptions.TEXTINCLUDE, meta.textinclude);
     dbopts.assignIfAbsent(MainOptions.ATTRINCLUDE, meta.attrinclude);
     dbopts.assignIfAbsent(MainOptions.TOKENINCLUDE, meta.tokeninclude);
     dbopts.assignIfAbsent(MainOptions.FTINCLUDE, meta.ftinclude);
+    dbopts.assignIfAbsent(MainOptions.COMPOSITEINCLUDE, meta.compositeinclude);
     dbopts.assignIfAbsent(MainOptions.UPDINDEX, meta.updindex);
     dbopts.assignIfAbsent(MainOptions.AUTOOPTIMIZE, meta.autooptimize);
+    dbopts.assignIfAbsent(MainOptions.COMPRESSTABLE, meta.compresstable);
+    dbopts.assignIfAbsent(MainOptions.TEXTDICT, meta.textdict);
     dbopts.assignIfAbsent(MainOptions.SPLITSIZE, meta.splitsize);
     dbopts.assignIfAbsent(MainOptions.MAXCATS, meta.maxcats);
     dbopts.assignIfAbsent(MainOptions.MAXLEN, meta.maxlen);
@@ -80,6 +90,7 @@ public final class DBOptimize extends DBUpdate {
     final String attrinclude = options.get(MainOptions.ATTRINCLUDE);
     final String tokeninclude = options.get(MainOptions.TOKENINCLUDE);
     final String ftinclude = options.get(MainOptions.FTINCLUDE);
+    final String compositeinclude = options.get(MainOptions.COMPOSITEINCLUDE);
     final boolean stemming = options.get(MainOptions.STEMMING);
     final boolean casesens = options.get(MainOptions.CASESENS);
     final boolean diacritics = options.get(MainOptions.DIACRITICS);
@@ -94,21 +105,28 @@ public final class DBOptimize extends DBUpdate {
     final boolean rebuildFt = !meta.ftinclude.equals(ftinclude) || rebuild ||
         stemming != meta.stemming || casesens != meta.casesens || diacritics != meta.diacritics ||
         !language.equals(meta.language) || !stopwords.equals(meta.stopwords);
+    final boolean rebuildComposite = !meta.compositeinclude.equals(compositeinclude) || rebuild;
 
     // assign options to meta data
     meta.createtext = options.get(MainOptions.TEXTINDEX);
     meta.createattr = options.get(MainOptions.ATTRINDEX);
     meta.createtoken = options.get(MainOptions.TOKENINDEX);
     meta.createft = options.get(MainOptions.FTINDEX);
+    meta.createtrigram = options.get(MainOptions.TRIGRAMINDEX);
+    meta.createcomposite = options.get(MainOptions.COMPOSITEINDEX);
+    meta.createname = options.get(MainOptions.NAMEINDEX);
     meta.maxcats = options.get(MainOptions.MAXCATS);
     meta.updindex = options.get(MainOptions.UPDINDEX);
     meta.autooptimize = options.get(MainOptions.AUTOOPTIMIZE);
+    if(all) meta.compresstable = options.get(MainOptions.COMPRESSTABLE);
+    if(all) meta.textdict = options.get(MainOptions.TEXTDICT);
     meta.splitsize = options.get(MainOptions.SPLITSIZE);
     meta.textinclude = textinclude;
     meta.attrinclude = attrinclude;
     meta.tokeninclude = tokeninclude;
     meta.maxlen = maxlen;
     meta.ftinclude = ftinclude;
+    meta.compositeinclude = compositeinclude;
     meta.stemming   = stemming;
     meta.casesens   = casesens;
     meta.diacritics = diacritics;
@@ -117,7 +135,8 @@ public final class DBOptimize extends DBUpdate {
 
     try {
       if(all) OptimizeAll.optimizeAll(data, qc.context, options, null);
-      else Optimize.optimize(data, rebuildText, rebuildAttr, rebuildToken, rebuildFt, null);
+      else Optimize.optimize(data, rebuildText, rebuildAttr, rebuildToken, rebuildFt,
+          rebuildComposite, null);
     } catch(final IOException ex) {
       throw UPDBERROR_X.get(info, ex);
     }
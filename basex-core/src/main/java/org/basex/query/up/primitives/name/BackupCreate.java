@@ -4,6 +4,7 @@ import static org.basex.query.QueryError.*;
 
 import java.io.*;
 
+import org.basex.core.*;
 import org.basex.core.cmd.*;
 import org.basex.query.*;
 import org.basex.query.func.*;
@@ -21,20 +22,29 @@ public final class BackupCreate extends NameUpdate {
   private final String comment;
   /** Compress flag. */
   private final boolean compress;
+  /** Incremental flag. */
+  private final boolean incremental;
+  /** Online flag. */
+  private final boolean online;
 
   /**
    * Constructor.
    * @param name name of database (empty string for general data)
    * @param comment comment
    * @param compress compress data
+   * @param incremental only write changes since the last backup
+   * @param online write archive after the locks of the query have been released
    * @param qc query context
    * @param info input info
    */
   public BackupCreate(final String name, final String comment, final boolean compress,
-      final QueryContext qc, final InputInfo info) {
+      final boolean incremental, final boolean online, final QueryContext qc,
+      final InputInfo info) {
     super(UpdateType.BACKUPCREATE, name, qc, info);
     this.comment = comment;
     this.compress = compress;
+    this.incremental = incremental;
+    this.online = online;
   }
 
   @Override
@@ -44,7 +54,12 @@ public final class BackupCreate extends NameUpdate {
   @Override
   public void apply() throws QueryException {
     try {
-      CreateBackup.backup(name, comment, compress, qc.context.soptions, null);
+      final StaticOptions sopts = qc.context.soptions;
+      if(online) {
+        qc.jc().defer(CreateBackup.snapshot(name, comment, compress, incremental, sopts));
+      } else {
+        CreateBackup.backup(name, comment, compress, incremental, sopts, null);
+      }
     } catch(final IOException ex) {
       throw UPDBERROR_X.get(info, ex);
     }
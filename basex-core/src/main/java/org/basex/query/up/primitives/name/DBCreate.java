@@ -74,6 +74,7 @@ public final class DBCreate extends NameUpdate {
           Optimize.optimize(data, null);
         } finally {
           data.finishUpdate(options);
+          qc.jc().updated(data);
         }
       }
       Close.close(data, qc.context);
@@ -45,6 +45,15 @@ class IndexContext extends IndexPred {
     return ii.step;
   }
 
+  /**
+   * Returns the parent step of the name test. The parent of the context step is unknown.
+   * @return {@code null}
+   */
+  @Override
+  Step parent() {
+    return null;
+  }
+
   @Override
   Expr invert(final Expr root) throws QueryException {
     final Step st = ii.step;
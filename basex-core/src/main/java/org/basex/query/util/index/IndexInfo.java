@@ -5,8 +5,10 @@ import static org.basex.query.QueryText.*;
 import org.basex.core.*;
 import org.basex.data.*;
 import org.basex.index.*;
+import org.basex.index.name.*;
 import org.basex.index.query.*;
 import org.basex.index.stats.*;
+import org.basex.index.value.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.expr.index.*;
@@ -15,9 +17,11 @@ import org.basex.query.iter.*;
 import org.basex.query.util.*;
 import org.basex.query.value.*;
 import org.basex.query.value.item.*;
+import org.basex.query.value.seq.*;
 import org.basex.query.value.type.*;
 import org.basex.util.*;
 import org.basex.util.hash.*;
+import org.basex.util.list.*;
 
 /**
  * This class contains methods for storing information on new index expressions.
@@ -43,6 +47,8 @@ public final class IndexInfo {
   public IndexCosts costs;
   /** Indicates if the last step addresses a text node. */
   boolean text;
+  /** Path of the composite index keys (assigned if the composite index is requested). */
+  private byte[] path;
 
   /** Predicate expression. */
   private IndexPred pred;
@@ -65,7 +71,9 @@ public final class IndexInfo {
    * @param input input (if {@code null}, no optimization will be possible)
    * @param type index type, predefined by the called expression (can be {@code null})
    * @return supplied type, {@link IndexType#TEXT}, {@link IndexType#ATTRIBUTE}, or
-   *   {@code null} if index access is not possible
+   *   {@code null} if index access is not possible. The trigram index can be used for
+   *   texts and attribute values. The composite index can be used if the names of the
+   *   addressed node and its parent element are known
    */
   public IndexType type(final Expr input, final IndexType type) {
     pred = IndexPred.get(input, this);
@@ -99,8 +107,13 @@ public final class IndexInfo {
 
     // check if the index contains result for the specified elements or attributes
     final IndexType it = type != null ? type : text ? IndexType.TEXT : IndexType.ATTRIBUTE;
-    if(text ? it != IndexType.TEXT && it != IndexType.FULLTEXT :
-      it != IndexType.TOKEN && it != IndexType.ATTRIBUTE) return null;
+    if(it == IndexType.COMPOSITE) {
+      path = path(data);
+      if(path == null) return null;
+    } else if(it != IndexType.TRIGRAM && (text ? it != IndexType.TEXT &&
+        it != IndexType.FULLTEXT : it != IndexType.TOKEN && it != IndexType.ATTRIBUTE)) {
+      return null;
+    }
 
     // database is known at compile time: perform additional checks
     if(data != null) {
@@ -153,7 +166,8 @@ public final class IndexInfo {
 
         // only cache distinct tokens that have not been requested before
         if(!cache.contains(token)) {
-          final IndexCosts ic = costs(data, new StringToken(type, token));
+          final byte[] key = type == IndexType.COMPOSITE ? Token.concat(path, token) : token;
+          final IndexCosts ic = costs(data, new StringToken(type, key));
           if(ic == null) return false;
           cache.put(token, ic.results());
           costs = IndexCosts.add(costs, ic);
@@ -175,7 +189,8 @@ public final class IndexInfo {
       }
 
       // create expression for index access
-      va = new ValueAccess(ii, tokens, type, test, db);
+      va = type == IndexType.COMPOSITE ? new ValueAccess(ii, valueType(), path, test, db,
+        Empty.VALUE, tokens) : new ValueAccess(ii, tokens, type, test, db);
       va.exprType.assign(va.seqType(), size);
 
     } else {
@@ -187,16 +202,53 @@ public final class IndexInfo {
       if(!search.seqType().type.isStringOrUntyped() || search.has(Flag.CTX, Flag.NDT))
         return false;
 
-      // estimate costs for dynamic query terms
-      costs = enforce() ? IndexCosts.ENFORCE_DYNAMIC :
-        IndexCosts.get(Math.max(1, data.meta.size / 10));
-      va = new ValueAccess(ii, search, type, test, db);
+      // estimate costs for dynamic query terms: average number of nodes per distinct value
+      final Stats stats = type == IndexType.TEXT || type == IndexType.ATTRIBUTE ? stats() : null;
+      final int distinct = stats != null ? stats.distinct() : -1;
+      costs = enforce() ? IndexCosts.ENFORCE_DYNAMIC : IndexCosts.get(Math.max(1,
+        distinct > 0 ? stats.count / distinct : data.meta.size / 10));
+      va = type == IndexType.COMPOSITE ? new ValueAccess(ii, valueType(), path, test, db,
+        search, null) : new ValueAccess(ii, search, type, test, db);
     }
 
     create(va, false, Util.info(OPTINDEX_X_X, type, search), ii);
     return true;
   }
 
+  /**
+   * Tries to rewrite the specified predicate for trigram index access.
+   * The index returns all texts or attribute values that contain the trigrams of the specified
+   * strings. The predicate is evaluated for the returned candidates.
+   * @param strings strings that must be contained in the results
+   * @param predicate predicate
+   * @param ii input info
+   * @return success flag
+   * @throws QueryException query exception
+   */
+  public boolean create(final TokenList strings, final Expr predicate, final InputInfo ii)
+      throws QueryException {
+
+    final Data data = db.data();
+    if(data == null && !enforce()) return false;
+
+    // collect trigrams, choose costs of the least frequent trigram
+    final TokenSet set = new TokenSet();
+    for(final byte[] string : strings) Trigrams.add(string, set);
+    if(set.isEmpty()) return false;
+
+    final TokenList trigrams = new TokenList(set.size());
+    for(final byte[] trigram : set) {
+      final IndexCosts ic = costs(data, new StringToken(IndexType.TRIGRAM, trigram));
+      if(costs == null || ic.compareTo(costs) < 0) costs = ic;
+      trigrams.add(trigram);
+    }
+
+    final TrigramAccess ta = new TrigramAccess(ii, trigrams.sort().finish(), valueType(), db);
+    create(ta, true, Util.info(OPTINDEX_X_X, IndexType.TRIGRAM, StrSeq.get(strings)), ii);
+    expr = Filter.get(cc, ii, expr, predicate);
+    return true;
+  }
+
   /**
    * Creates an index expression with an inverted axis path.
    * @param root new root expression
@@ -219,6 +271,49 @@ public final class IndexInfo {
     optInfo = opt;
   }
 
+  /**
+   * Returns the path of the composite index keys for the addressed nodes.
+   * @param data data reference (can be {@code null})
+   * @return path, or {@code null} if the names of the node and its parent element are unknown
+   */
+  private byte[] path(final Data data) {
+    // names of the database must not have prefixes
+    if(data == null || !data.nspaces.isEmpty()) return null;
+
+    final Step step = pred.qname(), parent = pred.parent();
+    if(parent == null || step.axis != (text ? Axis.CHILD : Axis.ATTRIBUTE) ||
+      !(step.test instanceof NameTest && parent.test instanceof NameTest)) return null;
+
+    final NameTest nt = (NameTest) step.test, pt = (NameTest) parent.test;
+    return nt.part() == NamePart.LOCAL && pt.part() == NamePart.LOCAL &&
+      pt.type == NodeType.ELEMENT ? CompositeKeys.path(pt.local, nt.local, text) : null;
+  }
+
+  /**
+   * Returns the statistics of the element or attribute that contains the index values.
+   * @return statistics, or {@code null} if they are unknown or not up-to-date
+   */
+  public Stats stats() {
+    final Data data = db.data();
+    if(data == null || !data.meta.uptodate || !data.nspaces.isEmpty()) return null;
+
+    final Step st = pred.qname();
+    if(!(st.test instanceof NameTest)) return null;
+    final NameTest nt = (NameTest) st.test;
+    if(nt.part() != NamePart.LOCAL) return null;
+
+    final Names names = text ? data.elemNames : data.attrNames;
+    return names.stats(names.id(nt.local));
+  }
+
+  /**
+   * Returns the type of the nodes that are returned by the text or attribute index.
+   * @return index type
+   */
+  private IndexType valueType() {
+    return text ? IndexType.TEXT : IndexType.ATTRIBUTE;
+  }
+
   /**
    * Computes costs if the specified data reference exists.
    * @param data data reference
@@ -59,9 +59,34 @@ class IndexPath extends IndexPred {
    */
   @Override
   Step qname() {
+    return step(qnameIndex());
+  }
+
+  /**
+   * Returns the parent step of the last name test. Examples:
+   * <ul>
+   *   <li> //a[x = 'TEXT']          ->  a </li>
+   *   <li> //a[x/text() = 'TEXT']   ->  a </li>
+   *   <li> //*[a/x = 'TEXT']        ->  a </li>
+   *   <li> //a[@x = 'TEXT']         ->  a </li>
+   *   <li> //a/x[text() = 'TEXT']   ->  {@code null} </li>
+   * </ul>
+   * @return step or {@code null}
+   */
+  @Override
+  Step parent() {
+    final int s = qnameIndex();
+    return s >= 0 ? step(s - 1) : null;
+  }
+
+  /**
+   * Returns the index of the step with the last name test.
+   * @return step index (if negative, the name test is found in the parent step)
+   */
+  private int qnameIndex() {
     final int s = path.steps.length - 1;
     final Step st = step(s);
-    return ii.text && st.axis == Axis.CHILD && st.test == KindTest.TEXT ? step(s - 1) : st;
+    return ii.text && st.axis == Axis.CHILD && st.test == KindTest.TEXT ? s - 1 : s;
   }
 
   @Override
@@ -46,6 +46,12 @@ abstract class IndexPred {
    */
   abstract Step qname();
 
+  /**
+   * Returns the step pointing to the parent element of the element or attribute node.
+   * @return step or {@code null} if it is unknown
+   */
+  abstract Step parent();
+
   /**
    * Rewrites an inverted path expression.
    * @param root new root expression
@@ -1,5 +1,8 @@
 package org.basex.query.util.regex;
 
+import org.basex.util.*;
+import org.basex.util.list.*;
+
 /**
  * A branch of a regular expression.
  *
@@ -22,4 +25,9 @@ public final class Branch extends RegExp {
   void toRegEx(final StringBuilder sb) {
     for(final RegExp piece : pieces) piece.toRegEx(sb);
   }
+
+  @Override
+  void literals(final TokenList list, final TokenBuilder tb) {
+    for(final RegExp piece : pieces) piece.literals(list, tb);
+  }
 }
@@ -1,5 +1,8 @@
 package org.basex.query.util.regex;
 
+import org.basex.util.*;
+import org.basex.util.list.*;
+
 /**
  * A parenthesized group.
  *
@@ -28,4 +31,9 @@ public final class Group extends RegExp {
     encl.toRegEx(sb);
     sb.append(')');
   }
+
+  @Override
+  void literals(final TokenList list, final TokenBuilder tb) {
+    encl.literals(list, tb);
+  }
 }
@@ -1,5 +1,8 @@
 package org.basex.query.util.regex;
 
+import org.basex.util.*;
+import org.basex.util.list.*;
+
 /**
  * A character literal.
  *
@@ -23,6 +26,11 @@ public final class Literal extends RegExp {
     sb.append(escape(codepoint));
   }
 
+  @Override
+  void literals(final TokenList list, final TokenBuilder tb) {
+    tb.add(codepoint);
+  }
+
   /**
    * Escapes the given code point for a regular expression.
    * @param cp code point
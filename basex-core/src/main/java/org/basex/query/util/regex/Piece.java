@@ -1,5 +1,8 @@
 package org.basex.query.util.regex;
 
+import org.basex.util.*;
+import org.basex.util.list.*;
+
 /**
  * An atom together with a quantifier.
  *
@@ -27,4 +30,10 @@ public final class Piece extends RegExp {
     atom.toRegEx(sb);
     quant.toRegEx(sb);
   }
+
+  @Override
+  void literals(final TokenList list, final TokenBuilder tb) {
+    // literals of the atom are contained in all matches if it occurs at least once
+    literals(list, tb, quant.required() ? atom : null);
+  }
 }
@@ -31,6 +31,14 @@ public final class Quantifier extends RegExp {
     sb.append(string()).append(lazy ? "?" : "");
   }
 
+  /**
+   * Indicates if the quantified atom occurs at least once.
+   * @return result of check
+   */
+  boolean required() {
+    return min > 0;
+  }
+
   /**
    * Translates the occurrence bounds to a regex string.
    * @return regex representation
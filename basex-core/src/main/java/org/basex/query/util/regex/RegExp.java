@@ -1,5 +1,8 @@
 package org.basex.query.util.regex;
 
+import org.basex.util.*;
+import org.basex.util.list.*;
+
 /**
  * A node of the regular expression AST.
  * @author Leo Woerteler
@@ -17,4 +20,41 @@ public abstract class RegExp {
    * @param sb string builder
    */
   abstract void toRegEx(StringBuilder sb);
+
+  /**
+   * Returns literal strings that occur in all matches of this expression.
+   * @return literal strings
+   */
+  public final TokenList literals() {
+    final TokenList list = new TokenList();
+    final TokenBuilder tb = new TokenBuilder();
+    literals(list, tb);
+    literals(list, tb, null);
+    return list;
+  }
+
+  /**
+   * Recursive {@link RegExp#literals()} helper.
+   * By default, the current literal string is terminated.
+   * @param list list of literal strings
+   * @param tb current literal string
+   */
+  void literals(final TokenList list, final TokenBuilder tb) {
+    literals(list, tb, null);
+  }
+
+  /**
+   * Terminates the current literal string and adds the literal strings of the specified
+   * expression.
+   * @param list list of literal strings
+   * @param tb current literal string
+   * @param expr expression (can be {@code null})
+   */
+  static void literals(final TokenList list, final TokenBuilder tb, final RegExp expr) {
+    if(!tb.isEmpty()) list.add(tb.next());
+    if(expr != null) {
+      expr.literals(list, tb);
+      literals(list, tb, null);
+    }
+  }
 }
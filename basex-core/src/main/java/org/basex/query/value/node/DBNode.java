@@ -9,6 +9,8 @@ import org.basex.api.dom.*;
 import org.basex.build.*;
 import org.basex.core.*;
 import org.basex.data.*;
+import org.basex.index.name.*;
+import org.basex.index.query.*;
 import org.basex.io.*;
 import org.basex.query.*;
 import org.basex.query.func.Function;
@@ -311,6 +313,31 @@ public class DBNode extends ANode {
     return descendantIter(first, last);
   }
 
+  /**
+   * Returns an iterator for all descendant elements with the specified name.
+   * The elements are retrieved from the name index.
+   * @param id id of the element name
+   * @param self include the node itself
+   * @return iterator or {@code null} if the name index is not available,
+   *   or if the subtree is too small
+   */
+  public final BasicNodeIter descendantIter(final int id, final boolean self) {
+    if(!data.meta.nameindex) return null;
+    final int k = kind(), first = self ? pre : pre + data.attSize(pre, k);
+    final int last = pre + data.size(pre, k);
+    if(last - first < NameIndex.MIN_NODES) return null;
+
+    final IndexIterator ii = data.nameIndex.iter(id, first, last);
+    return new DBNodeIter(data) {
+      final DBNode node = finish();
+
+      @Override
+      public DBNode next() {
+        return ii.more() ? node.set(ii.pre(), Data.ELEM) : null;
+      }
+    };
+  }
+
   @Override
   public final BasicNodeIter followingIter() {
     if(root != null) return super.followingIter();
@@ -3,13 +3,18 @@ package org.basex.query.var;
 import static org.basex.query.QueryError.*;
 import static org.basex.query.QueryText.*;
 
+import java.util.*;
+
 import org.basex.query.*;
 import org.basex.query.ann.*;
 import org.basex.query.expr.*;
+import org.basex.query.func.*;
 import org.basex.query.scope.*;
 import org.basex.query.util.*;
 import org.basex.query.util.list.*;
 import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.type.*;
 import org.basex.util.*;
 
 /**
@@ -23,6 +28,8 @@ public final class StaticVar extends StaticDecl {
   public final boolean external;
   /** Flag for lazy evaluation. */
   private final boolean lazy;
+  /** Type of the bound value (assigned if the variable can be rebound after compilation). */
+  private SeqType bound;
 
   /**
    * Constructor for a variable declared in a query.
@@ -62,7 +69,8 @@ public final class StaticVar extends StaticDecl {
       dontEnter = false;
 
       // dynamic compilation, eager evaluation: pre-evaluate expressions
-      if(expr instanceof Value || cc.dynamic && !lazy) {
+      // (skipped for prepared queries if the expression depends on rebindable variables)
+      if(expr instanceof Value || cc.dynamic && !lazy && !(cc.qc.prepared && rebound())) {
         try {
           cc.replaceWith(expr, value(cc.qc));
         } catch(final QueryException ex) {
@@ -110,10 +118,84 @@ public final class StaticVar extends StaticDecl {
    */
   void bind(final Value val, final QueryContext qc) throws QueryException {
     if(external && !compiled) {
-      value = declType == null || declType.instance(val) ? val :
-        declType.cast(val, true, qc, sc, info);
+      value = cast(val, qc);
       expr = value;
+      if(qc.prepared) bound = seqType();
+    }
+  }
+
+  /**
+   * Assigns a new value to an external variable of a compiled query and resets the values of all
+   * other variables that are not constant.
+   * @param val value to bind (can be {@code null})
+   * @param qc query context
+   * @return {@code false} if the query must be compiled again
+   * @throws QueryException query exception
+   */
+  boolean rebind(final Value val, final QueryContext qc) throws QueryException {
+    if(bound == null) {
+      // variable was not bound at compile time
+      if(external && val != null) return false;
+      if(!(expr instanceof Value)) value = null;
+      return true;
     }
+    // value must be bound again, and its type must match the type of the compiled query
+    if(val == null) return false;
+    final Value v = cast(val, qc);
+    if(!bound.instance(v)) return false;
+    value = v;
+    expr = v;
+    return true;
+  }
+
+  /**
+   * Indicates if a new value can be bound to this variable after compilation.
+   * @return result of check
+   */
+  boolean rebindable() {
+    return bound != null;
+  }
+
+  /**
+   * Checks if the expression of this variable depends on variables that can be rebound.
+   * @return result of check
+   */
+  private boolean rebound() {
+    final IdentityHashMap<Scope, Object> map = new IdentityHashMap<>();
+    return !visit(new ASTVisitor() {
+      @Override
+      public boolean staticVar(final StaticVar var) {
+        return !var.rebindable() && (map.put(var, var) != null || var.visit(this));
+      }
+
+      @Override
+      public boolean staticFuncCall(final StaticFuncCall call) {
+        final StaticFunc func = call.func();
+        return func == null || map.put(func, func) != null || func.visit(this);
+      }
+
+      @Override
+      public boolean inlineFunc(final Scope scope) {
+        return map.put(scope, scope) != null || scope.visit(this);
+      }
+
+      @Override
+      public boolean funcItem(final FuncItem func) {
+        return map.put(func, func) != null || func.visit(this);
+      }
+    });
+  }
+
+  /**
+   * Casts a value to the declared type (if specified).
+   * @param val value
+   * @param qc query context
+   * @return cast value
+   * @throws QueryException query exception
+   */
+  private Value cast(final Value val, final QueryContext qc) throws QueryException {
+    return declType == null || declType.instance(val) ? val :
+      declType.cast(val, true, qc, sc, info);
   }
 
   @Override
@@ -51,7 +51,7 @@ final class StaticVarRef extends ParseExpr {
   @Override
   public Expr optimize(final CompileContext cc) {
     final Value value = var.value;
-    if(value != null) {
+    if(value != null && !var.rebindable()) {
       cc.info(QueryText.OPTINLINE_X, this);
       return value;
     }
@@ -107,6 +107,22 @@ public final class Variables extends ExprInfo implements Iterable<StaticVar> {
     }
   }
 
+  /**
+   * Assigns new values to the external variables of a compiled query and resets the values
+   * of all other variables that are not constant.
+   * @param qc query context
+   * @param bindings variable bindings
+   * @return {@code false} if the query must be compiled again
+   * @throws QueryException query exception
+   */
+  public boolean rebind(final QueryContext qc, final QNmMap<Value> bindings)
+      throws QueryException {
+    for(final VarEntry ve : vars.values()) {
+      if(!ve.var.rebind(bindings.get(ve.var.name), qc)) return false;
+    }
+    return true;
+  }
+
   @Override
   public Iterator<StaticVar> iterator() {
     final Iterator<QNm> qnames = vars.iterator();
@@ -17,6 +17,7 @@ import org.basex.query.*;
 import org.basex.server.Log.*;
 import org.basex.util.*;
 import org.basex.util.list.*;
+import org.basex.util.options.*;
 
 /**
  * Server-side client session in the client-server architecture.
@@ -50,6 +51,10 @@ public final class ClientListener extends Thread implements ClientInfo {
   private Command command;
   /** Query id counter. */
   private int id;
+  /** Timeout for idle cursors (ms). */
+  private final int cursorTimeout;
+  /** Timeout for idle prepared queries (ms). */
+  private final int preparedTimeout;
   /** Indicates if the server thread is running. */
   private volatile boolean authenticated;
   /** Indicates if the server has been closed. */
@@ -66,6 +71,8 @@ public final class ClientListener extends Thread implements ClientInfo {
     this.socket = socket;
     this.server = server;
     last = System.currentTimeMillis();
+    cursorTimeout = timeout(StaticOptions.CURSORTIMEOUT);
+    preparedTimeout = timeout(StaticOptions.PREPAREDTIMEOUT);
     setDaemon(true);
     // register the info view for trace output
     context.setExternal((QueryTracer) info -> true);
@@ -81,12 +88,22 @@ public final class ClientListener extends Thread implements ClientInfo {
         String cmd;
         final ServerCmd sc;
         try {
-          final int b = in.read();
+          // release idle cursors and prepared queries after timeout
+          socket.setSoTimeout(release());
+          final int b;
+          try {
+            b = in.read();
+          } catch(final SocketTimeoutException ex) {
+            Util.debug(ex);
+            continue;
+          }
           if(b == -1) {
             // end of stream: exit session
             close();
             break;
           }
+          // timeout only applies to idle sessions, not to the input of a command
+          socket.setSoTimeout(0);
 
           last = System.currentTimeMillis();
           perf.ns();
@@ -100,6 +117,8 @@ public final class ClientListener extends Thread implements ClientInfo {
             put();
           } else if(sc == ServerCmd.PUTBINARY) {
             putBinary();
+          } else if(sc == ServerCmd.BATCH) {
+            batch();
           } else if(sc != ServerCmd.COMMAND) {
             query(sc);
           } else {
@@ -163,6 +182,7 @@ public final class ClientListener extends Thread implements ClientInfo {
       close();
     }
     command = null;
+    closeQueries();
   }
 
   /**
@@ -349,6 +369,25 @@ public final class ClientListener extends Thread implements ClientInfo {
     }
   }
 
+  /**
+   * Executes a batch of commands.
+   * @throws IOException I/O exception
+   */
+  private void batch() throws IOException {
+    final boolean atomic = Boolean.parseBoolean(in.readString());
+    final StringList inputs = new StringList();
+    for(String input; !(input = in.readString()).isEmpty();) inputs.add(input);
+
+    final ServerBatch batch = new ServerBatch(inputs.finish(), context);
+    log(LogType.REQUEST, ServerCmd.BATCH + "[" + (atomic ? "atomic" : "") + "] " + batch);
+    final boolean ok = batch.execute(atomic, out);
+    final int bs = batch.size();
+    for(int b = 0; b < bs; b++) {
+      if(!batch.ok(b)) log(LogType.ERROR, batch.info(b));
+    }
+    if(ok) log(LogType.OK, bs + " command(s)");
+  }
+
   /**
    * Processes the query iterator.
    * @param sc server command
@@ -397,6 +436,10 @@ public final class ClientListener extends Thread implements ClientInfo {
           qp.execute(out, false, true, false);
         } else if(sc == ServerCmd.FULL) {
           qp.execute(out, true, true, true);
+        } else if(sc == ServerCmd.FETCH || sc == ServerCmd.FETCHFULL) {
+          final int count = Strings.toInt(in.readString());
+          if(count <= 0) throw new IOException("Invalid number of items: " + count);
+          qp.fetch(out, count, sc == ServerCmd.FETCHFULL);
         } else if(sc == ServerCmd.INFO) {
           out.print(qp.info());
         } else if(sc == ServerCmd.OPTIONS) {
@@ -404,6 +447,7 @@ public final class ClientListener extends Thread implements ClientInfo {
         } else if(sc == ServerCmd.UPDATING) {
           out.print(Boolean.toString(qp.updating()));
         } else if(sc == ServerCmd.CLOSE) {
+          qp.close();
           queries.remove(arg);
         } else if(sc == ServerCmd.NEXT) {
           throw new Exception("Protocol for query iteration is out-of-date.");
@@ -421,7 +465,8 @@ public final class ClientListener extends Thread implements ClientInfo {
       error = ex instanceof RuntimeException ? Util.bug(ex) : Util.message(ex);
       log(LogType.REQUEST, sc + "[" + arg + ']');
       log(LogType.ERROR, error);
-      queries.remove(arg);
+      final ServerQuery qp = queries.remove(arg);
+      if(qp != null) qp.close();
     }
     if(error != null) {
       // send 0 as end marker, 1 as error flag, and {MSG}0
@@ -433,6 +478,48 @@ public final class ClientListener extends Thread implements ClientInfo {
     out.flush();
   }
 
+  /**
+   * Returns the specified timeout in milliseconds.
+   * @param option timeout option (seconds)
+   * @return timeout
+   */
+  private int timeout(final NumberOption option) {
+    return (int) Math.min(Integer.MAX_VALUE, context.soptions.get(option) * 1000L);
+  }
+
+  /**
+   * Closes idle cursors and releases the databases of idle prepared queries.
+   * @return time until the next query will be idle (ms), or {@code 0}
+   */
+  private int release() {
+    final long time = System.currentTimeMillis();
+    long next = Long.MAX_VALUE;
+    for(final ServerQuery qp : queries.values()) {
+      final boolean open = qp.open();
+      final int timeout = open ? cursorTimeout : qp.prepared() ? preparedTimeout : 0;
+      if(timeout == 0) continue;
+
+      final long idle = time - qp.used();
+      if(idle < timeout) {
+        next = Math.min(next, timeout - idle);
+      } else if(open) {
+        log(LogType.INFO, "Cursor closed: " + qp);
+        qp.close();
+      } else {
+        log(LogType.INFO, "Prepared query released: " + qp);
+        qp.release();
+      }
+    }
+    return next == Long.MAX_VALUE ? 0 : (int) next;
+  }
+
+  /**
+   * Closes all queries and releases their locks and databases.
+   */
+  private void closeQueries() {
+    for(final ServerQuery qp : queries.values()) qp.close();
+  }
+
   /**
    * Sends a success flag to the client (0: true, 1: false).
    * @param ok success flag
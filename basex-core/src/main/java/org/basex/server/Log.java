@@ -23,6 +23,8 @@ import org.basex.util.*;
  *   <li><b>Performance</b>: Measured time in milliseconds</li>
  * </ul>
  *
+ * Entries are written asynchronously by a {@link LogWriter}.
+ *
  * @author BaseX Team 2005-23, BSD License
  * @author Christian Gruen
  */
@@ -43,6 +45,10 @@ public final class Log implements QueryTracer {
 
   /** Current log file. */
   private LogFile file;
+  /** Asynchronous writer (created with the first log entry). */
+  private volatile LogWriter writer;
+  /** Closed flag (no more entries will be written). */
+  private volatile boolean closed;
 
   /**
    * Constructor.
@@ -58,6 +64,7 @@ public final class Log implements QueryTracer {
    * @return log file, or {@code null} if it does not exist
    */
   public LogFile file(final String name) {
+    flush();
     LogFile lf = file;
     if(lf == null || !lf.valid(name)) lf = new LogFile(name, dir());
     return lf.exists() ? lf : null;
@@ -120,8 +127,8 @@ public final class Log implements QueryTracer {
   private void write(final String type, final String info, final Performance perf,
       final String address, final String user) {
 
-    // check if logging is disabled
-    if(!sopts.get(StaticOptions.LOG)) return;
+    // check if logging is disabled or if the log has been closed
+    if(closed || !sopts.get(StaticOptions.LOG)) return;
 
     // construct log text
     final Date date = new Date();
@@ -135,44 +142,90 @@ public final class Log implements QueryTracer {
     if(perf != null) tb.add('\t').add(perf);
     tb.add(Prop.NL);
 
-    try {
+    // pass on entry to asynchronous writer
+    LogWriter lw = writer;
+    if(lw == null) {
       synchronized(sopts) {
-        // create new log file and write log entry
-        final String name = DateTime.format(date, DateTime.DATE);
-        if(file != null && !file.valid(name)) close();
-        if(file == null) file = LogFile.create(name, dir());
-        // write log entry
-        file.write(tb.finish());
+        if(closed) return;
+        lw = writer;
+        if(lw == null) {
+          lw = new LogWriter(this);
+          lw.start();
+          writer = lw;
+        }
       }
-    } catch(final IOException ex) {
-      Util.stack(ex);
+    }
+    if(!lw.add(DateTime.format(date, DateTime.DATE), tb.finish())) {
+      Util.debug("Log is closed; entry was dropped: %", info);
     }
   }
 
   /**
-   * Closes the log file.
+   * Appends log entries to the specified log file.
+   * @param name name of log file
+   * @param entries log entries
    */
-  public void close() {
+  void append(final String name, final byte[] entries) {
     try {
       synchronized(sopts) {
-        if(file != null) {
-          file.close();
-          file = null;
-        }
+        // create new log file and write log entries
+        if(file != null && !file.valid(name)) closeFile();
+        if(file == null) file = LogFile.create(name, dir());
+        file.write(entries);
       }
     } catch(final IOException ex) {
       Util.stack(ex);
     }
   }
 
+  /**
+   * Writes all pending log entries to disk.
+   */
+  public void flush() {
+    final LogWriter lw = writer;
+    if(lw != null) lw.drain();
+  }
+
+  /**
+   * Writes all pending log entries and closes the log file.
+   * Entries that are written after this call will be dropped.
+   */
+  public void close() {
+    final LogWriter lw;
+    synchronized(sopts) {
+      closed = true;
+      lw = writer;
+      writer = null;
+    }
+    if(lw != null) lw.close();
+    synchronized(sopts) {
+      closeFile();
+    }
+  }
+
   /**
    * Returns all log files.
    * @return log directory
    */
   public IOFile[] files() {
+    flush();
     return dir().children(".*\\" + IO.LOGSUFFIX);
   }
 
+  /**
+   * Closes the current log file.
+   */
+  private void closeFile() {
+    try {
+      if(file != null) {
+        file.close();
+        file = null;
+      }
+    } catch(final IOException ex) {
+      Util.stack(ex);
+    }
+  }
+
   /**
    * Returns a reference to the log directory.
    * @return log directory
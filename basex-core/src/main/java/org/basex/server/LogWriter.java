@@ -0,0 +1,157 @@
+package org.basex.server;
+
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.*;
+
+import org.basex.util.*;
+
+/**
+ * Asynchronous writer for log entries.
+ *
+ * Entries are added to a lock-free ring buffer by the requesting threads. A background thread
+ * drains the buffer and writes the entries in batches. The buffer is drained periodically,
+ * or earlier if it is half full. If the buffer is full, the requesting thread waits until the
+ * writer has made room. When the writer is closed, all pending entries are written to disk,
+ * and entries that are added later on are dropped.
+ *
+ * @author BaseX Team 2005-23, BSD License
+ * @author Christian Gruen
+ */
+final class LogWriter extends Thread {
+  /** Capacity of the ring buffer (must be a power of two). */
+  private static final int CAPACITY = 1 << 13;
+  /** Maximum size of a batch. */
+  private static final int BATCH = 1 << 16;
+  /** Interval between two writes (ns). */
+  private static final long INTERVAL = 100_000_000L;
+
+  /** Ring buffer. */
+  private final AtomicReferenceArray<Entry> ring = new AtomicReferenceArray<>(CAPACITY);
+  /** Next position to be claimed by a requesting thread. */
+  private final AtomicLong tail = new AtomicLong();
+  /** Number of requesting threads that are currently adding entries. */
+  private final AtomicInteger producers = new AtomicInteger();
+  /** Log. */
+  private final Log log;
+
+  /** Next position to be written. */
+  private volatile long head;
+  /** Closed flag. */
+  private volatile boolean closed;
+
+  /**
+   * Constructor.
+   * @param log log
+   */
+  LogWriter(final Log log) {
+    super(Util.className(LogWriter.class));
+    this.log = log;
+    setDaemon(true);
+  }
+
+  /**
+   * Adds an entry to the buffer. Entries are dropped if the writer has been closed.
+   * @param name name of log file
+   * @param line line to be written
+   * @return {@code false} if the entry was dropped
+   */
+  boolean add(final String name, final byte[] line) {
+    final Entry entry = new Entry(name, line);
+    long t;
+    // the final drain waits until all requesting threads have published their entries
+    producers.incrementAndGet();
+    try {
+      while(true) {
+        if(closed) return false;
+        t = tail.get();
+        if(t - head >= CAPACITY) {
+          // buffer is full: wake up writer and wait until room is available
+          LockSupport.unpark(this);
+          LockSupport.parkNanos(100_000L);
+        } else if(tail.compareAndSet(t, t + 1)) {
+          ring.set(index(t), entry);
+          break;
+        }
+      }
+    } finally {
+      producers.decrementAndGet();
+    }
+    if(t - head >= CAPACITY / 2) LockSupport.unpark(this);
+    return true;
+  }
+
+  /**
+   * Writes all buffered entries to disk.
+   */
+  synchronized void drain() {
+    final TokenBuilder tb = new TokenBuilder();
+    String name = null;
+    for(long h = head; h < tail.get(); h++) {
+      // wait until entry of claimed position has been assigned
+      final int i = index(h);
+      Entry entry;
+      while((entry = ring.get(i)) == null) Thread.onSpinWait();
+      ring.set(i, null);
+      head = h + 1;
+
+      // write batch if log file changes or if maximum size is reached
+      if(name != null && (!name.equals(entry.name) || tb.size() >= BATCH)) {
+        log.append(name, tb.next());
+      }
+      name = entry.name;
+      tb.add(entry.line);
+    }
+    if(name != null) log.append(name, tb.finish());
+  }
+
+  /**
+   * Writes all pending entries and stops the writer.
+   */
+  void close() {
+    closed = true;
+    LockSupport.unpark(this);
+    try {
+      join();
+    } catch(final InterruptedException ex) {
+      Util.debug(ex);
+    }
+  }
+
+  @Override
+  public void run() {
+    while(!closed) {
+      drain();
+      LockSupport.parkNanos(this, INTERVAL);
+    }
+    // wait for requesting threads that have passed the check of the closed flag
+    while(producers.get() > 0) Thread.onSpinWait();
+    drain();
+  }
+
+  /**
+   * Returns the buffer index for the specified position.
+   * @param pos position
+   * @return index
+   */
+  private static int index(final long pos) {
+    return (int) pos & CAPACITY - 1;
+  }
+
+  /** Buffered log entry. */
+  private static final class Entry {
+    /** Name of log file. */
+    private final String name;
+    /** Line. */
+    private final byte[] line;
+
+    /**
+     * Constructor.
+     * @param name name of log file
+     * @param line line
+     */
+    private Entry(final String name, final byte[] line) {
+      this.name = name;
+      this.line = line;
+    }
+  }
+}
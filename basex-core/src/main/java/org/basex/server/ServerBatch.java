@@ -0,0 +1,239 @@
+package org.basex.server;
+
+import static org.basex.core.Text.*;
+
+import java.io.*;
+
+import org.basex.core.*;
+import org.basex.core.locks.*;
+import org.basex.core.parse.*;
+import org.basex.core.users.*;
+import org.basex.io.out.*;
+import org.basex.query.*;
+import org.basex.util.*;
+
+/**
+ * Server-side batch of database commands.
+ *
+ * The commands are either executed one by one, or as a single transaction with global locks.
+ * In the latter case, execution stops after the first error, and all remaining commands
+ * will be skipped. For each command, {result}0{info}0 and a success flag (0: success, 1: error)
+ * is returned.
+ *
+ * @author BaseX Team 2005-23, BSD License
+ * @author Christian Gruen
+ */
+public final class ServerBatch {
+  /** Database context. */
+  private final Context ctx;
+  /** Commands ({@code null} if the input could not be parsed). */
+  private final Command[] commands;
+  /** Info strings. */
+  private final String[] infos;
+  /** Success flags. */
+  private final boolean[] oks;
+  /** Number of returned entries. */
+  private int written;
+
+  /**
+   * Constructor.
+   * @param inputs command strings
+   * @param ctx database context
+   */
+  public ServerBatch(final String[] inputs, final Context ctx) {
+    this.ctx = ctx;
+    final int cl = inputs.length;
+    commands = new Command[cl];
+    infos = new String[cl];
+    oks = new boolean[cl];
+    for(int c = 0; c < cl; c++) {
+      try {
+        commands[c] = CommandParser.get(inputs[c], ctx).parseSingle();
+      } catch(final QueryException ex) {
+        infos[c] = ex.getMessage();
+      }
+    }
+  }
+
+  /**
+   * Executes the commands and writes the results to the specified output stream.
+   * @param atomic run all commands in a single transaction
+   * @param os output stream
+   * @return {@code true} if all commands were successful
+   * @throws IOException I/O exception
+   */
+  public boolean execute(final boolean atomic, final OutputStream os) throws IOException {
+    final PrintOutput out = PrintOutput.get(os);
+    written = 0;
+    if(atomic) {
+      // skip execution if one of the commands could not be parsed
+      boolean parsed = true;
+      for(final Command cmd : commands) parsed &= cmd != null;
+      String error = null;
+      if(parsed) {
+        try {
+          new Transaction().execute(ctx, out);
+        } catch(final BaseXException ex) {
+          Util.debug(ex);
+          // assign error to next entry unless it has already been returned for a command
+          error = written > 0 && !oks[written - 1] ? null : ex.getMessage();
+        }
+      }
+      // return entries for commands that have not been executed
+      while(written < commands.length) {
+        final String info = infos[written];
+        write(out, info != null ? info : error != null ? error : SKIPPED, false);
+        error = null;
+      }
+    } else {
+      final ServerOutput so = new ServerOutput(new NoFlush(out));
+      for(final Command cmd : commands) {
+        boolean ok = false;
+        String info = infos[written];
+        if(cmd != null) {
+          try {
+            cmd.execute(ctx, so);
+            ok = true;
+            info = cmd.info();
+          } catch(final BaseXException ex) {
+            Util.debug(ex);
+            info = ex.getMessage();
+          }
+        }
+        write(out, info, ok);
+      }
+    }
+    out.flush();
+
+    for(final boolean ok : oks) {
+      if(!ok) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Returns the info string of a command.
+   * @param c index of command
+   * @return info string
+   */
+  public String info(final int c) {
+    return infos[c];
+  }
+
+  /**
+   * Returns the success flag of a command.
+   * @param c index of command
+   * @return success flag
+   */
+  public boolean ok(final int c) {
+    return oks[c];
+  }
+
+  /**
+   * Returns the number of commands.
+   * @return number of commands
+   */
+  public int size() {
+    return commands.length;
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder sb = new StringBuilder();
+    for(int c = 0; c < commands.length; c++) {
+      if(c > 0) sb.append("; ");
+      sb.append(commands[c] != null ? commands[c].toString(true) : "?");
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Finalizes the entry of the current command.
+   * @param out output stream
+   * @param info info string
+   * @param ok success flag
+   * @throws IOException I/O exception
+   */
+  private void write(final PrintOutput out, final String info, final boolean ok)
+      throws IOException {
+    infos[written] = info;
+    oks[written++] = ok;
+    // send 0 to mark end of result, {INFO}0, and (0|1) as (success|error) flag
+    out.write(0);
+    out.print(info);
+    out.write(0);
+    out.write(ok ? 0 : 1);
+  }
+
+  /** Command that runs all commands of the batch in a single transaction. */
+  private final class Transaction extends Command {
+    /**
+     * Constructor.
+     */
+    private Transaction() {
+      super(Perm.NONE, false);
+    }
+
+    @Override
+    public boolean updating(final Context context) {
+      for(final Command cmd : commands) updating |= cmd.updating(context);
+      return updating;
+    }
+
+    @Override
+    public void addLocks() {
+      final Locks locks = jc().locks;
+      for(final Command cmd : commands) {
+        final Locks cmdLocks = cmd.jc().locks;
+        (cmd.updating ? cmdLocks.writes : cmdLocks.reads).addGlobal();
+      }
+      (updating ? locks.writes : locks.reads).addGlobal();
+    }
+
+    @Override
+    protected boolean run() throws IOException {
+      final ServerOutput so = new ServerOutput(new NoFlush(out));
+      for(final Command cmd : commands) {
+        final boolean ok;
+        if(cmd.openDB && context.data() == null) {
+          ok = error(NO_DB_OPENED);
+          write(out, info(), false);
+        } else {
+          try {
+            ok = pushJob(cmd).run(context, so);
+          } finally {
+            popJob();
+          }
+          write(out, cmd.info(), ok);
+        }
+        if(!ok) return error("%", infos[written - 1]);
+      }
+      return true;
+    }
+
+    @Override
+    public void build(final CmdBuilder cb) {
+      cb.init(ServerBatch.this.toString());
+    }
+  }
+
+  /** Output stream that defers flushing to the end of the batch. */
+  private static final class NoFlush extends FilterOutputStream {
+    /**
+     * Constructor.
+     * @param os output stream to be wrapped
+     */
+    private NoFlush(final OutputStream os) {
+      super(os);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+      out.write(b, off, len);
+    }
+
+    @Override
+    public void flush() {
+    }
+  }
+}
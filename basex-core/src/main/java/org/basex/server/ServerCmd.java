@@ -33,6 +33,13 @@ public enum ServerCmd {
   PUTBINARY(13),
   /** Code for binding a context value: {id}0{val}0{type}0. */
   CONTEXT(14),
+  /** Code for fetching the next results of a query in an iterative manner: {id}0{count}0. */
+  FETCH(15),
+  /** Code for fetching the next results of a query with all information relevant for XQJ:
+   * {id}0{count}0. */
+  FETCHFULL(16),
+  /** Code for running multiple database commands: {atomic}0{command}0...{command}00. */
+  BATCH(17),
   /** Code for returning the update flag: {id}0. */
   UPDATING(30),
   /** Code for executing a query and returning all information relevant for XQJ: {id}0. */
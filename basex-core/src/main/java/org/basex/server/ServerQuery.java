@@ -4,10 +4,12 @@ import static org.basex.core.Text.*;
 import static org.basex.query.QueryError.*;
 
 import java.io.*;
+import java.util.*;
 
 import org.basex.api.client.*;
 import org.basex.core.*;
 import org.basex.core.jobs.*;
+import org.basex.core.locks.*;
 import org.basex.io.out.*;
 import org.basex.io.serial.*;
 import org.basex.query.*;
@@ -18,6 +20,14 @@ import org.basex.util.*;
 /**
  * Server query representation, generated by {@link LocalQuery} and {@link ClientQuery}.
  *
+ * After the first evaluation, the query is compiled for repeated evaluation: if it is evaluated
+ * again, the compiled query will be reused, and only the external variables will be rebound.
+ * The query is compiled again if the new values are incompatible with the compiled query,
+ * if the accessed databases or the session options have been changed, or if other resources
+ * than databases were accessed. The client listener releases prepared queries that have been
+ * idle for a while (see {@link StaticOptions#PREPAREDTIMEOUT}), so that their databases can be
+ * dropped or altered.
+ *
  * @author BaseX Team 2005-23, BSD License
  * @author Christian Gruen
  */
@@ -26,11 +36,33 @@ public final class ServerQuery extends Job {
   private final String query;
   /** Database context. */
   private final Context ctx;
+  /** Bindings of the next evaluation (name, value, type). */
+  private final ArrayList<Object[]> bindings = new ArrayList<>();
 
   /** Query processor. */
   private QueryProcessor qp;
   /** Parsing flag. */
   private boolean parsed;
+  /** Registration flag. */
+  private boolean registered;
+  /** Indicates if the compiled query can be evaluated again. */
+  private boolean prepared;
+  /** Number of evaluations. */
+  private int runs;
+  /** Time of the last evaluation or fetch request. */
+  private long used;
+  /** Stamp of the databases accessed by the compiled query. */
+  private long stamp;
+  /** Stamp of the databases accessed by an open cursor after its locks have been released. */
+  private long cursor;
+  /** Number of changed session options at the time the compiled query was evaluated. */
+  private int changes;
+  /** Result iterator (assigned if the query is being evaluated). */
+  private Iter iter;
+  /** Number of returned items. */
+  private int hits;
+  /** Number of serialized bytes. */
+  private long size;
   /** Query info. */
   private final StringBuilder info = new StringBuilder();
 
@@ -52,12 +84,14 @@ public final class ServerQuery extends Job {
    * @throws IOException query exception
    */
   public void bind(final String name, final Object value, final String type) throws IOException {
+    if(open()) close();
     try {
       qp().variable(name, value, type);
     } catch(final QueryException ex) {
       Util.stack(ex);
       throw new BaseXException(ex);
     }
+    bindings.add(new Object[] { name, value, type });
   }
 
   /**
@@ -67,11 +101,13 @@ public final class ServerQuery extends Job {
    * @throws IOException query exception
    */
   public void context(final Object value, final String type) throws IOException {
+    if(open()) close();
     try {
       qp().context(value, type);
     } catch(final QueryException ex) {
       throw new BaseXException(ex);
     }
+    bindings.add(new Object[] { null, value, type });
   }
 
   /**
@@ -113,39 +149,32 @@ public final class ServerQuery extends Job {
   public void execute(final OutputStream out, final boolean iterative, final boolean encode,
       final boolean full) throws IOException {
 
+    // close an open cursor
+    if(open()) close();
+    boolean ok = false;
     try {
       // parses the query and registers the process
-      parse();
-      qp.register(ctx);
-
-      final QueryContext qc = qp.qc;
-      final QueryInfo qi = qc.info;
-
-      qp.optimize();
-      final Iter iter = qp.iter();
+      start();
 
       // iterate through results
-      int hits = 0;
+      final QueryContext qc = qp.qc;
       final PrintOutput po = PrintOutput.get(encode ? new ServerOutput(out) : out);
       final SerializerOptions sopts = full ? SerializerMode.API.get() : qc.parameters();
       try(Serializer ser = Serializer.get(po, sopts)) {
         for(Item item; (item = qc.next(iter)) != null;) {
           if(iterative) {
-            if(full) po.write(item.xdmInfo());
-            else po.write(item.typeId().asByte());
-            ser.reset();
-            ser.serialize(item);
-            po.flush();
-            out.write(0);
+            serialize(item, ser, po, out, full);
           } else {
             ser.serialize(item);
           }
           hits++;
         }
       }
+      size += po.size();
 
       // generate query info
-      info.append(qi.toString(qp, po.size(), hits, jc().locks, true));
+      info.append(qc.info.toString(qp, size, hits, jc().locks, true));
+      ok = true;
 
     } catch(final QueryException | JobException ex) {
       throw new BaseXException(ex);
@@ -153,19 +182,244 @@ public final class ServerQuery extends Job {
       Util.debug(ex);
       throw new BaseXException(BASEX_OVERFLOW.message);
     } finally {
-      // close processor and unregisters the process
-      if(qp != null) {
+      finish(ok);
+      used = System.currentTimeMillis();
+    }
+  }
+
+  /**
+   * Returns the next results of the query. When this method is called for the first time,
+   * the query is registered and evaluated. The iterator is kept until all results have been
+   * returned, or until the cursor is closed via {@link #close()}. The locks are released between
+   * two calls, so that other commands and queries can be run in the meantime. If the accessed
+   * databases are updated before the next results are fetched, an error is raised.
+   * @param out output stream
+   * @param count maximum number of items to be returned (must be positive)
+   * @param full return full type information
+   * @throws IOException I/O Exception
+   */
+  public void fetch(final OutputStream out, final int count, final boolean full)
+      throws IOException {
+
+    boolean more = false, ok = false;
+    try {
+      // parses the query and registers the process, or resumes an open cursor
+      if(iter == null) start();
+      else resume();
+
+      // iterate through results
+      final QueryContext qc = qp.qc;
+      final PrintOutput po = PrintOutput.get(new ServerOutput(out));
+      final SerializerOptions sopts = full ? SerializerMode.API.get() : qc.parameters();
+      try(Serializer ser = Serializer.get(po, sopts)) {
+        int c = 0;
+        for(Item item; c < count && (item = qc.next(iter)) != null; c++) {
+          serialize(item, ser, po, out, full);
+          hits++;
+        }
+        more = c == count;
+      }
+      size += po.size();
+
+      // generate query info if all results have been returned
+      if(!more) info.append(qc.info.toString(qp, size, hits, jc().locks, true));
+      ok = true;
+
+    } catch(final QueryException | JobException ex) {
+      throw new BaseXException(ex);
+    } catch(final StackOverflowError ex) {
+      Util.debug(ex);
+      throw new BaseXException(BASEX_OVERFLOW.message);
+    } finally {
+      if(!more) finish(ok);
+      else suspend();
+      used = System.currentTimeMillis();
+    }
+  }
+
+  /**
+   * Indicates if a cursor is open, i.e., if the query has been registered and
+   * not all results have been fetched yet.
+   * @return result of check
+   */
+  public boolean open() {
+    return iter != null;
+  }
+
+  /**
+   * Indicates if the query has been compiled for repeated evaluation.
+   * @return result of check
+   */
+  public boolean prepared() {
+    return prepared && iter == null;
+  }
+
+  /**
+   * Returns the time of the last evaluation or fetch request.
+   * @return time (milliseconds)
+   */
+  public long used() {
+    return used;
+  }
+
+  /**
+   * Discards the compiled query of a prepared query and releases the opened databases.
+   * The values that have been bound since the last evaluation are retained, and the query will
+   * be compiled again when it is evaluated next time.
+   */
+  public void release() {
+    try {
+      recompile();
+    } catch(final QueryException ex) {
+      Util.debug(ex);
+      close();
+    }
+  }
+
+  /**
+   * Closes the query processor, unregisters the process and releases its locks.
+   */
+  public void close() {
+    try {
+      unregister();
+    } catch(final IOException ex) {
+      // updates are only applied if all results have been returned
+      Util.debug(ex);
+    }
+  }
+
+  /**
+   * Closes the query processor, unregisters the process and releases its locks.
+   * @throws IOException I/O exception (if the updates of the query could not be persisted)
+   */
+  private void unregister() throws IOException {
+    if(qp != null) {
+      try {
         if(parsed) {
           qp.close();
-          qp.unregister(ctx);
           parsed = false;
+          if(registered) {
+            registered = false;
+            qp.unregister(ctx);
+          }
         }
+      } finally {
         qp = null;
+        iter = null;
+        prepared = false;
         popJob();
       }
     }
   }
 
+  /**
+   * Parses the query, registers the process and initializes the result iterator.
+   * If possible, the compiled query of the last evaluation is reused.
+   * @throws IOException I/O Exception
+   * @throws QueryException query exception
+   */
+  private void start() throws IOException, QueryException {
+    info.setLength(0);
+    try {
+      if(prepared && !(changes == ctx.options.changes() && qp.qc.rebind())) recompile();
+      parse();
+      register();
+      if(prepared && stamp != ctx.locking.stamp(jc().locks)) {
+        // databases may have been updated since the last evaluation
+        recompile();
+        parse();
+        register();
+      }
+      stamp = ctx.locking.stamp(jc().locks);
+    } finally {
+      bindings.clear();
+    }
+    hits = 0;
+    size = 0;
+    qp.optimize();
+    iter = qp.iter();
+  }
+
+  /**
+   * Releases the locks of an open cursor. The locks will be reacquired via {@link #resume()}.
+   */
+  private void suspend() {
+    cursor = ctx.locking.releaseStamp();
+    qp.unlock(ctx);
+  }
+
+  /**
+   * Reacquires the locks of an open cursor.
+   * @throws BaseXException database exception
+   */
+  private void resume() throws BaseXException {
+    qp.lock(ctx);
+    final Locks locks = jc().locks;
+    if((locks.reads.locking() || locks.writes.locking()) &&
+        cursor != ctx.locking.stamp(locks)) {
+      throw new BaseXException("Databases have been updated while results were fetched.");
+    }
+  }
+
+  /**
+   * Registers the process.
+   */
+  private void register() {
+    qp.register(ctx);
+    registered = true;
+  }
+
+  /**
+   * Discards the compiled query and binds the current values to a new query processor.
+   * @throws QueryException query exception
+   */
+  private void recompile() throws QueryException {
+    close();
+    for(final Object[] binding : bindings) {
+      final String name = (String) binding[0], type = (String) binding[2];
+      if(name != null) qp().variable(name, binding[1], type);
+      else qp().context(binding[1], type);
+    }
+  }
+
+  /**
+   * Finalizes the evaluation. If possible, the compiled query is retained for another evaluation.
+   * Otherwise, the query is closed.
+   * @param ok success flag
+   * @throws IOException I/O exception (if the updates of the query could not be persisted)
+   */
+  private void finish(final boolean ok) throws IOException {
+    runs++;
+    if(ok && !qp.stopped() && qp.qc.reset()) {
+      registered = false;
+      iter = null;
+      prepared = true;
+      changes = ctx.options.changes();
+      qp.unregister(ctx);
+    } else {
+      unregister();
+    }
+  }
+
+  /**
+   * Serializes a single item in iterative mode.
+   * @param item item
+   * @param ser serializer
+   * @param po print output
+   * @param out output stream
+   * @param full return full type information
+   * @throws IOException I/O Exception
+   */
+  private static void serialize(final Item item, final Serializer ser, final PrintOutput po,
+      final OutputStream out, final boolean full) throws IOException {
+    if(full) po.write(item.xdmInfo());
+    else po.write(item.typeId().asByte());
+    ser.reset();
+    ser.serialize(item);
+    po.flush();
+    out.write(0);
+  }
+
   /**
    * Generates a query plan.
    * @throws QueryIOException query I/O exception
@@ -199,10 +453,16 @@ public final class ServerQuery extends Job {
    * @return query processor
    */
   private QueryProcessor qp() {
-    if(parsed || qp == null) {
+    if(!prepared && (parsed || qp == null)) {
       qp = pushJob(new QueryProcessor(query, ctx));
+      qp.qc.prepared = runs > 0;
       parsed = false;
     }
     return qp;
   }
+
+  @Override
+  public String toString() {
+    return query;
+  }
 }
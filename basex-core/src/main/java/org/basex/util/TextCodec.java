@@ -0,0 +1,239 @@
+package org.basex.util;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * This class compresses and decompresses tokens with a static symbol table. It is inspired by
+ * Fast Static Symbol Tables (FSST): The table is trained once from a sample of texts and stores
+ * up to 255 byte sequences with a length of up to 8 bytes. A token is encoded as a sequence of
+ * single-byte codes, and bytes without symbol are escaped.
+ *
+ * In contrast to {@link Compress}, the codec works on arbitrary UTF-8 input. As each token is
+ * encoded independently, tokens can be decompressed in random order.
+ * A compressed token starts with the length of the original token, followed by the codes.
+ *
+ * @author BaseX Team 2005-23, BSD License
+ * @author Christian Gruen
+ */
+public final class TextCodec {
+  /** Maximum number of bytes to be sampled for training. */
+  public static final int SAMPLE = 1 << 20;
+  /** Maximum number of bytes that will be sampled from a single text. */
+  public static final int CHUNK = 1 << 9;
+
+  /** Escape code (followed by a literal byte). */
+  private static final int ESCAPE = 0xFF;
+  /** Maximum symbol length. */
+  private static final int LENGTH = 8;
+  /** Number of training rounds. */
+  private static final int ROUNDS = 5;
+  /** Number of pseudo codes used for training (symbols and escaped bytes). */
+  private static final int CODES = 512;
+
+  /** Symbols. */
+  private final byte[][] symbols;
+  /** Codes of the symbols, indexed by their first byte and sorted by descending length. */
+  private final int[][] index = new int[256][];
+
+  /**
+   * Constructor.
+   * @param symbols symbols
+   */
+  private TextCodec(final byte[][] symbols) {
+    this.symbols = symbols;
+    final IntList[] lists = new IntList[index.length];
+    for(int l = LENGTH; l > 0; l--) {
+      final int sl = symbols.length;
+      for(int s = 0; s < sl; s++) {
+        final byte[] symbol = symbols[s];
+        if(symbol.length != l) continue;
+        final int b = symbol[0] & 0xFF;
+        if(lists[b] == null) lists[b] = new IntList(1);
+        lists[b].add(s);
+      }
+    }
+    final int il = index.length;
+    for(int i = 0; i < il; i++) index[i] = lists[i] == null ? new int[0] : lists[i].finish();
+  }
+
+  /**
+   * Constructor, reading the symbol table from the specified input.
+   * @param in input stream
+   * @throws IOException I/O exception
+   */
+  public TextCodec(final DataInput in) throws IOException {
+    this(read(in));
+  }
+
+  /**
+   * Reads symbols.
+   * @param in input stream
+   * @return symbols
+   * @throws IOException I/O exception
+   */
+  private static byte[][] read(final DataInput in) throws IOException {
+    final byte[][] symbols = new byte[in.readNum()][];
+    final int sl = symbols.length;
+    for(int s = 0; s < sl; s++) symbols[s] = in.readToken();
+    return symbols;
+  }
+
+  /**
+   * Writes the symbol table.
+   * @param out output stream
+   * @throws IOException I/O exception
+   */
+  public void write(final DataOutput out) throws IOException {
+    out.writeNum(symbols.length);
+    for(final byte[] symbol : symbols) out.writeToken(symbol);
+  }
+
+  /**
+   * Trains a symbol table from the specified sample texts.
+   * @param sample sample texts
+   * @return codec
+   */
+  public static TextCodec train(final List<byte[]> sample) {
+    TextCodec codec = new TextCodec(new byte[0][]);
+    for(int r = 0; r < ROUNDS; r++) {
+      // count occurrences of single codes and pairs of codes
+      final int[] single = new int[CODES], pairs = new int[CODES * CODES];
+      for(final byte[] text : sample) {
+        final int tl = text.length;
+        for(int t = 0, prev = -1; t < tl;) {
+          final int s = codec.symbol(text, t);
+          final int code = s != -1 ? s : 0x100 | text[t] & 0xFF;
+          single[code]++;
+          if(prev != -1) pairs[prev * CODES + code]++;
+          prev = code;
+          t += s != -1 ? codec.symbols[s].length : 1;
+        }
+      }
+
+      // compute gains of existing symbols and of concatenated symbols
+      final TokenSet candidates = new TokenSet();
+      final long[] gains = new long[CODES * CODES + CODES + 1];
+      for(int c1 = 0; c1 < CODES; c1++) {
+        if(single[c1] == 0) continue;
+        final byte[] s1 = codec.code(c1);
+        gain(candidates, gains, s1, single[c1]);
+        // do not concatenate in the final round
+        if(r + 1 == ROUNDS) continue;
+        for(int c2 = 0; c2 < CODES; c2++) {
+          final int count = pairs[c1 * CODES + c2];
+          if(count == 0) continue;
+          final byte[] s2 = codec.code(c2);
+          if(s1.length + s2.length > LENGTH) continue;
+          gain(candidates, gains, Token.concat(s1, s2), count);
+        }
+      }
+
+      // choose symbols with the highest gains
+      final int cs = candidates.size();
+      final long[] sorted = new long[cs];
+      for(int c = 0; c < cs; c++) sorted[c] = gains[c + 1] << 20 | c + 1;
+      Arrays.sort(sorted);
+      final int ss = Math.min(cs, ESCAPE);
+      final byte[][] symbols = new byte[ss][];
+      for(int s = 0; s < ss; s++) {
+        symbols[s] = candidates.key((int) (sorted[cs - 1 - s] & 0xFFFFF));
+      }
+      codec = new TextCodec(symbols);
+    }
+    return codec;
+  }
+
+  /**
+   * Compresses the specified token. Returns the original token if the compressed token is not
+   * shorter.
+   * @param token token to be compressed
+   * @return compressed or original token
+   */
+  public byte[] pack(final byte[] token) {
+    // only compress tokens with more than 4 bytes
+    final int tl = token.length;
+    if(tl < 5) return token;
+
+    final byte[] bytes = new byte[tl - 1];
+    int size = Num.set(bytes, tl);
+    for(int t = 0; t < tl;) {
+      final int s = symbol(token, t);
+      if(s != -1) {
+        if(size == bytes.length) return token;
+        bytes[size++] = (byte) s;
+        t += symbols[s].length;
+      } else {
+        if(size + 1 >= bytes.length) return token;
+        bytes[size++] = (byte) ESCAPE;
+        bytes[size++] = token[t++];
+      }
+    }
+    return Arrays.copyOf(bytes, size);
+  }
+
+  /**
+   * Decompresses the specified token.
+   * @param token compressed token
+   * @return original token
+   */
+  public byte[] unpack(final byte[] token) {
+    final int size = Num.get(token, 0);
+    final byte[] bytes = new byte[size];
+    for(int t = Num.length(token, 0), b = 0; b < size;) {
+      final int code = token[t++] & 0xFF;
+      if(code == ESCAPE) {
+        bytes[b++] = token[t++];
+      } else {
+        final byte[] symbol = symbols[code];
+        for(final byte s : symbol) bytes[b++] = s;
+      }
+    }
+    return bytes;
+  }
+
+  /**
+   * Returns the code of the longest symbol at the specified position.
+   * @param token token
+   * @param pos position
+   * @return code, or {@code -1} if no symbol is found
+   */
+  private int symbol(final byte[] token, final int pos) {
+    final int rest = token.length - pos;
+    for(final int code : index[token[pos] & 0xFF]) {
+      final byte[] symbol = symbols[code];
+      final int sl = symbol.length;
+      if(sl > rest) continue;
+      int s = 1;
+      while(s < sl && symbol[s] == token[pos + s]) s++;
+      if(s == sl) return code;
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the bytes of a training code.
+   * @param code symbol code, or escaped byte
+   * @return bytes
+   */
+  private byte[] code(final int code) {
+    return code < 0x100 ? symbols[code] : new byte[] { (byte) code };
+  }
+
+  /**
+   * Adds the gain of a candidate symbol.
+   * @param candidates candidate symbols
+   * @param gains gains
+   * @param symbol symbol
+   * @param count number of occurrences
+   */
+  private static void gain(final TokenSet candidates, final long[] gains, final byte[] symbol,
+      final int count) {
+    gains[candidates.put(symbol)] += (long) count * symbol.length;
+  }
+}
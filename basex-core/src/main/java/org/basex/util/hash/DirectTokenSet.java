@@ -0,0 +1,137 @@
+package org.basex.util.hash;
+
+import java.nio.*;
+import java.util.*;
+
+import org.basex.util.*;
+
+/**
+ * This is a hash set for storing tokens outside the Java heap.
+ * The tokens are stored in direct buffers; only the offsets and the hash structures are
+ * kept on the heap. Each token is prefixed by its length.
+ *
+ * @author BaseX Team 2005-23, BSD License
+ * @author Christian Gruen
+ */
+public final class DirectTokenSet extends ASet {
+  /** Size of a buffer chunk (tokens exceeding this size get a chunk on their own). */
+  private static final int CHUNK = 1 << 24;
+
+  /** Buffer chunks. */
+  private final ArrayList<ByteBuffer> chunks = new ArrayList<>();
+  /** Current chunk. */
+  private ByteBuffer chunk;
+  /** Offsets to the stored tokens: chunk index (upper 32 bits), position (lower 32 bits). */
+  private long[] offsets;
+  /** Hash values of the stored tokens. */
+  private int[] hashes;
+
+  /**
+   * Default constructor.
+   */
+  public DirectTokenSet() {
+    super(Array.INITIAL_CAPACITY);
+    offsets = new long[capacity()];
+    hashes = new int[capacity()];
+  }
+
+  /**
+   * Stores the specified key and returns its id.
+   * @param key key to be added
+   * @return unique id of stored key (larger than zero)
+   */
+  public int put(final byte[] key) {
+    final int h = Token.hash(key);
+    int b = h & capacity() - 1;
+    for(int id = buckets[b]; id != 0; id = next[id]) {
+      if(hashes[id] == h && eq(key, id)) return id;
+    }
+    final int s = size++;
+    if(checkCapacity()) b = h & capacity() - 1;
+    next[s] = buckets[b];
+    offsets[s] = store(key);
+    hashes[s] = h;
+    buckets[b] = s;
+    return s;
+  }
+
+  /**
+   * Returns the id of the specified key, or {@code 0} if the key does not exist.
+   * @param key key to be looked up
+   * @return id, or {@code 0} if key does not exist
+   */
+  public int id(final byte[] key) {
+    final int h = Token.hash(key);
+    for(int id = buckets[h & capacity() - 1]; id != 0; id = next[id]) {
+      if(hashes[id] == h && eq(key, id)) return id;
+    }
+    return 0;
+  }
+
+  /**
+   * Returns the key with the specified id.
+   * All ids start with {@code 1} instead of {@code 0}.
+   * @param id id of the key to return
+   * @return key
+   */
+  public byte[] key(final int id) {
+    final long offset = offsets[id];
+    final ByteBuffer bb = chunks.get((int) (offset >>> 32)).duplicate();
+    final int pos = (int) offset;
+    final byte[] key = new byte[bb.getInt(pos)];
+    bb.position(pos + 4);
+    bb.get(key);
+    return key;
+  }
+
+  @Override
+  protected int hash(final int id) {
+    return hashes[id];
+  }
+
+  @Override
+  protected void rehash(final int newSize) {
+    offsets = Arrays.copyOf(offsets, newSize);
+    hashes = Arrays.copyOf(hashes, newSize);
+  }
+
+  /**
+   * Compares the specified key with a stored key.
+   * @param key key
+   * @param id id of the stored key
+   * @return result of check
+   */
+  private boolean eq(final byte[] key, final int id) {
+    final long offset = offsets[id];
+    final ByteBuffer bb = chunks.get((int) (offset >>> 32));
+    final int pos = (int) offset + 4, kl = key.length;
+    if(bb.getInt(pos - 4) != kl) return false;
+    for(int k = 0; k < kl; k++) {
+      if(bb.get(pos + k) != key[k]) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Writes a key to the buffer chunks.
+   * @param key key
+   * @return offset of the stored key
+   */
+  private long store(final byte[] key) {
+    final int length = key.length + 4;
+    if(chunk == null || chunk.remaining() < length) {
+      chunk = ByteBuffer.allocateDirect(Math.max(CHUNK, length));
+      chunks.add(chunk);
+    }
+    final long offset = (long) (chunks.size() - 1) << 32 | chunk.position();
+    chunk.putInt(key.length).put(key);
+    return offset;
+  }
+
+  @Override
+  public String toString() {
+    final byte[][] keys = new byte[size][];
+    for(int i = 1; i < size; i++) keys[i] = key(i);
+    return toString(keys);
+  }
+}
@@ -70,6 +70,8 @@ public class Options implements Iterable<Option<?>> {
   private final StringList user = new StringList();
   /** Options file. */
   private IOFile file;
+  /** Number of changes. */
+  private int changes;
 
   /**
    * Default constructor.
@@ -186,6 +188,15 @@ public class Options implements Iterable<Option<?>> {
    */
   public final synchronized void put(final Option<?> option, final Object value) {
     values.put(option.name(), value);
+    changes++;
+  }
+
+  /**
+   * Returns a counter that is incremented whenever an option is changed.
+   * @return number of changes
+   */
+  public final synchronized int changes() {
+    return changes;
   }
 
   /**
@@ -832,6 +843,8 @@ public class Options implements Iterable<Option<?>> {
       return false;
     }
 
+    // values of array options may be changed in place
+    changes++;
     if(option instanceof BooleanOption) {
       final boolean v;
       if(value == null || value.isEmpty()) {
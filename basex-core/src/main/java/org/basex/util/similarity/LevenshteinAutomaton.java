@@ -0,0 +1,94 @@
+package org.basex.util.similarity;
+
+import static org.basex.util.Token.*;
+
+import java.util.*;
+
+/**
+ * <p>Automaton for finding tokens that are similar to a query token. The automaton is used to
+ * enumerate sorted token dictionaries: it computes the rows of the distance matrix of
+ * {@link Levenshtein} for the prefix of a token, and it reuses the rows of the longest prefix
+ * shared with the previously checked token.</p>
+ *
+ * <p>If the errors of a prefix exceed the allowed maximum, no token with this prefix will be
+ * accepted by {@link Levenshtein#similar(byte[], byte[], int)}, and all tokens with the same
+ * prefix can be skipped. Prefixes are only rejected if they consist of ASCII characters.</p>
+ *
+ * @author BaseX Team 2005-23, BSD License
+ * @author Christian Gruen
+ */
+public final class LevenshteinAutomaton {
+  /** Normalized query codepoints ({@code null} if query contains non-ASCII characters). */
+  private final int[] query;
+  /** Maximum number of errors. */
+  private final int max;
+
+  /** Rows of the distance matrix. */
+  private int[][] rows;
+  /** Last checked token. */
+  private byte[] last = EMPTY;
+  /** Number of rows that have been computed for the last token. */
+  private int computed;
+
+  /**
+   * Constructor.
+   * @param token query token
+   * @param errors maximum number of allowed errors; dynamic calculation if value is {@code 0}
+   */
+  public LevenshteinAutomaton(final byte[] token, final int errors) {
+    final int tl = token.length;
+    int[] qu = new int[tl];
+    for(int t = 0; t < tl; t++) {
+      if(token[t] < 0) {
+        qu = null;
+        break;
+      }
+      qu[t] = lc(token[t]);
+    }
+    query = qu;
+    max = errors == 0 ? Math.max(1, tl >> 2) : errors;
+    rows = new int[1][tl + 1];
+    for(int c = 0; c <= tl; c++) rows[0][c] = c;
+  }
+
+  /**
+   * Returns the length of the shortest prefix of the specified token that cannot be extended
+   * to a similar token.
+   * @param token token to be checked
+   * @return length of the prefix in bytes, or {@code -1} if the token may be similar
+   */
+  public int reject(final byte[] token) {
+    final int[] qu = query;
+    if(qu == null) return -1;
+
+    // skip rows that have already been computed for the last token
+    final int tl = token.length, ql = qu.length;
+    int t = 0;
+    while(t < computed && t < tl && token[t] == last[t]) t++;
+    last = token;
+    computed = t;
+    if(rows.length <= tl) rows = Arrays.copyOf(rows, tl + 1);
+
+    for(; t < tl; t++) {
+      if(token[t] < 0) return -1;
+      // same computation as in Levenshtein#distance
+      final int tn = lc(token[t]), f = t == 0 ? -1 : lc(token[t - 1]);
+      int g = t == 0 || ql == 0 ? -1 : qu[ql - 1], d = Integer.MAX_VALUE;
+      final int[] prev = rows[t];
+      int[] row = rows[t + 1];
+      if(row == null) rows[t + 1] = row = new int[ql + 1];
+      row[0] = t + 1;
+      for(int c = 0; c < ql; c++) {
+        final int cn = qu[c];
+        int e = Math.min(Math.min(prev[c + 1] + 1, row[c] + 1), prev[c] + (tn == cn ? 0 : 1));
+        if(tn == g && cn == f) e = prev[c];
+        row[c + 1] = e;
+        d = Math.min(d, e);
+        g = cn;
+      }
+      computed = t + 1;
+      if(d > max) return t + 1;
+    }
+    return -1;
+  }
+}
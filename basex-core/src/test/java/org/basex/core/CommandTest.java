@@ -76,6 +76,25 @@ public class CommandTest extends SandboxTest {
     ok(new Add("test.xml", "<x>te est</x>"));
   }
 
+  /** Command test. */
+  @Test public final void compact() {
+    no(new Compact());
+    ok(new CreateDB(NAME, "<x/>"));
+    ok(new XQuery("for $i in 1 to 1000 return insert node <a b='{ $i }-{ $i }'>text { $i }</a> "
+        + "into /x"));
+    ok(new XQuery("delete nodes //a[@b ! xs:integer(substring-before(., '-')) mod 3 != 0]"));
+    final String result = ok(new XQuery("string-join(//a ! (@b || .))"));
+    final String size = _DB_LIST_DETAILS.args() + "[. = '" + NAME + "']/@size ! xs:integer(.)";
+    final long before = Long.parseLong(ok(new XQuery(size)));
+    ok(new Compact());
+    assertEquals(result, ok(new XQuery("string-join(//a ! (@b || .))")));
+    final long after = Long.parseLong(ok(new XQuery(size)));
+    assertTrue(after < before, "Database was not compacted: " + before + " -> " + after);
+    ok(new Close());
+    ok(new Open(NAME));
+    assertEquals(result, ok(new XQuery("string-join(//a ! (@b || .))")));
+  }
+
   /** Create Backup Test.
    * Using glob Syntax. */
   @Test public final void alterBackup() {
@@ -181,6 +200,14 @@ public class CommandTest extends SandboxTest {
     ok(new CreateBackup(NAME + '*'));
     ok(new Restore(NAME2));
     ok(new DropBackup(NAME + '*'));
+    ok(new CreateBackup(NAME + '*', null, false, true));
+    ok(new Restore(NAME));
+    ok(new DropBackup(NAME + '*'));
+    ok(new CreateBackup(NAME, "BLA", true));
+    ok(new Restore(NAME));
+    ok(new CreateBackup(NAME, "BLA", true, true));
+    ok(new Restore(NAME));
+    ok(new DropBackup(NAME));
     no(new Restore(":"));
     ok(new CreateBackup(NAME + "?," + NAME));
     ok(new DropBackup(NAME2));
@@ -1,5 +1,6 @@
 package org.basex.core;
 
+import static org.basex.query.func.Function.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.concurrent.atomic.*;
@@ -7,6 +8,7 @@ import java.util.concurrent.atomic.*;
 import org.basex.*;
 import org.basex.api.client.*;
 import org.basex.core.cmd.*;
+import org.basex.io.*;
 import org.basex.util.*;
 import org.junit.jupiter.api.Test;
 
@@ -49,4 +51,60 @@ public final class LocalConcurrencyTest extends SandboxTest {
       execute(new DropUser("user"));
     }
   }
+
+  /**
+   * Updates a database while an online backup is written.
+   * @throws Exception exception
+   */
+  @Test public void onlineBackup() throws Exception {
+    final String name = "backup";
+    final IOFile dbpath = context.soptions.dbPath();
+    final IOFile stale = new IOFile(dbpath, '.' + name + "-2000-01-01-00-00-00");
+    try {
+      execute(new CreateDB(name, "<x>" + "<y>text</y>".repeat(1_000_000) + "</x>"));
+      stale.md();
+
+      // create backup in a separate thread
+      final Exception[] error = new Exception[1];
+      final Thread backup = new Thread(() -> {
+        try(Session session = new LocalSession(context)) {
+          session.execute(new CreateBackup(name, null, false, true));
+        } catch(final Exception ex) {
+          error[0] = ex;
+        }
+      });
+      backup.start();
+
+      // wait until snapshot is taken, update database
+      while(backup.isAlive() && (stale.exists() || snapshots(dbpath, name) == 0)) {
+        Performance.sleep(1);
+      }
+      execute(new XQuery("insert node <z/> into " + _DB_GET.args(name) + "/x"));
+      backup.join();
+      if(error[0] != null) throw error[0];
+
+      // stale snapshot has been deleted, update is not part of the backup
+      assertEquals(0, snapshots(dbpath, name));
+      execute(new Restore(name));
+      assertEquals("0", execute(new XQuery("count(" + _DB_GET.args(name) + "//z)")));
+    } finally {
+      stale.delete();
+      execute(new DropBackup(name));
+      execute(new DropDB(name));
+    }
+  }
+
+  /**
+   * Returns the number of snapshot directories of a database.
+   * @param dbpath database path
+   * @param name name of database
+   * @return number of directories
+   */
+  private static int snapshots(final IOFile dbpath, final String name) {
+    int count = 0;
+    for(final IOFile file : dbpath.children()) {
+      if(file.name().startsWith('.' + name + '-')) count++;
+    }
+    return count;
+  }
 }
@@ -43,10 +43,14 @@ public final class XMLCommandTest extends SandboxTest {
 
     ok("<close/>");
 
+    ok("<compact/>");
+
     ok("<copy name='X' newname='X'/>");
 
     ok("<create-backup name='X'/>");
     ok("<create-backup name='X' comment='bla'/>");
+    ok("<create-backup name='X' incremental='true'/>");
+    ok("<create-backup name='X' online='true'/>");
 
     ok("<create-db name='X'/>");
     ok("<create-db name='X'>X</create-db>");
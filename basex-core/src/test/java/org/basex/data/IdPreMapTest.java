@@ -2,9 +2,12 @@ package org.basex.data;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.*;
 import java.util.*;
 
 import org.basex.index.*;
+import org.basex.io.*;
+import org.basex.util.*;
 import org.basex.util.list.*;
 import org.junit.jupiter.api.*;
 
@@ -96,6 +99,27 @@ public final class IdPreMapTest {
     }
   }
 
+  /**
+   * Correctness: write and read the map after random updates.
+   * @throws IOException I/O exception
+   */
+  @Test public void writeCorrectness() throws IOException {
+    final IOFile file = new IOFile(Prop.TEMPDIR, "idp" + IO.BASEXSUFFIX);
+    try {
+      for(int i = 0, cnt = BASEID + 1, id = BASEID + 1; i < ITERATIONS; ++i) {
+        if(RANDOM.nextBoolean() || cnt == 0) insert(RANDOM.nextInt(++cnt), id++);
+        else delete(RANDOM.nextInt(cnt--));
+        if(i % 20 == 0) {
+          testedmap.write(file);
+          testedmap = new IdPreMap(file);
+          check();
+        }
+      }
+    } finally {
+      file.delete();
+    }
+  }
+
   /** Insert performance: insert at random positions. */
   @Test public void insertPerformance() {
     insertPerformance(testedmap);
@@ -0,0 +1,56 @@
+package org.basex.data;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.util.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test index updates when using off-heap memory storage ({@link MainOptions#OFFHEAP}).
+ *
+ * @author BaseX Team 2005-23, BSD License
+ * @author Christian Gruen
+ */
+public final class OffHeapDataTest extends MemDataTest {
+  /** Test database name. */
+  private final String dbName = Util.className(OffHeapDataTest.class);
+
+  @Override
+  @BeforeEach public void setUp() {
+    set(MainOptions.MAINMEM, true);
+    set(MainOptions.OFFHEAP, true);
+    execute(new CreateDB(dbName, XMLSTR));
+  }
+
+  /**
+   * Clean up method; executed after each test.
+   */
+  @AfterEach public void cleanUp() {
+    execute(new Close());
+    set(MainOptions.OFFHEAP, false);
+    set(MainOptions.MAINMEM, false);
+  }
+
+  /**
+   * Compares large documents with the on-heap representation.
+   */
+  @Test public void large() {
+    final String query = "<x>{ for $i in 1 to 20000 return <y a='{ $i mod 7 }'>{ $i }</y> }</x>";
+    final String doc = query(query);
+    execute(new CreateDB(dbName, doc));
+    final String result = query("sum(//y), count(//y[@a = 3]), //y[last()]");
+    query("for $y in //y[. mod 2 = 0] return replace value of node $y with 'new'");
+    query("delete node //y[@a = 4]");
+    final String updated = query("count(//y[. = 'new']), //y[last() - 1]");
+
+    set(MainOptions.OFFHEAP, false);
+    execute(new CreateDB(dbName, doc));
+    assertEquals(result, query("sum(//y), count(//y[@a = 3]), //y[last()]"));
+    query("for $y in //y[. mod 2 = 0] return replace value of node $y with 'new'");
+    query("delete node //y[@a = 4]");
+    assertEquals(updated, query("count(//y[. = 'new']), //y[last() - 1]"));
+  }
+}
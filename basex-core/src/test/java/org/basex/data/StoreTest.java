@@ -1,11 +1,16 @@
 package org.basex.data;
 
+import static org.basex.query.QueryError.*;
 import static org.basex.query.func.Function.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.*;
+import java.util.*;
+
 import org.basex.*;
 import org.basex.core.*;
 import org.basex.core.cmd.*;
+import org.basex.io.*;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.Test;
 
@@ -158,4 +163,268 @@ public final class StoreTest extends SandboxTest {
     query(_DB_GET.args(NAME) +
         " update { replace node /a with <c xmlns:c='c'>{ (1 to 40960) ! <d/> }</c> }");
   }
+
+  /**
+   * Tests the {@link MainOptions#REDOLOG} option.
+   * @throws IOException I/O exception
+   */
+  @Test public void redoLog() throws IOException {
+    final String copy = NAME + '2';
+    set(MainOptions.AUTOFLUSH, true);
+    set(MainOptions.REDOLOG, true);
+    try {
+      execute(new CreateDB(NAME, "<x/>"));
+      for(int i = 0; i < 100; i++) query("insert node <y>" + i + "</y> into /x");
+      query(_DB_PUT.args(NAME, " <z>{ (1 to 1000) ! <y>{ . }</y> }</z>", "z.xml"));
+      final MetaData meta = context.data().meta;
+      assertTrue(meta.dbFile(DataText.DATAREDO).exists());
+
+      // simulate crash: copy files of opened database, replay log when opening the copy
+      final IOFile dir = context.soptions.dbPath(copy);
+      dir.md();
+      for(final IOFile file : context.soptions.dbPath(NAME).children()) {
+        file.copyTo(new IOFile(dir, file.name()));
+      }
+      execute(new Open(copy));
+      assertFalse(context.data().meta.dbFile(DataText.DATAREDO).exists());
+      query("count(//y)", 1100);
+      query("sum(//y)", 505_450);
+
+      // closing the database deletes the log
+      execute(new Open(NAME));
+      execute(new Close());
+      assertFalse(meta.dbFile(DataText.DATAREDO).exists());
+      query(_DB_GET.args(NAME) + "/x/y[last()] || " + _DB_GET.args(NAME, "z.xml") + "//y[1]",
+          "991");
+    } finally {
+      set(MainOptions.AUTOFLUSH, false);
+      set(MainOptions.REDOLOG, false);
+      execute(new DropDB(copy));
+    }
+  }
+
+  /**
+   * Tests the {@link MainOptions#REDOLOG} option: modified blocks are not written to the database
+   * files before the next checkpoint.
+   * @throws IOException I/O exception
+   */
+  @Test public void redoLogNoSteal() throws IOException {
+    set(MainOptions.AUTOFLUSH, true);
+    set(MainOptions.REDOLOG, true);
+    try {
+      execute(new CreateDB(NAME));
+      query(_DB_ADD.args(NAME, " <x>{ (1 to 5000) ! <y>{ . }</y> }</x>", "x.xml"));
+      execute(new Close());
+      execute(new Open(NAME));
+      final MetaData meta = context.data().meta;
+      final IOFile tbl = meta.dbFile(DataText.DATATBL), txt = meta.dbFile(DataText.DATATXT);
+      final byte[] table = tbl.read(), texts = txt.read();
+
+      // modify more blocks than can be buffered
+      for(int i = 0; i < 3; i++) {
+        query("for $y in //y[. mod 10 = 0] return insert node <z>{ $y/text() }</z> before $y");
+      }
+      assertArrayEquals(table, tbl.read());
+      assertArrayEquals(texts, txt.read());
+      query("count(//z)", 1500);
+
+      // closing the database writes all blocks
+      execute(new Close());
+      assertFalse(Arrays.equals(table, tbl.read()));
+      query("count(" + _DB_GET.args(NAME) + "//z)", 1500);
+      query("sum(" + _DB_GET.args(NAME) + "//z ! xs:integer(.))", 3_757_500);
+      execute(new Open(NAME));
+      assertTrue(execute(new Inspect()).contains("No inconsistencies found."));
+    } finally {
+      set(MainOptions.AUTOFLUSH, false);
+      set(MainOptions.REDOLOG, false);
+    }
+  }
+
+  /**
+   * Tests the {@link MainOptions#REDOLOG} option with a compressed table: the database files
+   * are consistent after a crash, no matter if the log has been synchronized or not.
+   * @throws IOException I/O exception
+   */
+  @Test public void redoLogCompressTable() throws IOException {
+    final String copy = NAME + '2', lost = NAME + '3';
+    set(MainOptions.AUTOFLUSH, true);
+    set(MainOptions.REDOLOG, true);
+    set(MainOptions.COMPRESSTABLE, true);
+    try {
+      execute(new CreateDB(NAME));
+      query(_DB_ADD.args(NAME, " <x>{ (1 to 5000) ! <y>{ . }</y> }</x>", "x.xml"));
+      execute(new OptimizeAll());
+      final IOFile db = context.soptions.dbPath(NAME);
+      final IOFile tbl = context.data().meta.dbFile(DataText.DATATBL);
+      final byte[] table = tbl.read();
+
+      // commit updates without synchronizing the table
+      query("for $y in //y[. mod 10 = 0] return insert node <z>{ $y/text() }</z> before $y");
+      query("for $y in //y[. mod 7 = 0] return delete node $y");
+      assertArrayEquals(table, tbl.read());
+
+      // simulate crash: copy files of opened database, with and without log
+      for(final String name : new String[] { copy, lost }) {
+        final IOFile dir = context.soptions.dbPath(name);
+        dir.md();
+        for(final IOFile file : db.children()) {
+          if(name.equals(copy) || !file.name().startsWith(DataText.DATAREDO)) {
+            file.copyTo(new IOFile(dir, file.name()));
+          }
+        }
+      }
+
+      // committed updates are replayed
+      execute(new Open(copy));
+      assertTrue(context.data().meta.compresstable);
+      query("count(//z)", 500);
+      query("count(//y)", 4286);
+      assertTrue(execute(new Inspect()).contains("No inconsistencies found."));
+
+      // lost log: database is in the state of the last checkpoint
+      execute(new Open(lost));
+      query("count(//z)", 0);
+      query("count(//y)", 5000);
+      assertTrue(execute(new Inspect()).contains("No inconsistencies found."));
+    } finally {
+      set(MainOptions.AUTOFLUSH, false);
+      set(MainOptions.REDOLOG, false);
+      set(MainOptions.COMPRESSTABLE, false);
+      execute(new DropDB(copy));
+      execute(new DropDB(lost));
+    }
+  }
+
+  /**
+   * Tests the {@link MainOptions#REDOLOG} option: updatable indexes are rebuilt after a crash.
+   * @throws IOException I/O exception
+   */
+  @Test public void redoLogIndex() throws IOException {
+    final String copy = NAME + '2';
+    set(MainOptions.AUTOFLUSH, true);
+    set(MainOptions.REDOLOG, true);
+    set(MainOptions.UPDINDEX, true);
+    set(MainOptions.TEXTINDEX, true);
+    try {
+      execute(new CreateDB(NAME, "<x/>"));
+      final IOFile db = context.soptions.dbPath(NAME);
+      final HashMap<String, byte[]> index = new HashMap<>();
+      for(final IOFile file : db.children()) {
+        if(file.name().matches(DataText.DATATXT + "[lrb]\\..*")) {
+          index.put(file.name(), file.read());
+        }
+      }
+      for(int i = 0; i < 100; i++) query("insert node <y>" + i + "</y> into /x");
+
+      // simulate crash: copy files of opened database, restore outdated index files
+      final IOFile dir = context.soptions.dbPath(copy);
+      dir.md();
+      for(final IOFile file : db.children()) file.copyTo(new IOFile(dir, file.name()));
+      for(final Map.Entry<String, byte[]> entry : index.entrySet()) {
+        new IOFile(dir, entry.getKey()).write(entry.getValue());
+      }
+      execute(new Open(copy));
+      query("count(//y[text() = '5'])", 1);
+      query("count(//y[text() = ('1', '99')])", 2);
+    } finally {
+      set(MainOptions.AUTOFLUSH, false);
+      set(MainOptions.REDOLOG, false);
+      set(MainOptions.UPDINDEX, false);
+      set(MainOptions.TEXTINDEX, false);
+      execute(new DropDB(copy));
+    }
+  }
+
+  /**
+   * Tests the {@link MainOptions#COMPRESSTABLE} option.
+   */
+  @Test public void compressTable() {
+    final String doc = " <x>{ (1 to 20000) ! <y id='{ . }'>{ . }</y> }</x>";
+    execute(new CreateDB(NAME));
+    query(_DB_ADD.args(NAME, doc, "x.xml"));
+    execute(new OptimizeAll());
+    final long size = context.data().meta.dbFile(DataText.DATATBL).length();
+
+    set(MainOptions.COMPRESSTABLE, true);
+    try {
+      execute(new CreateDB(NAME));
+      query(_DB_ADD.args(NAME, doc, "x.xml"));
+      execute(new OptimizeAll());
+      final MetaData meta = context.data().meta;
+      assertTrue(meta.compresstable);
+      assertTrue(meta.dbFile(DataText.DATATBL).length() < size / 2);
+
+      query("for $y in //y[@id mod 2 = 0] return insert node <z/> into $y");
+      query("for $y in //y[@id mod 3 = 0] return delete node $y");
+      execute(new Close());
+      query("count(" + _DB_GET.args(NAME) + "//y)", 13_334);
+      query("count(" + _DB_GET.args(NAME) + "//z)", 6_667);
+      query("sum(" + _DB_GET.args(NAME) + "//y/@id ! xs:integer(.))", 133_346_667);
+
+      // setting is preserved when the database is rebuilt
+      set(MainOptions.COMPRESSTABLE, false);
+      execute(new Open(NAME));
+      execute(new OptimizeAll());
+      assertTrue(context.data().meta.compresstable);
+      assertTrue(execute(new Inspect()).contains("No inconsistencies found."));
+
+      // setting can only be changed if all structures are rebuilt
+      final String options = " map { 'compresstable': false() }";
+      error(_DB_OPTIMIZE.args(NAME, false, options), BASEX_OPTIONS1_X);
+      execute(new Close());
+      query(_DB_OPTIMIZE.args(NAME, true, options));
+      execute(new Open(NAME));
+      assertFalse(context.data().meta.compresstable);
+      assertTrue(execute(new Inspect()).contains("No inconsistencies found."));
+    } finally {
+      set(MainOptions.COMPRESSTABLE, false);
+    }
+  }
+
+  /**
+   * Tests the {@link MainOptions#TEXTDICT} option.
+   */
+  @Test public void textDict() {
+    final String doc = " <x>{ for $i in 1 to 5000 return <y id='{ $i }'>{" +
+        " ('Größe', 'Straße', 'データベース')[$i mod 3 + 1] || ' ' || $i }</y> }</x>";
+    execute(new CreateDB(NAME));
+    query(_DB_ADD.args(NAME, doc, "x.xml"));
+    execute(new OptimizeAll());
+    final long size = context.data().meta.dbFile(DataText.DATATXT).length();
+
+    set(MainOptions.TEXTDICT, true);
+    try {
+      execute(new CreateDB(NAME));
+      query(_DB_ADD.args(NAME, doc, "x.xml"));
+      execute(new OptimizeAll());
+      final MetaData meta = context.data().meta;
+      assertTrue(meta.textdict);
+      assertTrue(meta.dbFile(DataText.DATADICT).exists());
+      assertTrue(meta.dbFile(DataText.DATATXT).length() < size / 2);
+
+      query("//y[@id = 4999] ! string()", "Straße 4999");
+      query("for $y in //y[@id mod 2 = 0] " +
+          "return replace value of node $y with 'Übersetzung ' || $y");
+      execute(new Close());
+      query(_DB_GET.args(NAME) + "//y[@id = 4999] ! string()", "Straße 4999");
+      query(_DB_GET.args(NAME) + "//y[@id = 5000] ! string()", "Übersetzung データベース 5000");
+      query("count(" + _DB_GET.args(NAME) + "//y[starts-with(., 'Übersetzung')])", 2500);
+      execute(new Open(NAME));
+      assertTrue(execute(new Inspect()).contains("No inconsistencies found."));
+
+      // setting can only be changed if all structures are rebuilt
+      final String options = " map { 'textdict': false() }";
+      error(_DB_OPTIMIZE.args(NAME, false, options), BASEX_OPTIONS1_X);
+      execute(new Close());
+      query(_DB_OPTIMIZE.args(NAME, true, options));
+      execute(new Open(NAME));
+      assertFalse(context.data().meta.textdict);
+      assertFalse(context.data().meta.dbFile(DataText.DATADICT).exists());
+      query("//y[@id = 5000] ! string()", "Übersetzung データベース 5000");
+      assertTrue(execute(new Inspect()).contains("No inconsistencies found."));
+    } finally {
+      set(MainOptions.TEXTDICT, false);
+    }
+  }
 }
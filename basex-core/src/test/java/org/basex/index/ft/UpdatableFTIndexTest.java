@@ -0,0 +1,119 @@
+package org.basex.index.ft;
+
+import static org.basex.query.func.Function.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.data.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link UpdatableFTIndex}.
+ *
+ * @author BaseX Team 2005-23, BSD License
+ * @author Christian Gruen
+ */
+public final class UpdatableFTIndexTest extends SandboxTest {
+  /** Number of texts in the initial document. */
+  private static final int TEXTS = 100;
+
+  /** Lowers the number of changes that trigger a merge. */
+  @BeforeAll public static void init() {
+    UpdatableFTIndex.minChanges = 0;
+  }
+
+  /** Restores the number of changes that trigger a merge. */
+  @AfterAll public static void finish() {
+    UpdatableFTIndex.minChanges = 1 << 20;
+  }
+
+  /** Creates a database with an updatable full-text index. */
+  @BeforeEach public void create() {
+    set(MainOptions.UPDINDEX, true);
+    set(MainOptions.FTINDEX, true);
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(int t = 1; t <= TEXTS; t++) sb.append("<a>text ").append(t).append("</a>");
+    execute(new CreateDB(NAME, sb.append("</x>").toString()));
+  }
+
+  /** Drops the database. */
+  @AfterEach public void drop() {
+    execute(new DropDB(NAME));
+    set(MainOptions.UPDINDEX, false);
+    set(MainOptions.FTINDEX, false);
+  }
+
+  /**
+   * Merges the delta segment into the index files.
+   */
+  @Test public void merge() {
+    // small changes are kept in the delta segment
+    query("insert node <a>transient words</a> into x");
+    assertTrue(delta());
+    query(count("transient"), 1);
+
+    // delete tokens that only exist in the delta segment
+    query("delete node x/a[. = 'transient words']");
+    assertTrue(delta());
+    query(count("transient"), 0);
+    query(count("words"), 0);
+
+    // larger changes are merged into the index files
+    query("insert nodes (1 to 20) ! <a>added { . }</a> into x, " +
+        "delete nodes x/a[position() <= 10]");
+    assertFalse(delta());
+    check();
+
+    // merged index is persisted
+    execute(new Close());
+    execute(new Open(NAME));
+    assertFalse(delta());
+    check();
+
+    // index can be updated after the merge
+    query("insert node <a>transient words</a> into x");
+    assertTrue(delta());
+    query(count("transient"), 1);
+    query(count("text"), TEXTS - 10);
+    execute(new Close());
+    execute(new Open(NAME));
+    query(count("transient"), 1);
+    assertTrue(execute(new Inspect()).contains("No inconsistencies found."));
+  }
+
+  /**
+   * Checks the index results after the merge.
+   */
+  private static void check() {
+    query(count("text"), TEXTS - 10);
+    query(count("added"), 20);
+    query(count("transient"), 0);
+    query(count("words"), 0);
+    query(count("1"), 1);
+    query(count("11"), 2);
+    query(_FT_SEARCH.args(NAME, "text") + "[1]/..", "<a>text 11</a>");
+    query(_FT_MARK.args(" x/a[text() contains text 'added'][last()]"),
+        "<a><mark>added</mark> 20</a>");
+    query(_FT_MARK.args(" x/a[text() contains text '100']"), "<a>text <mark>100</mark></a>");
+  }
+
+  /**
+   * Returns a query that counts the texts containing the specified token.
+   * @param token token
+   * @return query
+   */
+  private static String count(final String token) {
+    return "count(" + _FT_SEARCH.args(NAME, token) + ")";
+  }
+
+  /**
+   * Indicates if the delta segment of the index has been written to disk.
+   * @return result of check
+   */
+  private static boolean delta() {
+    return context.data().meta.dbFile(DataText.DATAFTX + 'd').exists();
+  }
+}
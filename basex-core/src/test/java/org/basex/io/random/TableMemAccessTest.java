@@ -268,6 +268,14 @@ public final class TableMemAccessTest extends SandboxTest {
     random(5000);
   }
 
+  /** Test method. */
+  @Test public void direct() {
+    table = new TableMemAccess(new MetaData(context.options), true);
+    singleAppend(10000);
+    table.delete(0, 10000);
+    random(5000);
+  }
+
   /**
    * Performs random insert and delete operations.
    * @param n number of operations
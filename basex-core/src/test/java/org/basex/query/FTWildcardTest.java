@@ -83,4 +83,24 @@ public final class FTWildcardTest {
       }
     }
   }
+
+  /**
+   * Test rejection of prefixes.
+   */
+  @Test public void testReject() {
+    final int vl = VALIDWC.length;
+    for(int i = 0; i < vl; i++) {
+      final FTWildcard wc = new FTWildcard(token(VALIDWC[i]));
+      for(final String g : TEXTS_GOOD[i]) assertEquals(-1, wc.reject(token(g)), g);
+    }
+    assertEquals(1, new FTWildcard(token("w.ll")).reject(token("xell")));
+    assertEquals(4, new FTWildcard(token("w.ll")).reject(token("weld")));
+    assertEquals(-1, new FTWildcard(token("w.ll")).reject(token("wel")));
+    assertEquals(2, new FTWildcard(token(".?site")).reject(token("bite")));
+    assertEquals(1, new FTWildcard(token("improv.*")).reject(token("mprove")));
+    assertEquals(-1, new FTWildcard(token("wi.{4,7}s")).reject(token("witch")));
+    assertEquals(-1, new FTWildcard(token(".*ab")).reject(token("xyz")));
+    assertEquals(1, new FTWildcard(token("\u00fc.*")).reject(token("u\u00fc")));
+    assertEquals(3, new FTWildcard(token("\u00fca")).reject(token("\u00fcb")));
+  }
 }
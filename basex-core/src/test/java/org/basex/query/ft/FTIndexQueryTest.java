@@ -74,6 +74,29 @@ public final class FTIndexQueryTest extends FTData {
     assertQuery("Mix", "//mix[text() contains text 'A'][1]");
   }
 
+  /**
+   * Tests queries on tokens with many postings, which are stored in blocks and skipped.
+   */
+  @Test public void blocks() {
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(int i = 0; i < 2000; i++) {
+      sb.append("<p>a ").append(i % 3 == 0 ? "b " : "c ").append(i % 101 == 0 ? "rare " : "");
+      sb.append(i % 7 == 0 ? "b a" : "a").append("</p>");
+    }
+    init(sb.append("</x>").toString());
+
+    final String path = "//p[text() contains text ";
+    assertQuery("Blocks 1", path + "'rare' ftand 'b']");
+    assertQuery("Blocks 2", path + "'b' ftand 'rare']");
+    assertQuery("Blocks 3", path + "'a b rare']");
+    assertQuery("Blocks 4", path + "'b a' ftand 'rare' ftand 'c']");
+    assertQuery("Blocks 5", path + "'rare' ftand 'a' distance at most 1 words]");
+    assertQuery("Blocks 6", path + "{ 'rare', 'b' } all words]");
+    assertQuery("Blocks 7", path + "('rare' ftor 'c') ftand 'b']");
+    assertQuery("Blocks 8", path + "'r.*' using wildcards ftand 'b' ftand 'a']");
+    assertQuery("Blocks 9", path + "'rate' using fuzzy ftand 'b a']");
+  }
+
   /**
    * Asserts that a query returns the same result with and without ft index.
    * @param name name of query
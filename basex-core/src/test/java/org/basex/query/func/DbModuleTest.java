@@ -422,6 +422,10 @@ public final class DbModuleTest extends QueryPlanTest {
     query(func.args(NAME, " map { 'comment': 'BLA' }"));
     query(_DB_BACKUPS.args(NAME) + "/@comment ! data()", "BLA");
 
+    // online backup: archive is written after the locks have been released
+    query(func.args(NAME, " map { 'comment': 'ONLINE', 'online': true() }"));
+    query(_DB_BACKUPS.args(NAME) + "/@comment ! data()", "ONLINE");
+
     // invalid names
     for(final char ch : INVALID) error(func.args(ch), DB_NAME_X);
     // try to back up non-existing database
@@ -947,6 +951,16 @@ public final class DbModuleTest extends QueryPlanTest {
     query(_DB_CREATE_BACKUP.args(""));
     query(func.args(""));
 
+    // compress chunks in parallel
+    context.soptions.set(StaticOptions.BACKUPTHREADS, 4);
+    try {
+      query(_DB_CREATE_BACKUP.args(NAME));
+      query(func.args(NAME));
+      query(_DB_GET.args(NAME) + "/html/head/title/text()", "XML");
+    } finally {
+      context.soptions.set(StaticOptions.BACKUPTHREADS, 1);
+    }
+
     // drop backups
     query(_DB_DROP_BACKUP.args(NAME));
     error(func.args(NAME), DB_NOBACKUP_X);
@@ -955,6 +969,35 @@ public final class DbModuleTest extends QueryPlanTest {
     for(final char ch : INVALID) error(func.args(ch), DB_NAME_X);
   }
 
+  /** Test method. */
+  @Test public void restoreIncremental() {
+    final Function func = _DB_RESTORE;
+    final String incremental = " map { 'incremental': true() }";
+    query(_DB_CREATE_BACKUP.args(NAME, incremental));
+    query(_DB_BACKUPS.args(NAME) + "/@base ! data()", "");
+
+    // backups are named after the current second
+    Performance.sleep(1100);
+    query(_DB_ADD.args(NAME, " <x>1</x>", "x.xml"));
+    query(_DB_CREATE_BACKUP.args(NAME, incremental));
+    Performance.sleep(1100);
+    query(_DB_PUT.args(NAME, " <x>2</x>", "x.xml"));
+    query(_DB_PUT_BINARY.args(NAME, "bin", "bin"));
+    query(_DB_CREATE_BACKUP.args(NAME, incremental));
+    query("count(" + _DB_BACKUPS.args(NAME) + "[@base])", 2);
+
+    // restore chain of backups
+    execute(new Close());
+    query(_DB_DROP.args(NAME));
+    query(func.args(NAME));
+    query(_DB_GET.args(NAME, "x.xml") + "/x/text()", 2);
+    query(_DB_GET_BINARY.args(NAME, "bin"), "bin");
+
+    // dropping the full backup drops the incremental backups that are based on it
+    query(_DB_DROP_BACKUP.args(query(_DB_BACKUPS.args(NAME) + "[last()]/string()")));
+    query("count(" + _DB_BACKUPS.args(NAME) + ")", 0);
+  }
+
   /** Test method. */
   @Test public void system() {
     final Function func = _DB_SYSTEM;
@@ -3,11 +3,12 @@ package org.basex.query.func;
 import static org.basex.query.QueryError.*;
 import static org.basex.query.func.Function.*;
 
-import org.basex.*;
 import org.basex.core.*;
 import org.basex.core.cmd.*;
 import org.basex.core.parse.Commands.*;
 import org.basex.index.*;
+import org.basex.query.ast.*;
+import org.basex.query.expr.gflwor.*;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.Test;
 
@@ -17,7 +18,7 @@ import org.junit.jupiter.api.Test;
  * @author BaseX Team 2005-23, BSD License
  * @author Christian Gruen
  */
-public final class FtModuleTest extends SandboxTest {
+public final class FtModuleTest extends QueryPlanTest {
   /** Test file. */
   private static final String FILE = "src/test/resources/input.xml";
 
@@ -193,6 +194,28 @@ public final class FtModuleTest extends SandboxTest {
     error(func.args(NAME, "x", " 1"), MAP_X_X);
   }
 
+  /** Test method. */
+  @Test public void searchRanked() {
+    final Function func = _FT_SEARCH;
+
+    query(func.args(NAME, " ('exercise', '1')", " map { 'ranked': true() }"),
+        "Exercise 1\nExercise 2");
+    query(func.args(NAME, " ('exercise', '1')", " map { 'top': 1 }"), "Exercise 1");
+    query(func.args(NAME, "exercise 1", " map { 'mode': 'all words', 'ranked': true() }"),
+        "Exercise 1");
+    query("count(" + func.args(NAME, "XXX", " map { 'ranked': true() }") + ')', 0);
+
+    // rewrite to top-k retrieval
+    check("for $n in " + func.args(NAME, " ('exercise', '1')", " map { 'ranked': true() }") +
+        " order by " + _FT_SCORE.args(" $n") + " descending return $n",
+        "Exercise 1\nExercise 2", empty(OrderBy.class));
+    check(SUBSEQUENCE.args(func.args(NAME, " ('exercise', '1')", " map { 'ranked': true() }"),
+        1, 1), "Exercise 1", root(_FT_SEARCH));
+
+    error(func.args(NAME, "x", " map { 'ranked': true(), 'fuzzy': true() }"), FT_RANKED_X);
+    error(func.args(NAME, "x y", " map { 'ranked': true(), 'mode': 'phrase' }"), FT_RANKED_X);
+  }
+
   /** Test method. */
   @Test public void thesaurus() {
     final Function func = _FT_THESAURUS;
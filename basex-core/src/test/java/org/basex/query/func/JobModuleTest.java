@@ -7,6 +7,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import java.util.*;
 
 import org.basex.*;
+import org.basex.core.*;
 import org.basex.core.users.*;
 import org.basex.query.*;
 import org.basex.util.*;
@@ -212,11 +213,46 @@ public final class JobModuleTest extends SandboxTest {
       query(list + "/@user/string()", UserText.ADMIN);
       query(list + "/@state/string() = ('running', 'queued')", true);
       query(list + "/@duration/string() castable as xs:dayTimeDuration", true);
+      query(list + "/@priority/string()", "normal");
     } finally {
       query(_JOB_REMOVE.args(id));
     }
   }
 
+  /**
+   * Test method.
+   * @throws Exception exception
+   */
+  @Test public void priority() throws Exception {
+    final String details = _JOB_LIST_DETAILS.args(" " + _JOB_CURRENT.args());
+    query(details + "/@priority/string()", "normal");
+    query("declare option basex:priority 'high'; " + details + "/@priority/string()", "high");
+    query("declare option basex:priority 'low'; " + details + "/@priority/string()", "low");
+    error("declare option basex:priority 'urgent'; 1", BASEX_OPTIONS_X_X);
+
+    // weighted fair order: queued jobs are run one by one and return their start times
+    final StaticOptions sopts = new StaticOptions(false);
+    sopts.set(StaticOptions.DBPATH, context.soptions.get(StaticOptions.DBPATH));
+    sopts.set(StaticOptions.PARALLEL, 1);
+    final Context ctx = new Context(sopts);
+    try {
+      final String lock = "declare option basex:lock 'priority'; ";
+      eval(ctx, _JOB_EVAL.args(lock + "prof:sleep(1000)"));
+      Performance.sleep(200);
+      eval(ctx, "for $p in (1 to 6) ! ('low', 'normal', 'high') return " + _JOB_EVAL.args(
+          " \"" + lock + "declare option basex:priority '\" || $p || \"'; " +
+          _PROF_CURRENT_NS.args() + " || ' \" || substring($p, 1, 1) || \"'\"",
+          " ()", " map { 'cache': true() }"));
+      eval(ctx, _JOB_LIST.args() + " ! " + _JOB_WAIT.args(" ."));
+      // expected order for weights 4 (high), 2 (normal) and 1 (low)
+      assertEquals("hnlhhnhhnlhnnlnlll", eval(ctx, "string-join(for $id in " +
+          _JOB_LIST.args() + " let $r := " + _JOB_RESULT.args(" $id") +
+          " order by xs:integer(substring-before($r, ' ')) return substring-after($r, ' '))"));
+    } finally {
+      ctx.close();
+    }
+  }
+
   /**
    * Test method.
    * @throws Exception exception */
@@ -309,6 +345,19 @@ public final class JobModuleTest extends SandboxTest {
     error(func.args(_JOB_CURRENT.args()), JOBS_SELF_X);
   }
 
+  /**
+   * Evaluates a query in the specified context without registering it as job.
+   * @param ctx database context
+   * @param query query
+   * @return result
+   * @throws Exception exception
+   */
+  private static String eval(final Context ctx, final String query) throws Exception {
+    try(QueryProcessor qp = new QueryProcessor(query, ctx)) {
+      return qp.value().serialize().toString();
+    }
+  }
+
   /**
    * Waits until a very slow query has been started.
    * @return query id
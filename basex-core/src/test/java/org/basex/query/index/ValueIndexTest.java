@@ -5,9 +5,12 @@ import java.util.*;
 import org.basex.core.*;
 import org.basex.core.cmd.*;
 import org.basex.query.ast.*;
+import org.basex.query.expr.*;
 import org.basex.query.expr.ft.*;
 import org.basex.query.expr.index.*;
+import org.basex.query.value.item.*;
 import org.basex.query.value.node.*;
+import org.basex.util.*;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -22,6 +25,14 @@ import org.junit.jupiter.params.provider.ValueSource;
 public final class ValueIndexTest extends QueryPlanTest {
   /** Test file. */
   private static final String FILE = "src/test/resources/selective.xml";
+  /** Access to the composite index. */
+  private static final String COMPOSITE_ACCESS =
+      Util.className(ValueAccess.class) + "[@index = 'composite']";
+  /** Test for access to the composite index. */
+  private static final String COMPOSITE = exists(COMPOSITE_ACCESS);
+  /** Test for access to the text index. */
+  private static final String TEXT =
+      exists(Util.className(ValueAccess.class) + "[@index = 'text']");
 
   /**
    * Finalizes a test.
@@ -30,10 +41,15 @@ public final class ValueIndexTest extends QueryPlanTest {
     set(MainOptions.MAINMEM, false);
     set(MainOptions.UPDINDEX, false);
     set(MainOptions.FTINDEX, false);
+    set(MainOptions.TRIGRAMINDEX, false);
+    set(MainOptions.COMPOSITEINDEX, false);
+    set(MainOptions.NAMEINDEX, false);
+    set(MainOptions.TOKENINDEX, false);
     set(MainOptions.TEXTINCLUDE, "");
     set(MainOptions.ATTRINCLUDE, "");
     set(MainOptions.TOKENINCLUDE, "");
     set(MainOptions.FTINCLUDE, "");
+    set(MainOptions.COMPOSITEINCLUDE, "");
   }
 
   /**
@@ -128,6 +144,192 @@ public final class ValueIndexTest extends QueryPlanTest {
     check("//a[text() = 'text']", "", empty());
   }
 
+  /**
+   * Tests the full-text index and update operations.
+   */
+  @Test public void fulltextUpdates() {
+    set(MainOptions.UPDINDEX, true);
+    set(MainOptions.FTINDEX, true);
+
+    set(MainOptions.FTINCLUDE, "a");
+    execute(new CreateDB(NAME, "<x><a>first text</a><b>second TEXT</b></x>"));
+    check("count(//a[text() contains text 'text'])", 1, exists(FTIndexAccess.class));
+    check("count(//b[text() contains text 'text'])", 1, empty(FTIndexAccess.class));
+
+    query("replace value of node x/a with 'new words'");
+    check("//a[text() contains text 'text']", "", exists(FTIndexAccess.class));
+    check("count(//a[text() contains text 'words'])", 1, exists(FTIndexAccess.class));
+
+    query("insert node <a>more words</a> into x");
+    check("count(//a[text() contains text 'words'])", 2, exists(FTIndexAccess.class));
+    check("count(//a[text() contains text 'w.*' using wildcards])", 2,
+        exists(FTIndexAccess.class));
+    check("count(//a[text() contains text 'wordz' using fuzzy])", 2,
+        exists(FTIndexAccess.class));
+
+    query("rename node x/b as 'a'");
+    check("count(//a[text() contains text 'text'])", 1, exists(FTIndexAccess.class));
+
+    // changes are persisted
+    execute(new Close());
+    execute(new Open(NAME));
+    check("count(//a[text() contains text 'text'])", 1, exists(FTIndexAccess.class));
+
+    query("delete node x/a[1]");
+    check("count(//a[text() contains text 'words'])", 1, exists(FTIndexAccess.class));
+    query("x/a/(rename node . as 'b')");
+    query("//a[text() contains text 'words']", "");
+  }
+
+  /**
+   * Tests the trigram index.
+   */
+  @Test public void trigramIndex() {
+    set(MainOptions.UPDINDEX, true);
+    set(MainOptions.TRIGRAMINDEX, true);
+    execute(new CreateDB(NAME, "<x><a>abcdef</a><a>bcd</a><b c='xabcx'/></x>"));
+    check("count(//a[contains(text(), 'bcd')])", 2, exists(TrigramAccess.class));
+    check("count(//a[starts-with(text(), 'abc')])", 1, exists(TrigramAccess.class));
+    check("count(//a[ends-with(text(), 'cdef')])", 1, exists(TrigramAccess.class));
+    check("count(//a[matches(text(), 'bcde?f')])", 1, exists(TrigramAccess.class));
+    check("count(//*[contains(@c, 'abc')])", 1, exists(TrigramAccess.class));
+    check("//a[contains(text(), 'dcb')]", "", empty(TrigramAccess.class));
+    // too short strings or case-insensitive patterns
+    check("count(//a[contains(text(), 'bc')])", 2, empty(TrigramAccess.class));
+    check("count(//a[matches(text(), 'BCD', 'i')])", 2, empty(TrigramAccess.class));
+
+    query("insert node <a>xbcdx</a> into x");
+    check("count(//a[contains(text(), 'bcd')])", 3, exists(TrigramAccess.class));
+    query("delete node x/a[1]");
+    check("count(//a[contains(text(), 'abc')])", 0, exists(TrigramAccess.class));
+  }
+
+  /**
+   * Tests the composite index.
+   */
+  @Test public void compositeIndex() {
+    set(MainOptions.UPDINDEX, true);
+    set(MainOptions.COMPOSITEINDEX, true);
+    execute(new CreateDB(NAME, "<x><order id='1'><id>1</id><item><id>2</id></item></order>"
+        + "<customer id='2'><id>1</id></customer></x>"));
+    check("count(//order[id = '1'])", 1, COMPOSITE);
+    check("count(//order[@id = '1'])", 1, COMPOSITE);
+    check("count(//order[item/id = '2'])", 1, COMPOSITE);
+    check("count(//customer[id/text() = '1'])", 1, COMPOSITE);
+    check("//order[id = '2']", "", empty(ValueAccess.class));
+    check("//item[id = '1']", "", empty(ValueAccess.class));
+
+    query("rename node x/customer as 'order'");
+    check("count(//order[id/text() = '1'])", 2, COMPOSITE);
+    check("count(//order[@id = '2'])", 1, COMPOSITE);
+    query("replace value of node x/order[1]/item/id with '3'");
+    check("count(//item[id/text() = '3'])", 1, COMPOSITE);
+    // no index entry: the expression is pre-evaluated
+    check("count(//item[id/text() = '2'])", 0, root(Int.class));
+
+    // names that are not included: the text index is used
+    set(MainOptions.COMPOSITEINCLUDE, "id");
+    execute(new CreateDB(NAME, "<x><order no='1'><id>1</id><no>1</no></order></x>"));
+    check("count(//order[id = '1'])", 1, COMPOSITE);
+    check("count(//order[no = '1'])", 1, empty(COMPOSITE_ACCESS), TEXT);
+  }
+
+  /**
+   * Tests lookups of missing keys, and of keys that have been added by updates.
+   */
+  @Test public void missingKeys() {
+    set(MainOptions.UPDINDEX, true);
+    execute(new CreateDB(NAME, "<x><a id='A'>A</a></x>"));
+    final String text = "db:text('" + NAME + "', ", attr = "db:attribute('" + NAME + "', ";
+    query("count(" + text + "('A', 'B', 'C')))", 1);
+    query("count(" + attr + "('A', 'B', 'C')))", 1);
+
+    query("insert node <a id='B'>B</a> into x");
+    query("count(" + text + "('A', 'B', 'C')))", 2);
+    execute(new Close());
+    execute(new Open(NAME));
+    query("count(" + attr + "('A', 'B', 'C')))", 2);
+    query("delete node x/a[1]");
+    query("count(" + text + "('A', 'B', 'C')))", 1);
+    execute(new Optimize());
+    query("count(" + attr + "('A', 'B', 'C')))", 1);
+  }
+
+  /**
+   * Tests the name index.
+   */
+  @Test public void nameIndex() {
+    set(MainOptions.NAMEINDEX, true);
+    execute(new CreateDB(NAME, "<x>" + "<a><b/></a>".repeat(100) + "<b><b/></b></x>"));
+    final String root = "db:get-pre('" + NAME + "', 1)", info = "db:info('" + NAME + "')";
+    query("count(" + root + "/descendant::b)", 102);
+    query("count(" + root + "/descendant-or-self::b)", 102);
+    query("count(" + root + "/descendant::*:b)", 102);
+    query("count(" + root + "/descendant::Q{ns}b)", 0);
+    query("count(" + root + "/descendant::c)", 0);
+    query("count(" + root + "/b/descendant-or-self::b)", 2);
+    query("(" + root + "/descendant::b)[last()]/parent::b/name()", "b");
+    query(info + "//nameindex/string()", true);
+
+    // index is invalidated by updates and recreated by optimizations
+    query("insert node <b/> into x");
+    query(info + "//nameindex/string()", false);
+    query("count(" + root + "/descendant::b)", 103);
+    execute(new Optimize());
+    query(info + "//nameindex/string()", true);
+    query("count(" + root + "/descendant::b)", 103);
+  }
+
+  /**
+   * Tests concurrent index lookups.
+   * @throws Throwable throwable
+   */
+  @Test public void concurrentLookups() throws Throwable {
+    set(MainOptions.TOKENINDEX, true);
+    execute(new CreateDB(NAME, "<x/>"));
+    query("insert nodes (1 to 5000) ! <a id='i{ . mod 100 }'>t{ . } u{ . mod 10 }</a> into x");
+    execute(new Optimize());
+
+    final String query = "sum((1 to 5000) ! count(db:text('" + NAME + "', 't' || . || ' u' || "
+        + ". mod 10))) + sum((0 to 99) ! count(db:attribute('" + NAME + "', 'i' || .))) + "
+        + "sum((0 to 99) ! count(db:token('" + NAME + "', 'i' || .)))";
+    final String result = query(query);
+    final Throwable[] error = new Throwable[1];
+    final Thread[] threads = new Thread[8];
+    for(int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread(() -> {
+        try {
+          query(query, result);
+        } catch(final Throwable th) {
+          error[0] = th;
+        }
+      });
+      threads[t].start();
+    }
+    for(final Thread thread : threads) thread.join();
+    if(error[0] != null) throw error[0];
+  }
+
+  /**
+   * Tests the choice of index requests based on value statistics.
+   */
+  @Test public void statistics() {
+    execute(new CreateDB(NAME, "<x/>"));
+    query("insert nodes (1 to 1000) ! <a><n>{ . }</n><s>{ if(. mod 2) then 'c' else 'r' }</s>"
+        + "<u>u{ . }</u></a> into x");
+    execute(new Optimize());
+
+    // range request is cheaper than the request of a frequent value
+    final String range = "count(//a[s = 'c'][n >= 100 and n <= 109])";
+    check(range, 5, exists(RangeAccess.class));
+    execute(new Close());
+    execute(new Open(NAME));
+    check(range, 5, exists(RangeAccess.class));
+    // dynamic request of a unique value is cheaper than the request of a frequent value
+    check("sum(for $i in 1 to 10 return count(//a[s = 'c'][u = 'u' || $i]))", 5,
+        exists(Util.className(ValueAccess.class) + "/" + Util.className(Concat.class)));
+  }
+
   /**
    * Sets the main memory flag.
    * @param mainmem main-memory flag
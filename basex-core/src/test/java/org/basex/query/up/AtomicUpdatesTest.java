@@ -7,6 +7,7 @@ import java.io.*;
 
 import org.basex.*;
 import org.basex.build.*;
+import org.basex.core.cmd.*;
 import org.basex.data.*;
 import org.basex.io.*;
 import org.basex.query.up.atomic.*;
@@ -411,6 +412,26 @@ public final class AtomicUpdatesTest extends SandboxTest {
         new int[] { 4, 1}, new int[] { 3, 1}, new int[] { 2, 1}, new int[] { 1, 0}});
   }
 
+  /**
+   * Tests if a large number of structural updates is correctly applied in bulk.
+   */
+  @Test public void bulkUpdates() {
+    execute(new CreateDB(NAME, "<r/>"));
+    query("insert node (1 to 3000) ! <a>{ . }</a> into /r");
+    query("for $a in //a return insert node <b/> into $a");
+    query("for $a in //a[. mod 2 = 0] return delete node $a");
+    query("for $a in //a[. mod 3 = 0] return replace node $a/b with <c><d/>{ string($a) }</c>");
+    query("count(//a), count(//b), count(//c), sum(//a/text() ! xs:integer(.)), sum(//c)",
+        "1500\n1000\n500\n2250000\n750000");
+    query("//a[c][1]", "<a>3<c><d/>3</c></a>");
+    assertTrue(execute(new Inspect()).contains("No inconsistencies found."));
+
+    // main-memory instance
+    query(transform("<r>{ (1 to 3000) ! <a>{ . }</a> }</r>",
+        "for $a in $input//a return insert node <b/> before $a, delete node $input//a[. mod 4 = 0]",
+        "count($input/b), count($input/a)"), "3000\n2250");
+  }
+
   /**
    * Tests if the given child/parent PRE value pairs are still valid in the database.
    * @param d reference
@@ -1,12 +1,16 @@
 package org.basex.server;
 
+import static org.basex.query.func.Function.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.io.*;
 
 import org.basex.*;
+import org.basex.api.client.*;
+import org.basex.core.*;
 import org.basex.util.*;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
 
 /**
  * This class tests the client/server session API.
@@ -34,6 +38,75 @@ public class ClientSessionTest extends SessionTest {
     stopServer(server);
   }
 
+  /**
+   * Releases the databases of idle prepared queries.
+   * @throws IOException I/O exception
+   */
+  @Test public void preparedTimeout() throws IOException {
+    server.context.soptions.set(StaticOptions.PREPAREDTIMEOUT, 1);
+    try(ClientSession cs = createClient()) {
+      cs.execute("CREATE DB " + NAME + " <x/>");
+      cs.execute("CLOSE");
+      try(Query query = cs.query("declare variable $n external; count(" +
+          _DB_GET.args(NAME) + "//x) + $n")) {
+        for(int i = 0; i < 2; i++) {
+          query.bind("$n", "1", "xs:integer");
+          assertEquals("2", query.execute());
+        }
+        // database is pinned by the prepared query
+        assertThrows(BaseXException.class, () -> session.execute("DROP DB " + NAME));
+
+        Performance.sleep(1500);
+        session.execute("DROP DB " + NAME);
+        session.execute("CREATE DB " + NAME + " <x><x/></x>");
+        query.bind("$n", "1", "xs:integer");
+        assertEquals("3", query.execute());
+      }
+    } finally {
+      server.context.soptions.set(StaticOptions.PREPAREDTIMEOUT,
+          StaticOptions.PREPAREDTIMEOUT.value());
+    }
+  }
+
+  /**
+   * Does not apply the timeout of prepared queries to the input of a command.
+   * @throws IOException I/O exception
+   */
+  @Test public void preparedTimeoutInput() throws IOException {
+    server.context.soptions.set(StaticOptions.PREPAREDTIMEOUT, 1);
+    try(ClientSession cs = createClient()) {
+      cs.execute("CREATE DB " + NAME + " <x/>");
+      cs.execute("CLOSE");
+      try(Query query = cs.query("declare variable $n external; count(" +
+          _DB_GET.args(NAME) + "//x) + $n")) {
+        for(int i = 0; i < 2; i++) {
+          query.bind("$n", "0", "xs:integer");
+          assertEquals("1", query.execute());
+        }
+
+        // send a resource that is delayed beyond the remaining timeout of the prepared query
+        final int size = 1 << 18;
+        cs.execute("OPEN " + NAME);
+        cs.putBinary("x.bin", new InputStream() {
+          private int pos;
+
+          @Override
+          public int read() {
+            if(pos == size / 2) Performance.sleep(2000);
+            return pos++ < size ? 'a' : -1;
+          }
+        });
+        assertEquals(String.valueOf(size),
+            cs.execute("XQUERY " + _BIN_LENGTH.args(_DB_GET_BINARY.args(NAME, "x.bin"))));
+        query.bind("$n", "0", "xs:integer");
+        assertEquals("1", query.execute());
+      }
+    } finally {
+      server.context.soptions.set(StaticOptions.PREPAREDTIMEOUT,
+          StaticOptions.PREPAREDTIMEOUT.value());
+    }
+  }
+
   /** Starts a session. */
   @BeforeEach public void startSession() {
     try {
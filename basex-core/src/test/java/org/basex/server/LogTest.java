@@ -0,0 +1,121 @@
+package org.basex.server;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+import org.basex.*;
+import org.basex.io.*;
+import org.basex.server.Log.*;
+import org.basex.util.*;
+import org.junit.jupiter.api.*;
+
+/**
+ * Tests the asynchronous writing of log entries.
+ *
+ * @author BaseX Team 2005-23, BSD License
+ * @author Christian Gruen
+ */
+public final class LogTest extends SandboxTest {
+  /** Number of entries (exceeds the capacity of the ring buffer). */
+  private static final int ENTRIES = 30_000;
+
+  /**
+   * Blocks requesting threads if the buffer is full, and writes all entries after that.
+   * @throws Exception exception
+   */
+  @Test public void backPressure() throws Exception {
+    final Log log = new Log(context.soptions);
+    final String marker = marker();
+    final Thread thread = new Thread(() -> {
+      for(int e = 0; e < ENTRIES; e++) log.writeServer(LogType.INFO, marker + e);
+    });
+    try {
+      // block writer: log files are written while the static options are locked
+      synchronized(context.soptions) {
+        thread.start();
+        Performance.sleep(500);
+        assertTrue(thread.isAlive());
+      }
+      thread.join();
+      log.flush();
+      assertEquals(ENTRIES, count(log, marker));
+    } finally {
+      log.close();
+    }
+  }
+
+  /**
+   * Writes pending entries when the log is closed, and drops entries after that.
+   * @throws IOException I/O exception
+   */
+  @Test public void close() throws IOException {
+    final Log log = new Log(context.soptions);
+    final String marker = marker();
+    for(int e = 0; e < ENTRIES; e++) log.writeServer(LogType.INFO, marker + e);
+    log.close();
+    assertEquals(ENTRIES, count(log, marker));
+
+    log.writeServer(LogType.INFO, marker);
+    log.flush();
+    assertEquals(ENTRIES, count(log, marker));
+  }
+
+  /**
+   * Writes all entries that have been accepted while the writer is closed.
+   * @throws Exception exception
+   */
+  @Test public void closeRace() throws Exception {
+    final Log log = new Log(context.soptions);
+    final String name = DateTime.format(new Date(), DateTime.DATE);
+    final String marker = marker();
+    final AtomicInteger accepted = new AtomicInteger();
+    for(int r = 0; r < 50; r++) {
+      final LogWriter writer = new LogWriter(log);
+      writer.start();
+
+      final Thread[] threads = new Thread[4];
+      for(int t = 0; t < threads.length; t++) {
+        threads[t] = new Thread(() -> {
+          // add entries until the writer is closed
+          for(int e = 0; writer.add(name, Token.token(marker + e + Prop.NL)); e++) {
+            accepted.incrementAndGet();
+          }
+        });
+        threads[t].start();
+      }
+      Performance.sleep(r % 3);
+      writer.close();
+      for(final Thread thread : threads) thread.join();
+    }
+    log.close();
+    assertEquals(accepted.get(), count(log, marker));
+  }
+
+  /**
+   * Returns a unique marker for log entries.
+   * @return marker
+   */
+  private static String marker() {
+    return Util.className(LogTest.class) + '-' + System.nanoTime() + '-';
+  }
+
+  /**
+   * Counts the log entries with the specified marker.
+   * @param log log
+   * @param marker marker
+   * @return number of entries
+   * @throws IOException I/O exception
+   */
+  private static int count(final Log log, final String marker) throws IOException {
+    int count = 0;
+    for(final IOFile file : log.files()) {
+      for(final String line : file.string().split(Prop.NL)) {
+        if(line.contains(marker)) count++;
+      }
+    }
+    return count;
+  }
+}
@@ -65,6 +65,51 @@ public abstract class SessionTest extends SandboxTest {
     assertThrows(BaseXException.class, () -> session.execute("1, <a/> + ''"));
   }
 
+  /**
+   * Runs a batch of commands.
+   * @throws IOException I/O exception
+   */
+  @Test public final void batch() throws IOException {
+    final BatchResult[] results = session.execute(false, "XQUERY 1", "XQUERY (", "XQUERY 2");
+    assertEquals(3, results.length);
+    assertTrue(results[0].ok);
+    assertFalse(results[1].ok);
+    assertTrue(results[2].ok);
+    assertEqual("12", out != null ? null : results[0].result + results[2].result);
+  }
+
+  /**
+   * Rejects batches with empty commands; the session must remain usable.
+   * @throws IOException I/O exception
+   */
+  @Test public final void batchEmpty() throws IOException {
+    assertThrows(BaseXException.class, () -> session.execute(false, "XQUERY 1", ""));
+    assertEqual("2", session.execute("XQUERY 2"));
+    final BatchResult[] results = session.execute(false, "XQUERY 3");
+    assertTrue(results[0].ok);
+  }
+
+  /**
+   * Runs a batch of commands in a single transaction.
+   * @throws IOException I/O exception
+   */
+  @Test public final void batchAtomic() throws IOException {
+    BatchResult[] results = session.execute(true, "CREATE DB " + NAME, "XQUERY (",
+        "DROP DB " + NAME);
+    assertTrue(results[0].ok);
+    assertFalse(results[1].ok);
+    assertFalse(results[2].ok);
+    assertEquals(Text.SKIPPED, results[2].info);
+    assertEqual("true", session.execute("XQUERY " + _DB_EXISTS.args(NAME)));
+
+    // no command will be executed if one of the commands cannot be parsed
+    results = session.execute(true, "DROP DB " + NAME, "UNKNOWN");
+    assertFalse(results[0].ok);
+    assertEquals(Text.SKIPPED, results[0].info);
+    assertFalse(results[1].ok);
+    assertEqual("true", session.execute("XQUERY " + _DB_EXISTS.args(NAME)));
+  }
+
   /**
    * Creates new databases.
    * @throws IOException I/O exception
@@ -267,6 +312,70 @@ public abstract class SessionTest extends SandboxTest {
     }
   }
 
+  /**
+   * Runs a query and retrieves the results in batches.
+   * @throws IOException I/O exception */
+  @Test public void queryFetch() throws IOException {
+    for(final int size : new int[] { 1, 2, 3, 10 }) {
+      try(Query query = session.query("1 to 6")) {
+        query.fetchSize(size);
+        int c = 0;
+        while(query.more()) assertEqual(Integer.toString(++c), query.next());
+        assertEquals(6, c);
+        assertFalse(query.info().isEmpty());
+      }
+    }
+  }
+
+  /**
+   * Closes a query whose results have only partially been fetched.
+   * @throws IOException I/O exception */
+  @Test public void queryFetchClose() throws IOException {
+    session.execute("CREATE DB " + NAME);
+    try(Query query = session.query(_DB_EXISTS.args(NAME) + ", 1 to 100")) {
+      query.fetchSize(5);
+      assertTrue(query.more());
+      assertEqual("true", query.next());
+    }
+    // write lock must have been released
+    session.execute("DROP DB " + NAME);
+  }
+
+  /**
+   * Runs commands and queries while the results of a query are fetched.
+   * @throws IOException I/O exception */
+  @Test public void queryFetchCommands() throws IOException {
+    session.execute("CREATE DB " + NAME + " <x/>");
+    try(Query query = session.query(_DB_GET.args(NAME) + "/x, 1 to 10")) {
+      query.fetchSize(2);
+      assertTrue(query.more());
+      assertEqual("<x/>", query.next());
+      assertEqual("3", session.execute("XQUERY 1 + 2"));
+
+      // open second cursor
+      try(Query query2 = session.query("11 to 15")) {
+        query2.fetchSize(2);
+        int c = 10;
+        while(query2.more()) assertEqual(Integer.toString(++c), query2.next());
+        assertEquals(15, c);
+      }
+      int c = 0;
+      while(query.more()) assertEqual(Integer.toString(++c), query.next());
+      assertEquals(10, c);
+    }
+
+    // database is updated before the next results are fetched
+    try(Query query = session.query(_DB_GET.args(NAME) + "/x, 1 to 10")) {
+      query.fetchSize(2);
+      assertTrue(query.more());
+      assertEqual("<x/>", query.next());
+      assertEqual("1", query.next());
+      session.execute("XQUERY insert node <y/> into " + _DB_GET.args(NAME) + "/x");
+      assertThrows(BaseXException.class, query::more);
+    }
+    session.execute("DROP DB " + NAME);
+  }
+
   /**
    * Queries binary content.
    * @throws IOException I/O exception */
@@ -356,6 +465,49 @@ public abstract class SessionTest extends SandboxTest {
     }
   }
 
+  /**
+   * Evaluates a query repeatedly with different bindings.
+   * @throws IOException I/O exception */
+  @Test public void queryRebind() throws IOException {
+    try(Query query = session.query("declare variable $a external; " +
+        "declare variable $b := ($a, $a); string-join($b)")) {
+      for(int i = 1; i <= 5; i++) {
+        query.bind("$a", Integer.toString(i), "xs:integer");
+        assertEqual(i + "" + i, query.execute());
+      }
+      // new type: query will be compiled again
+      query.bind("$a", "X");
+      assertEqual("XX", query.execute());
+      query.bind("$a", "()", "empty-sequence()");
+      assertEqual("", query.execute());
+    }
+  }
+
+  /**
+   * Evaluates a query repeatedly after the accessed database and the options have been changed.
+   * @throws IOException I/O exception */
+  @Test public void queryRebindChanges() throws IOException {
+    session.execute("CREATE DB " + NAME + " <x><a/></x>");
+    try(Query query = session.query("declare variable $n external; " +
+        "declare variable $c := count(" + _DB_GET.args(NAME) + "//a); $c + $n")) {
+      query.bind("$n", "0", "xs:integer");
+      assertEqual("1", query.execute());
+      query.bind("$n", "0", "xs:integer");
+      assertEqual("1", query.execute());
+      session.execute("XQUERY insert node <a/> into " + _DB_GET.args(NAME) + "/x");
+      query.bind("$n", "0", "xs:integer");
+      assertEqual("2", query.execute());
+    }
+    try(Query query = session.query("declare variable $a external := 'A'; $a")) {
+      assertEqual("A", query.execute());
+      assertEqual("A", query.execute());
+      session.execute("SET BINDINGS a=B");
+      assertEqual("B", query.execute());
+      session.execute("SET BINDINGS");
+      assertEqual("A", query.execute());
+    }
+  }
+
   /** Runs a query with an external variable declaration. */
   @Test public void queryBind2() {
     assertThrows(BaseXException.class,
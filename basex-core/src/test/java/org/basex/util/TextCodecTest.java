@@ -0,0 +1,98 @@
+package org.basex.util;
+
+import static org.basex.util.Token.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+import org.basex.*;
+import org.basex.query.*;
+import org.basex.query.iter.*;
+import org.basex.query.value.item.*;
+import org.basex.util.list.*;
+import org.junit.jupiter.api.*;
+
+/**
+ * Class for testing the {@link TextCodec} methods.
+ *
+ * @author BaseX Team 2005-23, BSD License
+ * @author Christian Gruen
+ */
+public final class TextCodecTest extends SandboxTest {
+  /** Test. */
+  @Test public void ascii() {
+    run(token("abcdefghijklmnopqrstuvwxyz"), token("ABCDEFGHIJKLMNOPQRSTUVWXYZ 1234567890"));
+  }
+
+  /** Test. */
+  @Test public void unicode() {
+    run(token("Größenänderung der Straße"), token("データベースのインデックス"),
+        token("東京都 Übersetzung"));
+  }
+
+  /** Test. */
+  @Test public void bytes() {
+    final int bl = 4096;
+    final byte[] bytes = new byte[bl];
+    for(int b = 0; b < bl; b++) bytes[b] = (byte) (b & 0xFF);
+    run(bytes);
+  }
+
+  /** Test.
+   * @throws Exception exception */
+  @Test public void xmark() throws Exception {
+    texts("src/test/resources/xmark.xml");
+  }
+
+  /** Test.
+   * @throws Exception exception */
+  @Test public void factbook() throws Exception {
+    texts("src/test/resources/factbook.zip");
+  }
+
+  /**
+   * Test on all text nodes of a document.
+   * @param file file to be parsed
+   * @throws Exception exception
+   */
+  private static void texts(final String file) throws Exception {
+    final String query = "let $doc := doc('" + file + "')" +
+      "for $i in $doc//(@* | text()) return data($i)";
+
+    final TokenList tl = new TokenList();
+    try(QueryProcessor qp = new QueryProcessor(query, context)) {
+      final Iter iter = qp.iter();
+      for(Item item; (item = iter.next()) != null;) tl.add(item.string(null));
+    }
+    final byte[][] tokens = tl.finish();
+    final TextCodec codec = run(tokens);
+
+    // trained texts are compressed
+    long size = 0, packed = 0;
+    for(final byte[] token : tokens) {
+      size += token.length;
+      packed += codec.pack(token).length;
+    }
+    assertTrue(packed < size * 3 / 4, packed + " >= " + size + " * 3/4");
+  }
+
+  /**
+   * Tests the correctness of the compressed tokens.
+   * @param tokens test tokens
+   * @return codec
+   */
+  private static TextCodec run(final byte[]... tokens) {
+    final TextCodec codec = TextCodec.train(Arrays.asList(tokens));
+    for(final byte[] token : tokens) {
+      final byte[] cpr = codec.pack(token);
+      if(token != cpr) {
+        assertTrue(cpr.length < token.length);
+        final byte[] pln = codec.unpack(cpr);
+        if(!eq(token, pln)) {
+          fail("\n[E] " + Arrays.toString(token) + ",\n[F] " + Arrays.toString(pln));
+        }
+      }
+    }
+    return codec;
+  }
+}
@@ -0,0 +1,55 @@
+package org.basex.util.similarity;
+
+import static org.basex.util.Token.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+
+/**
+ * Tests for the {@link LevenshteinAutomaton} class.
+ *
+ * @author BaseX Team 2005-23, BSD License
+ * @author Christian Gruen
+ */
+public final class LevenshteinAutomatonTest {
+  /** Test method. */
+  @Test public void reject() {
+    final LevenshteinAutomaton la = new LevenshteinAutomaton(token("hello"), 1);
+    assertEquals(-1, la.reject(token("hello")));
+    assertEquals(-1, la.reject(token("hallo")));
+    assertEquals(-1, la.reject(token("helo")));
+    assertEquals(-1, la.reject(token("ehllo")));
+    assertEquals(3, la.reject(token("hxxlo")));
+    assertEquals(2, la.reject(token("xxllo")));
+    // non-ASCII characters are not rejected
+    assertEquals(-1, la.reject(token("häälo")));
+  }
+
+  /** Compares the automaton with the computed distances. */
+  @Test public void similar() {
+    final Random rnd = new Random(1);
+    final Levenshtein ls = new Levenshtein();
+    for(final String query : new String[] { "abcd", "abcdefgh", "baccab", "dcba" }) {
+      final byte[] qu = token(query);
+      for(int k = 0; k <= 3; k++) {
+        final LevenshteinAutomaton la = new LevenshteinAutomaton(qu, k);
+        // check sorted tokens to exercise the reuse of rows
+        final TreeSet<String> tokens = new TreeSet<>();
+        for(int t = 0; t < 10000; t++) {
+          final StringBuilder sb = new StringBuilder();
+          for(int l = rnd.nextInt(10) + 1; l > 0; l--) sb.append((char) ('a' + rnd.nextInt(5)));
+          tokens.add(sb.toString());
+        }
+        for(final String token : tokens) {
+          final byte[] tok = token(token);
+          final int r = la.reject(tok);
+          if(r == -1) continue;
+          assertFalse(ls.similar(tok, qu, k), query + '/' + token + '/' + k);
+          assertTrue(r <= tok.length);
+        }
+      }
+    }
+  }
+}